@@ -0,0 +1,50 @@
+package catan.ai;
+
+/**
+ * Game actions as seen by bots, packed into an {@code int} so move lists and
+ * search trees hold no objects: the kind in the top byte, the target (an
+ * intersection, edge, hex or seat index) in the low 24 bits.
+ */
+public final class Action {
+
+    /** What an action does; the target's meaning depends on the kind. */
+    public enum Kind {
+        SETUP_SETTLEMENT,   // intersection
+        SETUP_ROAD,         // edge
+        ROLL,               // none; the sum is a chance outcome
+        MOVE_ROBBER,        // hex
+        STEAL,              // victim seat; the stolen card is a chance outcome
+        BUILD_ROAD,         // edge
+        BUILD_SETTLEMENT,   // intersection
+        BUILD_CITY,         // intersection
+        END_TURN            // none
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final int TARGET_MASK = 0xFFFFFF;
+
+    public static final int ROLL = of(Kind.ROLL, 0);
+    public static final int END_TURN = of(Kind.END_TURN, 0);
+
+    private Action() {
+    }
+
+    public static int of(Kind kind, int target) {
+        if (target < 0 || target > TARGET_MASK) throw new IllegalArgumentException("Target out of range: " + target);
+        return kind.ordinal() << 24 | target;
+    }
+
+    public static Kind kind(int action) {
+        return KINDS[action >>> 24];
+    }
+
+    public static int target(int action) {
+        return action & TARGET_MASK;
+    }
+
+    public static String toString(int action) {
+        Kind kind = kind(action);
+        if (kind == Kind.ROLL || kind == Kind.END_TURN) return kind.toString();
+        return kind + " #" + target(action);
+    }
+}
@@ -0,0 +1,253 @@
+package catan.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import catan.resources.Resource;
+import catan.utils.GameRandom;
+
+/**
+ * Monte-Carlo Tree Search player.
+ *
+ * All threads search one shared tree (tree parallelism): each iteration forks
+ * the game, walks down by UCT, adds one node and plays a fast random rollout
+ * to the end of the game or a turn limit. Statistics are lock-free (see
+ * {@link Node}) and a virtual loss on every node in flight steers the other
+ * threads to different lines. Dice rolls and steals are chance nodes with one
+ * child per outcome; each iteration reseeds its fork so steals vary.
+ *
+ * Rewards are 1 for the winner and 0 for the others; a rollout cut off by the
+ * turn limit gives every seat its share of the points on the table.
+ */
+public final class MctsBot implements Policy, AutoCloseable {
+    private static final double EXPLORATION = 0.7;
+    private static final int DEFAULT_ROLLOUT_TURNS = 80;
+
+    private final int threads;
+    private final long timeBudgetNanos;
+    private final int rolloutBudget;
+    private final ExecutorService pool;
+    private final GameRandom seeds;
+    private volatile int rolloutTurnLimit = DEFAULT_ROLLOUT_TURNS;
+
+    /**
+     * @param threads Search threads, e.g. {@code Runtime.getRuntime().availableProcessors()}.
+     * @param timeBudgetMillis Time per decision, or 0 for no time limit.
+     * @param rolloutBudget Rollouts per decision, or 0 for no rollout limit.
+     */
+    public MctsBot(int threads, long timeBudgetMillis, int rolloutBudget) {
+        this(threads, timeBudgetMillis, rolloutBudget, new GameRandom().nextLong());
+    }
+
+    /** As above with a fixed seed; with one thread and a rollout budget the choices are reproducible. */
+    public MctsBot(int threads, long timeBudgetMillis, int rolloutBudget, long seed) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one search thread");
+        if (timeBudgetMillis < 0 || rolloutBudget < 0) throw new IllegalArgumentException("Budgets cannot be negative");
+        if (timeBudgetMillis == 0 && rolloutBudget == 0) throw new IllegalArgumentException("Need a time or rollout budget");
+        this.threads = threads;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.rolloutBudget = rolloutBudget;
+        this.seeds = new GameRandom(seed);
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "mcts-search");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Turns a rollout may play before it is scored by points; default 80. */
+    public void setRolloutTurnLimit(int turns) {
+        if (turns < 1) throw new IllegalArgumentException("Turn limit must be positive");
+        this.rolloutTurnLimit = turns;
+    }
+
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /** Searches the state and returns the chosen action; the state is not changed. */
+    @Override
+    public int chooseAction(PlayState state) {
+        return search(state).getAction();
+    }
+
+    /**
+     * Searches the decision at {@code state} within the budget. A state with a
+     * single legal action returns it without searching.
+     */
+    public SearchResult search(PlayState state) {
+        if (state.isOver()) throw new IllegalStateException("The game is over.");
+        if (state.isChance()) throw new IllegalArgumentException("The next event is a dice roll, not a decision.");
+
+        long start = System.nanoTime();
+        int[] scratch = new int[state.getMaxActionCount()];
+        Node root = Node.forState(state, -1, scratch);
+        if (root.actions.length == 1) return new SearchResult(root.actions[0], 0, System.nanoTime() - start, 0, 0);
+
+        long deadline = timeBudgetNanos == 0 ? Long.MAX_VALUE : start + timeBudgetNanos;
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            // Each worker forks its own copy, so the caller's game is only read here
+            Worker worker = new Worker(state.fork(), root, nextSeed(), deadline, started, completed);
+            workers.add(worker);
+        }
+        try {
+            for (Future<Void> done : pool.invokeAll(workers)) done.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Search failed", ex.getCause());
+        }
+
+        int best = 0;
+        for (int i = 1; i < root.actions.length; i++) {
+            if (visits(root, i) > visits(root, best)) best = i;
+        }
+        Node chosen = root.children.get(best);
+        return new SearchResult(root.actions[best], completed.get(), System.nanoTime() - start,
+                chosen == null ? 0 : chosen.getVisits(), chosen == null ? 0 : chosen.getMeanReward());
+    }
+
+    private static int visits(Node node, int i) {
+        Node child = node.children.get(i);
+        return child == null ? 0 : child.getVisits();
+    }
+
+    private synchronized long nextSeed() {
+        return seeds.nextLong();
+    }
+
+    /** Stops the search threads. */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private final class Worker implements Callable<Void> {
+        private final PlayState root;
+        private final Node rootNode;
+        private final GameRandom random;
+        private final long deadline;
+        private final AtomicInteger started;
+        private final AtomicInteger completed;
+        private final int[] scratch;
+        private final double[] rewards;
+        private final RandomPolicy policy;
+        private Node[] path = new Node[64];
+
+        Worker(PlayState root, Node rootNode, long seed, long deadline, AtomicInteger started, AtomicInteger completed) {
+            this.root = root;
+            this.rootNode = rootNode;
+            this.random = new GameRandom(seed);
+            this.policy = new RandomPolicy(random);
+            this.deadline = deadline;
+            this.started = started;
+            this.completed = completed;
+            this.scratch = new int[root.getMaxActionCount()];
+            this.rewards = new double[root.getSeatCount()];
+        }
+
+        @Override
+        public Void call() {
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                if (rolloutBudget > 0 && started.getAndIncrement() >= rolloutBudget) break;
+                iterate();
+                completed.incrementAndGet();
+            }
+            return null;
+        }
+
+        private void iterate() {
+            PlayState state = root.fork();
+            state.getGame().reseedRandom(random.nextLong());
+
+            Node node = rootNode;
+            node.addVirtualLoss();
+            path[0] = node;
+            int depth = 1;
+            boolean expanded = false;
+            while (!expanded && node.kind != Node.TERMINAL) {
+                int index;
+                int mover;
+                if (node.kind == Node.ROLL) {
+                    index = rollDice();
+                    state.roll(index);
+                    mover = node.mover;
+                } else {
+                    index = node.select(EXPLORATION, random);
+                    int action = node.actions[index];
+                    mover = node.seat;
+                    Resource stolen = state.apply(action);
+                    if (Action.kind(action) == Action.Kind.STEAL) {
+                        Node steal = node.children.get(index);
+                        if (steal == null) steal = node.publish(index, Node.forSteal(mover));
+                        steal.addVirtualLoss();
+                        depth = push(steal, depth);
+                        node = steal;
+                        index = stolen == null ? 0 : stolen.ordinal() + 1;
+                    }
+                }
+                Node child = node.children.get(index);
+                if (child == null) {
+                    Node created = Node.forState(state, mover, scratch);
+                    child = node.publish(index, created);
+                    expanded = child == created;
+                }
+                child.addVirtualLoss();
+                depth = push(child, depth);
+                node = child;
+            }
+
+            rollout(state);
+            for (int i = 0; i < depth; i++) {
+                path[i].update(rewards);
+                path[i] = null;
+            }
+        }
+
+        private int push(Node node, int depth) {
+            if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+            path[depth] = node;
+            return depth + 1;
+        }
+
+        /** Plays on with {@link RandomPolicy} and fills {@link #rewards}. */
+        private void rollout(PlayState state) {
+            int turns = 0;
+            while (!state.isOver() && turns < rolloutTurnLimit) {
+                if (state.isChance()) {
+                    state.roll(rollDice());
+                    continue;
+                }
+                int action = policy.chooseAction(state);
+                if (action == Action.END_TURN) turns++;
+                state.apply(action);
+            }
+
+            int winner = state.getWinnerSeat();
+            if (winner >= 0) {
+                for (int seat = 0; seat < rewards.length; seat++) rewards[seat] = seat == winner ? 1 : 0;
+                return;
+            }
+            int total = 0;
+            for (int seat = 0; seat < rewards.length; seat++) total += state.getVictoryPoints(seat);
+            for (int seat = 0; seat < rewards.length; seat++) {
+                rewards[seat] = total == 0 ? 1.0 / rewards.length : state.getVictoryPoints(seat) / (double) total;
+            }
+        }
+
+        private int rollDice() {
+            return 2 + random.nextInt(6) + random.nextInt(6);
+        }
+    }
+}
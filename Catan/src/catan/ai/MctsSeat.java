@@ -0,0 +1,90 @@
+package catan.ai;
+
+import java.util.Map;
+import java.util.Scanner;
+
+import catan.main.ConsoleBot;
+import catan.main.ConsoleGameController;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+import catan.utils.BalancedDice;
+import catan.utils.GameRandom;
+
+/**
+ * Lets an {@link MctsBot} play a seat of a {@link ConsoleGameController},
+ * printing each decision. Discards use {@link PlayState#chooseDiscard}. One
+ * bot can serve several seats.
+ */
+public final class MctsSeat implements ConsoleBot {
+    private final MctsBot bot;
+
+    public MctsSeat(MctsBot bot) {
+        if (bot == null) throw new IllegalArgumentException("Bot cannot be null");
+        this.bot = bot;
+    }
+
+    @Override
+    public Map<Resource, Integer> chooseDiscard(Player player, int count) {
+        return PlayState.chooseDiscard(player, count);
+    }
+
+    @Override
+    public void playTurn(Game game, boolean movesRobber) {
+        Player current = game.getCurrentPlayer();
+        PlayState state;
+        if (game.isSetupPhase()) {
+            state = new PlayState(game);
+        } else {
+            state = new PlayState(game, movesRobber ? PlayState.Step.MOVE_ROBBER : PlayState.Step.BUILD);
+        }
+
+        // The bot keeps choosing until the turn passes (a setup road can hand it straight back in the snake draft)
+        while (!state.isOver() && !state.isChance() && game.getCurrentPlayer() == current) {
+            SearchResult decision = bot.search(state);
+            System.out.println(current.getName() + ": " + decision);
+            Resource stolen = state.apply(decision.getAction());
+            if (stolen != null) System.out.println(current.getName() + " stole 1 " + stolen + ".");
+        }
+    }
+
+    /**
+     * Plays a console game whose last seats are bots, sharing one searcher
+     * that uses every core for 2 seconds a decision.
+     * Usage: java catan.ai.MctsSeat [2-6] [bot seats] [seed] [deck]
+     */
+    public static void main(String[] args) {
+        int numberOfPlayers = 4;
+        int botSeats = 3;
+        GameRandom seeds = new GameRandom();
+        try {
+            if (args.length > 0) numberOfPlayers = Integer.parseInt(args[0]);
+            if (args.length > 1) botSeats = Integer.parseInt(args[1]);
+            if (args.length > 2) seeds = new GameRandom(Long.parseLong(args[2]));
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid arguments: " + String.join(" ", args));
+            System.out.println("Usage: java catan.ai.MctsSeat [2-6] [bot seats] [seed] [deck]");
+            return;
+        }
+
+        // With a seed the dice, steals and bot choices repeat from run to run
+        Game game = new Game(seeds.nextLong());
+        if (args.length > 3 && args[3].equals("deck")) game.useBalancedDice(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 0);
+        try {
+            game.initializeGame(numberOfPlayers);
+            if (botSeats < 0 || botSeats > numberOfPlayers) throw new IllegalArgumentException("Bot seats must be between 0 and " + numberOfPlayers);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        Scanner scanner = new Scanner(System.in);
+        try (MctsBot bot = new MctsBot(Runtime.getRuntime().availableProcessors(), 2000, 0, seeds.nextLong())) {
+            ConsoleGameController controller = new ConsoleGameController(game, scanner);
+            MctsSeat seat = new MctsSeat(bot);
+            for (int s = numberOfPlayers - botSeats; s < numberOfPlayers; s++) controller.setBot(s, seat);
+            controller.run();
+        }
+        scanner.close();
+    }
+}
@@ -0,0 +1,112 @@
+package catan.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import catan.resources.Resource;
+import catan.utils.GameRandom;
+
+/**
+ * Search tree node shared by all search threads. Statistics are updated with
+ * atomic adds and children are published with compare-and-set, so the tree
+ * needs no locks. Rewards are stored as fixed-point sums for the seat whose
+ * choice (or chance outcome) led here.
+ */
+final class Node {
+    static final int DECISION = 0;    // a seat picks one of the actions
+    static final int ROLL = 1;        // chance: children indexed by dice sum
+    static final int STEAL = 2;       // chance: children indexed by stolen resource ordinal + 1 (0 = nothing)
+    static final int TERMINAL = 3;
+
+    static final long REWARD_SCALE = 1L << 20;
+
+    private static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+    private static final AtomicIntegerFieldUpdater<Node> VIRTUAL_LOSS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "virtualLoss");
+    private static final AtomicLongFieldUpdater<Node> REWARD = AtomicLongFieldUpdater.newUpdater(Node.class, "rewardSum");
+
+    final int kind;
+    final int mover;      // seat credited with this node's rewards, -1 at the root
+    final int seat;       // seat to act at a decision node
+    final int[] actions;  // legal actions at a decision node
+    final AtomicReferenceArray<Node> children;
+
+    private volatile int visits;
+    private volatile int virtualLoss;   // searches currently passing through, counted as losses
+    private volatile long rewardSum;
+
+    private Node(int kind, int mover, int seat, int[] actions, int childCount) {
+        this.kind = kind;
+        this.mover = mover;
+        this.seat = seat;
+        this.actions = actions;
+        this.children = new AtomicReferenceArray<>(childCount);
+    }
+
+    /** Node for the state reached after {@code mover}'s choice; {@code scratch} receives the legal actions. */
+    static Node forState(PlayState state, int mover, int[] scratch) {
+        if (state.isOver()) return new Node(TERMINAL, mover, -1, null, 0);
+        if (state.isChance()) return new Node(ROLL, mover, -1, null, 13);
+        int n = state.getLegalActions(scratch);
+        return new Node(DECISION, mover, state.getSeatToAct(), Arrays.copyOf(scratch, n), n);
+    }
+
+    /** Chance node between a steal and the card it yields. */
+    static Node forSteal(int mover) {
+        return new Node(STEAL, mover, -1, null, Resource.values().length + 1);
+    }
+
+    /** Returns the child in {@code index}, publishing {@code created} there if it is still empty. */
+    Node publish(int index, Node created) {
+        if (children.compareAndSet(index, null, created)) return created;
+        return children.get(index);
+    }
+
+    /**
+     * UCT choice among the actions of a decision node. Untried actions come
+     * first, starting at a random index so concurrent searches spread out;
+     * virtual losses make a child other threads are exploring look worse.
+     */
+    int select(double exploration, GameRandom random) {
+        int n = actions.length;
+        int start = n == 1 ? 0 : random.nextInt(n);
+        double logParent = Math.log(Math.max(1, visits + virtualLoss));
+        int best = start;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < n; k++) {
+            int i = start + k < n ? start + k : start + k - n;
+            Node child = children.get(i);
+            if (child == null) return i;
+            int tries = child.visits + child.virtualLoss;
+            if (tries == 0) return i;
+            double score = child.rewardSum / (double) REWARD_SCALE / tries + exploration * Math.sqrt(logParent / tries);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    void addVirtualLoss() {
+        VIRTUAL_LOSS.incrementAndGet(this);
+    }
+
+    /** Completes one search through this node: drops its virtual loss and adds the reward. */
+    void update(double[] rewards) {
+        if (mover >= 0) REWARD.addAndGet(this, Math.round(rewards[mover] * REWARD_SCALE));
+        VISITS.incrementAndGet(this);
+        VIRTUAL_LOSS.decrementAndGet(this);
+    }
+
+    int getVisits() {
+        return visits;
+    }
+
+    /** Mean reward of the mover, 0 before the first visit. */
+    double getMeanReward() {
+        int n = visits;
+        return n == 0 ? 0 : rewardSum / (double) REWARD_SCALE / n;
+    }
+}
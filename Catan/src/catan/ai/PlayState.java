@@ -0,0 +1,250 @@
+package catan.ai;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import catan.board.Board;
+import catan.main.Game;
+import catan.players.Inventory;
+import catan.players.Player;
+import catan.resources.Resource;
+import catan.utils.IdSet;
+
+/**
+ * A {@link Game} plus the step of the current turn, which the game itself
+ * leaves to its controller (has the player rolled, is the robber pending).
+ * Lists the legal {@link Action}s of the step and applies them through the
+ * game's public action API.
+ *
+ * Discards on a 7 are not a choice here: every player over the limit drops
+ * cards from their largest piles (see {@link #chooseDiscard}). Seats are the
+ * players' board slots, i.e. their index in {@link Game#getPlayers()}.
+ */
+public final class PlayState {
+
+    /** Turn steps; SETUP covers the whole snake draft. */
+    public enum Step { SETUP, ROLL, MOVE_ROBBER, STEAL, BUILD }
+
+    private static final Resource[] RESOURCES = Resource.values();
+
+    private final Game game;
+    private final Board board;
+    private Step step;
+
+    /** Wraps a game at the start of a turn (or anywhere in setup). */
+    public PlayState(Game game) {
+        this(game, game.isSetupPhase() ? Step.SETUP : Step.ROLL);
+    }
+
+    public PlayState(Game game, Step step) {
+        if (game == null || game.getBoard() == null) throw new IllegalArgumentException("Game must be initialized");
+        if (step == null) throw new IllegalArgumentException("Step cannot be null");
+        if ((step == Step.SETUP) != game.isSetupPhase()) throw new IllegalArgumentException("Step " + step + " does not match phase " + game.getPhase());
+        this.game = game;
+        this.board = game.getBoard();
+        this.step = step;
+    }
+
+    /** Independent copy on a quiet fork of the game. */
+    public PlayState fork() {
+        Game copy = game.fork();
+        copy.setQuiet(true);
+        return new PlayState(copy, step);
+    }
+
+    public Game getGame() { return game; }
+    public Step getStep() { return step; }
+    public boolean isOver() { return game.checkVictory(); }
+    public int getSeatCount() { return board.getPlayerSlotCount(); }
+
+    /** Seat of the player who acts next (the roller at a ROLL step). */
+    public int getSeatToAct() {
+        return board.getPlayerSlot(game.getCurrentPlayer());
+    }
+
+    /** True when the next event is a dice roll, not a player's choice. */
+    public boolean isChance() {
+        return step == Step.ROLL;
+    }
+
+    /** Upper bound on the number of legal actions in any state of this board. */
+    public int getMaxActionCount() {
+        return 2 * board.getIntersectionCount() + board.getEdgeCount() + board.getHexCount() + 1;
+    }
+
+    /**
+     * Writes the legal actions of the current step to {@code out} and returns
+     * their count. Builds are listed only when affordable; END_TURN is always
+     * legal in the BUILD step. Nothing is legal once the game is over.
+     */
+    public int getLegalActions(int[] out) {
+        if (isOver()) return 0;
+        Player player = game.getCurrentPlayer();
+        int n = 0;
+        switch (step) {
+            case SETUP:
+                if (game.getSetupStep() == Game.SetupStep.PLACE_SETTLEMENT) {
+                    n = addAll(out, n, Action.Kind.SETUP_SETTLEMENT, game.getLegalSettlements(player, true));
+                } else {
+                    n = addAll(out, n, Action.Kind.SETUP_ROAD, game.getLegalRoads(player, true));
+                }
+                break;
+            case ROLL:
+                out[n++] = Action.ROLL;
+                break;
+            case MOVE_ROBBER:
+                for (int hex = 0; hex < board.getHexCount(); hex++) {
+                    if (hex != board.getRobberHexId()) out[n++] = Action.of(Action.Kind.MOVE_ROBBER, hex);
+                }
+                break;
+            case STEAL:
+                int robbable = getRobbableSeats(getSeatToAct());
+                for (int seat = 0; robbable != 0; seat++, robbable >>>= 1) {
+                    if ((robbable & 1) != 0) out[n++] = Action.of(Action.Kind.STEAL, seat);
+                }
+                break;
+            case BUILD:
+                Inventory hand = player.getInventory();
+                if (hand.hasEnoughResources(Game.CITY_COST)) n = addAll(out, n, Action.Kind.BUILD_CITY, game.getLegalCities(player));
+                if (hand.hasEnoughResources(Game.SETTLEMENT_COST)) n = addAll(out, n, Action.Kind.BUILD_SETTLEMENT, game.getLegalSettlements(player, false));
+                if (hand.hasEnoughResources(Game.ROAD_COST)) n = addAll(out, n, Action.Kind.BUILD_ROAD, game.getLegalRoads(player, false));
+                out[n++] = Action.END_TURN;
+                break;
+        }
+        return n;
+    }
+
+    private static int addAll(int[] out, int n, Action.Kind kind, IdSet ids) {
+        for (int id = ids.first(); id >= 0; id = ids.next(id)) out[n++] = Action.of(kind, id);
+        return n;
+    }
+
+    /**
+     * Resolves a dice roll: pays out, or on a 7 makes every player over the
+     * limit discard and moves on to the robber.
+     */
+    public void roll(int sum) {
+        if (step != Step.ROLL) throw new IllegalStateException("Cannot roll in step " + step);
+        if (sum < 2 || sum > 12) throw new IllegalArgumentException("Roll must be between 2 and 12");
+        if (sum == 7) {
+            for (Player player : game.getPlayers()) {
+                if (game.mustDiscardOnSeven(player)) {
+                    game.discardResourcesToBank(player, chooseDiscard(player, game.getDiscardCountOnSeven(player)));
+                }
+            }
+            step = Step.MOVE_ROBBER;
+        } else {
+            game.applyRollPayouts(sum);
+            step = Step.BUILD;
+        }
+    }
+
+    /**
+     * Applies a decision (not ROLL; see {@link #roll(int)}).
+     * @return The stolen card for a STEAL (null if the victim had none), otherwise null.
+     */
+    public Resource apply(int action) {
+        Player player = game.getCurrentPlayer();
+        int target = Action.target(action);
+        Action.Kind kind = Action.kind(action);
+        if (!allowedIn(kind, step)) throw new IllegalStateException(kind + " is not allowed in step " + step);
+
+        switch (kind) {
+            case SETUP_SETTLEMENT:
+                game.placeSetupSettlement(player, target);
+                return null;
+            case SETUP_ROAD:
+                game.placeSetupRoad(player, target);
+                if (!game.isSetupPhase()) step = Step.ROLL;
+                return null;
+            case MOVE_ROBBER:
+                game.moveRobberToHex(target);
+                step = getRobbableSeats(getSeatToAct()) != 0 ? Step.STEAL : Step.BUILD;
+                return null;
+            case STEAL:
+                if (target >= getSeatCount() || (getRobbableSeats(getSeatToAct()) & (1 << target)) == 0) {
+                    throw new IllegalArgumentException("Seat " + target + " cannot be robbed");
+                }
+                Resource stolen = game.stealRandomResource(player, board.getPlayerInSlot(target));
+                step = Step.BUILD;
+                return stolen;
+            case BUILD_ROAD:
+                game.buildRoad(player, target);
+                return null;
+            case BUILD_SETTLEMENT:
+                game.buildSettlement(player, target);
+                return null;
+            case BUILD_CITY:
+                game.buildCity(player, target);
+                return null;
+            case END_TURN:
+                game.endTurn();
+                step = Step.ROLL;
+                return null;
+            default:
+                throw new IllegalArgumentException("Rolls are applied with roll(int)");
+        }
+    }
+
+    private static boolean allowedIn(Action.Kind kind, Step step) {
+        switch (kind) {
+            case SETUP_SETTLEMENT:
+            case SETUP_ROAD:
+                return step == Step.SETUP;
+            case MOVE_ROBBER:
+                return step == Step.MOVE_ROBBER;
+            case STEAL:
+                return step == Step.STEAL;
+            default:
+                return step == Step.BUILD;
+        }
+    }
+
+    /** Bitmask of seats with a building on the robber's hex and at least one card, excluding {@code thief}. */
+    private int getRobbableSeats(int thief) {
+        int robberHex = board.getRobberHexId();
+        if (robberHex < 0) return 0;
+        int seats = 0;
+        for (int k = 0; k < board.getCornerCount(robberHex); k++) {
+            int slot = board.getBuildingOwnerSlot(board.getCornerId(robberHex, k));
+            if (slot >= 0 && slot != thief && board.getPlayerInSlot(slot).getInventory().hasAnyResources()) seats |= 1 << slot;
+        }
+        return seats;
+    }
+
+    /** Roads the seat has on the board. */
+    public int getRoadCount(int seat) {
+        return board.getRoadEdges(seat).size();
+    }
+
+    /** Victory points per seat. */
+    public int getVictoryPoints(int seat) {
+        return board.getPlayerInSlot(seat).getVictoryPoints();
+    }
+
+    /** Seat of the winner, or -1 while the game is running. */
+    public int getWinnerSeat() {
+        Player winner = game.getWinningPlayer();
+        return winner == null ? -1 : board.getPlayerSlot(winner);
+    }
+
+    /** Default discard on a 7: one card at a time from the largest pile. */
+    public static Map<Resource, Integer> chooseDiscard(Player player, int count) {
+        Inventory hand = player.getInventory();
+        int[] left = new int[RESOURCES.length];
+        for (Resource r : RESOURCES) {
+            if (r != Resource.DESERT) left[r.ordinal()] = hand.getResourceCount(r);
+        }
+        Map<Resource, Integer> discard = new EnumMap<>(Resource.class);
+        for (int i = 0; i < count; i++) {
+            int largest = 0;
+            for (int r = 1; r < left.length; r++) {
+                if (left[r] > left[largest]) largest = r;
+            }
+            if (left[largest] == 0) break;
+            left[largest]--;
+            discard.merge(RESOURCES[largest], 1, Integer::sum);
+        }
+        return discard;
+    }
+}
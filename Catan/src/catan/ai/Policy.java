@@ -0,0 +1,11 @@
+package catan.ai;
+
+/**
+ * Chooses what a seat does. Called only at decision points of a
+ * {@link PlayState} (never for dice rolls); must not change the state.
+ */
+public interface Policy {
+
+    /** Returns one of the state's legal actions. */
+    int chooseAction(PlayState state);
+}
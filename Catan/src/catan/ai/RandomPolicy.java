@@ -0,0 +1,57 @@
+package catan.ai;
+
+import catan.utils.GameRandom;
+
+/**
+ * Fast greedy-random play, used for MCTS rollouts and as a self-play
+ * baseline: build a city or settlement whenever one is affordable, a road one
+ * time in three (up to the 15 roads of a standard supply), otherwise end the
+ * turn. Setup placements, robber moves and steals are picked uniformly. Not
+ * thread-safe; use one per thread.
+ */
+public final class RandomPolicy implements Policy {
+    private static final int ROAD_SUPPLY = 15;
+
+    private final GameRandom random;
+    private int[] actions = new int[0];
+
+    public RandomPolicy(long seed) {
+        this(new GameRandom(seed));
+    }
+
+    public RandomPolicy(GameRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int chooseAction(PlayState state) {
+        if (actions.length < state.getMaxActionCount()) actions = new int[state.getMaxActionCount()];
+        int count = state.getLegalActions(actions);
+        if (count == 0) throw new IllegalStateException("No legal action: the game is over.");
+
+        int buildings = 0;
+        int roads = 0;
+        boolean canEnd = false;
+        for (int i = 0; i < count; i++) {
+            switch (Action.kind(actions[i])) {
+                case BUILD_CITY:
+                case BUILD_SETTLEMENT:
+                    buildings++;
+                    break;
+                case BUILD_ROAD:
+                    roads++;
+                    break;
+                case END_TURN:
+                    canEnd = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        // Legal actions are listed cities, settlements, roads, END_TURN
+        if (buildings > 0) return actions[random.nextInt(buildings)];
+        if (roads > 0 && random.nextInt(3) == 0 && state.getRoadCount(state.getSeatToAct()) < ROAD_SUPPLY) return actions[buildings + random.nextInt(roads)];
+        if (canEnd) return Action.END_TURN;
+        return actions[random.nextInt(count)];
+    }
+}
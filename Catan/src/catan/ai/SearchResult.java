@@ -0,0 +1,45 @@
+package catan.ai;
+
+/**
+ * Outcome of one {@link MctsBot} decision: the chosen action and how much
+ * search went into it.
+ */
+public final class SearchResult {
+    private final int action;
+    private final int rollouts;
+    private final long elapsedNanos;
+    private final int visits;
+    private final double value;
+
+    SearchResult(int action, int rollouts, long elapsedNanos, int visits, double value) {
+        this.action = action;
+        this.rollouts = rollouts;
+        this.elapsedNanos = elapsedNanos;
+        this.visits = visits;
+        this.value = value;
+    }
+
+    /** The chosen {@link Action}. */
+    public int getAction() { return action; }
+
+    /** Rollouts completed by all threads together. */
+    public int getRollouts() { return rollouts; }
+
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Visits of the chosen action. */
+    public int getVisits() { return visits; }
+
+    /** Mean rollout reward of the chosen action for the deciding seat, in [0, 1]. */
+    public double getValue() { return value; }
+
+    public double getRolloutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rollouts * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d rollouts, %.0f rollouts/s, value %.2f)",
+                Action.toString(action), rollouts, getRolloutsPerSecond(), value);
+    }
+}
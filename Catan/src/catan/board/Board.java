@@ -3,352 +3,964 @@ package catan.board;
 import catan.components.City;
 import catan.components.Road;
 import catan.components.Settlement;
+import catan.players.Player;
 import catan.resources.Resource;
 import catan.resources.Robber;
+import catan.utils.Bits;
+import catan.utils.IdSet;
+import catan.utils.StateHash;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents the game board, including hexes, intersections, edges, and the robber.
  *
- * This board generator creates a classic 19-hex Catan topology (3-4-5-4-3 layout)
- * resulting in:
- * - 19 hexes
- * - 54 intersections
- * - 72 edges
+ * The geometry lives in a shared, immutable {@link BoardTopology} (by default the
+ * classic 19-hex 3-4-5-4-3 layout with 54 intersections and 72 edges). A board
+ * only holds per-game state: tile assignment, number tokens, robber and occupancy.
+ *
+ * Every hex, intersection and edge carries a dense integer id (its index in
+ * {@link #getHexes()}, {@link #getIntersections()} and {@link #getEdges()}).
+ * Occupancy lives in id-indexed arrays, so the int-based queries are plain
+ * array reads. The object-based getters are views over the same data.
+ *
+ * Occupancy is mirrored in bitboards ({@code long[]} words, see {@link Bits}):
+ * one mask per player slot for settlements, cities and roads, plus the masks the
+ * placement rules need, all maintained incrementally on every placement:
+ * - blocked: occupied intersections and their neighbors (distance rule)
+ * - network: intersections where a player has a building or a touching road
+ * - frontier: edges with at least one endpoint in the player's network
+ * From these the board also maintains the legal move sets themselves (open
+ * setup sites, and per slot the legal settlement sites and road edges), touching
+ * only the bits around each placed piece, and hands them out as live
+ * {@link IdSet} views.
+ * Player slots are assigned in registration order (Game registers seats in order).
+ *
+ * Production is indexed by dice value: for every slot the board keeps how many
+ * cards of each resource a roll pays, updated on settlement/city placement and
+ * robber moves (and rebuilt if a hex's tile or token changes), so resolving a
+ * roll reads a handful of counters instead of walking hexes and corners.
+ *
+ * All mutable state is kept in a few flat primitive arrays (tiles, owner slots,
+ * one block of board-wide masks, one block of per-slot masks, one production
+ * table), so {@link #fork(Player[], StateHash)} copies a board with a handful of
+ * array clones. {@link Hex}, {@link Robber} and piece objects are views built
+ * on first use; per-slot {@link IdSet} views stay valid until another player
+ * is registered.
  */
 public class Board {
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final int RESOURCE_KINDS = RESOURCES.length;
+    private static final int PRODUCTION_STRIDE = 13 * RESOURCE_KINDS;
+
+    // Per-slot views, VIEW_KINDS per slot
+    private static final int SETTLEMENT_VIEW = 0;
+    private static final int LEGAL_SETTLEMENT_VIEW = 1;
+    private static final int LEGAL_ROAD_VIEW = 2;
+    private static final int ROAD_VIEW = 3;
+    private static final int VIEW_KINDS = 4;
+
+    private final BoardTopology topology;
+
+    // Tiles, indexed by hex id: resource ordinal (-1 for none) and number token.
+    // Forks share the arrays until one side changes a tile (copy on write).
+    private byte[] tileResources;
+    private byte[] tileTokens;
+    private boolean tilesShared;
+    private int robberHexId = -1;
+
+    // Object views of the tiles and robber, built on first use
     private List<Hex> hexes;
-    private List<Intersection> intersections;
-    private List<Edge> edges;
     private Robber robber;
+    private List<List<Hex>> hexesTouchingView;
+
+    // Occupancy, indexed by intersection / edge id
+    private Settlement[] settlementAt = new Settlement[0];
+    private City[] cityAt = new City[0];
+    private Road[] roadAt = new Road[0];
+    private int[] buildingOwnerSlot = new int[0];   // -1 when empty
+    private int[] buildingLevel = new int[0];       // 0 empty, 1 settlement, 2 city (= cards produced)
+    private int[] roadOwnerSlot = new int[0];       // -1 when empty
+
+    // Bitboards: intersection masks have intersectionWords words, edge masks edgeWords words.
+    // Board-wide masks share one array, laid out occupied | blocked | open sites | roads.
+    private final int intersectionWords;
+    private final int edgeWords;
+    private final int blockedOffset;
+    private final int openSiteOffset;     // ~blocked, limited to real intersections
+    private final int roadOffset;
+    private final long[] boardMasks;
+    private final IdSet openSites;
+
+    // Per-slot masks share one array, slotWords words per slot laid out
+    // settlements | cities | network | legal settlements | roads | frontier | legal roads
+    // (legal settlements = network & ~blocked, legal roads = frontier & ~road)
+    private final int slotWords;
+    private final int slotCityOffset;
+    private final int slotNetworkOffset;
+    private final int slotLegalSettlementOffset;
+    private final int slotRoadOffset;
+    private final int slotFrontierOffset;
+    private final int slotLegalRoadOffset;
+    private long[] slotMasks = new long[0];
+    private IdSet[] slotViews = new IdSet[0];
+    private Player[] slotPlayers = new Player[0];
+
+    // Optional state hash kept current by every mutating call (see attachHash)
+    private StateHash hash;
+    private long tileHash;
+
+    // Production table: production[slot * PRODUCTION_STRIDE + roll * RESOURCE_KINDS + resource.ordinal()] = cards paid
+    private int[] production = new int[0];
 
-    // Track robber location explicitly (so game logic doesn't depend on Robber's API)
-    private Hex robberHex;
-
-    // Occupancy tracking (recommended for validation + resource distribution later)
-    private final Map<Intersection, Settlement> settlementByIntersection = new HashMap<>();
-    private final Map<Intersection, City> cityByIntersection = new HashMap<>();
-    private final Map<String, Road> roadByEdgeKey = new HashMap<>();
-
-    // Helpful adjacency indexes
-    private final Map<Intersection, List<Edge>> edgesTouchingIntersection = new HashMap<>();
-    private final Map<Intersection, List<Intersection>> adjacentIntersections = new HashMap<>();
-
-    // Hex -> 6 corner intersections, used for resource payout
-    private final Map<Hex, List<Intersection>> hexCorners = new HashMap<>();
+    /**
+     * Constructs a new game board on the shared classic topology.
+     */
+    public Board() {
+        this(BoardTopology.standard());
+    }
 
-    // Intersection -> list of touching hexes (for setup starting resources)
-    private final Map<Intersection, List<Hex>> hexesTouchingIntersection = new HashMap<>();
+    /**
+     * Constructs a new game board on the given topology.
+     * @param topology The shared board geometry.
+     */
+    public Board(BoardTopology topology) {
+        if (topology == null) throw new IllegalArgumentException("Topology cannot be null");
+        this.topology = topology;
+        this.intersectionWords = Bits.words(topology.getIntersectionCount());
+        this.edgeWords = Bits.words(topology.getEdgeCount());
+        this.blockedOffset = intersectionWords;
+        this.openSiteOffset = 2 * intersectionWords;
+        this.roadOffset = 3 * intersectionWords;
+        this.boardMasks = new long[3 * intersectionWords + edgeWords];
+        this.openSites = new IdSet(boardMasks, openSiteOffset, topology.getIntersectionCount());
+        this.slotCityOffset = intersectionWords;
+        this.slotNetworkOffset = 2 * intersectionWords;
+        this.slotLegalSettlementOffset = 3 * intersectionWords;
+        this.slotRoadOffset = 4 * intersectionWords;
+        this.slotFrontierOffset = 4 * intersectionWords + edgeWords;
+        this.slotLegalRoadOffset = 4 * intersectionWords + 2 * edgeWords;
+        this.slotWords = 4 * intersectionWords + 3 * edgeWords;
+    }
 
-    // Quantization to keep shared corners identical.
-    private static final double EPS = 1e-6;
+    /** Copies the mutable state of {@code source}; see {@link #fork(Player[], StateHash)}. */
+    private Board(Board source, Player[] players, StateHash hash) {
+        this.topology = source.topology;
+        this.intersectionWords = source.intersectionWords;
+        this.edgeWords = source.edgeWords;
+        this.blockedOffset = source.blockedOffset;
+        this.openSiteOffset = source.openSiteOffset;
+        this.roadOffset = source.roadOffset;
+        this.boardMasks = source.boardMasks.clone();
+        this.openSites = new IdSet(boardMasks, openSiteOffset, topology.getIntersectionCount());
+        this.slotCityOffset = source.slotCityOffset;
+        this.slotNetworkOffset = source.slotNetworkOffset;
+        this.slotLegalSettlementOffset = source.slotLegalSettlementOffset;
+        this.slotRoadOffset = source.slotRoadOffset;
+        this.slotFrontierOffset = source.slotFrontierOffset;
+        this.slotLegalRoadOffset = source.slotLegalRoadOffset;
+        this.slotWords = source.slotWords;
+
+        this.tileResources = source.tileResources;
+        this.tileTokens = source.tileTokens;
+        this.tilesShared = true;
+        source.tilesShared = true;
+        this.robberHexId = source.robberHexId;
+
+        this.settlementAt = source.settlementAt.clone();
+        this.cityAt = source.cityAt.clone();
+        this.roadAt = source.roadAt.clone();
+        this.buildingOwnerSlot = source.buildingOwnerSlot.clone();
+        this.buildingLevel = source.buildingLevel.clone();
+        this.roadOwnerSlot = source.roadOwnerSlot.clone();
+
+        this.slotMasks = source.slotMasks.clone();
+        this.slotViews = new IdSet[source.slotViews.length];
+        this.slotPlayers = players;
+        this.production = source.production.clone();
+        this.hash = hash;
+        this.tileHash = source.tileHash;
+    }
 
     /**
-     * Constructs a new game board.
+     * Returns an independent copy of this board for a forked game. The topology
+     * is shared and the tiles are shared until either board changes one; all
+     * other state is copied.
+     *
+     * {@code players[slot]} takes over the pieces of each slot; the array is
+     * used as is, so the caller may fill it after this call (a forked player
+     * needs its forked board). Piece objects are re-created for the new owners
+     * on first access. The fork reports to {@code hash}, which must already
+     * hold this board's state (e.g. a copy of the game's hash).
      */
-    public Board() {
-        hexes = new ArrayList<>();
-        intersections = new ArrayList<>();
-        edges = new ArrayList<>();
+    public Board fork(Player[] players, StateHash hash) {
+        if (players == null || players.length != slotPlayers.length) {
+            throw new IllegalArgumentException("Expected one player per slot (" + slotPlayers.length + ")");
+        }
+        return new Board(this, players, hash);
     }
 
     /**
-     * Initializes the game board with hexes, intersections, edges, and the robber.
+     * Initializes the per-game state: hexes, robber and empty occupancy.
+     * Tiles and number tokens follow the fixed layout for this topology.
      */
     public void initializeBoard() {
-        hexes.clear();
-        intersections.clear();
-        edges.clear();
-        hexCorners.clear();
-        hexesTouchingIntersection.clear();
-        robber = null;
-        robberHex = null;
+        initializeBoard(BoardLayout.fixed(topology));
+    }
 
-        settlementByIntersection.clear();
-        cityByIntersection.clear();
-        roadByEdgeKey.clear();
-        edgesTouchingIntersection.clear();
-        adjacentIntersections.clear();
+    /**
+     * Initializes the per-game state with the tiles and number tokens of the
+     * given layout (e.g. one produced by {@link LayoutGenerator}).
+     */
+    public void initializeBoard(BoardLayout layout) {
+        if (layout == null) throw new IllegalArgumentException("Layout cannot be null.");
+        if (layout.getHexCount() != topology.getHexCount()) {
+            throw new IllegalArgumentException("Layout has " + layout.getHexCount() + " hexes, board has " + topology.getHexCount());
+        }
+        if (hash != null) hash.toggle(computeHash());
+        hexes = null;
+        hexesTouchingView = null;
+        robber = null;
 
-        initializeHexes();
-        initializeIntersectionsAndEdgesFromHexLayout();
-        indexAdjacency();
-        initializeRobber();
+        tileResources = layout.copyResources();
+        tileTokens = layout.copyTokens();
+        tilesShared = false;
+        robberHexId = -1;
+        for (int h = 0; h < tileResources.length; h++) {
+            if (tileResources[h] == Resource.DESERT.ordinal()) {
+                robberHexId = h;
+                break;
+            }
+        }
+        tileHash = computeTileHash();
+
+        settlementAt = new Settlement[topology.getIntersectionCount()];
+        cityAt = new City[topology.getIntersectionCount()];
+        roadAt = new Road[topology.getEdgeCount()];
+        buildingOwnerSlot = new int[topology.getIntersectionCount()];
+        buildingLevel = new int[topology.getIntersectionCount()];
+        roadOwnerSlot = new int[topology.getEdgeCount()];
+        Arrays.fill(buildingOwnerSlot, -1);
+        Arrays.fill(roadOwnerSlot, -1);
+
+        // Masks are cleared in place so the IdSet views handed out stay valid
+        Arrays.fill(boardMasks, 0L);
+        Arrays.fill(boardMasks, openSiteOffset, openSiteOffset + intersectionWords, -1L);
+        boardMasks[openSiteOffset + intersectionWords - 1] = Bits.lastWordMask(topology.getIntersectionCount());
+        Arrays.fill(slotMasks, 0L);
+        Arrays.fill(production, 0);
+        if (hash != null) hash.toggle(computeHash());
     }
 
+    // ---------- State hash ----------
+
     /**
-     * Initializes the hexes on the board.
-     * (Resource/number assignment can be randomized later.)
+     * Keeps the hash current on every placement, robber move and tile change.
+     * The current board state is hashed in on attach.
      */
-    private void initializeHexes() {
-        // Add 19 hexes, including one desert tile
-        hexes.add(new Hex(Resource.DESERT, 0));
-        hexes.add(new Hex(Resource.WOOD, 8));
-        hexes.add(new Hex(Resource.WOOD, 4));
-        hexes.add(new Hex(Resource.WOOD, 11));
-        hexes.add(new Hex(Resource.WOOD, 3));
-        hexes.add(new Hex(Resource.BRICK, 6));
-        hexes.add(new Hex(Resource.BRICK, 5));
-        hexes.add(new Hex(Resource.BRICK, 9));
-        hexes.add(new Hex(Resource.SHEEP, 2));
-        hexes.add(new Hex(Resource.SHEEP, 10));
-        hexes.add(new Hex(Resource.SHEEP, 12));
-        hexes.add(new Hex(Resource.SHEEP, 9));
-        hexes.add(new Hex(Resource.WHEAT, 8));
-        hexes.add(new Hex(Resource.WHEAT, 10));
-        hexes.add(new Hex(Resource.WHEAT, 11));
-        hexes.add(new Hex(Resource.ORE, 3));
-        hexes.add(new Hex(Resource.ORE, 4));
-        hexes.add(new Hex(Resource.ORE, 5));
-        hexes.add(new Hex(Resource.WHEAT, 6));
+    public void attachHash(StateHash hash) {
+        this.hash = hash;
+        if (hash != null) hash.toggle(computeHash());
+    }
+
+    /** Hash of tiles, robber and pieces, computed from scratch. */
+    public long computeHash() {
+        long h = computeTileHash() ^ StateHash.key(StateHash.ROBBER, 0, robberHexId);
+        for (int slot = 0; slot < slotPlayers.length; slot++) {
+            h ^= maskHash(StateHash.SETTLEMENT, slot, slotBase(slot), intersectionWords);
+            h ^= maskHash(StateHash.CITY, slot, slotBase(slot) + slotCityOffset, intersectionWords);
+            h ^= maskHash(StateHash.ROAD, slot, slotBase(slot) + slotRoadOffset, edgeWords);
+        }
+        return h;
+    }
+
+    private long maskHash(int feature, int slot, int offset, int words) {
+        long h = 0L;
+        for (int i = Bits.nextSetBit(slotMasks, offset, offset + words, 0); i >= 0; i = Bits.nextSetBit(slotMasks, offset, offset + words, i + 1)) {
+            h ^= StateHash.key(feature, slot, i);
+        }
+        return h;
+    }
+
+    private long computeTileHash() {
+        long h = 0L;
+        for (int i = 0; i < getHexCount(); i++) {
+            h ^= StateHash.key(StateHash.TILE, i, tileResources[i] * 16 + tileTokens[i]);
+        }
+        return h;
     }
 
+    // ---------- Player slots ----------
+
     /**
-     * Generates intersections and edges from a standard 3-4-5-4-3 hex layout.
+     * Registers a player and returns its slot (index into the per-player masks).
+     * Registering an already known player returns its existing slot.
      */
-    private void initializeIntersectionsAndEdgesFromHexLayout() {
-        Map<String, Intersection> cornerToIntersection = new HashMap<>();
-        Set<String> edgeKeys = new HashSet<>();
+    public int registerPlayer(Player player) {
+        if (player == null) throw new IllegalArgumentException("Player cannot be null.");
+        int slot = getPlayerSlot(player);
+        if (slot >= 0) return slot;
+
+        // The per-slot arrays grow, so views over the old mask array are dropped
+        slot = slotPlayers.length;
+        slotPlayers = Arrays.copyOf(slotPlayers, slot + 1);
+        slotMasks = Arrays.copyOf(slotMasks, (slot + 1) * slotWords);
+        slotViews = new IdSet[(slot + 1) * VIEW_KINDS];
+        production = Arrays.copyOf(production, (slot + 1) * PRODUCTION_STRIDE);
+        slotPlayers[slot] = player;
+        return slot;
+    }
 
-        List<int[]> axialHexes = getStandardAxialHexCoordinates();
-        if (axialHexes.size() != hexes.size()) {
-            throw new IllegalStateException("Hex coordinate count mismatch: " + axialHexes.size() + " vs " + hexes.size());
+    /** Returns the slot of the given player, or -1 if the player has not been registered. */
+    public int getPlayerSlot(Player player) {
+        for (int slot = 0; slot < slotPlayers.length; slot++) {
+            if (slotPlayers[slot] == player) return slot;
         }
+        return -1;
+    }
 
-        for (int i = 0; i < axialHexes.size(); i++) {
-            int q = axialHexes.get(i)[0];
-            int r = axialHexes.get(i)[1];
-            Hex hex = hexes.get(i);
-
-            double[] center = axialToPixel(q, r);
-            List<Intersection> corners = new ArrayList<>(6);
-
-            for (int c = 0; c < 6; c++) {
-                double angleRad = Math.toRadians(60.0 * c - 30.0);
-                double px = center[0] + Math.cos(angleRad);
-                double py = center[1] + Math.sin(angleRad);
-
-                String key = quantizedKey(px, py);
-                Intersection corner = cornerToIntersection.get(key);
-                if (corner == null) {
-                    int ix = quantizeToInt(px);
-                    int iy = quantizeToInt(py);
-                    corner = new Intersection(ix, iy);
-                    cornerToIntersection.put(key, corner);
-                }
-                corners.add(corner);
-            }
+    public int getPlayerSlotCount() {
+        return slotPlayers.length;
+    }
 
-            hexCorners.put(hex, corners);
+    public Player getPlayerInSlot(int slot) {
+        return slotPlayers[slot];
+    }
 
-            // index intersection -> touching hexes
-            for (Intersection corner : corners) {
-                hexesTouchingIntersection.computeIfAbsent(corner, k -> new ArrayList<>()).add(hex);
-            }
+    private int slotBase(int slot) {
+        return slot * slotWords;
+    }
 
-            // Add 6 perimeter edges around the hex, globally deduped
-            for (int c = 0; c < 6; c++) {
-                Intersection a = corners.get(c);
-                Intersection b = corners.get((c + 1) % 6);
-                String eKey = edgeKey(a, b);
-                if (edgeKeys.add(eKey)) {
-                    edges.add(new Edge(a, b));
-                }
-            }
-        }
+    // ---------- Tiles and robber ----------
 
-        intersections.addAll(cornerToIntersection.values());
+    /** Moves the robber to the given hex of this board. */
+    public void moveRobberTo(Hex hex) {
+        if (hex == null) throw new IllegalArgumentException("Hex cannot be null");
+        int id = getHexId(hex);
+        if (id < 0) throw new IllegalArgumentException("Hex is not on this board.");
+        moveRobberTo(id);
+    }
 
-        // Classic Catan sanity checks
-        if (hexes.size() != 19) throw new IllegalStateException("Expected 19 hexes, got " + hexes.size());
-        if (intersections.size() != 54) throw new IllegalStateException("Expected 54 intersections, got " + intersections.size());
-        if (edges.size() != 72) throw new IllegalStateException("Expected 72 edges, got " + edges.size());
+    /** Moves the robber to the hex with the given id. */
+    public void moveRobberTo(int hexId) {
+        if (hexId < 0 || hexId >= getHexCount()) throw new IllegalArgumentException("Hex id out of range.");
+        int from = robberHexId;
+        adjustHexProduction(from, +1);
+        robberHexId = hexId;
+        robber = null;
+        adjustHexProduction(hexId, -1);
+        if (hash != null) hash.change(StateHash.ROBBER, 0, from, hexId);
     }
 
-    private void indexAdjacency() {
-        for (Intersection i : intersections) {
-            edgesTouchingIntersection.put(i, new ArrayList<>());
-            adjacentIntersections.put(i, new ArrayList<>());
-        }
+    /** Returns the hex the robber is currently on, or null if there is none. */
+    public Hex getRobberHex() {
+        return robberHexId < 0 ? null : getHexes().get(robberHexId);
+    }
+
+    /** Returns the id of the hex the robber is on, or -1 if there is none. */
+    public int getRobberHexId() {
+        return robberHexId;
+    }
 
-        for (Edge e : edges) {
-            Intersection a = e.getStart();
-            Intersection b = e.getEnd();
+    /** Returns the resource of the hex with the given id (null if it has none). */
+    public Resource getHexResource(int hexId) {
+        int ordinal = tileResources[hexId];
+        return ordinal < 0 ? null : RESOURCES[ordinal];
+    }
 
-            edgesTouchingIntersection.get(a).add(e);
-            edgesTouchingIntersection.get(b).add(e);
+    public int getHexNumberToken(int hexId) {
+        return tileTokens[hexId];
+    }
 
-            adjacentIntersections.get(a).add(b);
-            adjacentIntersections.get(b).add(a);
-        }
+    // ---------- Id lookups ----------
+
+    /** Returns the shared topology this board is built on. */
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    public int getHexCount() {
+        return tileResources == null ? 0 : tileResources.length;
     }
 
-    private List<int[]> getStandardAxialHexCoordinates() {
-        List<int[]> coords = new ArrayList<>(19);
+    public int getIntersectionCount() {
+        return topology.getIntersectionCount();
+    }
 
-        coords.add(new int[]{0, -2});
-        coords.add(new int[]{1, -2});
-        coords.add(new int[]{2, -2});
+    public int getEdgeCount() {
+        return topology.getEdgeCount();
+    }
 
-        coords.add(new int[]{-1, -1});
-        coords.add(new int[]{0, -1});
-        coords.add(new int[]{1, -1});
-        coords.add(new int[]{2, -1});
+    /** Returns the id of the given hex on this board, or -1 if it is not part of the board. */
+    public int getHexId(Hex hex) {
+        if (hex == null || hexes == null) return -1;
+        int id = hex.getId();
+        if (id >= 0 && id < hexes.size() && hexes.get(id) == hex) return id;
+        return hexes.indexOf(hex);
+    }
 
-        coords.add(new int[]{-2, 0});
-        coords.add(new int[]{-1, 0});
-        coords.add(new int[]{0, 0});
-        coords.add(new int[]{1, 0});
-        coords.add(new int[]{2, 0});
+    /** Returns the id of the given intersection (matched by coordinates), or -1 if it is not on this board. */
+    public int getIntersectionId(Intersection intersection) {
+        return topology.getIntersectionId(intersection);
+    }
 
-        coords.add(new int[]{-2, 1});
-        coords.add(new int[]{-1, 1});
-        coords.add(new int[]{0, 1});
-        coords.add(new int[]{1, 1});
+    /** Returns the id of the board edge joining the same two intersections, or -1 if there is none. */
+    public int getEdgeId(Edge edge) {
+        return topology.getEdgeId(edge);
+    }
 
-        coords.add(new int[]{-2, 2});
-        coords.add(new int[]{-1, 2});
-        coords.add(new int[]{0, 2});
+    // ---------- Int adjacency (CSR, see BoardTopology) ----------
 
-        return coords;
+    public int getEdgeStartId(int edgeId) {
+        return topology.getEdgeStartId(edgeId);
     }
 
-    private double[] axialToPixel(int q, int r) {
-        double x = Math.sqrt(3.0) * (q + r / 2.0);
-        double y = 1.5 * r;
-        return new double[]{x, y};
+    public int getEdgeEndId(int edgeId) {
+        return topology.getEdgeEndId(edgeId);
     }
 
-    private String quantizedKey(double x, double y) {
-        long qx = Math.round(x / EPS);
-        long qy = Math.round(y / EPS);
-        return qx + "," + qy;
+    public int getAdjacentIntersectionCount(int intersectionId) {
+        return topology.getAdjacentIntersectionCount(intersectionId);
     }
 
-    private int quantizeToInt(double v) {
-        return (int) Math.round(v / EPS);
+    public int getAdjacentIntersectionId(int intersectionId, int k) {
+        return topology.getAdjacentIntersectionId(intersectionId, k);
     }
 
-    private String edgeKey(Intersection a, Intersection b) {
-        if (compare(a, b) <= 0) return a.getX() + ":" + a.getY() + "|" + b.getX() + ":" + b.getY();
-        return b.getX() + ":" + b.getY() + "|" + a.getX() + ":" + a.getY();
+    public int getTouchingEdgeCount(int intersectionId) {
+        return topology.getTouchingEdgeCount(intersectionId);
     }
 
-    private int compare(Intersection a, Intersection b) {
-        if (a.getX() != b.getX()) return Integer.compare(a.getX(), b.getX());
-        return Integer.compare(a.getY(), b.getY());
+    public int getTouchingEdgeId(int intersectionId, int k) {
+        return topology.getTouchingEdgeId(intersectionId, k);
     }
 
-    private void initializeRobber() {
-        for (Hex hex : hexes) {
-            if (hex.getResource() == Resource.DESERT) {
-                robber = new Robber(hex);
-                robberHex = hex;
-                break;
-            }
-        }
+    public int getCornerCount(int hexId) {
+        return topology.getCornerCount(hexId);
     }
 
-    /** Moves the robber to the given hex (rebuilds robber instance to avoid relying on Robber API). */
-    public void moveRobberTo(Hex hex) {
-        if (hex == null) throw new IllegalArgumentException("Hex cannot be null");
-        robber = new Robber(hex);
-        robberHex = hex;
+    public int getCornerId(int hexId, int k) {
+        return topology.getCornerId(hexId, k);
     }
 
-    /** Returns the hex the robber is currently on (tracked by Board). */
-    public Hex getRobberHex() {
-        return robberHex;
+    public int getTouchingHexCount(int intersectionId) {
+        return topology.getTouchingHexCount(intersectionId);
+    }
+
+    public int getTouchingHexId(int intersectionId, int k) {
+        return topology.getTouchingHexId(intersectionId, k);
     }
 
     // ---------- Occupancy / placement helpers ----------
 
+    public boolean isIntersectionOccupied(int intersectionId) {
+        return Bits.get(boardMasks, intersectionId);
+    }
+
+    // A forked board starts with its source's piece objects; each is replaced by
+    // one owned by the slot's current player the first time it is read.
+
+    public Settlement getSettlementAt(int intersectionId) {
+        Settlement settlement = settlementAt[intersectionId];
+        if (settlement != null && settlement.getOwner() != slotPlayers[buildingOwnerSlot[intersectionId]]) {
+            settlement = new Settlement(slotPlayers[buildingOwnerSlot[intersectionId]], settlement.getLocation());
+            settlementAt[intersectionId] = settlement;
+        }
+        return settlement;
+    }
+
+    public City getCityAt(int intersectionId) {
+        City city = cityAt[intersectionId];
+        if (city != null && city.getOwner() != slotPlayers[buildingOwnerSlot[intersectionId]]) {
+            city = new City(slotPlayers[buildingOwnerSlot[intersectionId]], city.getLocation());
+            cityAt[intersectionId] = city;
+        }
+        return city;
+    }
+
+    public boolean isEdgeOccupied(int edgeId) {
+        return Bits.get(boardMasks, roadOffset, edgeId);
+    }
+
+    public Road getRoadAt(int edgeId) {
+        Road road = roadAt[edgeId];
+        if (road != null && road.getOwner() != slotPlayers[roadOwnerSlot[edgeId]]) {
+            road = new Road(slotPlayers[roadOwnerSlot[edgeId]], road.getEdge());
+            roadAt[edgeId] = road;
+        }
+        return road;
+    }
+
+    /** Returns the slot owning the settlement or city on the intersection, or -1 if it is empty. */
+    public int getBuildingOwnerSlot(int intersectionId) {
+        return buildingOwnerSlot[intersectionId];
+    }
+
+    /** Returns 0 for an empty intersection, 1 for a settlement and 2 for a city. */
+    public int getBuildingLevel(int intersectionId) {
+        return buildingLevel[intersectionId];
+    }
+
+    /** Returns the slot owning the road on the edge, or -1 if it is empty. */
+    public int getRoadOwnerSlot(int edgeId) {
+        return roadOwnerSlot[edgeId];
+    }
+
     public boolean isIntersectionOccupied(Intersection intersection) {
-        return settlementByIntersection.containsKey(intersection) || cityByIntersection.containsKey(intersection);
+        int id = getIntersectionId(intersection);
+        return id >= 0 && isIntersectionOccupied(id);
     }
 
     public Settlement getSettlementAt(Intersection intersection) {
-        return settlementByIntersection.get(intersection);
+        int id = getIntersectionId(intersection);
+        return id < 0 ? null : getSettlementAt(id);
     }
 
     public City getCityAt(Intersection intersection) {
-        return cityByIntersection.get(intersection);
+        int id = getIntersectionId(intersection);
+        return id < 0 ? null : getCityAt(id);
     }
 
     public void placeSettlement(Settlement settlement) {
         if (settlement == null) throw new IllegalArgumentException("Settlement cannot be null.");
-        Intersection loc = settlement.getLocation();
-        if (isIntersectionOccupied(loc)) throw new IllegalArgumentException("Intersection already occupied.");
-        settlementByIntersection.put(loc, settlement);
+        int id = requireIntersectionId(settlement.getLocation());
+        if (isIntersectionOccupied(id)) throw new IllegalArgumentException("Intersection already occupied.");
+        settlementAt[id] = settlement;
+
+        int slot = registerPlayer(settlement.getOwner());
+        buildingOwnerSlot[id] = slot;
+        buildingLevel[id] = 1;
+        adjustIntersectionProduction(slot, id, +1);
+        Bits.set(boardMasks, id);
+        Bits.set(slotMasks, slotBase(slot), id);
+        if (hash != null) hash.toggle(StateHash.key(StateHash.SETTLEMENT, slot, id));
+        block(id);
+        for (int k = 0; k < topology.getAdjacentIntersectionCount(id); k++) {
+            block(topology.getAdjacentIntersectionId(id, k));
+        }
+        addToNetwork(slot, id);
+    }
+
+    /** Marks a site as taken by the distance rule and drops it from every legal settlement set. */
+    private void block(int intersectionId) {
+        Bits.set(boardMasks, blockedOffset, intersectionId);
+        Bits.clear(boardMasks, openSiteOffset, intersectionId);
+        for (int slot = 0; slot < slotPlayers.length; slot++) {
+            Bits.clear(slotMasks, slotBase(slot) + slotLegalSettlementOffset, intersectionId);
+        }
     }
 
     public void upgradeSettlementToCity(City city) {
         if (city == null) throw new IllegalArgumentException("City cannot be null.");
 
-        Intersection loc = city.getLocation();
-        Settlement existing = settlementByIntersection.get(loc);
+        int id = requireIntersectionId(city.getLocation());
+        Settlement existing = getSettlementAt(id);
         if (existing == null) throw new IllegalArgumentException("No settlement exists at this intersection.");
         if (existing.getOwner() != city.getOwner()) {
             throw new IllegalArgumentException("Cannot upgrade another player's settlement.");
         }
-        if (cityByIntersection.containsKey(loc)) {
+        if (cityAt[id] != null) {
             throw new IllegalArgumentException("Intersection already has a city.");
         }
 
-        settlementByIntersection.remove(loc);
-        cityByIntersection.put(loc, city);
+        settlementAt[id] = null;
+        cityAt[id] = city;
+
+        int slot = registerPlayer(city.getOwner());
+        buildingLevel[id] = 2;
+        adjustIntersectionProduction(slot, id, +1);
+        Bits.clear(slotMasks, slotBase(slot), id);
+        Bits.set(slotMasks, slotBase(slot) + slotCityOffset, id);
+        if (hash != null) hash.toggle(StateHash.key(StateHash.SETTLEMENT, slot, id) ^ StateHash.key(StateHash.CITY, slot, id));
     }
 
     public boolean isEdgeOccupied(Edge edge) {
-        return roadByEdgeKey.containsKey(edgeKey(edge.getStart(), edge.getEnd()));
+        int id = getEdgeId(edge);
+        return id >= 0 && roadAt[id] != null;
     }
 
     public Road getRoadAt(Edge edge) {
-        return roadByEdgeKey.get(edgeKey(edge.getStart(), edge.getEnd()));
+        int id = getEdgeId(edge);
+        return id < 0 ? null : getRoadAt(id);
     }
 
     public void placeRoad(Road road) {
         if (road == null) throw new IllegalArgumentException("Road cannot be null.");
-        Edge e = road.getEdge();
-        String key = edgeKey(e.getStart(), e.getEnd());
-        if (roadByEdgeKey.containsKey(key)) throw new IllegalArgumentException("Edge already has a road.");
-        roadByEdgeKey.put(key, road);
+        int id = getEdgeId(road.getEdge());
+        if (id < 0) throw new IllegalArgumentException("Edge is not on this board.");
+        if (roadAt[id] != null) throw new IllegalArgumentException("Edge already has a road.");
+        roadAt[id] = road;
+
+        int slot = registerPlayer(road.getOwner());
+        roadOwnerSlot[id] = slot;
+        Bits.set(boardMasks, roadOffset, id);
+        Bits.set(slotMasks, slotBase(slot) + slotRoadOffset, id);
+        if (hash != null) hash.toggle(StateHash.key(StateHash.ROAD, slot, id));
+        for (int s = 0; s < slotPlayers.length; s++) Bits.clear(slotMasks, slotBase(s) + slotLegalRoadOffset, id);
+        addToNetwork(slot, topology.getEdgeStartId(id));
+        addToNetwork(slot, topology.getEdgeEndId(id));
+    }
+
+    private void addToNetwork(int slot, int intersectionId) {
+        int base = slotBase(slot);
+        if (Bits.get(slotMasks, base + slotNetworkOffset, intersectionId)) return;
+        Bits.set(slotMasks, base + slotNetworkOffset, intersectionId);
+        if (!Bits.get(boardMasks, blockedOffset, intersectionId)) Bits.set(slotMasks, base + slotLegalSettlementOffset, intersectionId);
+        for (int k = 0; k < topology.getTouchingEdgeCount(intersectionId); k++) {
+            int edgeId = topology.getTouchingEdgeId(intersectionId, k);
+            Bits.set(slotMasks, base + slotFrontierOffset, edgeId);
+            if (!Bits.get(boardMasks, roadOffset, edgeId)) Bits.set(slotMasks, base + slotLegalRoadOffset, edgeId);
+        }
+    }
+
+    // ---------- Removal (undo) ----------
+    // The reverse of the placements above. Derived masks are recomputed only
+    // around the removed piece, and nothing is allocated.
+
+    /** Removes the settlement on the intersection and returns it. */
+    public Settlement removeSettlement(int intersectionId) {
+        Settlement settlement = getSettlementAt(intersectionId);
+        if (settlement == null) throw new IllegalArgumentException("No settlement exists at this intersection.");
+        int slot = buildingOwnerSlot[intersectionId];
+        adjustIntersectionProduction(slot, intersectionId, -1);
+        settlementAt[intersectionId] = null;
+        buildingOwnerSlot[intersectionId] = -1;
+        buildingLevel[intersectionId] = 0;
+        Bits.clear(boardMasks, intersectionId);
+        Bits.clear(slotMasks, slotBase(slot), intersectionId);
+        if (hash != null) hash.toggle(StateHash.key(StateHash.SETTLEMENT, slot, intersectionId));
+
+        refreshSite(intersectionId);
+        for (int k = 0; k < topology.getAdjacentIntersectionCount(intersectionId); k++) {
+            refreshSite(topology.getAdjacentIntersectionId(intersectionId, k));
+        }
+        refreshNetwork(slot, intersectionId);
+        return settlement;
+    }
+
+    /**
+     * Turns the city on the settlement's intersection back into that settlement
+     * and returns the city.
+     */
+    public City downgradeCityToSettlement(Settlement settlement) {
+        if (settlement == null) throw new IllegalArgumentException("Settlement cannot be null.");
+        int id = requireIntersectionId(settlement.getLocation());
+        City city = getCityAt(id);
+        if (city == null) throw new IllegalArgumentException("No city exists at this intersection.");
+        int slot = buildingOwnerSlot[id];
+        if (slotPlayers[slot] != settlement.getOwner()) throw new IllegalArgumentException("Settlement owner does not own the city.");
+
+        adjustIntersectionProduction(slot, id, -1);
+        cityAt[id] = null;
+        settlementAt[id] = settlement;
+        buildingLevel[id] = 1;
+        Bits.clear(slotMasks, slotBase(slot) + slotCityOffset, id);
+        Bits.set(slotMasks, slotBase(slot), id);
+        if (hash != null) hash.toggle(StateHash.key(StateHash.SETTLEMENT, slot, id) ^ StateHash.key(StateHash.CITY, slot, id));
+        return city;
+    }
+
+    /** Removes the road on the edge and returns it. */
+    public Road removeRoad(int edgeId) {
+        Road road = getRoadAt(edgeId);
+        if (road == null) throw new IllegalArgumentException("No road exists on this edge.");
+        int slot = roadOwnerSlot[edgeId];
+        roadAt[edgeId] = null;
+        roadOwnerSlot[edgeId] = -1;
+        Bits.clear(boardMasks, roadOffset, edgeId);
+        Bits.clear(slotMasks, slotBase(slot) + slotRoadOffset, edgeId);
+        if (hash != null) hash.toggle(StateHash.key(StateHash.ROAD, slot, edgeId));
+        for (int s = 0; s < slotPlayers.length; s++) {
+            if (Bits.get(slotMasks, slotBase(s) + slotFrontierOffset, edgeId)) Bits.set(slotMasks, slotBase(s) + slotLegalRoadOffset, edgeId);
+        }
+        refreshNetwork(slot, topology.getEdgeStartId(edgeId));
+        refreshNetwork(slot, topology.getEdgeEndId(edgeId));
+        return road;
+    }
+
+    /** Recomputes the distance rule for one site and its legal settlement bit for every slot. */
+    private void refreshSite(int intersectionId) {
+        boolean blocked = isIntersectionOccupied(intersectionId);
+        for (int k = 0; k < topology.getAdjacentIntersectionCount(intersectionId) && !blocked; k++) {
+            blocked = isIntersectionOccupied(topology.getAdjacentIntersectionId(intersectionId, k));
+        }
+        if (blocked) return;
+        Bits.clear(boardMasks, blockedOffset, intersectionId);
+        Bits.set(boardMasks, openSiteOffset, intersectionId);
+        for (int slot = 0; slot < slotPlayers.length; slot++) {
+            int base = slotBase(slot);
+            if (Bits.get(slotMasks, base + slotNetworkOffset, intersectionId)) Bits.set(slotMasks, base + slotLegalSettlementOffset, intersectionId);
+        }
+    }
+
+    /** Drops the intersection from the slot's network if no building or road of the slot holds it there. */
+    private void refreshNetwork(int slot, int intersectionId) {
+        int base = slotBase(slot);
+        if (!Bits.get(slotMasks, base + slotNetworkOffset, intersectionId)) return;
+        if (buildingOwnerSlot[intersectionId] == slot) return;
+        for (int k = 0; k < topology.getTouchingEdgeCount(intersectionId); k++) {
+            if (roadOwnerSlot[topology.getTouchingEdgeId(intersectionId, k)] == slot) return;
+        }
+        Bits.clear(slotMasks, base + slotNetworkOffset, intersectionId);
+        Bits.clear(slotMasks, base + slotLegalSettlementOffset, intersectionId);
+        for (int k = 0; k < topology.getTouchingEdgeCount(intersectionId); k++) {
+            int edgeId = topology.getTouchingEdgeId(intersectionId, k);
+            if (Bits.get(slotMasks, base + slotNetworkOffset, topology.getAdjacentIntersectionId(intersectionId, k))) continue;
+            Bits.clear(slotMasks, base + slotFrontierOffset, edgeId);
+            Bits.clear(slotMasks, base + slotLegalRoadOffset, edgeId);
+        }
+    }
+
+    // ---------- Production table ----------
+
+    /**
+     * Returns how many cards of {@code resource} the slot collects when {@code roll}
+     * is rolled, with the robber already taken into account.
+     */
+    public int getProduction(int slot, int roll, Resource resource) {
+        return production[slot * PRODUCTION_STRIDE + roll * RESOURCE_KINDS + resource.ordinal()];
+    }
+
+    /** Called by a hex on this board when its resource or number token changes. */
+    void onHexChanged(Hex hex) {
+        int id = hex.getId();
+        if (hexes == null || id < 0 || id >= hexes.size() || hexes.get(id) != hex) return;
+        if (tilesShared) {
+            tileResources = tileResources.clone();
+            tileTokens = tileTokens.clone();
+            tilesShared = false;
+        }
+        tileResources[id] = (byte) (hex.getResource() == null ? -1 : hex.getResource().ordinal());
+        tileTokens[id] = (byte) hex.getNumberToken();
+        rebuildProduction();
+        long newTileHash = computeTileHash();
+        if (hash != null) hash.toggle(tileHash ^ newTileHash);
+        tileHash = newTileHash;
+    }
+
+    private void rebuildProduction() {
+        Arrays.fill(production, 0);
+        for (int i = 0; i < buildingLevel.length; i++) {
+            if (buildingLevel[i] > 0) adjustIntersectionProduction(buildingOwnerSlot[i], i, buildingLevel[i]);
+        }
+    }
+
+    /** Adds {@code cards} per producing, unrobbed hex around the intersection to the slot's table. */
+    private void adjustIntersectionProduction(int slot, int intersectionId, int cards) {
+        int base = slot * PRODUCTION_STRIDE;
+        for (int k = 0; k < topology.getTouchingHexCount(intersectionId); k++) {
+            int hexId = topology.getTouchingHexId(intersectionId, k);
+            if (hexId == robberHexId || !producesResources(hexId)) continue;
+            production[base + tileTokens[hexId] * RESOURCE_KINDS + tileResources[hexId]] += cards;
+        }
+    }
+
+    /** Adds (sign +1) or removes (sign -1) everything the buildings around the hex collect from it. */
+    private void adjustHexProduction(int hexId, int sign) {
+        if (hexId < 0 || !producesResources(hexId)) return;
+        int index = tileTokens[hexId] * RESOURCE_KINDS + tileResources[hexId];
+        for (int k = 0; k < topology.getCornerCount(hexId); k++) {
+            int corner = topology.getCornerId(hexId, k);
+            if (buildingLevel[corner] > 0) production[buildingOwnerSlot[corner] * PRODUCTION_STRIDE + index] += buildingLevel[corner] * sign;
+        }
+    }
+
+    private boolean producesResources(int hexId) {
+        int res = tileResources[hexId];
+        int token = tileTokens[hexId];
+        return res >= 0 && res != Resource.DESERT.ordinal() && token >= 2 && token <= 12;
+    }
+
+    // ---------- Bitboard queries ----------
+
+    public int getIntersectionWordCount() {
+        return intersectionWords;
+    }
+
+    public int getEdgeWordCount() {
+        return edgeWords;
+    }
+
+    /** True if the intersection is occupied or next to an occupied one (distance rule). */
+    public boolean isSettlementSiteBlocked(int intersectionId) {
+        return Bits.get(boardMasks, blockedOffset, intersectionId);
+    }
+
+    /** True if the slot has a building on, or a road touching, the intersection. */
+    public boolean isInNetwork(int slot, int intersectionId) {
+        return Bits.get(slotMasks, slotBase(slot) + slotNetworkOffset, intersectionId);
+    }
+
+    /** True if the edge touches the slot's network at either end. */
+    public boolean touchesNetwork(int slot, int edgeId) {
+        return Bits.get(slotMasks, slotBase(slot) + slotFrontierOffset, edgeId);
+    }
+
+    /** Copies the slot's settlement mask (intersections) into {@code out}. */
+    public void copySettlementMask(int slot, long[] out) {
+        System.arraycopy(slotMasks, slotBase(slot), out, 0, intersectionWords);
+    }
+
+    /** Copies the slot's city mask (intersections) into {@code out}. */
+    public void copyCityMask(int slot, long[] out) {
+        System.arraycopy(slotMasks, slotBase(slot) + slotCityOffset, out, 0, intersectionWords);
+    }
+
+    /** Copies the slot's road mask (edges) into {@code out}. */
+    public void copyRoadMask(int slot, long[] out) {
+        System.arraycopy(slotMasks, slotBase(slot) + slotRoadOffset, out, 0, edgeWords);
+    }
+
+    /**
+     * Writes the legal settlement sites for {@code player} into {@code out}
+     * ({@link #getIntersectionWordCount()} words). Setup placements only need the
+     * distance rule; normal placements must also touch the player's network.
+     */
+    public void fillValidSettlementMask(Player player, boolean isSetupPhase, long[] out) {
+        getLegalSettlementSites(getPlayerSlot(player), isSetupPhase).copyTo(out);
+    }
+
+    /**
+     * Writes the legal normal-phase road edges for {@code player} into {@code out}
+     * ({@link #getEdgeWordCount()} words): empty edges touching the player's network.
+     */
+    public void fillValidRoadMask(Player player, long[] out) {
+        int slot = getPlayerSlot(player);
+        if (slot < 0) {
+            Arrays.fill(out, 0, edgeWords, 0L);
+            return;
+        }
+        System.arraycopy(slotMasks, slotBase(slot) + slotLegalRoadOffset, out, 0, edgeWords);
+    }
+
+    /**
+     * Live set of legal settlement sites for the slot. During setup every open
+     * site is legal; otherwise the site must also touch the slot's network.
+     * An unknown slot (-1) has no normal-phase sites.
+     */
+    public IdSet getLegalSettlementSites(int slot, boolean isSetupPhase) {
+        if (isSetupPhase) return openSites;
+        return slot < 0 ? IdSet.empty() : slotView(slot, LEGAL_SETTLEMENT_VIEW);
+    }
+
+    /** Live set of empty edges touching the slot's network (normal-phase road placements). */
+    public IdSet getLegalRoadEdges(int slot) {
+        return slot < 0 ? IdSet.empty() : slotView(slot, LEGAL_ROAD_VIEW);
+    }
+
+    /** Live set of edges holding the slot's roads. */
+    public IdSet getRoadEdges(int slot) {
+        return slot < 0 ? IdSet.empty() : slotView(slot, ROAD_VIEW);
+    }
+
+    /** Live set of intersections holding the slot's settlements (the legal city upgrades). */
+    public IdSet getSettlementSites(int slot) {
+        return slot < 0 ? IdSet.empty() : slotView(slot, SETTLEMENT_VIEW);
+    }
+
+    private IdSet slotView(int slot, int kind) {
+        IdSet view = slotViews[slot * VIEW_KINDS + kind];
+        if (view != null) return view;
+        switch (kind) {
+            case SETTLEMENT_VIEW:
+                view = new IdSet(slotMasks, slotBase(slot), topology.getIntersectionCount());
+                break;
+            case LEGAL_SETTLEMENT_VIEW:
+                view = new IdSet(slotMasks, slotBase(slot) + slotLegalSettlementOffset, topology.getIntersectionCount());
+                break;
+            case LEGAL_ROAD_VIEW:
+                view = new IdSet(slotMasks, slotBase(slot) + slotLegalRoadOffset, topology.getEdgeCount());
+                break;
+            default:
+                view = new IdSet(slotMasks, slotBase(slot) + slotRoadOffset, topology.getEdgeCount());
+                break;
+        }
+        slotViews[slot * VIEW_KINDS + kind] = view;
+        return view;
+    }
+
+    /**
+     * Writes the legal setup road edges into {@code out}: empty edges touching the anchor.
+     */
+    public void fillValidSetupRoadMask(int anchorId, long[] out) {
+        Arrays.fill(out, 0, edgeWords, 0L);
+        if (anchorId < 0) return;
+        for (int k = 0; k < topology.getTouchingEdgeCount(anchorId); k++) {
+            int e = topology.getTouchingEdgeId(anchorId, k);
+            if (!isEdgeOccupied(e)) Bits.set(out, e);
+        }
+    }
+
+    private int requireIntersectionId(Intersection intersection) {
+        int id = getIntersectionId(intersection);
+        if (id < 0) throw new IllegalArgumentException("Intersection is not on this board.");
+        return id;
     }
 
     // ---------- Adjacency helpers (for Validator) ----------
 
     public List<Edge> getEdgesTouching(Intersection intersection) {
-        return edgesTouchingIntersection.getOrDefault(intersection, Collections.emptyList());
+        int id = getIntersectionId(intersection);
+        return id < 0 ? Collections.<Edge>emptyList() : topology.getEdgesTouching(id);
     }
 
     public List<Intersection> getAdjacentIntersections(Intersection intersection) {
-        return adjacentIntersections.getOrDefault(intersection, Collections.emptyList());
+        int id = getIntersectionId(intersection);
+        return id < 0 ? Collections.<Intersection>emptyList() : topology.getAdjacentIntersections(id);
     }
 
     // ---------- Getters ----------
 
     public List<Hex> getHexes() {
+        if (hexes == null) {
+            List<Hex> built = new ArrayList<>(getHexCount());
+            for (int h = 0; h < getHexCount(); h++) {
+                Hex hex = new Hex(getHexResource(h), tileTokens[h]);
+                hex.setId(h);
+                hex.setBoard(this);
+                built.add(hex);
+            }
+            hexes = built;
+        }
         return hexes;
     }
 
+    /** Unmodifiable list of intersections, indexed by id (shared with every board on the same topology). */
     public List<Intersection> getIntersections() {
-        return intersections;
+        return topology.getIntersections();
     }
 
+    /** Unmodifiable list of edges, indexed by id (shared with every board on the same topology). */
     public List<Edge> getEdges() {
-        return edges;
+        return topology.getEdges();
     }
 
     public Robber getRobber() {
+        if (robber == null && robberHexId >= 0) robber = new Robber(getRobberHex());
         return robber;
     }
 
     public List<Intersection> getCornersForHex(Hex hex) {
-        return hexCorners.getOrDefault(hex, Collections.emptyList());
+        int id = getHexId(hex);
+        return id < 0 ? Collections.<Intersection>emptyList() : topology.getCorners(id);
     }
 
     public List<Hex> getHexesTouchingIntersection(Intersection intersection) {
-        return hexesTouchingIntersection.getOrDefault(intersection, Collections.emptyList());
+        int id = getIntersectionId(intersection);
+        if (id < 0 || getHexCount() == 0) return Collections.emptyList();
+        if (hexesTouchingView == null) {
+            List<Hex> hexes = getHexes();
+            List<List<Hex>> view = new ArrayList<>(topology.getIntersectionCount());
+            for (int i = 0; i < topology.getIntersectionCount(); i++) {
+                List<Hex> touching = new ArrayList<>(topology.getTouchingHexCount(i));
+                for (int k = 0; k < topology.getTouchingHexCount(i); k++) touching.add(hexes.get(topology.getTouchingHexId(i, k)));
+                view.add(Collections.unmodifiableList(touching));
+            }
+            hexesTouchingView = view;
+        }
+        return hexesTouchingView.get(id);
     }
 }
@@ -0,0 +1,162 @@
+package catan.board;
+
+import java.util.Arrays;
+
+import catan.resources.Resource;
+
+/**
+ * Immutable assignment of terrain tiles and number tokens to the hexes of a
+ * topology (index = hex id). Deserts carry token 0.
+ *
+ * A layout produced by {@link LayoutGenerator} is identified by its 64-bit seed:
+ * the same generator settings and seed always produce the same layout, so the
+ * seed is all a pipeline needs to store to reproduce a board. An exact encoding
+ * of a classic layout needs about 83 bits (tile arrangement and token
+ * arrangement), so {@link #fingerprint()} provides a 64-bit content hash for
+ * deduplicating layouts that came from different seeds.
+ */
+public final class BoardLayout {
+    /** Seed value of layouts that were not generated from a seed. */
+    public static final long NO_SEED = Long.MIN_VALUE;
+
+    // Classic 19 tiles, including one desert, in hex id order
+    private static final Resource[] CLASSIC_TILES = {
+            Resource.DESERT, Resource.WOOD, Resource.WOOD, Resource.WOOD, Resource.WOOD,
+            Resource.BRICK, Resource.BRICK, Resource.BRICK, Resource.SHEEP, Resource.SHEEP,
+            Resource.SHEEP, Resource.SHEEP, Resource.WHEAT, Resource.WHEAT, Resource.WHEAT,
+            Resource.ORE, Resource.ORE, Resource.ORE, Resource.WHEAT };
+    private static final int[] CLASSIC_TOKENS = {
+            0, 8, 4, 11, 3, 6, 5, 9, 2, 10, 12, 9, 8, 10, 11, 3, 4, 5, 6 };
+
+    // 5-6 player extension: 30 tiles, including two deserts
+    private static final Resource[] EXTENSION_TILES = {
+            Resource.ORE, Resource.SHEEP, Resource.WOOD,
+            Resource.WHEAT, Resource.BRICK, Resource.SHEEP, Resource.WHEAT,
+            Resource.WOOD, Resource.ORE, Resource.DESERT, Resource.WOOD, Resource.BRICK,
+            Resource.SHEEP, Resource.WHEAT, Resource.BRICK, Resource.ORE, Resource.WHEAT, Resource.WOOD,
+            Resource.BRICK, Resource.WOOD, Resource.SHEEP, Resource.DESERT, Resource.ORE,
+            Resource.WHEAT, Resource.SHEEP, Resource.WOOD, Resource.BRICK,
+            Resource.ORE, Resource.WHEAT, Resource.SHEEP };
+    private static final int[] EXTENSION_TOKENS = {
+            10, 2, 9,
+            12, 6, 4, 10,
+            9, 11, 0, 3, 8,
+            8, 3, 4, 5, 5, 6,
+            11, 4, 5, 0, 9,
+            6, 3, 11, 10,
+            2, 8, 12 };
+
+    private static final Resource[] RESOURCES = Resource.values();
+
+    private final long seed;
+    private final byte[] resources;   // hex -> Resource ordinal
+    private final byte[] tokens;      // hex -> number token (0 on deserts)
+
+    BoardLayout(long seed, byte[] resources, byte[] tokens) {
+        this.seed = seed;
+        this.resources = resources;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Returns the fixed layout for the topology: the classic tiles on 19 hexes,
+     * the 5-6 player extension tiles on 30 hexes, and the classic sequence
+     * repeated on boards of any other size.
+     */
+    public static BoardLayout fixed(BoardTopology topology) {
+        if (topology == null) throw new IllegalArgumentException("Topology cannot be null");
+        Resource[] tiles = CLASSIC_TILES;
+        int[] numbers = CLASSIC_TOKENS;
+        if (topology.getHexCount() == EXTENSION_TILES.length) {
+            tiles = EXTENSION_TILES;
+            numbers = EXTENSION_TOKENS;
+        }
+
+        int count = topology.getHexCount();
+        byte[] resources = new byte[count];
+        byte[] tokens = new byte[count];
+        for (int h = 0; h < count; h++) {
+            resources[h] = (byte) tiles[h % tiles.length].ordinal();
+            tokens[h] = (byte) numbers[h % numbers.length];
+        }
+        return new BoardLayout(NO_SEED, resources, tokens);
+    }
+
+    /**
+     * Layout with the given tiles and number tokens in hex id order, e.g. one
+     * read back from a saved game; {@code seed} is kept as its seed.
+     */
+    public static BoardLayout of(long seed, Resource[] tiles, int[] numbers) {
+        if (tiles == null || numbers == null) throw new IllegalArgumentException("Tiles and tokens cannot be null");
+        if (tiles.length != numbers.length) throw new IllegalArgumentException("Need one token per tile");
+        byte[] resources = new byte[tiles.length];
+        byte[] tokens = new byte[tiles.length];
+        for (int h = 0; h < tiles.length; h++) {
+            if (tiles[h] == null) throw new IllegalArgumentException("Tile cannot be null");
+            if (numbers[h] < 0 || numbers[h] > 12) throw new IllegalArgumentException("Number token out of range: " + numbers[h]);
+            resources[h] = (byte) tiles[h].ordinal();
+            tokens[h] = (byte) numbers[h];
+        }
+        return new BoardLayout(seed, resources, tokens);
+    }
+
+    public int getHexCount() {
+        return resources.length;
+    }
+
+    public Resource getResource(int hexId) {
+        return RESOURCES[resources[hexId]];
+    }
+
+    public int getNumberToken(int hexId) {
+        return tokens[hexId];
+    }
+
+    /** Seed this layout was generated from, or {@link #NO_SEED}. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** 64-bit hash of the tile and token assignment (equal layouts have equal fingerprints). */
+    public long fingerprint() {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < resources.length; i++) {
+            h = (h ^ ((resources[i] << 4) | tokens[i])) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    byte[] copyResources() {
+        return resources.clone();
+    }
+
+    byte[] copyTokens() {
+        return tokens.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoardLayout)) return false;
+        BoardLayout other = (BoardLayout) o;
+        return Arrays.equals(resources, other.resources) && Arrays.equals(tokens, other.tokens);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("BoardLayout{");
+        for (int h = 0; h < resources.length; h++) {
+            if (h > 0) sb.append(' ');
+            sb.append(getResource(h)).append(':').append(tokens[h]);
+        }
+        return sb.append('}').toString();
+    }
+}
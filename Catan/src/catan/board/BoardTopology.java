@@ -0,0 +1,446 @@
+package catan.board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable geometry of a hex board: intersections, edges and the adjacency
+ * between them and the hex slots.
+ *
+ * The topology never changes during a game, so a single instance is shared by
+ * every {@link Board} built on it; a board only keeps per-game state (tiles,
+ * robber and occupancy). Relations are compressed-sparse-row tables: the ids
+ * related to element i are stored in xxx[xxxOffsets[i]] .. xxx[xxxOffsets[i + 1] - 1].
+ */
+public final class BoardTopology {
+    // Corner offsets on the vertex lattice, clockwise from the upper-right corner.
+    // A hex at axial (q, r) is centered on lattice point (2q + r, 3r).
+    private static final int[] CORNER_DX = { 1, 1, 0, -1, -1, 0 };
+    private static final int[] CORNER_DY = { -1, 1, 2, 1, -1, -2 };
+    // Axial directions to the 6 neighboring hexes
+    private static final int[] HEX_DQ = { 1, 1, 0, -1, -1, 0 };
+    private static final int[] HEX_DR = { 0, -1, -1, 0, 1, 1 };
+
+    private final int hexCount;
+    private final int[] hexQ;                  // hex -> axial coordinates
+    private final int[] hexR;
+    private final List<Intersection> intersections;
+    private final List<Edge> edges;
+
+    private final int[] edgeEnds;              // edge -> 2 intersections (start, end)
+    private final int[] neighborOffsets;       // intersection -> adjacent intersections
+    private final int[] neighbors;
+    private final int[] touchingEdgeOffsets;   // intersection -> touching edges (parallel to neighbors)
+    private final int[] touchingEdges;
+    private final int[] cornerOffsets;         // hex -> 6 corner intersections, used for resource payout
+    private final int[] corners;
+    private final int[] touchingHexOffsets;    // intersection -> touching hexes (for setup starting resources)
+    private final int[] touchingHexes;
+    private final int[] hexNeighborOffsets;    // hex -> hexes sharing an edge with it
+    private final int[] hexNeighbors;
+
+    // Object views over the tables above
+    private final List<List<Edge>> edgesTouchingView;
+    private final List<List<Intersection>> adjacentIntersectionsView;
+    private final List<List<Intersection>> hexCornersView;
+
+    // Lattice point -> intersection id, axial coordinates -> hex id
+    private final LongIntMap intersectionIdByPoint;
+    private final LongIntMap hexIdByAxial;
+
+    /**
+     * Returns the shared classic 19-hex topology (3-4-5-4-3 layout).
+     * It is computed on first use and reused by every board afterwards.
+     */
+    public static BoardTopology standard() {
+        return StandardHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the shared 30-hex topology of the 5-6 player extension
+     * (3-4-5-6-5-4-3 layout).
+     */
+    public static BoardTopology extension() {
+        return ExtensionHolder.INSTANCE;
+    }
+
+    private static final class StandardHolder {
+        static final BoardTopology INSTANCE = createStandard();
+    }
+
+    private static final class ExtensionHolder {
+        static final BoardTopology INSTANCE = rows(3, 4, 5, 6, 5, 4, 3);
+    }
+
+    /**
+     * Builds a fresh copy of the classic topology. Prefer {@link #standard()};
+     * this exists so the one-time construction cost can be measured.
+     */
+    public static BoardTopology createStandard() {
+        BoardTopology topology = hexagon(2);
+
+        // Classic Catan sanity checks
+        if (topology.getHexCount() != 19) throw new IllegalStateException("Expected 19 hexes, got " + topology.getHexCount());
+        if (topology.getIntersectionCount() != 54) throw new IllegalStateException("Expected 54 intersections, got " + topology.getIntersectionCount());
+        if (topology.getEdgeCount() != 72) throw new IllegalStateException("Expected 72 edges, got " + topology.getEdgeCount());
+        return topology;
+    }
+
+    /**
+     * Builds a hexagonal board with the given radius (radius 2 is the classic
+     * board). Hexes are numbered row by row, top to bottom and left to right.
+     */
+    public static BoardTopology hexagon(int radius) {
+        if (radius < 0) throw new IllegalArgumentException("Radius cannot be negative");
+        int[] widths = new int[2 * radius + 1];
+        for (int i = 0; i < widths.length; i++) widths[i] = 2 * radius + 1 - Math.abs(i - radius);
+        return rows(widths);
+    }
+
+    /**
+     * Builds a board from row widths, top to bottom, with every row centered
+     * under the previous one (e.g. 3-4-5-6-5-4-3 for the 5-6 player map).
+     */
+    public static BoardTopology rows(int... widths) {
+        if (widths == null || widths.length == 0) throw new IllegalArgumentException("At least one row is required");
+        int total = 0;
+        for (int width : widths) {
+            if (width <= 0) throw new IllegalArgumentException("Row widths must be positive");
+            total += width;
+        }
+
+        int[] q = new int[total];
+        int[] r = new int[total];
+        int h = 0;
+        for (int i = 0; i < widths.length; i++) {
+            int row = i - (widths.length - 1) / 2;
+            // Center of the row in lattice units is 2 * qStart + (width - 1) + row; keep it near 0
+            int qStart = Math.floorDiv(-(widths[i] - 1 + row), 2);
+            for (int k = 0; k < widths[i]; k++) {
+                q[h] = qStart + k;
+                r[h] = row;
+                h++;
+            }
+        }
+        return new BoardTopology(q, r);
+    }
+
+    /** Builds a board from arbitrary axial hex coordinates; hex i gets id i. */
+    public static BoardTopology fromAxial(int[] q, int[] r) {
+        if (q == null || r == null || q.length != r.length) throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        if (q.length == 0) throw new IllegalArgumentException("At least one hex is required");
+        return new BoardTopology(q.clone(), r.clone());
+    }
+
+    /**
+     * Generates intersections and edges from axial hex coordinates on an integer
+     * vertex lattice (no floating point) and builds the CSR adjacency tables
+     * over their ids. Runs in time linear in the number of hexes.
+     */
+    private BoardTopology(int[] axialQ, int[] axialR) {
+        hexCount = axialQ.length;
+        hexQ = axialQ;
+        hexR = axialR;
+
+        hexIdByAxial = new LongIntMap(hexCount);
+        for (int h = 0; h < hexCount; h++) {
+            if (hexIdByAxial.putIfAbsent(pointKey(hexQ[h], hexR[h]), h) >= 0) {
+                throw new IllegalArgumentException("Duplicate hex at (" + hexQ[h] + ", " + hexR[h] + ")");
+            }
+        }
+
+        hexNeighborOffsets = new int[hexCount + 1];
+        int[] hexNeighborList = new int[6 * hexCount];
+        for (int h = 0; h < hexCount; h++) {
+            int count = hexNeighborOffsets[h];
+            for (int d = 0; d < 6; d++) {
+                int neighbor = hexIdByAxial.get(pointKey(hexQ[h] + HEX_DQ[d], hexR[h] + HEX_DR[d]));
+                if (neighbor >= 0) hexNeighborList[count++] = neighbor;
+            }
+            hexNeighborOffsets[h + 1] = count;
+        }
+        hexNeighbors = Arrays.copyOf(hexNeighborList, hexNeighborOffsets[hexCount]);
+
+        // A board of h hexes has at most 6h corners and 6h edges (fewer when shared)
+        intersectionIdByPoint = new LongIntMap(6 * hexCount);
+        LongIntMap edgeIdByEnds = new LongIntMap(6 * hexCount);
+        List<Intersection> intersectionList = new ArrayList<>();
+        List<Edge> edgeList = new ArrayList<>();
+        int[] pairs = new int[12 * hexCount];
+
+        corners = new int[hexCount * 6];
+        cornerOffsets = new int[hexCount + 1];
+
+        for (int h = 0; h < hexCount; h++) {
+            int cx = 2 * hexQ[h] + hexR[h];
+            int cy = 3 * hexR[h];
+            cornerOffsets[h] = h * 6;
+
+            for (int c = 0; c < 6; c++) {
+                int x = cx + CORNER_DX[c];
+                int y = cy + CORNER_DY[c];
+                int id = intersectionIdByPoint.putIfAbsent(pointKey(x, y), intersectionList.size());
+                if (id < 0) {
+                    id = intersectionList.size();
+                    Intersection corner = new Intersection(x, y);
+                    corner.setId(id);
+                    intersectionList.add(corner);
+                }
+                corners[h * 6 + c] = id;
+            }
+
+            // Add 6 perimeter edges around the hex, globally deduped
+            for (int c = 0; c < 6; c++) {
+                int a = corners[h * 6 + c];
+                int b = corners[h * 6 + (c + 1) % 6];
+                int e = edgeList.size();
+                if (edgeIdByEnds.putIfAbsent(edgeKey(a, b), e) < 0) {
+                    Edge edge = new Edge(intersectionList.get(a), intersectionList.get(b));
+                    edge.setId(e);
+                    edgeList.add(edge);
+                    pairs[2 * e] = a;
+                    pairs[2 * e + 1] = b;
+                }
+            }
+        }
+        cornerOffsets[hexCount] = corners.length;
+
+        intersections = Collections.unmodifiableList(intersectionList);
+        edges = Collections.unmodifiableList(edgeList);
+
+        int n = intersectionList.size();
+        edgeEnds = Arrays.copyOf(pairs, 2 * edgeList.size());
+        int[] degree = new int[n];
+        for (int end : edgeEnds) degree[end]++;
+
+        neighborOffsets = prefixSums(degree);
+        touchingEdgeOffsets = neighborOffsets;
+        neighbors = new int[neighborOffsets[n]];
+        touchingEdges = new int[neighborOffsets[n]];
+        int[] fill = new int[n];
+        for (int e = 0; e < edgeList.size(); e++) {
+            int a = edgeEnds[2 * e];
+            int b = edgeEnds[2 * e + 1];
+            int ka = neighborOffsets[a] + fill[a]++;
+            int kb = neighborOffsets[b] + fill[b]++;
+            neighbors[ka] = b;
+            touchingEdges[ka] = e;
+            neighbors[kb] = a;
+            touchingEdges[kb] = e;
+        }
+
+        int[] hexCountAt = new int[n];
+        for (int corner : corners) hexCountAt[corner]++;
+        touchingHexOffsets = prefixSums(hexCountAt);
+        touchingHexes = new int[touchingHexOffsets[n]];
+        Arrays.fill(fill, 0);
+        for (int h = 0; h < hexCount; h++) {
+            for (int k = cornerOffsets[h]; k < cornerOffsets[h + 1]; k++) {
+                int corner = corners[k];
+                touchingHexes[touchingHexOffsets[corner] + fill[corner]++] = h;
+            }
+        }
+
+        edgesTouchingView = new ArrayList<>(n);
+        adjacentIntersectionsView = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<Edge> touching = new ArrayList<>(getTouchingEdgeCount(i));
+            for (int k = touchingEdgeOffsets[i]; k < touchingEdgeOffsets[i + 1]; k++) touching.add(edgeList.get(touchingEdges[k]));
+            edgesTouchingView.add(Collections.unmodifiableList(touching));
+
+            List<Intersection> adjacent = new ArrayList<>(getAdjacentIntersectionCount(i));
+            for (int k = neighborOffsets[i]; k < neighborOffsets[i + 1]; k++) adjacent.add(intersectionList.get(neighbors[k]));
+            adjacentIntersectionsView.add(Collections.unmodifiableList(adjacent));
+        }
+
+        hexCornersView = new ArrayList<>(hexCount);
+        for (int h = 0; h < hexCount; h++) {
+            List<Intersection> hexCorners = new ArrayList<>(6);
+            for (int k = cornerOffsets[h]; k < cornerOffsets[h + 1]; k++) hexCorners.add(intersectionList.get(corners[k]));
+            hexCornersView.add(Collections.unmodifiableList(hexCorners));
+        }
+    }
+
+    private static long pointKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static long edgeKey(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    private static int[] prefixSums(int[] counts) {
+        int[] offsets = new int[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) offsets[i + 1] = offsets[i] + counts[i];
+        return offsets;
+    }
+
+    /**
+     * Open-addressing map from long keys to non-negative ints, sized up front so
+     * building a large board does not box a key per corner and edge.
+     */
+    private static final class LongIntMap {
+        private final long[] keys;
+        private final int[] values;   // -1 marks an empty slot
+        private final int mask;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+            mask = capacity - 1;
+        }
+
+        int get(long key) {
+            for (int i = slot(key); values[i] >= 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return -1;
+        }
+
+        /** Stores the value unless the key is present; returns the existing value or -1. */
+        int putIfAbsent(long key, int value) {
+            int i = slot(key);
+            for (; values[i] >= 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            keys[i] = key;
+            values[i] = value;
+            return -1;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    // ---------- Sizes and id lookups ----------
+
+    public int getHexCount() {
+        return hexCount;
+    }
+
+    /** Axial q coordinate of the hex. */
+    public int getHexQ(int hexId) {
+        return hexQ[hexId];
+    }
+
+    /** Axial r coordinate of the hex. */
+    public int getHexR(int hexId) {
+        return hexR[hexId];
+    }
+
+    /** Returns the id of the hex at the given axial coordinates, or -1 if there is none. */
+    public int getHexId(int q, int r) {
+        return hexIdByAxial.get(pointKey(q, r));
+    }
+
+    public int getIntersectionCount() {
+        return intersections.size();
+    }
+
+    public int getEdgeCount() {
+        return edges.size();
+    }
+
+    /** Unmodifiable list of intersections, indexed by id. */
+    public List<Intersection> getIntersections() {
+        return intersections;
+    }
+
+    /** Unmodifiable list of edges, indexed by id. */
+    public List<Edge> getEdges() {
+        return edges;
+    }
+
+    /** Returns the id of the given intersection (matched by coordinates), or -1 if it is not part of this topology. */
+    public int getIntersectionId(Intersection intersection) {
+        if (intersection == null) return -1;
+        int id = intersection.getId();
+        if (id >= 0 && id < intersections.size() && intersections.get(id) == intersection) return id;
+        return intersectionIdByPoint.get(pointKey(intersection.getX(), intersection.getY()));
+    }
+
+    /** Returns the id of the edge joining the same two intersections, or -1 if there is none. */
+    public int getEdgeId(Edge edge) {
+        if (edge == null) return -1;
+        int id = edge.getId();
+        if (id >= 0 && id < edges.size() && edges.get(id) == edge) return id;
+
+        int a = getIntersectionId(edge.getStart());
+        int b = getIntersectionId(edge.getEnd());
+        if (a < 0 || b < 0) return -1;
+        for (int k = neighborOffsets[a]; k < neighborOffsets[a + 1]; k++) {
+            if (neighbors[k] == b) return touchingEdges[k];
+        }
+        return -1;
+    }
+
+    // ---------- Int adjacency (CSR) ----------
+
+    public int getEdgeStartId(int edgeId) {
+        return edgeEnds[2 * edgeId];
+    }
+
+    public int getEdgeEndId(int edgeId) {
+        return edgeEnds[2 * edgeId + 1];
+    }
+
+    public int getAdjacentIntersectionCount(int intersectionId) {
+        return neighborOffsets[intersectionId + 1] - neighborOffsets[intersectionId];
+    }
+
+    public int getAdjacentIntersectionId(int intersectionId, int k) {
+        return neighbors[neighborOffsets[intersectionId] + k];
+    }
+
+    public int getTouchingEdgeCount(int intersectionId) {
+        return touchingEdgeOffsets[intersectionId + 1] - touchingEdgeOffsets[intersectionId];
+    }
+
+    public int getTouchingEdgeId(int intersectionId, int k) {
+        return touchingEdges[touchingEdgeOffsets[intersectionId] + k];
+    }
+
+    public int getCornerCount(int hexId) {
+        return cornerOffsets[hexId + 1] - cornerOffsets[hexId];
+    }
+
+    public int getCornerId(int hexId, int k) {
+        return corners[cornerOffsets[hexId] + k];
+    }
+
+    public int getAdjacentHexCount(int hexId) {
+        return hexNeighborOffsets[hexId + 1] - hexNeighborOffsets[hexId];
+    }
+
+    public int getAdjacentHexId(int hexId, int k) {
+        return hexNeighbors[hexNeighborOffsets[hexId] + k];
+    }
+
+    public int getTouchingHexCount(int intersectionId) {
+        return touchingHexOffsets[intersectionId + 1] - touchingHexOffsets[intersectionId];
+    }
+
+    public int getTouchingHexId(int intersectionId, int k) {
+        return touchingHexes[touchingHexOffsets[intersectionId] + k];
+    }
+
+    // ---------- Object views ----------
+
+    List<Edge> getEdgesTouching(int intersectionId) {
+        return edgesTouchingView.get(intersectionId);
+    }
+
+    List<Intersection> getAdjacentIntersections(int intersectionId) {
+        return adjacentIntersectionsView.get(intersectionId);
+    }
+
+    List<Intersection> getCorners(int hexId) {
+        return hexCornersView.get(hexId);
+    }
+}
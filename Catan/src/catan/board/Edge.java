@@ -6,6 +6,7 @@ package catan.board;
 public class Edge {
     private Intersection start;
     private Intersection end;
+    private int id = -1;
 
     /**
      * Constructs an Edge with a start and end intersection.
@@ -35,5 +36,20 @@ public class Edge {
     public Intersection getEnd() {
         return end;
     }
-}
 
+    /**
+     * Gets the dense id of this edge on its board.
+     * @return The id, or -1 if the edge has not been placed on a board.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Assigns the dense id of this edge. Called by the board that owns it.
+     * @param id The id to assign.
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+}
@@ -8,6 +8,8 @@ import catan.resources.Resource;
 public class Hex {
     private Resource resource;
     private int numberToken;
+    private int id = -1;
+    private Board board;
 
     /**
      * Constructs a Hex with a resource type and a number token.
@@ -33,6 +35,7 @@ public class Hex {
      */
     public void setResource(Resource resource) {
         this.resource = resource;
+        if (board != null) board.onHexChanged(this);
     }
 
     /**
@@ -49,5 +52,30 @@ public class Hex {
      */
     public void setNumberToken(int numberToken) {
         this.numberToken = numberToken;
+        if (board != null) board.onHexChanged(this);
+    }
+
+    /**
+     * Gets the dense id of this hex on its board.
+     * @return The id, or -1 if the hex has not been placed on a board.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Assigns the dense id of this hex. Called by the board that owns it.
+     * @param id The id to assign.
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Attaches this hex to the board that owns it, so tile changes refresh the board's production table.
+     * @param board The owning board.
+     */
+    void setBoard(Board board) {
+        this.board = board;
     }
 }
@@ -6,6 +6,7 @@ package catan.board;
 public class Intersection {
     private int x;
     private int y;
+    private int id = -1;
 
     /**
      * Constructs an Intersection with x and y coordinates.
@@ -60,4 +61,20 @@ public class Intersection {
         result = 31 * result + Integer.hashCode(y);
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the dense id of this intersection on its board.
+     * @return The id, or -1 if the intersection has not been placed on a board.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Assigns the dense id of this intersection. Called by the board that owns it.
+     * @param id The id to assign.
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+}
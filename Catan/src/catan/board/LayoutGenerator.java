@@ -0,0 +1,316 @@
+package catan.board;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import catan.resources.Resource;
+
+/**
+ * Generates random tile and number token layouts under the usual fairness rules:
+ * - no two red numbers (6 and 8) on adjacent hexes
+ * - no two equal numbers on adjacent hexes
+ * - optionally, every resource's total pips within a tolerance of its fair share
+ *
+ * Terrain is shuffled first, then tokens are placed most-constrained first
+ * (6 and 8, then by falling pip count) by a depth-first search: each token's
+ * candidate hexes are the free hexes minus the neighbors of conflicting tokens
+ * already placed, so dead ends are detected as soon as a candidate set empties.
+ * A search that runs too long restarts with a fresh terrain shuffle.
+ *
+ * Everything is driven by one {@link SplittableRandom} seeded with the layout
+ * seed, so {@link #generate(long)} is reproducible and the seed identifies the
+ * layout. Hex sets are single {@code long} bitmasks, which limits the generator
+ * to boards of at most 64 hexes (the classic and 5-6 player maps).
+ *
+ * A generator keeps scratch state and is not thread-safe; use
+ * {@link #generate(long, int)} to produce many layouts on all cores.
+ */
+public class LayoutGenerator {
+    public static final int MAX_HEXES = 64;
+
+    // Search nodes per token before restarting with new terrain. A small budget wins:
+    // a terrain that does not fit quickly is usually cheaper to replace than to exhaust.
+    private static final int NODES_PER_TOKEN = 3;
+    private static final int MAX_ATTEMPTS = 10_000;
+    private static final int DESERT = Resource.DESERT.ordinal();
+    private static final int RESOURCE_KINDS = Resource.values().length;
+
+    private final BoardTopology topology;
+    private final boolean separateRedNumbers;
+    private final boolean separateEqualNumbers;
+    private final int maxPipDeviation;
+
+    private final int hexCount;
+    private final long[] adjacent;          // hex -> mask of neighboring hexes
+    private final byte[] tileBag;           // terrain multiset, shuffled per attempt
+    private final int[] tokenOrder;         // tokens to place, most constrained first
+    private final int producingTiles;
+    private final int totalPips;
+    private final int nodeBudget;
+    private final int[] tilesOfResource;
+
+    // Scratch for the current attempt
+    private final byte[] resources;
+    private final byte[] tokens;
+    private final long[] placedWithToken = new long[13];
+    private final int[] pipsOfResource = new int[RESOURCE_KINDS];
+    private final int[] numberedTilesOfResource = new int[RESOURCE_KINDS];
+    private SplittableRandom random;
+    private int nodes;
+
+    /** Generator with both adjacency rules and no pip balancing. */
+    public LayoutGenerator(BoardTopology topology) {
+        this(topology, true, true, -1);
+    }
+
+    /**
+     * @param separateRedNumbers   keep 6s and 8s off adjacent hexes
+     * @param separateEqualNumbers keep equal numbers off adjacent hexes
+     * @param maxPipDeviation      allowed distance, in pips, of each resource's total from
+     *                             its fair share (pips * tiles of that resource / producing tiles);
+     *                             negative disables the check
+     */
+    public LayoutGenerator(BoardTopology topology, boolean separateRedNumbers, boolean separateEqualNumbers, int maxPipDeviation) {
+        if (topology == null) throw new IllegalArgumentException("Topology cannot be null");
+        if (topology.getHexCount() > MAX_HEXES) {
+            throw new IllegalArgumentException("Layout generation supports at most " + MAX_HEXES + " hexes, got " + topology.getHexCount());
+        }
+        this.topology = topology;
+        this.separateRedNumbers = separateRedNumbers;
+        this.separateEqualNumbers = separateEqualNumbers;
+        this.maxPipDeviation = maxPipDeviation;
+
+        hexCount = topology.getHexCount();
+        adjacent = new long[hexCount];
+        for (int h = 0; h < hexCount; h++) {
+            for (int k = 0; k < topology.getAdjacentHexCount(h); k++) adjacent[h] |= 1L << topology.getAdjacentHexId(h, k);
+        }
+
+        // The multiset of tiles and tokens comes from the fixed layout for this topology
+        BoardLayout fixed = BoardLayout.fixed(topology);
+        tileBag = fixed.copyResources();
+        byte[] fixedTokens = fixed.copyTokens();
+        tilesOfResource = new int[RESOURCE_KINDS];
+        int producing = 0;
+        for (byte tile : tileBag) {
+            tilesOfResource[tile]++;
+            if (tile != DESERT) producing++;
+        }
+        producingTiles = producing;
+
+        tokenOrder = new int[producing];
+        int count = 0;
+        int pips = 0;
+        for (byte token : fixedTokens) {
+            if (token == 0) continue;
+            tokenOrder[count++] = token;
+            pips += pips(token);
+        }
+        totalPips = pips;
+        if (count != producing) throw new IllegalStateException("Token count " + count + " does not match " + producing + " producing tiles");
+        sortByConstraint(tokenOrder);
+        nodeBudget = NODES_PER_TOKEN * producing;
+
+        resources = new byte[hexCount];
+        tokens = new byte[hexCount];
+    }
+
+    /** Copy with the same settings and its own scratch state. */
+    private LayoutGenerator copy() {
+        return new LayoutGenerator(topology, separateRedNumbers, separateEqualNumbers, maxPipDeviation);
+    }
+
+    /** Number of dots on a token: how many of the 36 dice outcomes roll it. */
+    public static int pips(int token) {
+        return token < 2 || token > 12 || token == 7 ? 0 : 6 - Math.abs(7 - token);
+    }
+
+    /**
+     * Generates the layout identified by the seed.
+     *
+     * @throws IllegalStateException if no layout satisfying the constraints was found
+     */
+    public BoardLayout generate(long seed) {
+        random = new SplittableRandom(seed);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            shuffleTerrain();
+            clearTokens();
+            nodes = 0;
+            long deserts = 0L;
+            for (int h = 0; h < hexCount; h++) if (resources[h] == DESERT) deserts |= 1L << h;
+            if (placeToken(0, deserts)) {
+                return new BoardLayout(seed, resources.clone(), tokens.clone());
+            }
+        }
+        throw new IllegalStateException("No layout satisfies the constraints (seed " + seed + ")");
+    }
+
+    /**
+     * Generates {@code count} layouts for seeds {@code firstSeed, firstSeed + 1, ...}
+     * in parallel; element i is the layout of seed {@code firstSeed + i}.
+     */
+    public List<BoardLayout> generate(long firstSeed, int count) {
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative");
+        ThreadLocal<LayoutGenerator> generators = ThreadLocal.withInitial(this::copy);
+        return LongStream.range(firstSeed, firstSeed + count)
+                .parallel()
+                .mapToObj(seed -> generators.get().generate(seed))
+                .collect(Collectors.toList());
+    }
+
+    /** Returns true if the layout satisfies this generator's constraints. */
+    public boolean isValid(BoardLayout layout) {
+        if (layout == null || layout.getHexCount() != hexCount) return false;
+        int[] pipsByResource = new int[RESOURCE_KINDS];
+        for (int h = 0; h < hexCount; h++) {
+            int token = layout.getNumberToken(h);
+            if (token == 0) continue;
+            pipsByResource[layout.getResource(h).ordinal()] += pips(token);
+            for (int k = 0; k < topology.getAdjacentHexCount(h); k++) {
+                int other = layout.getNumberToken(topology.getAdjacentHexId(h, k));
+                if (separateEqualNumbers && other == token) return false;
+                if (separateRedNumbers && isRed(token) && isRed(other)) return false;
+            }
+        }
+        if (maxPipDeviation < 0) return true;
+        for (int r = 0; r < RESOURCE_KINDS; r++) {
+            if (r != DESERT && Math.abs(pipsByResource[r] * producingTiles - fairShare(r)) > maxPipDeviation * producingTiles) return false;
+        }
+        return true;
+    }
+
+    // -------------------- Search --------------------
+
+    private void shuffleTerrain() {
+        System.arraycopy(tileBag, 0, resources, 0, hexCount);
+        for (int i = hexCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte t = resources[i];
+            resources[i] = resources[j];
+            resources[j] = t;
+        }
+    }
+
+    private void clearTokens() {
+        for (int h = 0; h < hexCount; h++) tokens[h] = 0;
+        for (int v = 0; v < placedWithToken.length; v++) placedWithToken[v] = 0L;
+        for (int r = 0; r < RESOURCE_KINDS; r++) {
+            pipsOfResource[r] = 0;
+            numberedTilesOfResource[r] = 0;
+        }
+    }
+
+    /** Places tokenOrder[depth..] on hexes not in {@code used} (deserts start out used). */
+    private boolean placeToken(int depth, long used) {
+        if (depth == tokenOrder.length) return pipsBalanced();
+        if (++nodes > nodeBudget) return false;
+
+        int token = tokenOrder[depth];
+        long candidates = ~used & allHexes() & ~forbiddenFor(token);
+        while (candidates != 0) {
+            int hex = randomBit(candidates);
+            candidates &= ~(1L << hex);
+
+            int resource = resources[hex];
+            int pips = pips(token);
+            int resourcePips = pipsOfResource[resource] + pips;
+            if (exceedsPipShare(resource, resourcePips)) continue;
+            // Once a resource's last tile is numbered its total is final
+            boolean lastTile = numberedTilesOfResource[resource] + 1 == tilesOfResource[resource];
+            if (lastTile && belowPipShare(resource, resourcePips)) continue;
+
+            tokens[hex] = (byte) token;
+            placedWithToken[token] |= 1L << hex;
+            pipsOfResource[resource] = resourcePips;
+            numberedTilesOfResource[resource]++;
+            if (canStillReachPipShares(depth + 1) && placeToken(depth + 1, used | (1L << hex))) return true;
+            tokens[hex] = 0;
+            placedWithToken[token] &= ~(1L << hex);
+            pipsOfResource[resource] -= pips;
+            numberedTilesOfResource[resource]--;
+            if (nodes > nodeBudget) return false;
+        }
+        return false;
+    }
+
+    private long forbiddenFor(int token) {
+        long near = 0L;
+        if (separateEqualNumbers) near |= neighborsOf(placedWithToken[token]);
+        if (separateRedNumbers && isRed(token)) near |= neighborsOf(placedWithToken[6] | placedWithToken[8]);
+        return near;
+    }
+
+    private long neighborsOf(long hexes) {
+        long near = 0L;
+        for (long rest = hexes; rest != 0; rest &= rest - 1) near |= adjacent[Long.numberOfTrailingZeros(rest)];
+        return near;
+    }
+
+    private int randomBit(long mask) {
+        for (int skip = random.nextInt(Long.bitCount(mask)); skip > 0; skip--) mask &= mask - 1;
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    private long allHexes() {
+        return hexCount == 64 ? -1L : (1L << hexCount) - 1;
+    }
+
+    // Pip shares are compared scaled by producingTiles to stay in integers
+    private int fairShare(int resource) {
+        return totalPips * tilesOfResource[resource];
+    }
+
+    private boolean exceedsPipShare(int resource, int pips) {
+        return maxPipDeviation >= 0 && pips * producingTiles - fairShare(resource) > maxPipDeviation * producingTiles;
+    }
+
+    private boolean belowPipShare(int resource, int pips) {
+        return maxPipDeviation >= 0 && fairShare(resource) - pips * producingTiles > maxPipDeviation * producingTiles;
+    }
+
+    /**
+     * Tokens are placed in falling pip order, so no unnumbered tile can get more
+     * than the pips of the next token; prune when a resource can no longer reach
+     * its lower bound.
+     */
+    private boolean canStillReachPipShares(int nextDepth) {
+        if (maxPipDeviation < 0 || nextDepth == tokenOrder.length) return true;
+        int bestRemaining = pips(tokenOrder[nextDepth]);
+        for (int r = 0; r < RESOURCE_KINDS; r++) {
+            if (r == DESERT) continue;
+            int reachable = pipsOfResource[r] + (tilesOfResource[r] - numberedTilesOfResource[r]) * bestRemaining;
+            if (belowPipShare(r, reachable)) return false;
+        }
+        return true;
+    }
+
+    private boolean pipsBalanced() {
+        for (int r = 0; r < RESOURCE_KINDS; r++) {
+            if (r != DESERT && belowPipShare(r, pipsOfResource[r])) return false;
+        }
+        return true;
+    }
+
+    private static boolean isRed(int token) {
+        return token == 6 || token == 8;
+    }
+
+    /** Sorts tokens by falling pip count, red numbers first (insertion sort; at most 64 entries). */
+    private static void sortByConstraint(int[] order) {
+        for (int i = 1; i < order.length; i++) {
+            int token = order[i];
+            int j = i - 1;
+            while (j >= 0 && constraintRank(order[j]) < constraintRank(token)) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = token;
+        }
+    }
+
+    private static int constraintRank(int token) {
+        return pips(token) * 16 + token;
+    }
+}
@@ -0,0 +1,96 @@
+package catan.log;
+
+import java.nio.ByteBuffer;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.resources.Resource;
+
+/**
+ * Binary form of a board: its topology and the tile and number token of
+ * every hex, so a game can be rebuilt on exactly the board it was played on.
+ *
+ * The standard and extension topologies are one byte; any other topology
+ * follows with its hex count and the axial coordinates of each hex. Then
+ * come the layout's seed and one byte per hex (resource ordinal in the high
+ * nibble, token in the low one).
+ */
+public final class BoardCodec {
+    // Topology kinds; custom boards carry their hex coordinates
+    private static final int STANDARD = 0;
+    private static final int EXTENSION = 1;
+    private static final int CUSTOM = 2;
+
+    private static final int MAX_INT_BYTES = 5;
+    private static final Resource[] RESOURCES = Resource.values();
+
+    private BoardCodec() {}
+
+    /** Upper bound on the bytes {@link #write} takes for a board on {@code topology}. */
+    public static int maxBytes(BoardTopology topology) {
+        int hexes = topology.getHexCount();
+        boolean custom = topology != BoardTopology.standard() && topology != BoardTopology.extension();
+        return 1 + 8 + hexes + (custom ? MAX_INT_BYTES + hexes * 2 * MAX_INT_BYTES : 0);
+    }
+
+    /** Writes the board at the buffer's position and advances past it. */
+    public static void write(ByteBuffer buf, BoardTopology topology, BoardLayout layout) {
+        int hexes = topology.getHexCount();
+        if (layout.getHexCount() != hexes) throw new IllegalArgumentException("Layout does not fit the topology");
+        if (topology == BoardTopology.standard()) {
+            buf.put((byte) STANDARD);
+        } else if (topology == BoardTopology.extension()) {
+            buf.put((byte) EXTENSION);
+        } else {
+            buf.put((byte) CUSTOM);
+            Varint.putInt(buf, hexes);
+            for (int h = 0; h < hexes; h++) {
+                Varint.putSignedLong(buf, topology.getHexQ(h));
+                Varint.putSignedLong(buf, topology.getHexR(h));
+            }
+        }
+        buf.putLong(layout.getSeed());
+        for (int h = 0; h < hexes; h++) {
+            buf.put((byte) (layout.getResource(h).ordinal() << 4 | layout.getNumberToken(h)));
+        }
+    }
+
+    /**
+     * Reads the topology written by {@link #write}; {@link #readLayout} reads
+     * the layout that follows it.
+     * @throws IllegalArgumentException If the bytes do not describe a board.
+     */
+    public static BoardTopology readTopology(ByteBuffer buf) {
+        int kind = buf.get();
+        if (kind == STANDARD) return BoardTopology.standard();
+        if (kind == EXTENSION) return BoardTopology.extension();
+        if (kind != CUSTOM) throw new IllegalArgumentException("Unknown board kind " + kind);
+        int hexes = Varint.getInt(buf);
+        if (hexes < 1 || hexes > buf.remaining()) throw new IllegalArgumentException("Malformed board of " + hexes + " hexes");
+        int[] q = new int[hexes];
+        int[] r = new int[hexes];
+        for (int h = 0; h < hexes; h++) {
+            q[h] = (int) Varint.getSignedLong(buf);
+            r[h] = (int) Varint.getSignedLong(buf);
+        }
+        return BoardTopology.fromAxial(q, r);
+    }
+
+    /**
+     * Reads the layout that follows a topology.
+     * @throws IllegalArgumentException If a hex is malformed.
+     */
+    public static BoardLayout readLayout(ByteBuffer buf, BoardTopology topology) {
+        long seed = buf.getLong();
+        int hexes = topology.getHexCount();
+        Resource[] tiles = new Resource[hexes];
+        int[] tokens = new int[hexes];
+        for (int h = 0; h < hexes; h++) {
+            int packed = buf.get() & 0xFF;
+            if (packed >>> 4 >= RESOURCES.length) throw new IllegalArgumentException("Malformed hex " + h);
+            tiles[h] = RESOURCES[packed >>> 4];
+            tokens[h] = packed & 0xF;
+        }
+        return BoardLayout.of(seed, tiles, tokens);
+    }
+}
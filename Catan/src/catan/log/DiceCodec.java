@@ -0,0 +1,59 @@
+package catan.log;
+
+import java.nio.ByteBuffer;
+
+import catan.utils.BalancedDice;
+import catan.utils.Dice;
+
+/**
+ * Binary form of a game's dice, so a restored game rolls exactly what the
+ * original would have: a mode byte and the state of the stream they roll
+ * from, then for a {@link BalancedDice} deck its settings, position, last
+ * roll and the order of its 36 cards.
+ */
+public final class DiceCodec {
+    /** Most bytes {@link #write} takes. */
+    public static final int MAX_BYTES = 1 + 8 + 4 + BalancedDice.DECK_SIZE;
+
+    // Dice modes
+    private static final int PLAIN = 0;
+    private static final int DECK = 1;
+
+    private DiceCodec() {}
+
+    /** Writes the dice at the buffer's position and advances past it. */
+    public static void write(ByteBuffer buf, Dice dice) {
+        if (!(dice instanceof BalancedDice)) {
+            buf.put((byte) PLAIN);
+            buf.putLong(dice.getState());
+            return;
+        }
+        BalancedDice deck = (BalancedDice) dice;
+        buf.put((byte) DECK);
+        buf.putLong(deck.getState());
+        buf.put((byte) deck.getReshuffleThreshold());
+        buf.put((byte) deck.getAntiStreakPercent());
+        buf.put((byte) deck.getRemaining());
+        buf.put((byte) deck.getLastRoll());
+        for (int i = 0; i < BalancedDice.DECK_SIZE; i++) buf.put((byte) deck.getCard(i));
+    }
+
+    /**
+     * Reads dice written by {@link #write} at the buffer's position and
+     * advances past them.
+     * @throws IllegalArgumentException If the bytes do not describe dice.
+     */
+    public static Dice read(ByteBuffer buf) {
+        int mode = buf.get();
+        long state = buf.getLong();
+        if (mode == PLAIN) return new Dice(state);
+        if (mode != DECK) throw new IllegalArgumentException("Unknown dice mode " + mode);
+        int threshold = buf.get();
+        int antiStreakPercent = buf.get();
+        int remaining = buf.get();
+        int lastRoll = buf.get();
+        byte[] cards = new byte[BalancedDice.DECK_SIZE];
+        buf.get(cards);
+        return BalancedDice.restore(state, threshold, antiStreakPercent, cards, remaining, lastRoll);
+    }
+}
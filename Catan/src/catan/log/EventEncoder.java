@@ -0,0 +1,173 @@
+package catan.log;
+
+import java.nio.ByteBuffer;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.resources.Resource;
+import catan.utils.Dice;
+
+/**
+ * Encodes game events into bytes: a one-byte {@link EventType} code followed
+ * by the event's fields as {@link Varint}s. Subclasses decide where the bytes
+ * go by supplying a buffer with room for one event; {@link GameEvent} reads
+ * them back.
+ */
+public abstract class EventEncoder implements GameEventListener {
+    /** Most bytes one event other than START can take. */
+    public static final int MAX_EVENT_BYTES = 128;
+    /** Most bytes a START, which carries the whole board, can take. */
+    public static final int MAX_START_BYTES = 4096;
+    /** Most seats an event can describe. */
+    public static final int MAX_SEATS = 6;
+
+    /**
+     * Returns a buffer with at least {@code bytes} free bytes, at most
+     * {@link #MAX_START_BYTES}; the event is written at its position.
+     */
+    protected abstract ByteBuffer beginEvent(int bytes);
+
+    /** Called after each event is written. */
+    protected void endEvent() {
+    }
+
+    private ByteBuffer begin(EventType type) {
+        return begin(type, MAX_EVENT_BYTES);
+    }
+
+    private ByteBuffer begin(EventType type, int bytes) {
+        ByteBuffer buf = beginEvent(bytes);
+        buf.put((byte) type.ordinal());
+        return buf;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the game has more than
+     *         {@link #MAX_SEATS} players or its board does not fit in
+     *         {@link #MAX_START_BYTES}; such games cannot be replayed, so
+     *         they are not logged at all.
+     */
+    @Override
+    public void gameStarted(int players, BoardTopology topology, int bankSize, BoardLayout layout, Dice dice, long randomState) {
+        if (players > MAX_SEATS) throw new IllegalArgumentException("At most " + MAX_SEATS + " players can be logged");
+        int bytes = 1 + 2 * 5 + Varint.MAX_LONG_BYTES + BoardCodec.maxBytes(topology) // code, players, bank, random state
+                + DiceCodec.MAX_BYTES;
+        if (bytes > MAX_START_BYTES) {
+            throw new IllegalArgumentException("A board of " + topology.getHexCount() + " hexes is too large to log");
+        }
+        ByteBuffer buf = begin(EventType.START, bytes);
+        Varint.putInt(buf, players);
+        Varint.putInt(buf, bankSize);
+        Varint.putLong(buf, randomState);
+        BoardCodec.write(buf, topology, layout);
+        DiceCodec.write(buf, dice);
+        endEvent();
+    }
+
+    @Override
+    public void randomReseeded(long randomState) {
+        Varint.putLong(begin(EventType.RESEED), randomState);
+        endEvent();
+    }
+
+    @Override
+    public void setupSettlementPlaced(int seat, int intersection) {
+        seatAndTarget(EventType.SETUP_SETTLEMENT, seat, intersection);
+    }
+
+    @Override
+    public void setupRoadPlaced(int seat, int edge) {
+        seatAndTarget(EventType.SETUP_ROAD, seat, edge);
+    }
+
+    @Override
+    public void diceRolled(int seat, int sum, long[] payouts) {
+        ByteBuffer buf = begin(EventType.ROLL);
+        Varint.putInt(buf, seat);
+        Varint.putInt(buf, sum);
+        int paid = 0;
+        for (int s = 0; s < payouts.length; s++) {
+            if (payouts[s] != 0) paid |= 1 << s;
+        }
+        buf.put((byte) paid);
+        for (int s = 0; paid != 0; s++, paid >>>= 1) {
+            if ((paid & 1) != 0) Varint.putCards(buf, payouts[s]);
+        }
+        endEvent();
+    }
+
+    @Override
+    public void cardsDiscarded(int seat, long cards) {
+        ByteBuffer buf = begin(EventType.DISCARD);
+        Varint.putInt(buf, seat);
+        Varint.putCards(buf, cards);
+        endEvent();
+    }
+
+    @Override
+    public void robberMoved(int seat, int hex) {
+        seatAndTarget(EventType.MOVE_ROBBER, seat, hex);
+    }
+
+    @Override
+    public void resourceStolen(int thief, int victim, Resource stolen) {
+        ByteBuffer buf = begin(EventType.STEAL);
+        Varint.putInt(buf, thief);
+        Varint.putInt(buf, victim);
+        buf.put((byte) (stolen == null ? 0 : stolen.ordinal() + 1));
+        endEvent();
+    }
+
+    @Override
+    public void roadBuilt(int seat, int edge) {
+        seatAndTarget(EventType.BUILD_ROAD, seat, edge);
+    }
+
+    @Override
+    public void settlementBuilt(int seat, int intersection) {
+        seatAndTarget(EventType.BUILD_SETTLEMENT, seat, intersection);
+    }
+
+    @Override
+    public void cityBuilt(int seat, int intersection) {
+        seatAndTarget(EventType.BUILD_CITY, seat, intersection);
+    }
+
+    @Override
+    public void tradedWithBank(int seat, long gives, long gets) {
+        ByteBuffer buf = begin(EventType.TRADE_BANK);
+        Varint.putInt(buf, seat);
+        Varint.putCards(buf, gives);
+        Varint.putCards(buf, gets);
+        endEvent();
+    }
+
+    @Override
+    public void tradedWithPlayer(int seat, long gives, int other, long gets) {
+        ByteBuffer buf = begin(EventType.TRADE_PLAYER);
+        Varint.putInt(buf, seat);
+        Varint.putCards(buf, gives);
+        Varint.putInt(buf, other);
+        Varint.putCards(buf, gets);
+        endEvent();
+    }
+
+    @Override
+    public void turnEnded(int seat) {
+        Varint.putInt(begin(EventType.END_TURN), seat);
+        endEvent();
+    }
+
+    @Override
+    public void actionUndone() {
+        begin(EventType.UNDO);
+        endEvent();
+    }
+
+    private void seatAndTarget(EventType type, int seat, int target) {
+        ByteBuffer buf = begin(type);
+        Varint.putInt(buf, seat);
+        Varint.putInt(buf, target);
+        endEvent();
+    }
+}
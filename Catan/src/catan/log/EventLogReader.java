@@ -0,0 +1,98 @@
+package catan.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the events of a log segment written by {@link EventLogWriter}
+ * through a fixed-size buffer, so a segment of any length is read in constant
+ * memory:
+ *
+ * <pre>
+ * try (EventLogReader reader = new EventLogReader(path)) {
+ *     while (reader.next()) handle(reader.getEvent());
+ * }
+ * </pre>
+ */
+public final class EventLogReader implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final GameEvent event = new GameEvent();
+    private boolean endOfInput;
+    private long eventIndex = -1;
+
+    public EventLogReader(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /** Reads a segment from any channel, which is closed with the reader. */
+    public EventLogReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.flip();
+        fill(EventLogWriter.HEADER_BYTES);
+        if (buffer.remaining() < EventLogWriter.HEADER_BYTES || buffer.getInt() != EventLogWriter.MAGIC) {
+            throw new IOException("Not an event log");
+        }
+        byte version = buffer.get();
+        if (version != EventLogWriter.VERSION) throw new IOException("Unsupported event log version " + version);
+    }
+
+    /**
+     * Moves to the next event.
+     * @return False at the end of the segment.
+     * @throws IOException If the segment ends in the middle of an event or cannot be read.
+     */
+    public boolean next() throws IOException {
+        fill(EventEncoder.MAX_EVENT_BYTES);
+        if (!buffer.hasRemaining()) return false;
+        int start = buffer.position();
+        if ((buffer.get(start) & 0xFF) == EventType.START.ordinal()) {
+            fill(EventEncoder.MAX_START_BYTES);
+            start = buffer.position();
+        }
+        try {
+            event.read(buffer);
+        } catch (BufferUnderflowException ex) {
+            buffer.position(start);
+            throw new IOException("Event log ends in the middle of event " + (eventIndex + 1));
+        } catch (IllegalArgumentException ex) {
+            buffer.position(start);
+            throw new IOException("Malformed event " + (eventIndex + 1), ex);
+        }
+        eventIndex++;
+        return true;
+    }
+
+    /** The current event; overwritten by the next call to {@link #next()}. */
+    public GameEvent getEvent() {
+        return event;
+    }
+
+    /** Zero-based index of the current event in the segment. */
+    public long getEventIndex() {
+        return eventIndex;
+    }
+
+    // Reads until at least the wanted number of bytes is buffered or the input ends
+    private void fill(int wanted) throws IOException {
+        if (buffer.remaining() >= wanted || endOfInput) return;
+        buffer.compact();
+        while (buffer.position() < wanted && !endOfInput) {
+            if (channel.read(buffer) < 0) endOfInput = true;
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,30 @@
+package catan.log;
+
+/**
+ * Kinds of logged game events. The ordinal is the one-byte code written to
+ * the log, so new kinds go at the end.
+ */
+public enum EventType {
+    START,
+    RESEED,
+    SETUP_SETTLEMENT,
+    SETUP_ROAD,
+    ROLL,
+    DISCARD,
+    MOVE_ROBBER,
+    STEAL,
+    BUILD_ROAD,
+    BUILD_SETTLEMENT,
+    BUILD_CITY,
+    TRADE_BANK,
+    TRADE_PLAYER,
+    END_TURN,
+    UNDO;
+
+    private static final EventType[] CODES = values();
+
+    public static EventType fromCode(int code) {
+        if (code < 0 || code >= CODES.length) throw new IllegalStateException("Unknown event code " + code);
+        return CODES[code];
+    }
+}
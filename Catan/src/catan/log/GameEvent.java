@@ -0,0 +1,194 @@
+package catan.log;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.resources.Resource;
+import catan.utils.Dice;
+
+/**
+ * One decoded event, reused from event to event so reading a log does not
+ * allocate (except a START, which builds its board). Which getters are meaningful depends on {@link #getType()}:
+ *
+ * <ul>
+ * <li>START: player count, topology, bank size, layout, dice, random state</li>
+ * <li>RESEED: random state</li>
+ * <li>SETUP_SETTLEMENT, SETUP_ROAD, BUILD_*: seat, target (intersection or edge)</li>
+ * <li>ROLL: seat, target (the dice sum), payouts</li>
+ * <li>DISCARD: seat, cards</li>
+ * <li>MOVE_ROBBER: seat, target (hex)</li>
+ * <li>STEAL: seat (thief), other seat (victim), resource</li>
+ * <li>TRADE_BANK: seat, cards given, other cards (received)</li>
+ * <li>TRADE_PLAYER: seat, cards given, other seat, other cards (received)</li>
+ * <li>END_TURN: seat</li>
+ * <li>UNDO: nothing</li>
+ * </ul>
+ */
+public final class GameEvent {
+    private static final Resource[] RESOURCES = Resource.values();
+
+    private EventType type;
+    private int seat;
+    private int target;
+    private int otherSeat;
+    private Resource resource;
+    private long cards;
+    private long otherCards;
+    private final long[] payouts = new long[EventEncoder.MAX_SEATS];
+    private boolean payoutsLogged;
+    private int playerCount;
+    private BoardTopology topology;
+    private int bankSize;
+    private BoardLayout layout;
+    private Dice dice;
+    private long randomState;
+
+    /** Decodes the event at the buffer's position and advances past it. */
+    public void read(ByteBuffer buf) {
+        type = EventType.fromCode(buf.get() & 0xFF);
+        switch (type) {
+            case START:
+                playerCount = Varint.getInt(buf);
+                bankSize = Varint.getInt(buf);
+                randomState = Varint.getLong(buf);
+                topology = BoardCodec.readTopology(buf);
+                layout = BoardCodec.readLayout(buf, topology);
+                dice = DiceCodec.read(buf);
+                break;
+            case RESEED:
+                randomState = Varint.getLong(buf);
+                break;
+            case SETUP_SETTLEMENT:
+            case SETUP_ROAD:
+            case MOVE_ROBBER:
+            case BUILD_ROAD:
+            case BUILD_SETTLEMENT:
+            case BUILD_CITY:
+                seat = Varint.getInt(buf);
+                target = Varint.getInt(buf);
+                break;
+            case ROLL:
+                seat = Varint.getInt(buf);
+                target = Varint.getInt(buf);
+                Arrays.fill(payouts, 0L);
+                payoutsLogged = true;
+                int paid = buf.get() & 0xFF;
+                if (paid >>> EventEncoder.MAX_SEATS != 0) throw new IllegalStateException("Malformed roll event");
+                for (int s = 0; paid != 0; s++, paid >>>= 1) {
+                    if ((paid & 1) != 0) payouts[s] = Varint.getCards(buf);
+                }
+                break;
+            case DISCARD:
+                seat = Varint.getInt(buf);
+                cards = Varint.getCards(buf);
+                break;
+            case STEAL:
+                seat = Varint.getInt(buf);
+                otherSeat = Varint.getInt(buf);
+                int stolen = buf.get();
+                resource = stolen == 0 ? null : RESOURCES[stolen - 1];
+                break;
+            case TRADE_BANK:
+                seat = Varint.getInt(buf);
+                cards = Varint.getCards(buf);
+                otherCards = Varint.getCards(buf);
+                break;
+            case TRADE_PLAYER:
+                seat = Varint.getInt(buf);
+                cards = Varint.getCards(buf);
+                otherSeat = Varint.getInt(buf);
+                otherCards = Varint.getCards(buf);
+                break;
+            case END_TURN:
+                seat = Varint.getInt(buf);
+                break;
+            case UNDO:
+                break;
+        }
+    }
+
+    // Filled in field by field by decoders of other formats (see NotationReader)
+
+    void set(EventType type, int seat, int target) {
+        this.type = type;
+        this.seat = seat;
+        this.target = target;
+    }
+
+    void setOther(int otherSeat, Resource resource) {
+        this.otherSeat = otherSeat;
+        this.resource = resource;
+    }
+
+    void setCards(long cards, long otherCards) {
+        this.cards = cards;
+        this.otherCards = otherCards;
+    }
+
+    void setStart(int playerCount, BoardTopology topology, int bankSize, BoardLayout layout, Dice dice, long randomState) {
+        this.type = EventType.START;
+        this.playerCount = playerCount;
+        this.topology = topology;
+        this.bankSize = bankSize;
+        this.layout = layout;
+        this.dice = dice;
+        this.randomState = randomState;
+    }
+
+    void setRandomState(long randomState) {
+        this.randomState = randomState;
+    }
+
+    void clearPayouts() {
+        Arrays.fill(payouts, 0L);
+        payoutsLogged = false;
+    }
+
+    public EventType getType() { return type; }
+
+    /** Acting seat. */
+    public int getSeat() { return seat; }
+
+    /** Intersection, edge or hex id, or the dice sum of a ROLL. */
+    public int getTarget() { return target; }
+
+    /** Victim of a STEAL or trading partner of a TRADE_PLAYER. */
+    public int getOtherSeat() { return otherSeat; }
+
+    /** Card taken by a STEAL, or null. */
+    public Resource getResource() { return resource; }
+
+    /** Cards discarded or given in a trade. */
+    public long getCards() { return cards; }
+
+    /** Cards received in a trade. */
+    public long getOtherCards() { return otherCards; }
+
+    /** Cards the seat received from a ROLL. */
+    public long getPayout(int seat) { return payouts[seat]; }
+
+    /** Whether a ROLL carries its payouts; the text notation leaves them out. */
+    public boolean hasPayouts() { return payoutsLogged; }
+
+    public int getPlayerCount() { return playerCount; }
+    public BoardTopology getTopology() { return topology; }
+    public int getHexCount() { return topology.getHexCount(); }
+    public int getBankSize() { return bankSize; }
+
+    /** Tiles and tokens of every hex, in hex id order. */
+    public BoardLayout getLayout() { return layout; }
+
+    /** Seed of a generated layout, or {@link BoardLayout#NO_SEED}. */
+    public long getLayoutSeed() { return layout.getSeed(); }
+
+    /** The game's dice as it started, or null if the format does not record them; copy before rolling. */
+    public Dice getDice() { return dice; }
+    public long getRandomState() { return randomState; }
+
+    @Override
+    public String toString() {
+        return type + " seat " + seat + " target " + target;
+    }
+}
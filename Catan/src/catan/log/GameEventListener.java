@@ -0,0 +1,60 @@
+package catan.log;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.resources.Resource;
+import catan.utils.Dice;
+
+/**
+ * Receives every state-changing action of a {@link catan.main.Game} once it
+ * has succeeded, on the game's thread. Players are given by seat (their index
+ * in {@code Game.getPlayers()}) and cards as {@link catan.resources.ResourceVector}s.
+ *
+ * Together the events reproduce the game: replaying them in order on a game
+ * started the same way gives the same state, steals included.
+ */
+public interface GameEventListener {
+
+    /**
+     * The game was initialized on {@code topology} with the tiles and tokens
+     * of {@code layout}, whose seed is {@link BoardLayout#NO_SEED} unless it
+     * was generated. {@code dice} are the game's own; a listener that keeps
+     * their state must copy it, as they roll on.
+     */
+    void gameStarted(int players, BoardTopology topology, int bankSize, BoardLayout layout, Dice dice, long randomState);
+
+    /** The game's random generator was restarted from {@code randomState}. */
+    void randomReseeded(long randomState);
+
+    void setupSettlementPlaced(int seat, int intersection);
+
+    void setupRoadPlaced(int seat, int edge);
+
+    /**
+     * Dice were rolled for the seat's turn. {@code payouts[s]} holds the cards
+     * seat s received (0 for none, and for every seat on a 7).
+     */
+    void diceRolled(int seat, int sum, long[] payouts);
+
+    void cardsDiscarded(int seat, long cards);
+
+    void robberMoved(int seat, int hex);
+
+    /** {@code stolen} is null if the victim had nothing to steal. */
+    void resourceStolen(int thief, int victim, Resource stolen);
+
+    void roadBuilt(int seat, int edge);
+
+    void settlementBuilt(int seat, int intersection);
+
+    void cityBuilt(int seat, int intersection);
+
+    void tradedWithBank(int seat, long gives, long gets);
+
+    void tradedWithPlayer(int seat, long gives, int other, long gets);
+
+    void turnEnded(int seat);
+
+    /** The latest action was undone. */
+    void actionUndone();
+}
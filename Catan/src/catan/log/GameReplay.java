@@ -0,0 +1,375 @@
+package catan.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import catan.main.Game;
+import catan.main.GameSnapshot;
+import catan.players.Player;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+
+/**
+ * Rebuilds a logged game at any point of its event stream.
+ *
+ * Opening a replay plays the whole game once and keeps a {@link GameSnapshot}
+ * every {@code interval} events, with the log position that follows it.
+ * {@link #seek(long)} then loads the nearest checkpoint at or before the
+ * wanted event and replays at most {@code interval} events from there, so a
+ * seek costs the same early or late in a game of any length.
+ *
+ * Replay calls the same {@link Game} methods the original game did, so a
+ * replayed game is the logged one: steals draw from the logged generator
+ * state, and a steal that takes a different card or a roll that pays
+ * different cards than the log says is reported as a divergence. An UNDO
+ * that reaches back past a checkpoint (snapshots carry no undo history)
+ * falls back to the checkpoint before it.
+ *
+ * The segment is memory-mapped and read from the start of its first game up
+ * to the next START event. Seeking does not change the replay, so one replay
+ * can serve several threads.
+ */
+public final class GameReplay {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 256;
+
+    private static final Resource[] RESOURCES = Resource.values();
+
+    private final ByteBuffer segment;
+    private final int interval;
+    private final int firstEventPosition;
+    private long eventCount;
+
+    // Checkpoint k holds the game after event checkpointEvent[k], followed in the log by eventPosition[k]
+    private long[] checkpointEvent = new long[16];
+    private int[] eventPosition = new int[16];
+    private int[] snapshotStart = new int[16];
+    private int checkpoints;
+    private ByteBuffer snapshots = ByteBuffer.allocate(4096);
+
+    // Event after which each turn of normal play begins
+    private long[] turnStart = new long[64];
+    private int turns;
+
+    public GameReplay(Path file) throws IOException {
+        this(file, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public GameReplay(Path file, int interval) throws IOException {
+        this(map(file), interval);
+    }
+
+    /** Replays the segment (header included) held by the buffer between its position and limit. */
+    public GameReplay(ByteBuffer segment, int interval) {
+        if (interval < 1) throw new IllegalArgumentException("Checkpoint interval must be positive");
+        this.segment = events(segment);
+        this.interval = interval;
+        this.firstEventPosition = this.segment.position();
+        index();
+    }
+
+    // Read-only view of the segment, positioned after a checked header
+    private static ByteBuffer events(ByteBuffer segment) {
+        ByteBuffer events = segment.slice().asReadOnlyBuffer();
+        if (events.remaining() < EventLogWriter.HEADER_BYTES || events.getInt() != EventLogWriter.MAGIC) {
+            throw new IllegalArgumentException("Not an event log");
+        }
+        byte version = events.get();
+        if (version != EventLogWriter.VERSION) throw new IllegalArgumentException("Unsupported event log version " + version);
+        return events;
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /** Events in the game, START included. */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public int getCheckpointCount() {
+        return checkpoints;
+    }
+
+    /** Turns of normal play that were started, counting the one in progress at the end. */
+    public int getTurnCount() {
+        return turns;
+    }
+
+    /** Index of the event after which turn {@code turn} (0 = first turn after setup) begins. */
+    public long getTurnStartEvent(int turn) {
+        if (turn < 0 || turn >= turns) throw new IllegalArgumentException("Turn out of range: " + turn);
+        return turnStart[turn];
+    }
+
+    /** The game as it was at the start of a turn of normal play. */
+    public Game seekTurn(int turn) {
+        return seek(getTurnStartEvent(turn));
+    }
+
+    /** The game at the end of the log. */
+    public Game seekEnd() {
+        return seek(eventCount - 1);
+    }
+
+    /**
+     * The game right after event {@code eventIndex} (0 is START), as a new
+     * quiet game with undo disabled and no listener.
+     */
+    public Game seek(long eventIndex) {
+        if (eventIndex < 0 || eventIndex >= eventCount) throw new IllegalArgumentException("Event out of range: " + eventIndex);
+        ByteBuffer events = segment.duplicate();
+        GameEvent event = new GameEvent();
+        int k = nearestCheckpoint(eventIndex);
+        while (true) {
+            Game game = replayFrom(k, eventIndex, events, event);
+            if (game != null) {
+                game.setUndoEnabled(false);
+                return game;
+            }
+            k--; // an undo reached back past checkpoint k
+        }
+    }
+
+    // Largest checkpoint at or before the event, or -1 for the start of the log
+    private int nearestCheckpoint(long eventIndex) {
+        int lo = 0;
+        int hi = checkpoints - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (checkpointEvent[mid] <= eventIndex) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /** Replays from checkpoint k (-1: the start) through the event, or returns null if an undo needs older history. */
+    private Game replayFrom(int k, long eventIndex, ByteBuffer events, GameEvent event) {
+        Game game = null;
+        long next = 0;
+        events.position(firstEventPosition);
+        if (k >= 0) {
+            ByteBuffer image = snapshots.duplicate();
+            image.position(snapshotStart[k]);
+            game = GameSnapshot.read(image);
+            game.setQuiet(true);
+            game.setUndoEnabled(true);
+            next = checkpointEvent[k] + 1;
+            events.position(eventPosition[k]);
+        }
+        for (; next <= eventIndex; next++) {
+            event.read(events);
+            if (k >= 0 && event.getType() == EventType.UNDO && !game.canUndo()) return null;
+            game = apply(game, event, next);
+        }
+        return game;
+    }
+
+    // Single pass over the game: counts events, finds turns and takes the checkpoints
+    private void index() {
+        ByteBuffer events = segment.duplicate();
+        GameEvent event = new GameEvent();
+        Game game = null;
+        long index = 0;
+        while (events.hasRemaining()) {
+            event.read(events);
+            if (index > 0 && event.getType() == EventType.START) break; // the next game in the segment
+            game = apply(game, event, index);
+            if (event.getType() == EventType.END_TURN || (turns == 0 && !game.isSetupPhase())) addTurn(index);
+            if (index % interval == interval - 1) addCheckpoint(game, index, events.position());
+            index++;
+        }
+        if (index == 0) throw new IllegalArgumentException("Event log holds no game");
+        eventCount = index;
+    }
+
+    private void addTurn(long index) {
+        if (turns == turnStart.length) turnStart = Arrays.copyOf(turnStart, turns * 2);
+        turnStart[turns++] = index;
+    }
+
+    private void addCheckpoint(Game game, long index, int position) {
+        if (checkpoints == checkpointEvent.length) {
+            checkpointEvent = Arrays.copyOf(checkpointEvent, checkpoints * 2);
+            eventPosition = Arrays.copyOf(eventPosition, checkpoints * 2);
+            snapshotStart = Arrays.copyOf(snapshotStart, checkpoints * 2);
+        }
+        int needed = GameSnapshot.maxBytes(game);
+        if (snapshots.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(snapshots.capacity() * 2, snapshots.position() + needed));
+            snapshots.flip();
+            grown.put(snapshots);
+            snapshots = grown;
+        }
+        checkpointEvent[checkpoints] = index;
+        eventPosition[checkpoints] = position;
+        snapshotStart[checkpoints] = snapshots.position();
+        GameSnapshot.write(game, snapshots);
+        checkpoints++;
+    }
+
+    /**
+     * Applies one event to the game and returns the game (a new one for START).
+     * @throws IllegalStateException If the game does not accept the event or it plays out differently than logged.
+     */
+    static Game apply(Game game, GameEvent event, long index) {
+        if (game == null && event.getType() != EventType.START) {
+            throw new IllegalStateException("Event " + index + " comes before the game started");
+        }
+        try {
+            switch (event.getType()) {
+                case START:
+                    return start(event);
+                case RESEED:
+                    game.reseedRandom(event.getRandomState());
+                    break;
+                case SETUP_SETTLEMENT:
+                    game.placeSetupSettlement(seat(game, event.getSeat()), event.getTarget());
+                    break;
+                case SETUP_ROAD:
+                    game.placeSetupRoad(seat(game, event.getSeat()), event.getTarget());
+                    break;
+                case ROLL:
+                    roll(game, event, index);
+                    break;
+                case DISCARD:
+                    game.discardResourcesToBank(seat(game, event.getSeat()), toMap(event.getCards()));
+                    break;
+                case MOVE_ROBBER:
+                    game.moveRobberToHex(event.getTarget());
+                    break;
+                case STEAL:
+                    Resource stolen = game.stealRandomResource(seat(game, event.getSeat()), seat(game, event.getOtherSeat()));
+                    if (stolen != event.getResource()) {
+                        throw new IllegalStateException("Replay diverged at event " + index + ": stole " + stolen
+                                + " instead of " + event.getResource());
+                    }
+                    break;
+                case BUILD_ROAD:
+                    game.buildRoad(seat(game, event.getSeat()), event.getTarget());
+                    break;
+                case BUILD_SETTLEMENT:
+                    game.buildSettlement(seat(game, event.getSeat()), event.getTarget());
+                    break;
+                case BUILD_CITY:
+                    game.buildCity(seat(game, event.getSeat()), event.getTarget());
+                    break;
+                case TRADE_BANK:
+                    game.tradeWithBank(seat(game, event.getSeat()), event.getCards(), event.getOtherCards());
+                    break;
+                case TRADE_PLAYER:
+                    game.tradeWithPlayer(seat(game, event.getSeat()), event.getCards(),
+                            seat(game, event.getOtherSeat()), event.getOtherCards());
+                    break;
+                case END_TURN:
+                    game.endTurn();
+                    break;
+                case UNDO:
+                    game.undo();
+                    break;
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Replay diverged at event " + index + " (" + event + ")", ex);
+        }
+        return game;
+    }
+
+    /** Pays out a roll and checks that every seat received the logged cards, when the log has them. */
+    private static void roll(Game game, GameEvent event, long index) {
+        if (!event.hasPayouts()) {
+            game.applyRollPayouts(event.getTarget());
+            return;
+        }
+        List<Player> players = game.getPlayers();
+        long[] hands = new long[players.size()];
+        for (int s = 0; s < hands.length; s++) hands[s] = players.get(s).getInventory().getResources();
+        game.applyRollPayouts(event.getTarget());
+        for (int s = 0; s < hands.length; s++) {
+            long paid = ResourceVector.subtract(players.get(s).getInventory().getResources(), hands[s]);
+            if (paid != event.getPayout(s)) {
+                throw new IllegalStateException("Replay diverged at event " + index + ": seat " + s + " received "
+                        + ResourceVector.toString(paid) + " instead of " + ResourceVector.toString(event.getPayout(s)));
+            }
+        }
+    }
+
+    private static Game start(GameEvent event) {
+        Game game = new Game();
+        game.setQuiet(true);
+        if (event.getDice() != null) game.setDice(event.getDice().copy());
+        game.initializeGame(event.getPlayerCount(), event.getTopology(), event.getBankSize(), event.getLayout());
+        game.reseedRandom(event.getRandomState());
+        game.setUndoEnabled(true);
+        return game;
+    }
+
+    private static Player seat(Game game, int seat) {
+        if (seat < 0 || seat >= game.getPlayers().size()) throw new IllegalStateException("No seat " + seat);
+        return game.getPlayers().get(seat);
+    }
+
+    private static Map<Resource, Integer> toMap(long cards) {
+        Map<Resource, Integer> map = new EnumMap<>(Resource.class);
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            int count = ResourceVector.get(cards, lane);
+            if (count > 0) map.put(RESOURCES[lane], count);
+        }
+        return map;
+    }
+
+    /**
+     * Replays the game in each segment to its end on the executor, one task
+     * per file, and returns what {@code summarize} makes of each final game,
+     * in file order.
+     */
+    public static <T> List<T> replayAll(List<Path> files, Function<? super Game, ? extends T> summarize, ExecutorService executor) {
+        List<Future<T>> pending = new ArrayList<>(files.size());
+        for (Path file : files) {
+            pending.add(executor.submit(() -> summarize.apply(replay(map(file)))));
+        }
+        List<T> results = new ArrayList<>(files.size());
+        try {
+            for (Future<T> future : pending) results.add(future.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Replay failed", ex.getCause());
+        }
+        return results;
+    }
+
+    /** Plays the first game of a segment (header included) to its end, without checkpoints. */
+    public static Game replay(ByteBuffer segment) {
+        ByteBuffer events = events(segment);
+        GameEvent event = new GameEvent();
+        Game game = null;
+        for (long index = 0; events.hasRemaining(); index++) {
+            event.read(events);
+            if (index > 0 && event.getType() == EventType.START) break;
+            game = apply(game, event, index);
+        }
+        if (game == null) throw new IllegalArgumentException("Event log holds no game");
+        game.setUndoEnabled(false);
+        return game;
+    }
+}
@@ -0,0 +1,507 @@
+package catan.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import catan.main.Game;
+import catan.main.GameSnapshot;
+
+/**
+ * Write-ahead log shared by every game on a node, with group commit.
+ *
+ * Each game logs through its own {@link GameLog}, which encodes events like
+ * {@link EventLogWriter} behind a varint game id. Records from all games go
+ * into one batch buffer; a single flusher thread writes each batch and forces
+ * it to disk with one {@code force()}, then releases every game waiting on
+ * it. A record waits at most {@code maxDelayNanos} before its batch is sealed
+ * (0: as soon as the previous force is done), so one disk flush makes a whole
+ * batch of actions from many games durable at once. An event listener call
+ * returns only once its event is on disk.
+ *
+ * On disk a log is a header ({@link #MAGIC}, version) followed by batches:
+ * payload length, CRC-32 of the payload, then the records. A batch torn by a
+ * crash fails its check; {@link #recover(Path)} stops there and opening the
+ * log again truncates it away.
+ *
+ * {@link #recover(Path)} rebuilds every game that was not closed, from its
+ * latest {@link GameLog#checkpoint(Game) checkpoint} plus the events after it;
+ * a game that does not replay is reported without holding up the others.
+ */
+public final class GroupCommitLog implements Closeable {
+    /** First bytes of a log: "CTNW". */
+    public static final int MAGIC = 0x43544E57;
+    public static final byte VERSION = 3;
+    public static final int HEADER_BYTES = 5;
+    public static final int DEFAULT_BATCH_BYTES = 256 * 1024;
+
+    private static final int FRAME_BYTES = 8;                // payload length, CRC-32
+    private static final int MAX_PAYLOAD_BYTES = 64 << 20;   // longer frames can only be torn ones
+
+    // Record kinds besides event codes
+    private static final int SNAPSHOT = 0xFE;  // int length, snapshot bytes
+    private static final int FINISHED = 0xFF;
+
+    private final FileChannel channel;
+    private final long maxDelayNanos;
+    private final int batchBytes;
+    private final Thread flusher;
+
+    // Guarded by this
+    private ByteBuffer filling;
+    private ByteBuffer spare;
+    private int fillingRecords;
+    private long firstAppendNanos;
+    private boolean sealRequested;
+    private long sealedBatches;
+    private long committedBatches;
+    private long committedRecords;
+    private boolean closed;
+    private IOException failure;
+
+    public GroupCommitLog(Path file) throws IOException {
+        this(file, 0, DEFAULT_BATCH_BYTES);
+    }
+
+    /**
+     * Opens the log for appending, creating it if needed and cutting off a
+     * batch torn by a crash.
+     * @param maxDelayNanos Longest a record waits for more records before its batch is sealed.
+     * @param batchBytes Most record bytes in one batch.
+     */
+    public GroupCommitLog(Path file, long maxDelayNanos, int batchBytes) throws IOException {
+        if (maxDelayNanos < 0) throw new IllegalArgumentException("Delay cannot be negative");
+        if (batchBytes < 2 * EventEncoder.MAX_START_BYTES) {
+            throw new IllegalArgumentException("Batches must hold at least " + 2 * EventEncoder.MAX_START_BYTES + " bytes");
+        }
+        this.maxDelayNanos = maxDelayNanos;
+        this.batchBytes = batchBytes;
+        this.filling = newBatch(batchBytes);
+        this.spare = newBatch(batchBytes);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).put(VERSION);
+                header.flip();
+                while (header.hasRemaining()) channel.write(header);
+            } else {
+                BatchScanner scanner = new BatchScanner(channel);
+                while (scanner.next() != null) {
+                    // skip to the end of the last whole batch
+                }
+                channel.truncate(scanner.getValidLength());
+                channel.position(scanner.getValidLength());
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        flusher = new Thread(this::flushLoop, "catan-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private static ByteBuffer newBatch(int batchBytes) {
+        ByteBuffer batch = ByteBuffer.allocateDirect(FRAME_BYTES + batchBytes);
+        batch.position(FRAME_BYTES);
+        return batch;
+    }
+
+    /** Starts logging a game; its events go to the log under {@code gameId}. */
+    public GameLog openGame(long gameId) {
+        if (gameId < 0) throw new IllegalArgumentException("Game id cannot be negative");
+        return new GameLog(gameId);
+    }
+
+    /** Batches forced to disk so far. */
+    public synchronized long getCommittedBatches() {
+        return committedBatches;
+    }
+
+    /** Records forced to disk so far. */
+    public synchronized long getCommittedRecords() {
+        return committedRecords;
+    }
+
+    // Copies one record into the open batch and returns the number the batch will be committed as
+    private synchronized long append(ByteBuffer record) {
+        int bytes = record.remaining();
+        if (bytes > batchBytes) throw new IllegalArgumentException("Record of " + bytes + " bytes does not fit in a batch");
+        try {
+            while (true) {
+                checkOpen();
+                if (filling.remaining() >= bytes) break;
+                sealRequested = true;
+                notifyAll();
+                wait();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while logging", ex);
+        }
+        if (filling.position() == FRAME_BYTES) {
+            firstAppendNanos = System.nanoTime();
+            notifyAll();
+        }
+        filling.put(record);
+        fillingRecords++;
+        return sealedBatches + 1;
+    }
+
+    private synchronized void awaitCommit(long batch) {
+        try {
+            while (committedBatches < batch) {
+                if (failure != null) throw new UncheckedIOException("Could not write the log", failure);
+                wait();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the log", ex);
+        }
+    }
+
+    private void checkOpen() {
+        if (failure != null) throw new UncheckedIOException("Could not write the log", failure);
+        if (closed) throw new IllegalStateException("Log is closed");
+    }
+
+    private void flushLoop() {
+        CRC32 crc = new CRC32();
+        ByteBuffer free = null;
+        try {
+            while (true) {
+                ByteBuffer batch;
+                long number;
+                int records;
+                synchronized (this) {
+                    if (free != null) spare = free;
+                    while (filling.position() == FRAME_BYTES && !closed) wait();
+                    if (filling.position() == FRAME_BYTES) return; // closed and drained
+                    while (!closed && !sealRequested) {
+                        long left = firstAppendNanos + maxDelayNanos - System.nanoTime();
+                        if (left <= 0) break;
+                        TimeUnit.NANOSECONDS.timedWait(this, left);
+                    }
+                    batch = filling;
+                    records = fillingRecords;
+                    filling = spare;
+                    spare = null;
+                    fillingRecords = 0;
+                    sealRequested = false;
+                    number = ++sealedBatches;
+                    notifyAll();
+                }
+
+                batch.flip();
+                ByteBuffer payload = batch.duplicate();
+                payload.position(FRAME_BYTES);
+                crc.reset();
+                crc.update(payload);
+                batch.putInt(0, batch.limit() - FRAME_BYTES);
+                batch.putInt(4, (int) crc.getValue());
+                while (batch.hasRemaining()) channel.write(batch);
+                channel.force(false);
+
+                synchronized (this) {
+                    committedBatches = number;
+                    committedRecords += records;
+                    notifyAll();
+                }
+                batch.clear();
+                batch.position(FRAME_BYTES);
+                free = batch;
+            }
+        } catch (IOException ex) {
+            fail(ex);
+        } catch (InterruptedException ex) {
+            fail(new InterruptedIOException("Log flusher interrupted"));
+        }
+    }
+
+    private synchronized void fail(IOException ex) {
+        failure = ex;
+        notifyAll();
+    }
+
+    /** Commits what has been logged, stops the flusher and closes the file. */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        synchronized (this) {
+            if (failure != null) throw failure;
+        }
+    }
+
+    /**
+     * One game's events in the shared log. Not thread-safe: used on the
+     * game's thread, like the game itself.
+     */
+    public final class GameLog extends EventEncoder implements Closeable {
+        private final long gameId;
+        private ByteBuffer staging = ByteBuffer.allocate(Varint.MAX_LONG_BYTES + MAX_EVENT_BYTES);
+        private boolean finished;
+
+        private GameLog(long gameId) {
+            this.gameId = gameId;
+        }
+
+        public long getGameId() {
+            return gameId;
+        }
+
+        @Override
+        protected ByteBuffer beginEvent(int bytes) {
+            if (finished) throw new IllegalStateException("Game " + gameId + " is closed");
+            if (staging.capacity() < Varint.MAX_LONG_BYTES + bytes) staging = ByteBuffer.allocate(Varint.MAX_LONG_BYTES + bytes);
+            staging.clear();
+            Varint.putLong(staging, gameId);
+            return staging;
+        }
+
+        @Override
+        protected void endEvent() {
+            staging.flip();
+            awaitCommit(append(staging));
+        }
+
+        /**
+         * Logs a snapshot of the game, so recovery starts from here instead of
+         * the game's first event. Returns once it is on disk.
+         */
+        public void checkpoint(Game game) {
+            if (finished) throw new IllegalStateException("Game " + gameId + " is closed");
+            ByteBuffer record = ByteBuffer.allocate(Varint.MAX_LONG_BYTES + 5 + GameSnapshot.maxBytes(game));
+            Varint.putLong(record, gameId);
+            record.put((byte) SNAPSHOT);
+            int lengthAt = record.position();
+            record.position(lengthAt + 4);
+            GameSnapshot.write(game, record);
+            record.putInt(lengthAt, record.position() - lengthAt - 4);
+            record.flip();
+            awaitCommit(append(record));
+        }
+
+        /** Marks the game finished, so recovery leaves it out. Returns once that is on disk. */
+        @Override
+        public void close() {
+            if (finished) return;
+            finished = true;
+            staging.clear();
+            Varint.putLong(staging, gameId);
+            staging.put((byte) FINISHED);
+            staging.flip();
+            awaitCommit(append(staging));
+        }
+    }
+
+    // -------------------- Recovery --------------------
+
+    /**
+     * Rebuilds every game in the log that was not closed. Games come back
+     * quiet, with undo disabled and no listener. Only whole batches are read.
+     * A game whose records do not replay is reported in the result's
+     * failures and does not stop the others from being rebuilt. Rolls are
+     * logged as sums, so the dice come back as of the game's latest
+     * checkpoint, or as the game started if it has none.
+     * @throws IOException If the log cannot be read or a batch holds a record that cannot be decoded.
+     */
+    public static Recovery recover(Path file) throws IOException {
+        Map<Long, Tail> tails = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BatchScanner scanner = new BatchScanner(channel);
+            GameEvent event = new GameEvent();
+            ByteBuffer batch;
+            while ((batch = scanner.next()) != null) {
+                while (batch.hasRemaining()) {
+                    int start = batch.position();
+                    long gameId;
+                    int kind;
+                    try {
+                        gameId = Varint.getLong(batch);
+                        start = batch.position();
+                        kind = batch.get(start) & 0xFF;
+                        if (kind == FINISHED) {
+                            batch.get();
+                            tails.remove(gameId);
+                            continue;
+                        }
+                        if (kind == SNAPSHOT) {
+                            batch.get();
+                            batch.position(batch.getInt() + batch.position());
+                        } else {
+                            event.read(batch);
+                            if (event.getType() == EventType.START) tails.remove(gameId); // the id was reused
+                        }
+                    } catch (RuntimeException ex) {
+                        // The rest of the batch cannot be split into records, so no game's tail is known
+                        long offset = scanner.getValidLength() - batch.limit() + start;
+                        throw new IOException("Malformed record at byte " + offset + " of the log", ex);
+                    }
+                    Tail tail = tails.get(gameId);
+                    if (tail == null) tails.put(gameId, tail = new Tail());
+                    tail.add(batch, start, kind == SNAPSHOT);
+                }
+            }
+        }
+
+        Map<Long, Game> games = new LinkedHashMap<>();
+        Map<Long, RuntimeException> failures = new LinkedHashMap<>();
+        for (Map.Entry<Long, Tail> entry : tails.entrySet()) {
+            try {
+                games.put(entry.getKey(), entry.getValue().rebuild(entry.getKey()));
+            } catch (RuntimeException ex) {
+                failures.put(entry.getKey(), ex);
+            }
+        }
+        return new Recovery(games, failures);
+    }
+
+    /** What {@link #recover(Path)} made of the games left open in a log. */
+    public static final class Recovery {
+        private final Map<Long, Game> games;
+        private final Map<Long, RuntimeException> failures;
+
+        private Recovery(Map<Long, Game> games, Map<Long, RuntimeException> failures) {
+            this.games = Collections.unmodifiableMap(games);
+            this.failures = Collections.unmodifiableMap(failures);
+        }
+
+        /** The rebuilt games, keyed by game id in the order the games started. */
+        public Map<Long, Game> getGames() {
+            return games;
+        }
+
+        /** Why each game that could not be rebuilt failed, keyed by game id. */
+        public Map<Long, RuntimeException> getFailures() {
+            return failures;
+        }
+    }
+
+    /** Records of one game since its START, as event bytes and snapshot records. */
+    private static final class Tail {
+        private ByteBuffer bytes = ByteBuffer.allocate(256);
+        private int lastSnapshot = -1;
+
+        void add(ByteBuffer batch, int start, boolean snapshot) {
+            int length = batch.position() - start;
+            if (bytes.remaining() < length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(bytes.capacity() * 2, bytes.position() + length));
+                bytes.flip();
+                grown.put(bytes);
+                bytes = grown;
+            }
+            if (snapshot) lastSnapshot = bytes.position();
+            ByteBuffer record = batch.duplicate();
+            record.position(start).limit(start + length);
+            bytes.put(record);
+        }
+
+        Game rebuild(long gameId) {
+            ByteBuffer records = bytes.duplicate();
+            records.flip();
+            Game game = lastSnapshot < 0 ? null : replay(gameId, records, lastSnapshot);
+            // An undo reaching back past the snapshot needs the whole game
+            if (game == null) game = replay(gameId, records, 0);
+            game.setUndoEnabled(false);
+            return game;
+        }
+
+        private static Game replay(long gameId, ByteBuffer records, int from) {
+            records.position(from);
+            GameEvent event = new GameEvent();
+            Game game = null;
+            long index = 0;
+            while (records.hasRemaining()) {
+                if ((records.get(records.position()) & 0xFF) == SNAPSHOT) {
+                    records.get();
+                    int length = records.getInt();
+                    if (game == null) {
+                        game = GameSnapshot.read(records);
+                        game.setQuiet(true);
+                        game.setUndoEnabled(true);
+                    } else {
+                        records.position(records.position() + length);
+                    }
+                    continue;
+                }
+                event.read(records);
+                if (event.getType() == EventType.UNDO && from > 0 && !game.canUndo()) return null;
+                try {
+                    game = GameReplay.apply(game, event, index++);
+                } catch (IllegalStateException ex) {
+                    throw new IllegalStateException("Game " + gameId + " cannot be recovered", ex);
+                }
+            }
+            if (game == null) throw new IllegalStateException("Game " + gameId + " has no start in the log");
+            return game;
+        }
+    }
+
+    /** Walks the whole, checksummed batches of a log from its start. */
+    private static final class BatchScanner {
+        private final FileChannel channel;
+        private final ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer payload = ByteBuffer.allocate(DEFAULT_BATCH_BYTES);
+        private long position = HEADER_BYTES;
+
+        BatchScanner(FileChannel channel) throws IOException {
+            this.channel = channel;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (!readFully(header, 0) || header.getInt(0) != MAGIC) throw new IOException("Not a write-ahead log");
+            if (header.get(4) != VERSION) throw new IOException("Unsupported write-ahead log version " + header.get(4));
+        }
+
+        /** End of the last whole batch read. */
+        long getValidLength() {
+            return position;
+        }
+
+        /** The next batch's records, or null at the end of the log or at a torn batch. */
+        ByteBuffer next() throws IOException {
+            frame.clear();
+            if (!readFully(frame, position)) return null;
+            int length = frame.getInt(0);
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES) return null;
+            if (payload.capacity() < length) payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+            payload.clear().limit(length);
+            if (!readFully(payload, position + FRAME_BYTES)) return null;
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != frame.getInt(4)) return null;
+            position += FRAME_BYTES + length;
+            payload.flip();
+            return payload;
+        }
+
+        private boolean readFully(ByteBuffer buf, long at) throws IOException {
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, at + buf.position()) < 0) return false;
+            }
+            return true;
+        }
+    }
+}
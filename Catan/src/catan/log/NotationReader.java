@@ -0,0 +1,441 @@
+package catan.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.board.LayoutGenerator;
+import catan.main.Game;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+
+/**
+ * Streams games written in the text notation of {@link NotationWriter},
+ * record by record and event by event, through a fixed-size byte buffer:
+ *
+ * <pre>
+ * try (NotationReader reader = new NotationReader(in)) {
+ *     while (reader.nextGame()) {
+ *         while (reader.next()) handle(reader.getEvent());
+ *     }
+ * }
+ * </pre>
+ *
+ * or, to get each record as a game, {@code while ((game = reader.readGame()) != null)}.
+ *
+ * The first event of a record is its START, built from the tags; unknown tags
+ * are skipped. A record without a {@code Board} tag gets the fixed or
+ * generated layout its {@code Layout} tag names. ROLL events carry no
+ * payouts (see {@link GameEvent#hasPayouts()}). Numbers are parsed straight
+ * from the bytes, so reading allocates only for each record's board.
+ * Malformed input, including any byte outside ASCII, is reported as an
+ * {@link IOException} with its line number.
+ */
+public final class NotationReader implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_TAG_NAME = 32;
+    private static final Resource[] RESOURCES = Resource.values();
+
+    // Tag bits, to check that a record names everything START needs
+    private static final int PLAYERS = 1;
+    private static final int HEXES = 2;
+    private static final int BANK = 4;
+    private static final int LAYOUT = 8;
+    private static final int RANDOM = 16;
+    private static final int REQUIRED = PLAYERS | HEXES | BANK | LAYOUT | RANDOM;
+
+    private final InputStream in;
+    private final byte[] buf = new byte[BUFFER_BYTES];
+    private int pos;
+    private int limit;
+    private boolean endOfInput;
+    private long line = 1;
+
+    private final GameEvent event = new GameEvent();
+    private final byte[] tagName = new byte[MAX_TAG_NAME];
+    private int[] axialQ = new int[0];
+    private int[] axialR = new int[0];
+    private Resource[] boardTiles = new Resource[0];
+    private int[] boardTokens = new int[0];
+    private boolean startPending;
+    private boolean inGame;
+    private int actingSeat;
+    private long eventIndex = -1;
+
+    public NotationReader(InputStream in) {
+        if (in == null) throw new IllegalArgumentException("Stream cannot be null");
+        this.in = in;
+    }
+
+    /**
+     * Moves to the next record, skipping what is left of the current one.
+     * @return False at the end of the input.
+     */
+    public boolean nextGame() throws IOException {
+        while (inGame) next();
+        skipWhitespace();
+        if (peek() < 0) return false;
+        if (peek() != '[') throw error("Expected a tag");
+
+        int players = 0;
+        int hexes = 0;
+        int bank = 0;
+        long layout = 0;
+        long random = 0;
+        int topologyHexes = 0;
+        int boardHexes = 0;
+        int seen = 0;
+        while (peek() == '[') {
+            read();
+            int nameLength = 0;
+            int c;
+            while ((c = read()) != ' ') {
+                if (c < 0 || c == ']' || nameLength == MAX_TAG_NAME) throw error("Malformed tag");
+                tagName[nameLength++] = (byte) c;
+            }
+            expect('"');
+            if (tagIs("Players", nameLength)) {
+                players = (int) parseLong();
+                seen |= PLAYERS;
+            } else if (tagIs("Hexes", nameLength)) {
+                hexes = (int) parseLong();
+                seen |= HEXES;
+            } else if (tagIs("Bank", nameLength)) {
+                bank = (int) parseLong();
+                seen |= BANK;
+            } else if (tagIs("Layout", nameLength)) {
+                if (peek() == 'f') {
+                    expectWord("fixed");
+                    layout = BoardLayout.NO_SEED;
+                } else {
+                    layout = parseLong();
+                }
+                seen |= LAYOUT;
+            } else if (tagIs("Random", nameLength)) {
+                random = parseLong();
+                seen |= RANDOM;
+            } else if (tagIs("Topology", nameLength)) {
+                topologyHexes = parseTopology();
+            } else if (tagIs("Board", nameLength)) {
+                boardHexes = parseBoard();
+            } else {
+                while ((c = read()) != '"') {
+                    if (c < 0 || c == '\n') throw error("Unterminated tag value");
+                }
+                unread();
+            }
+            expect('"');
+            expect(']');
+            skipWhitespace();
+        }
+        if (seen != REQUIRED) throw error("Record needs Players, Hexes, Bank, Layout and Random tags");
+        BoardTopology topology;
+        BoardLayout board;
+        try {
+            if (topologyHexes > 0) {
+                if (topologyHexes != hexes) throw error("Topology has " + topologyHexes + " hexes, not " + hexes);
+                topology = BoardTopology.fromAxial(Arrays.copyOf(axialQ, hexes), Arrays.copyOf(axialR, hexes));
+            } else if (hexes == BoardTopology.standard().getHexCount()) {
+                topology = BoardTopology.standard();
+            } else if (hexes == BoardTopology.extension().getHexCount()) {
+                topology = BoardTopology.extension();
+            } else {
+                throw error("A board of " + hexes + " hexes needs a Topology tag");
+            }
+            if (boardHexes > 0) {
+                if (boardHexes != hexes) throw error("Board has " + boardHexes + " hexes, not " + hexes);
+                board = BoardLayout.of(layout, Arrays.copyOf(boardTiles, hexes), Arrays.copyOf(boardTokens, hexes));
+            } else if (layout == BoardLayout.NO_SEED) {
+                board = BoardLayout.fixed(topology);
+            } else {
+                board = new LayoutGenerator(topology).generate(layout);
+            }
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            throw error("Cannot build the board (" + ex.getMessage() + ")");
+        }
+        event.setStart(players, topology, bank, board, null, random);
+        startPending = true;
+        inGame = true;
+        actingSeat = 0;
+        eventIndex = -1;
+        return true;
+    }
+
+    /**
+     * Moves to the next event of the current record.
+     * @return False at the end of the record.
+     */
+    public boolean next() throws IOException {
+        if (!inGame) return false;
+        if (startPending) {
+            startPending = false;
+            eventIndex++;
+            return true;
+        }
+        while (true) {
+            skipWhitespace();
+            int token = read();
+            switch (token) {
+                case '*':
+                    inGame = false;
+                    return false;
+                case '@':
+                    actingSeat = parseInt();
+                    continue;
+                case 's':
+                    seatAndTarget(EventType.SETUP_SETTLEMENT);
+                    break;
+                case 'r':
+                    seatAndTarget(EventType.SETUP_ROAD);
+                    break;
+                case 'S':
+                    seatAndTarget(EventType.BUILD_SETTLEMENT);
+                    break;
+                case 'R':
+                    seatAndTarget(EventType.BUILD_ROAD);
+                    break;
+                case 'C':
+                    seatAndTarget(EventType.BUILD_CITY);
+                    break;
+                case 'M':
+                    seatAndTarget(EventType.MOVE_ROBBER);
+                    break;
+                case 'd':
+                    seatAndTarget(EventType.ROLL);
+                    event.clearPayouts();
+                    break;
+                case 'D': {
+                    event.set(EventType.DISCARD, parseInt(), 0);
+                    expect(':');
+                    event.setCards(parseCards(), ResourceVector.EMPTY);
+                    break;
+                }
+                case 'x': {
+                    event.set(EventType.STEAL, actingSeat, 0);
+                    int victim = parseInt();
+                    int card = read();
+                    event.setOther(victim, card == '-' ? null : resource(card));
+                    break;
+                }
+                case 'T': {
+                    event.set(EventType.TRADE_BANK, actingSeat, 0);
+                    long gives = parseCards();
+                    expect(':');
+                    event.setCards(gives, parseCards());
+                    break;
+                }
+                case 'P': {
+                    event.set(EventType.TRADE_PLAYER, actingSeat, 0);
+                    int other = parseInt();
+                    expect(':');
+                    long gives = parseCards();
+                    expect(':');
+                    event.setCards(gives, parseCards());
+                    event.setOther(other, null);
+                    break;
+                }
+                case 'E':
+                    event.set(EventType.END_TURN, actingSeat, 0);
+                    break;
+                case 'U':
+                    event.set(EventType.UNDO, 0, 0);
+                    break;
+                case 'Z':
+                    event.set(EventType.RESEED, 0, 0);
+                    event.setRandomState(parseLong());
+                    break;
+                case -1:
+                    throw error("Record ends without '*'");
+                default:
+                    throw error("Unexpected '" + (char) token + "'");
+            }
+            eventIndex++;
+            return true;
+        }
+    }
+
+    /** The current event; overwritten by the next call to {@link #next()}. */
+    public GameEvent getEvent() {
+        return event;
+    }
+
+    /** Zero-based index of the current event in its record (0 is START). */
+    public long getEventIndex() {
+        return eventIndex;
+    }
+
+    /**
+     * Reads the next record and plays it on a new game, returned quiet, with
+     * undo disabled and no listener.
+     * @return Null at the end of the input.
+     * @throws IllegalStateException If the record does not replay.
+     */
+    public Game readGame() throws IOException {
+        if (!nextGame()) return null;
+        Game game = null;
+        while (next()) game = GameReplay.apply(game, event, eventIndex);
+        game.setUndoEnabled(false);
+        return game;
+    }
+
+    private void seatAndTarget(EventType type) throws IOException {
+        event.set(type, actingSeat, parseInt());
+    }
+
+    private boolean tagIs(String name, int nameLength) {
+        if (name.length() != nameLength) return false;
+        for (int i = 0; i < nameLength; i++) {
+            if (tagName[i] != name.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Axial coordinates "q,r q,r ..." into axialQ and axialR; returns the hex count
+    private int parseTopology() throws IOException {
+        int count = 0;
+        while (true) {
+            if (count == axialQ.length) {
+                axialQ = Arrays.copyOf(axialQ, Math.max(32, count * 2));
+                axialR = Arrays.copyOf(axialR, axialQ.length);
+            }
+            axialQ[count] = parseCoordinate();
+            expect(',');
+            axialR[count++] = parseCoordinate();
+            if (peek() != ' ') return count;
+            read();
+        }
+    }
+
+    private int parseCoordinate() throws IOException {
+        long value = parseLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw error("Coordinate out of range");
+        return (int) value;
+    }
+
+    // Tiles and tokens "w8 d0 ..." into boardTiles and boardTokens; returns the hex count
+    private int parseBoard() throws IOException {
+        int count = 0;
+        while (true) {
+            if (count == boardTiles.length) {
+                boardTiles = Arrays.copyOf(boardTiles, Math.max(32, count * 2));
+                boardTokens = Arrays.copyOf(boardTokens, boardTiles.length);
+            }
+            int letter = read();
+            boardTiles[count] = letter == NotationWriter.DESERT_LETTER ? Resource.DESERT : resource(letter);
+            int token = parseInt();
+            if (token > 12) throw error("Number token out of range");
+            boardTokens[count++] = token;
+            if (peek() != ' ') return count;
+            read();
+        }
+    }
+
+    private long parseCards() throws IOException {
+        if (peek() == '-') {
+            read();
+            return ResourceVector.EMPTY;
+        }
+        long cards = ResourceVector.EMPTY;
+        int letters = 0;
+        while (isDigit(peek())) {
+            int count = parseInt();
+            if (count > ResourceVector.MAX_COUNT) throw error("Card count too large");
+            Resource resource = resource(read());
+            if ((letters & 1 << resource.ordinal()) != 0) throw error("Card letter repeated");
+            letters |= 1 << resource.ordinal();
+            cards |= ResourceVector.of(resource, count);
+        }
+        if (cards == ResourceVector.EMPTY) throw error("Expected cards");
+        return cards;
+    }
+
+    private Resource resource(int letter) throws IOException {
+        for (int lane = 0; lane < NotationWriter.CARD_LETTERS.length; lane++) {
+            if (NotationWriter.CARD_LETTERS[lane] == letter) return RESOURCES[lane];
+        }
+        throw error("Expected a card letter");
+    }
+
+    private int parseInt() throws IOException {
+        long value = parseLong();
+        if (value < 0 || value > Integer.MAX_VALUE) throw error("Number out of range");
+        return (int) value;
+    }
+
+    private long parseLong() throws IOException {
+        boolean negative = peek() == '-';
+        if (negative) read();
+        if (!isDigit(peek())) throw error("Expected a number");
+        long value = 0;
+        while (isDigit(peek())) {
+            // Accumulated negatively so Long.MIN_VALUE parses
+            int digit = read() - '0';
+            if (value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + digit) throw error("Number out of range");
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) throw error("Number out of range");
+        return negative ? value : -value;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void expect(char c) throws IOException {
+        if (read() != c) throw error("Expected '" + c + "'");
+    }
+
+    private void expectWord(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) expect(word.charAt(i));
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\n' || c == '\r' || c == '\t') read();
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        int c = buf[pos] & 0xFF;
+        if (c >= 0x80) throw error("Non-ASCII byte 0x" + Integer.toHexString(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c < 0) return -1;
+        pos++;
+        if (c == '\n') line++;
+        return c;
+    }
+
+    // Only ever called right after read() returned a non-newline byte
+    private void unread() {
+        pos--;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) return false;
+        int n = in.read(buf, 0, BUFFER_BYTES);
+        if (n <= 0) {
+            endOfInput = n < 0;
+            pos = limit = 0;
+            return !endOfInput && fill();
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at line " + line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,353 @@
+package catan.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+import catan.utils.Dice;
+
+/**
+ * Writes games in Catan text notation, a PGN-like record format read back by
+ * {@link NotationReader}. A record is a few tag pairs describing how the game
+ * started, then one token per action, then {@code *}:
+ *
+ * <pre>
+ * [Players "4"]
+ * [Hexes "19"]
+ * [Bank "19"]
+ * [Layout "42"]
+ * [Board "b11 b12 o2 w4 w10 w8 s3 s10 d0 g3 o5 g9 g6 w4 s11 s6 g9 b8 o5"]
+ * [Random "-4962768465676381896"]
+ *
+ * &#64;0 s12 r17 &#64;1 s40 r55 ...
+ * &#64;2 d8 S12 E
+ * &#64;3 d7 D0:2w1o M4 x1g E
+ * *
+ * </pre>
+ *
+ * {@code Layout} is the seed the layout was generated from, or
+ * {@code fixed}; {@code Board} gives each hex's tile and number token in hex
+ * id order (tiles by card letter, {@code d} for desert), so a record replays
+ * on exactly its board. A board on neither the standard nor the extension
+ * topology adds a {@code Topology} tag with the axial coordinates of every
+ * hex, e.g. {@code [Topology "0,-2 1,-2 2,-2 ..."]}.
+ *
+ * {@code @n} makes seat n (0-based, as in {@code Game.getPlayers()}) the
+ * acting seat for the tokens after it. Tokens: {@code sI}/{@code rE} setup
+ * settlement/road, {@code SI}/{@code RE}/{@code CI} settlement, road and city
+ * by intersection or edge id, {@code dN} dice sum, {@code DS:cards} discard
+ * by seat S, {@code MH} robber to hex H, {@code xS} steal from seat S
+ * followed by the card taken (or {@code -}), {@code Tcards:cards} bank trade
+ * (given:received), {@code PS:cards:cards} trade with seat S, {@code E} end
+ * of turn, {@code U} undo and {@code ZN} reseed. Cards are counts followed by
+ * {@code w} wood, {@code b} brick, {@code g} grain (wheat), {@code o} ore and
+ * {@code s} sheep, e.g. {@code 2w1o}, or {@code -} for none. Roll payouts
+ * are not written; they follow from the board.
+ *
+ * The writer is a {@link GameEventListener}: attach it to games one after
+ * another and each becomes a record. Text is assembled in a byte buffer and
+ * handed to the stream when the buffer fills, so writing costs no allocation.
+ * Write failures are rethrown as {@link UncheckedIOException}. Not
+ * thread-safe.
+ */
+public final class NotationWriter implements GameEventListener, Closeable {
+    static final char[] CARD_LETTERS = {'w', 'b', 'g', 'o', 's'};
+    static final char DESERT_LETTER = 'd';
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_TOKEN_BYTES = 128;
+    // One hex in the Topology and Board tags: two ints and separators, then tile and token
+    private static final int MAX_HEX_BYTES = 2 * 11 + 2 + 4;
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_BYTES];
+    private int length;
+    private int actingSeat = -1;
+    private boolean inGame;
+    private long gameCount;
+
+    public NotationWriter(OutputStream out) {
+        if (out == null) throw new IllegalArgumentException("Stream cannot be null");
+        this.out = out;
+    }
+
+    /** Records started by this writer. */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /** Ends the current record, if any; the next game started begins a new one. */
+    public void endGame() {
+        if (!inGame) return;
+        ensure(MAX_TOKEN_BYTES);
+        if (length > 0 && buf[length - 1] != '\n') put('\n');
+        put('*');
+        put('\n');
+        put('\n');
+        inGame = false;
+    }
+
+    /**
+     * The dice are not recorded; rolls are written as their sums.
+     * @throws IllegalArgumentException If the board is too large for the
+     *         writer's buffer.
+     */
+    @Override
+    public void gameStarted(int players, BoardTopology topology, int bankSize, BoardLayout layout, Dice dice, long randomState) {
+        int hexes = topology.getHexCount();
+        int bytes = MAX_TOKEN_BYTES * 2 + hexes * MAX_HEX_BYTES;
+        if (bytes > BUFFER_BYTES) throw new IllegalArgumentException("A board of " + hexes + " hexes is too large to write");
+        endGame();
+        ensure(bytes);
+        tag("Players", players);
+        tag("Hexes", hexes);
+        tag("Bank", bankSize);
+        if (layout.getSeed() == BoardLayout.NO_SEED) {
+            tag("Layout", "fixed");
+        } else {
+            tag("Layout", layout.getSeed());
+        }
+        if (topology != BoardTopology.standard() && topology != BoardTopology.extension()) {
+            putAscii("[Topology \"");
+            for (int h = 0; h < hexes; h++) {
+                if (h > 0) put(' ');
+                putLong(topology.getHexQ(h));
+                put(',');
+                putLong(topology.getHexR(h));
+            }
+            putAscii("\"]\n");
+        }
+        putAscii("[Board \"");
+        for (int h = 0; h < hexes; h++) {
+            if (h > 0) put(' ');
+            Resource tile = layout.getResource(h);
+            put(tile == Resource.DESERT ? DESERT_LETTER : CARD_LETTERS[tile.ordinal()]);
+            putLong(layout.getNumberToken(h));
+        }
+        putAscii("\"]\n");
+        tag("Random", randomState);
+        put('\n');
+        inGame = true;
+        actingSeat = -1;
+        gameCount++;
+    }
+
+    @Override
+    public void randomReseeded(long randomState) {
+        ensure(MAX_TOKEN_BYTES);
+        put('Z');
+        putLong(randomState);
+        put(' ');
+    }
+
+    @Override
+    public void setupSettlementPlaced(int seat, int intersection) {
+        seatAndTarget('s', seat, intersection);
+    }
+
+    @Override
+    public void setupRoadPlaced(int seat, int edge) {
+        seatAndTarget('r', seat, edge);
+        buf[length - 1] = '\n';
+    }
+
+    @Override
+    public void diceRolled(int seat, int sum, long[] payouts) {
+        seatAndTarget('d', seat, sum);
+    }
+
+    @Override
+    public void cardsDiscarded(int seat, long cards) {
+        ensure(MAX_TOKEN_BYTES);
+        put('D');
+        putLong(seat);
+        put(':');
+        putCards(cards);
+        put(' ');
+    }
+
+    @Override
+    public void robberMoved(int seat, int hex) {
+        seatAndTarget('M', seat, hex);
+    }
+
+    @Override
+    public void resourceStolen(int thief, int victim, Resource stolen) {
+        ensure(MAX_TOKEN_BYTES);
+        actAs(thief);
+        put('x');
+        putLong(victim);
+        put(stolen == null ? '-' : CARD_LETTERS[stolen.ordinal()]);
+        put(' ');
+    }
+
+    @Override
+    public void roadBuilt(int seat, int edge) {
+        seatAndTarget('R', seat, edge);
+    }
+
+    @Override
+    public void settlementBuilt(int seat, int intersection) {
+        seatAndTarget('S', seat, intersection);
+    }
+
+    @Override
+    public void cityBuilt(int seat, int intersection) {
+        seatAndTarget('C', seat, intersection);
+    }
+
+    @Override
+    public void tradedWithBank(int seat, long gives, long gets) {
+        ensure(MAX_TOKEN_BYTES);
+        actAs(seat);
+        put('T');
+        putCards(gives);
+        put(':');
+        putCards(gets);
+        put(' ');
+    }
+
+    @Override
+    public void tradedWithPlayer(int seat, long gives, int other, long gets) {
+        ensure(MAX_TOKEN_BYTES);
+        actAs(seat);
+        put('P');
+        putLong(other);
+        put(':');
+        putCards(gives);
+        put(':');
+        putCards(gets);
+        put(' ');
+    }
+
+    @Override
+    public void turnEnded(int seat) {
+        ensure(MAX_TOKEN_BYTES);
+        actAs(seat);
+        put('E');
+        put('\n');
+    }
+
+    @Override
+    public void actionUndone() {
+        ensure(MAX_TOKEN_BYTES);
+        put('U');
+        put(' ');
+    }
+
+    private void seatAndTarget(char token, int seat, int target) {
+        ensure(MAX_TOKEN_BYTES);
+        actAs(seat);
+        put(token);
+        putLong(target);
+        put(' ');
+    }
+
+    private void actAs(int seat) {
+        if (seat == actingSeat) return;
+        put('@');
+        putLong(seat);
+        put(' ');
+        actingSeat = seat;
+    }
+
+    private void tag(String name, long value) {
+        put('[');
+        putAscii(name);
+        put(' ');
+        put('"');
+        putLong(value);
+        put('"');
+        put(']');
+        put('\n');
+    }
+
+    private void tag(String name, String value) {
+        put('[');
+        putAscii(name);
+        put(' ');
+        put('"');
+        putAscii(value);
+        put('"');
+        put(']');
+        put('\n');
+    }
+
+    private void putCards(long cards) {
+        if (cards == ResourceVector.EMPTY) {
+            put('-');
+            return;
+        }
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            int count = ResourceVector.get(cards, lane);
+            if (count == 0) continue;
+            putLong(count);
+            put(CARD_LETTERS[lane]);
+        }
+    }
+
+    private void putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            putAscii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int start = length;
+        do {
+            buf[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    private void putAscii(String s) {
+        for (int i = 0; i < s.length(); i++) buf[length++] = (byte) s.charAt(i);
+    }
+
+    private void put(char c) {
+        buf[length++] = (byte) c;
+    }
+
+    // Tokens are written without bounds checks once this much room is made
+    private void ensure(int bytes) {
+        if (BUFFER_BYTES - length < bytes) drain();
+    }
+
+    private void drain() {
+        try {
+            flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write game record", ex);
+        }
+    }
+
+    /** Hands buffered text to the stream and flushes it. */
+    public void flush() throws IOException {
+        out.write(buf, 0, length);
+        length = 0;
+        out.flush();
+    }
+
+    /** Ends the open record, flushes and closes the stream. */
+    @Override
+    public void close() throws IOException {
+        try {
+            endGame();
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+}
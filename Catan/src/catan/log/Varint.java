@@ -0,0 +1,93 @@
+package catan.log;
+
+import java.nio.ByteBuffer;
+
+import catan.resources.ResourceVector;
+
+/**
+ * LEB128 variable-length integers on {@link ByteBuffer}s: 7 bits per byte,
+ * low bits first, high bit set on every byte but the last. Values below 128
+ * take one byte. Signed values that may be negative are zigzag-encoded first.
+ *
+ * Card vectors are written as a byte with one bit per non-empty lane followed
+ * by the count of each of those lanes, so a typical payout takes two bytes.
+ */
+public final class Varint {
+    /** Most bytes a long can take. */
+    public static final int MAX_LONG_BYTES = 10;
+    /** Most bytes {@link #putCards} can take. */
+    public static final int MAX_CARDS_BYTES = 1 + ResourceVector.LANES * 2;
+
+    private Varint() {
+    }
+
+    /** Writes a non-negative int. */
+    public static void putInt(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    /** Writes a long as unsigned. */
+    public static void putLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    /** Writes a long of either sign, small magnitudes short. */
+    public static void putSignedLong(ByteBuffer buf, long value) {
+        putLong(buf, (value << 1) ^ (value >> 63));
+    }
+
+    public static int getInt(ByteBuffer buf) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    public static long getLong(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    public static long getSignedLong(ByteBuffer buf) {
+        long raw = getLong(buf);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /** Writes a {@link ResourceVector}. */
+    public static void putCards(ByteBuffer buf, long cards) {
+        int mask = 0;
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            if (ResourceVector.get(cards, lane) != 0) mask |= 1 << lane;
+        }
+        buf.put((byte) mask);
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            if ((mask & (1 << lane)) != 0) putInt(buf, ResourceVector.get(cards, lane));
+        }
+    }
+
+    public static long getCards(ByteBuffer buf) {
+        int mask = buf.get();
+        if ((mask & ~0x1F) != 0) throw new IllegalStateException("Malformed card vector");
+        long cards = ResourceVector.EMPTY;
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            if ((mask & (1 << lane)) != 0) cards |= ResourceVector.of(ResourceVector.resource(lane), getInt(buf));
+        }
+        return cards;
+    }
+}
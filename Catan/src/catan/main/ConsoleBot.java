@@ -0,0 +1,26 @@
+package catan.main;
+
+import java.util.Map;
+
+import catan.players.Player;
+import catan.resources.Resource;
+
+/**
+ * Plays a seat for a {@link ConsoleGameController} instead of prompting.
+ * The controller still rolls for the seat and pays out the roll; the bot
+ * makes every decision after that. Bots live outside this package (see
+ * {@code catan.ai.MctsSeat}), so the engine does not depend on them.
+ */
+public interface ConsoleBot {
+
+    /** The cards {@code player} gives up when a 7 is rolled. */
+    Map<Resource, Integer> chooseDiscard(Player player, int count);
+
+    /**
+     * Plays the current player's turn through the game's public API: its
+     * setup placements, or after the roll the robber (when
+     * {@code movesRobber}), its builds and the end of the turn. Returns once
+     * the turn has passed or the game is over.
+     */
+    void playTurn(Game game, boolean movesRobber);
+}
@@ -18,11 +18,32 @@ public class ConsoleGameController {
     private final Game game;
     private final Scanner scanner;
     private final Dice dice;
+    private final ConsoleBot[] bots;
 
+    /** Rolls with the game's own dice, plain or deck; see {@link Game#getDice()}. */
     public ConsoleGameController(Game game, Scanner scanner) {
         this.game = game;
         this.scanner = scanner;
-        this.dice = new Dice();
+        this.dice = null;
+        this.bots = new ConsoleBot[game.getPlayers().size()];
+    }
+
+    public ConsoleGameController(Game game, Scanner scanner, Dice dice) {
+        if (dice == null) throw new IllegalArgumentException("Dice cannot be null");
+        this.game = game;
+        this.scanner = scanner;
+        this.dice = dice;
+        this.bots = new ConsoleBot[game.getPlayers().size()];
+    }
+
+    /** Lets a bot play the seat (index in the player list); null hands it back to the console. */
+    public void setBot(int seat, ConsoleBot bot) {
+        if (seat < 0 || seat >= bots.length) throw new IllegalArgumentException("No seat " + seat);
+        bots[seat] = bot;
+    }
+
+    private ConsoleBot botFor(Player player) {
+        return bots[game.getPlayers().indexOf(player)];
     }
 
     public void run() {
@@ -31,6 +52,11 @@ public class ConsoleGameController {
         while (!game.checkVictory()) {
             Player current = game.getCurrentPlayer();
 
+            if (botFor(current) != null) {
+                runBotTurn(current, botFor(current));
+                continue;
+            }
+
             if (game.isSetupPhase()) {
                 runSetupTurn(current);
                 continue;
@@ -196,10 +222,14 @@ public class ConsoleGameController {
         game.endTurn();
     }
 
+    private int rollDice() {
+        return dice == null ? game.getDice().roll() : dice.roll();
+    }
+
     private int handleRollPhase() {
         System.out.println("Press ENTER to roll dice...");
         scanner.nextLine();
-        return dice.roll();
+        return rollDice();
     }
 
     private void handleActionPhase(Player current) {
@@ -360,6 +390,30 @@ public class ConsoleGameController {
         System.out.println("Resources: " + current.getInventory());
     }
 
+    // =========================
+    // BOT TURN
+    // =========================
+
+    private void runBotTurn(Player current, ConsoleBot bot) {
+        System.out.println("\n==============================");
+        System.out.println((game.isSetupPhase() ? "SETUP | " : "Turn: ") + current.getName() + " (bot)");
+        System.out.println("==============================");
+
+        boolean movesRobber = false;
+        if (!game.isSetupPhase()) {
+            int roll = rollDice();
+            System.out.println("Rolled: " + roll);
+            if (roll == 7) {
+                System.out.println("\n⚠ Rolled a 7! Robber activated.");
+                discardOnSeven();
+                movesRobber = true;
+            } else {
+                System.out.println(game.distributeResourcesForRoll(roll));
+            }
+        }
+        bot.playTurn(game, movesRobber);
+    }
+
     // =========================
     // ROBBER (7)
     // =========================
@@ -368,26 +422,7 @@ public class ConsoleGameController {
         System.out.println("\n⚠ Rolled a 7! Robber activated.");
 
         // 1) Discard
-        for (int i = 0; i < game.getPlayers().size(); i++) {
-            Player p = game.getPlayers().get(i);
-            if (!game.mustDiscardOnSeven(p)) continue;
-
-            int mustDiscard = game.getDiscardCountOnSeven(p);
-            System.out.println("\n" + p.getName() + " has " + p.getInventory().getTotalResourceCards()
-                    + " cards and must discard " + mustDiscard + ".");
-
-            Map<Resource, Integer> discard = promptDiscardMap(p, mustDiscard);
-            while (true) {
-                try {
-                    game.discardResourcesToBank(p, discard);
-                    System.out.println("✅ " + p.getName() + " discarded " + mustDiscard + ". Remaining: " + p.getInventory());
-                    break;
-                } catch (IllegalArgumentException ex) {
-                    System.out.println("❌ Discard failed: " + ex.getMessage());
-                    discard = promptDiscardMap(p, mustDiscard);
-                }
-            }
-        }
+        discardOnSeven();
 
         // 2) Move robber (only valid hex destinations)
         moveRobberFlow();
@@ -417,6 +452,36 @@ public class ConsoleGameController {
         }
     }
 
+    /** Every player over the limit discards; bot seats choose their own. */
+    private void discardOnSeven() {
+        for (int i = 0; i < game.getPlayers().size(); i++) {
+            Player p = game.getPlayers().get(i);
+            if (!game.mustDiscardOnSeven(p)) continue;
+
+            int mustDiscard = game.getDiscardCountOnSeven(p);
+            System.out.println("\n" + p.getName() + " has " + p.getInventory().getTotalResourceCards()
+                    + " cards and must discard " + mustDiscard + ".");
+
+            if (bots[i] != null) {
+                game.discardResourcesToBank(p, bots[i].chooseDiscard(p, mustDiscard));
+                System.out.println(p.getName() + " discarded " + mustDiscard + ". Remaining: " + p.getInventory());
+                continue;
+            }
+
+            Map<Resource, Integer> discard = promptDiscardMap(p, mustDiscard);
+            while (true) {
+                try {
+                    game.discardResourcesToBank(p, discard);
+                    System.out.println("✅ " + p.getName() + " discarded " + mustDiscard + ". Remaining: " + p.getInventory());
+                    break;
+                } catch (IllegalArgumentException ex) {
+                    System.out.println("❌ Discard failed: " + ex.getMessage());
+                    discard = promptDiscardMap(p, mustDiscard);
+                }
+            }
+        }
+    }
+
     private void moveRobberFlow() {
         List<Integer> valid = game.getValidRobberHexDestinations();
         if (valid.isEmpty()) {
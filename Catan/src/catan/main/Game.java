@@ -1,23 +1,32 @@
 package catan.main;
 
 import catan.board.Board;
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
 import catan.board.Edge;
 import catan.board.Intersection;
+import catan.board.LayoutGenerator;
 import catan.components.City;
 import catan.components.Road;
 import catan.components.Settlement;
+import catan.log.GameEventListener;
 import catan.players.Player;
 import catan.resources.ResourcePool;
+import catan.resources.ResourceVector;
+import catan.utils.BalancedDice;
+import catan.utils.Dice;
+import catan.utils.GameRandom;
+import catan.utils.IdSet;
+import catan.utils.StateHash;
 import catan.utils.Validator;
 import catan.resources.Resource;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.util.Random;
 import java.util.Collections;
 
 /**
@@ -28,6 +37,7 @@ public class Game {
     private List<Player> players;
     private ResourcePool resourcePool;
     private TurnManager turnManager;
+    private LongestRoad longestRoad;
 
     /** Game phases. */
     public enum GamePhase { SETUP, NORMAL }
@@ -37,41 +47,253 @@ public class Game {
 
     private GamePhase phase = GamePhase.SETUP;
     private SetupStep setupStep = SetupStep.PLACE_SETTLEMENT;
-    private boolean setupForward = true;
-    private int setupRound = 0;
     private Intersection pendingSetupRoadAnchor = null;
 
-    private static final Map<Resource, Integer> ROAD_COST = cost(Resource.WOOD, 1, Resource.BRICK, 1);
-    private static final Map<Resource, Integer> SETTLEMENT_COST = cost(Resource.WOOD, 1, Resource.BRICK, 1, Resource.WHEAT, 1, Resource.SHEEP, 1);
-    private static final Map<Resource, Integer> CITY_COST = cost(Resource.ORE, 3, Resource.WHEAT, 2);
+    // Legal setup roads (empty edges touching the anchor), refreshed when the anchor changes
+    private long[] setupRoadMask = new long[0];
+    private IdSet setupRoads = IdSet.empty();
+
+    /** Build costs as {@link ResourceVector}s (wood, brick, wheat, ore, sheep). */
+    public static final long ROAD_COST = ResourceVector.of(1, 1, 0, 0, 0);
+    public static final long SETTLEMENT_COST = ResourceVector.of(1, 1, 1, 0, 1);
+    public static final long CITY_COST = ResourceVector.of(0, 0, 2, 3, 0);
+    /** Cards of one resource paid to the bank for one card of another. */
+    public static final int BANK_TRADE_RATE = 4;
+
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final GamePhase[] PHASES = GamePhase.values();
+    private static final SetupStep[] SETUP_STEPS = SetupStep.values();
+
+    // Undo records (see setUndoEnabled); each kind is pushed after its operands
+    private static final int UNDO_HAND = 1;            // slot, resource ordinal, cards added to the hand
+    private static final int UNDO_BANK_TRANSFER = 2;   // slot, resource ordinal, cards moved from bank to hand
+    private static final int UNDO_SETTLEMENT = 3;      // intersection
+    private static final int UNDO_CITY = 4;            // object: the settlement the city replaced
+    private static final int UNDO_ROAD = 5;            // edge
+    private static final int UNDO_ROBBER = 6;          // previous robber hex
+    private static final int UNDO_TURN = 7;            // previous player index, setup round, setup complete (1/0)
+    private static final int UNDO_FLOW = 8;            // previous phase, setup step, setup anchor intersection
+    private static final int UNDO_AWARD = 9;           // previous Longest Road holder slot
+    private static final int UNDO_RANDOM = 10;         // previous generator state, high then low word
+    private static final int UNDO_PAYMENT = 11;        // slot, card vector moved from bank to hand, high then low word
+    private static final int UNDO_GIFT = 12;           // from slot, to slot, card vector moved, high then low word
+
+    private final UndoLog undoLog = new UndoLog();
+    private boolean undoEnabled;
+
+    // When set, the game prints nothing (bots, rollouts and simulations)
+    private boolean quiet;
+
+    // Receives every successful action; not copied by fork()
+    private GameEventListener events;
+    private long[] rollPayouts = new long[0];
+
+    // How the game was started, for the START event
+    private long layoutSeed = BoardLayout.NO_SEED;
+    private int bankSize;
+
+    private final GameRandom rng;
+    private Dice dice;
+
+    // Zobrist hash of the whole game state, kept current by every mutating call
+    private final StateHash stateHash;
+
+    public Game() {
+        this(new GameRandom());
+    }
+
+    /**
+     * A game whose randomness all follows from {@code seed}: steals draw from a
+     * generator seeded with it and the dice from a stream split off that, so
+     * the same seed and the same choices play out the same game.
+     */
+    public Game(long seed) {
+        this(new GameRandom(seed));
+    }
 
-    private final Random rng = new Random();
+    private Game(GameRandom rng) {
+        this.rng = rng;
+        this.dice = new Dice(rng.split());
+        this.stateHash = new StateHash();
+    }
+
+    /** Copies the state of {@code source}; see {@link #fork()}. */
+    private Game(Game source) {
+        this.rng = source.rng.copy();
+        this.dice = source.dice.copy();
+        this.stateHash = source.stateHash.copy();
+
+        // Seats are filled after the board fork because each forked player needs its board
+        Player[] seats = new Player[source.players.size()];
+        this.board = source.board.fork(seats, stateHash);
+        this.players = new ArrayList<>(seats.length);
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = source.players.get(i).fork(board, stateHash);
+            players.add(seats[i]);
+        }
+        this.resourcePool = source.resourcePool.fork(stateHash);
+        this.turnManager = source.turnManager.fork(players, stateHash);
+        this.longestRoad = source.longestRoad.fork(board, stateHash);
+
+        this.phase = source.phase;
+        this.setupStep = source.setupStep;
+        this.pendingSetupRoadAnchor = source.pendingSetupRoadAnchor;
+        this.setupRoadMask = source.setupRoadMask.clone();
+        this.setupRoads = new IdSet(setupRoadMask, board.getEdgeCount());
+        this.undoEnabled = source.undoEnabled;
+        this.quiet = source.quiet;
+        this.rollPayouts = new long[seats.length];
+        this.layoutSeed = source.layoutSeed;
+        this.bankSize = source.bankSize;
+    }
 
+    /**
+     * Starts a game for 2-6 players. Games of 5 or 6 use the extension map
+     * (30 hexes) and a bank of 24 cards per resource.
+     */
     public void initializeGame(int numberOfPlayers) {
-        if (numberOfPlayers < 2 || numberOfPlayers > 4) {
-            throw new IllegalArgumentException("Number of players must be between 2 and 4");
+        if (numberOfPlayers < 2 || numberOfPlayers > 6) {
+            throw new IllegalArgumentException("Number of players must be between 2 and 6");
+        }
+        if (numberOfPlayers <= 4) {
+            initializeGame(numberOfPlayers, BoardTopology.standard(), ResourcePool.CLASSIC_BANK_SIZE);
+        } else {
+            initializeGame(numberOfPlayers, BoardTopology.extension(), ResourcePool.EXTENSION_BANK_SIZE);
+        }
+    }
+
+    /**
+     * Starts a game on any board topology (e.g. {@link BoardTopology#hexagon(int)}
+     * for large stress-test maps) with the given bank size per resource.
+     */
+    public void initializeGame(int numberOfPlayers, BoardTopology topology, int bankSizePerResource) {
+        if (topology == null) throw new IllegalArgumentException("Topology cannot be null");
+        initializeGame(numberOfPlayers, topology, bankSizePerResource, BoardLayout.fixed(topology));
+    }
+
+    /**
+     * Starts a game for 2-6 players on a randomized layout. The layout is
+     * reproducible: the same player count and seed always give the same board.
+     */
+    public void initializeGame(int numberOfPlayers, long layoutSeed) {
+        if (numberOfPlayers < 2 || numberOfPlayers > 6) {
+            throw new IllegalArgumentException("Number of players must be between 2 and 6");
+        }
+        BoardTopology topology = numberOfPlayers <= 4 ? BoardTopology.standard() : BoardTopology.extension();
+        int bank = numberOfPlayers <= 4 ? ResourcePool.CLASSIC_BANK_SIZE : ResourcePool.EXTENSION_BANK_SIZE;
+        initializeGame(numberOfPlayers, topology, bank, new LayoutGenerator(topology).generate(layoutSeed));
+    }
+
+    /**
+     * Starts a game on an exact layout, e.g. one rebuilt from an event log.
+     * The layout must fit the topology.
+     */
+    public void initializeGame(int numberOfPlayers, BoardTopology topology, int bankSizePerResource, BoardLayout layout) {
+        if (numberOfPlayers < 2 || numberOfPlayers > 6) {
+            throw new IllegalArgumentException("Number of players must be between 2 and 6");
         }
+        if (topology == null || layout == null) throw new IllegalArgumentException("Topology and layout cannot be null");
 
-        board = new Board();
-        board.initializeBoard();
-        resourcePool = new ResourcePool();
+        board = new Board(topology);
+        board.initializeBoard(layout);
+        resourcePool = new ResourcePool(bankSizePerResource);
 
         players = new ArrayList<>();
         for (int i = 1; i <= numberOfPlayers; i++) {
-            players.add(new Player("Player " + i));
+            Player player = new Player("Player " + i);
+            players.add(player);
+            board.registerPlayer(player);
         }
 
         turnManager = new TurnManager(players);
+        turnManager.startSetup(2);
+        longestRoad = new LongestRoad(board);
+
+        setupRoadMask = new long[board.getEdgeWordCount()];
+        setupRoads = new IdSet(setupRoadMask, board.getEdgeCount());
 
         phase = GamePhase.SETUP;
         setupStep = SetupStep.PLACE_SETTLEMENT;
-        setupForward = true;
-        setupRound = 0;
         pendingSetupRoadAnchor = null;
+        undoLog.clear();
+        rollPayouts = new long[numberOfPlayers];
+        layoutSeed = layout.getSeed();
+        bankSize = bankSizePerResource;
+
+        stateHash.reset();
+        board.attachHash(stateHash);
+        resourcePool.attachHash(stateHash);
+        for (Player player : players) player.attachHash(stateHash, board.getPlayerSlot(player));
+        turnManager.attachHash(stateHash);
+        longestRoad.attachHash(stateHash);
+        stateHash.toggle(computeFlowHash());
+
+        if (events != null) events.gameStarted(numberOfPlayers, topology, bankSize, layout, dice, rng.getState());
+        if (!quiet) System.out.println("Game initialized with " + numberOfPlayers + " players.");
+    }
+
+    /**
+     * Returns an independent, fully playable copy of this game for search and
+     * rollouts. The board topology is shared; occupancy, hands, bank, turn and
+     * setup state, robber, Longest Road and random generator state are copied,
+     * so the fork produces the same steals as this game would. Players of the
+     * fork are new objects in the same seats (match them by index). Piece and
+     * hex objects of the fork are created on first use, so a rollout that only
+     * uses the id-based API copies nothing but flat arrays. The fork starts
+     * with an empty undo history.
+     */
+    public Game fork() {
+        if (board == null) throw new IllegalStateException("Game has not been initialized.");
+        return new Game(this);
+    }
+
+    /** Stops (or resumes) the game's own console messages; forks inherit the setting. */
+    public void setQuiet(boolean quiet) { this.quiet = quiet; }
+    public boolean isQuiet() { return quiet; }
+
+    /**
+     * Restarts the random generator used for steals from the given seed, e.g. so
+     * that forks of one game explore different steal outcomes.
+     */
+    public void reseedRandom(long seed) {
+        rng.setState(seed);
+        if (events != null) events.randomReseeded(seed);
+    }
+
+    /**
+     * The game's dice, seeded with the game; rolls are not part of the game
+     * state, so reseeding the steals leaves them alone.
+     */
+    public Dice getDice() { return dice; }
+
+    /**
+     * Switches this game to the 36-card dice deck (see {@link BalancedDice}),
+     * shuffled from the game's dice stream so seeded games stay reproducible.
+     */
+    public void useBalancedDice(int reshuffleThreshold, int antiStreakPercent) {
+        dice = dice.balanced(reshuffleThreshold, antiStreakPercent);
+    }
 
-        System.out.println("Game initialized with " + numberOfPlayers + " players.");
+    /** Replaces the game's dice, e.g. with dice read back from a log; the game then owns them. */
+    public void setDice(Dice dice) {
+        if (dice == null) throw new IllegalArgumentException("Dice cannot be null");
+        this.dice = dice;
     }
 
+    /**
+     * Sends every successful action from now on to {@code listener} (null to
+     * stop). Set it before {@link #initializeGame} so the log starts with the
+     * game's START event.
+     */
+    public void setEventListener(GameEventListener listener) { this.events = listener; }
+    public GameEventListener getEventListener() { return events; }
+
+    /** Seed of the generated layout, or {@link BoardLayout#NO_SEED} for a fixed layout. */
+    public long getLayoutSeed() { return layoutSeed; }
+
+    /** Cards per resource the bank started with. */
+    public int getBankSize() { return bankSize; }
+
     public List<Player> getPlayers() { return players; }
     public Board getBoard() { return board; }
     public ResourcePool getResourcePool() { return resourcePool; }
@@ -80,17 +302,55 @@ public class Game {
     public GamePhase getPhase() { return phase; }
     public boolean isSetupPhase() { return phase == GamePhase.SETUP; }
     public SetupStep getSetupStep() { return setupStep; }
-    public int getSetupRound() { return setupRound; }
+    public int getSetupRound() { return turnManager.getSetupRound(); }
     public Intersection getPendingSetupRoadAnchor() { return pendingSetupRoadAnchor; }
 
+    /**
+     * 64-bit Zobrist key of the current game state (board, hands, bank, points,
+     * turn and phase), maintained incrementally; reading it costs nothing.
+     */
+    public long getStateHash() { return stateHash.get(); }
+
+    /** Recomputes the state key from scratch; always equals {@link #getStateHash()}. */
+    public long computeStateHash() {
+        long h = board.computeHash() ^ resourcePool.computeHash() ^ turnManager.computeHash()
+                ^ longestRoad.computeHash() ^ computeFlowHash();
+        for (Player player : players) h ^= player.computeHash(board.getPlayerSlot(player));
+        return h;
+    }
+
+    private long computeFlowHash() {
+        return StateHash.key(StateHash.PHASE, 0, phase.ordinal())
+                ^ StateHash.key(StateHash.SETUP_STEP, 0, setupStep.ordinal())
+                ^ StateHash.key(StateHash.SETUP_ANCHOR, 0, board.getIntersectionId(pendingSetupRoadAnchor));
+    }
+
+    private void setPhase(GamePhase next) {
+        stateHash.change(StateHash.PHASE, 0, phase.ordinal(), next.ordinal());
+        phase = next;
+    }
+
+    private void setSetupStep(SetupStep next) {
+        stateHash.change(StateHash.SETUP_STEP, 0, setupStep.ordinal(), next.ordinal());
+        setupStep = next;
+    }
+
+    private void setPendingSetupRoadAnchor(Intersection anchor) {
+        stateHash.change(StateHash.SETUP_ANCHOR, 0, board.getIntersectionId(pendingSetupRoadAnchor), board.getIntersectionId(anchor));
+        pendingSetupRoadAnchor = anchor;
+    }
+
     public Settlement getSettlementAt(Intersection intersection) { return board.getSettlementAt(intersection); }
     public City getCityAt(Intersection intersection) { return board.getCityAt(intersection); }
     public Road getRoadAt(Edge edge) { return board.getRoadAt(edge); }
 
     public void endTurn() {
         if (phase != GamePhase.NORMAL) throw new IllegalStateException("Cannot end turn during SETUP phase.");
+        beginAction();
+        recordTurn();
+        if (events != null) events.turnEnded(board.getPlayerSlot(getCurrentPlayer()));
         turnManager.nextTurn();
-        System.out.println("It is now " + getCurrentPlayer().getName() + "'s turn.");
+        if (!quiet) System.out.println("It is now " + getCurrentPlayer().getName() + "'s turn.");
     }
 
     // -------------------- Build actions --------------------
@@ -98,36 +358,66 @@ public class Game {
     public Settlement buildSettlement(Player player, int intersectionIndex) {
         ensureNormalPhase("buildSettlement");
         ensureCurrentPlayer(player, "buildSettlement");
-        payCostToBank(player, SETTLEMENT_COST);
+        beginAction();
+        try {
+            payCostToBank(player, SETTLEMENT_COST);
+        } catch (RuntimeException ex) {
+            abandonAction();
+            throw ex;
+        }
+        Settlement built;
         try {
-            return placeSettlementInternal(player, intersectionIndex, false);
+            built = placeSettlementInternal(player, intersectionIndex, false);
         } catch (RuntimeException ex) {
             refundFromBank(player, SETTLEMENT_COST);
+            abandonAction();
             throw ex;
         }
+        if (events != null) events.settlementBuilt(board.getPlayerSlot(player), intersectionIndex);
+        return built;
     }
 
     public Road buildRoad(Player player, int edgeIndex) {
         ensureNormalPhase("buildRoad");
         ensureCurrentPlayer(player, "buildRoad");
-        payCostToBank(player, ROAD_COST);
+        beginAction();
         try {
-            return placeRoadInternal(player, edgeIndex, false);
+            payCostToBank(player, ROAD_COST);
+        } catch (RuntimeException ex) {
+            abandonAction();
+            throw ex;
+        }
+        Road built;
+        try {
+            built = placeRoadInternal(player, edgeIndex, false);
         } catch (RuntimeException ex) {
             refundFromBank(player, ROAD_COST);
+            abandonAction();
             throw ex;
         }
+        if (events != null) events.roadBuilt(board.getPlayerSlot(player), edgeIndex);
+        return built;
     }
 
     public City buildCity(Player player, int intersectionIndex) {
         ensureNormalPhase("buildCity");
-        payCostToBank(player, CITY_COST);
+        beginAction();
+        try {
+            payCostToBank(player, CITY_COST);
+        } catch (RuntimeException ex) {
+            abandonAction();
+            throw ex;
+        }
+        City built;
         try {
-            return upgradeSettlementToCityInternal(player, intersectionIndex);
+            built = upgradeSettlementToCityInternal(player, intersectionIndex);
         } catch (RuntimeException ex) {
             refundFromBank(player, CITY_COST);
+            abandonAction();
             throw ex;
         }
+        if (events != null) events.cityBuilt(board.getPlayerSlot(player), intersectionIndex);
+        return built;
     }
 
     public Settlement placeSetupSettlement(Player player, int intersectionIndex) {
@@ -137,14 +427,24 @@ public class Game {
             throw new IllegalStateException("Setup step is " + setupStep + ", expected PLACE_SETTLEMENT.");
         }
 
-        Settlement s = placeSettlementInternal(player, intersectionIndex, true);
+        beginAction();
+        Settlement s;
+        try {
+            s = placeSettlementInternal(player, intersectionIndex, true);
+        } catch (RuntimeException ex) {
+            abandonAction();
+            throw ex;
+        }
 
-        if (setupRound == 1) {
+        if (turnManager.getSetupRound() == turnManager.getSetupRounds() - 1) {
             grantStartingResourcesFromSecondSettlement(s);
         }
 
-        pendingSetupRoadAnchor = s.getLocation();
-        setupStep = SetupStep.PLACE_ROAD;
+        recordFlow();
+        setPendingSetupRoadAnchor(s.getLocation());
+        board.fillValidSetupRoadMask(intersectionIndex, setupRoadMask);
+        setSetupStep(SetupStep.PLACE_ROAD);
+        if (events != null) events.setupSettlementPlaced(board.getPlayerSlot(player), intersectionIndex);
         return s;
     }
 
@@ -158,11 +458,22 @@ public class Game {
             throw new IllegalStateException("No pending setup settlement anchor found.");
         }
 
-        Road r = placeRoadInternal(player, edgeIndex, true);
+        // Flow is recorded first so that undo removes the road before refilling the setup road set
+        beginAction();
+        recordFlow();
+        Road r;
+        try {
+            r = placeRoadInternal(player, edgeIndex, true);
+        } catch (RuntimeException ex) {
+            abandonAction();
+            throw ex;
+        }
 
-        pendingSetupRoadAnchor = null;
-        setupStep = SetupStep.PLACE_SETTLEMENT;
+        setPendingSetupRoadAnchor(null);
+        Arrays.fill(setupRoadMask, 0L);
+        setSetupStep(SetupStep.PLACE_SETTLEMENT);
         advanceSetupTurnOrderAfterRoad();
+        if (events != null) events.setupRoadPlaced(board.getPlayerSlot(player), edgeIndex);
         return r;
     }
 
@@ -170,80 +481,88 @@ public class Game {
 
     public String distributeResourcesForRoll(int roll) {
         ensureNormalPhase("distributeResourcesForRoll");
+        beginAction();
 
         if (roll == 7) {
+            logRoll(roll);
             return "Rolled 7: resolve robber (discard/move/steal).";
         }
 
-        Map<Player, Map<Resource, Integer>> requested = new HashMap<>();
-        Map<Resource, Integer> totalsByResource = new EnumMap<>(Resource.class);
-
-        for (catan.board.Hex hex : board.getHexes()) {
-            if (hex.getNumberToken() != roll) continue;
-
-            // Robber blocks production on its hex
-            if (board.getRobberHex() != null && board.getRobberHex() == hex) continue;
+        StringBuilder report = new StringBuilder();
+        report.append("Resource distribution for roll ").append(roll).append(":\n");
+        int paid = payOutRoll(roll, report);
+        logRoll(roll);
 
-            Resource res = hex.getResource();
-            if (res == null) continue;
-            if (res == Resource.DESERT) continue;
+        if (paid < 0) return "No settlements/cities produced resources on " + roll + ".";
+        if (paid == 0) return "Bank could not cover payouts for this roll (no resources distributed).";
+        return report.toString();
+    }
 
-            for (Intersection corner : board.getCornersForHex(hex)) {
-                catan.components.City city = board.getCityAt(corner);
-                if (city != null) {
-                    Player owner = city.getOwner();
-                    requested.computeIfAbsent(owner, k -> new EnumMap<>(Resource.class)).merge(res, 2, Integer::sum);
-                    totalsByResource.merge(res, 2, Integer::sum);
-                    continue;
-                }
-                Settlement settlement = board.getSettlementAt(corner);
-                if (settlement != null) {
-                    Player owner = settlement.getOwner();
-                    requested.computeIfAbsent(owner, k -> new EnumMap<>(Resource.class)).merge(res, 1, Integer::sum);
-                    totalsByResource.merge(res, 1, Integer::sum);
-                }
-            }
+    /**
+     * Pays out a non-7 roll without building a report, for simulations and bots.
+     * @return The number of cards paid, 0 if the bank covered nothing, or -1 if nothing produced.
+     */
+    public int applyRollPayouts(int roll) {
+        ensureNormalPhase("applyRollPayouts");
+        beginAction();
+        if (roll == 7) {
+            logRoll(roll);
+            return -1;
         }
+        int paid = payOutRoll(roll, null);
+        logRoll(roll);
+        return paid;
+    }
 
-        if (requested.isEmpty()) return "No settlements/cities produced resources on " + roll + ".";
+    private void logRoll(int roll) {
+        if (events == null) return;
+        if (roll == 7) Arrays.fill(rollPayouts, 0L);
+        events.diceRolled(board.getPlayerSlot(getCurrentPlayer()), roll, rollPayouts);
+    }
 
-        // Bank-shortage rule: if bank can't cover a resource type fully, nobody gets that resource this roll.
-        for (Map.Entry<Resource, Integer> e : totalsByResource.entrySet()) {
-            Resource res = e.getKey();
-            int needed = e.getValue();
-            if (!resourcePool.hasEnoughResource(res, needed)) {
-                for (Map<Resource, Integer> m : requested.values()) m.remove(res);
-            }
+    /**
+     * Reads the board's roll-indexed production table and pays every player.
+     * Bank-shortage rule: if the bank can't cover a resource type fully, nobody gets that resource this roll.
+     */
+    private int payOutRoll(int roll, StringBuilder report) {
+        Arrays.fill(rollPayouts, 0L);
+        if (roll < 2 || roll > 12) return -1;
+        int slots = board.getPlayerSlotCount();
+
+        boolean produced = false;
+        int coveredMask = 0;
+        for (Resource res : RESOURCES) {
+            int needed = 0;
+            for (int slot = 0; slot < slots; slot++) needed += board.getProduction(slot, roll, res);
+            if (needed == 0) continue;
+            produced = true;
+            if (resourcePool.hasEnoughResource(res, needed)) coveredMask |= 1 << res.ordinal();
         }
+        if (!produced) return -1;
 
-        StringBuilder report = new StringBuilder();
-        report.append("Resource distribution for roll ").append(roll).append(":\n");
-        boolean any = false;
-
-        for (Map.Entry<Player, Map<Resource, Integer>> pe : requested.entrySet()) {
-            Player p = pe.getKey();
-            Map<Resource, Integer> give = pe.getValue();
-            if (give.isEmpty()) continue;
-
-            any = true;
-            report.append("- ").append(p.getName()).append(" gets ");
+        int paid = 0;
+        for (int slot = 0; slot < slots && coveredMask != 0; slot++) {
+            Player p = board.getPlayerInSlot(slot);
             boolean first = true;
-
-            for (Map.Entry<Resource, Integer> re : give.entrySet()) {
-                Resource res = re.getKey();
-                int amt = re.getValue();
-                if (!first) report.append(", ");
-                report.append(amt).append(" ").append(res);
+            long owed = ResourceVector.EMPTY;
+            for (Resource res : RESOURCES) {
+                if ((coveredMask & (1 << res.ordinal())) == 0) continue;
+                int amt = board.getProduction(slot, roll, res);
+                if (amt == 0) continue;
+
+                if (report != null) {
+                    report.append(first ? "- " + p.getName() + " gets " : ", ").append(amt).append(" ").append(res);
+                }
                 first = false;
 
-                resourcePool.removeResource(res, amt);
-                p.getInventory().addResource(res, amt);
+                owed |= ResourceVector.of(res, amt);
+                paid += amt;
             }
-            report.append(".\n");
+            if (owed != ResourceVector.EMPTY) moveCards(p, owed);
+            rollPayouts[slot] = owed;
+            if (report != null && !first) report.append(".\n");
         }
-
-        if (!any) return "Bank could not cover payouts for this roll (no resources distributed).";
-        return report.toString();
+        return paid;
     }
 
     // -------------------- Robber (roll of 7) --------------------
@@ -264,7 +583,12 @@ public class Game {
         if (discard == null) throw new IllegalArgumentException("Discard map cannot be null");
 
         int required = getDiscardCountOnSeven(player);
-        if (required <= 0) return;
+        if (required <= 0) {
+            // Still an action, so that undo and the event log stay in step
+            beginAction();
+            if (events != null) events.cardsDiscarded(board.getPlayerSlot(player), ResourceVector.EMPTY);
+            return;
+        }
 
         int sum = 0;
         for (Map.Entry<Resource, Integer> e : discard.entrySet()) {
@@ -278,41 +602,37 @@ public class Game {
         }
         if (sum != required) throw new IllegalArgumentException("Must discard exactly " + required + " cards (you entered " + sum + ")");
 
-        player.getInventory().removeResources(discard);
-        resourcePool.addResources(discard);
+        beginAction();
+        long cards = ResourceVector.of(discard);
+        moveCards(player, -cards);
+        if (events != null) events.cardsDiscarded(board.getPlayerSlot(player), cards);
     }
 
     public int getRobberHexIndex() {
-        catan.board.Hex rh = board.getRobberHex();
-        if (rh == null) return -1;
-        return board.getHexes().indexOf(rh);
+        return board.getRobberHexId();
     }
 
     public void moveRobberToHex(int hexIndex) {
         ensureNormalPhase("moveRobberToHex");
-        if (hexIndex < 0 || hexIndex >= board.getHexes().size()) throw new IllegalArgumentException("Hex index out of range");
+        if (hexIndex < 0 || hexIndex >= board.getHexCount()) throw new IllegalArgumentException("Hex index out of range");
         int currentIdx = getRobberHexIndex();
         if (currentIdx == hexIndex) throw new IllegalArgumentException("Robber must be moved to a different hex");
-        board.moveRobberTo(board.getHexes().get(hexIndex));
+        beginAction();
+        record(UNDO_ROBBER, currentIdx);
+        board.moveRobberTo(hexIndex);
+        if (events != null) events.robberMoved(board.getPlayerSlot(getCurrentPlayer()), hexIndex);
     }
 
     public List<Player> getRobbablePlayers(Player currentPlayer) {
-        catan.board.Hex rh = board.getRobberHex();
-        if (rh == null) return Collections.emptyList();
+        int robberHexId = board.getRobberHexId();
+        if (robberHexId < 0) return Collections.emptyList();
 
         Map<String, Player> uniq = new HashMap<>();
-        for (Intersection corner : board.getCornersForHex(rh)) {
-            catan.components.City city = board.getCityAt(corner);
-            if (city != null) {
-                Player owner = city.getOwner();
-                if (owner != null && owner != currentPlayer && owner.getInventory().hasAnyResources()) uniq.put(owner.getName(), owner);
-                continue;
-            }
-            Settlement s = board.getSettlementAt(corner);
-            if (s != null) {
-                Player owner = s.getOwner();
-                if (owner != null && owner != currentPlayer && owner.getInventory().hasAnyResources()) uniq.put(owner.getName(), owner);
-            }
+        for (int k = 0; k < board.getCornerCount(robberHexId); k++) {
+            int slot = board.getBuildingOwnerSlot(board.getCornerId(robberHexId, k));
+            if (slot < 0) continue;
+            Player owner = board.getPlayerInSlot(slot);
+            if (owner != currentPlayer && owner.getInventory().hasAnyResources()) uniq.put(owner.getName(), owner);
         }
         return new ArrayList<>(uniq.values());
     }
@@ -320,9 +640,15 @@ public class Game {
     public Resource stealRandomResource(Player thief, Player victim) {
         ensureNormalPhase("stealRandomResource");
         if (thief == null || victim == null) throw new IllegalArgumentException("Players cannot be null");
-        if (!victim.getInventory().hasAnyResources()) return null;
+        beginAction();
+        if (!victim.getInventory().hasAnyResources()) {
+            if (events != null) events.resourceStolen(board.getPlayerSlot(thief), board.getPlayerSlot(victim), null);
+            return null;
+        }
 
         int total = victim.getInventory().getTotalResourceCards();
+        long state = rng.getState();
+        record(UNDO_RANDOM, (int) (state >>> 32), (int) state);
         int pick = rng.nextInt(total) + 1;
 
         for (Resource r : Resource.values()) {
@@ -333,87 +659,181 @@ public class Game {
             if (pick <= 0) {
                 victim.getInventory().removeResource(r, 1);
                 thief.getInventory().addResource(r, 1);
+                record(UNDO_HAND, board.getPlayerSlot(victim), r.ordinal(), -1);
+                record(UNDO_HAND, board.getPlayerSlot(thief), r.ordinal(), 1);
+                if (events != null) events.resourceStolen(board.getPlayerSlot(thief), board.getPlayerSlot(victim), r);
                 return r;
             }
         }
         return null;
     }
 
+    // -------------------- Trades --------------------
+
+    /**
+     * Trades with the bank: the current player pays {@code gives} and receives
+     * {@code gets} (both {@link ResourceVector}s) at {@value #BANK_TRADE_RATE}:1.
+     * Every resource given must come in multiples of the rate, and one card of
+     * a different resource is received for each multiple. The boards have no
+     * ports, so there are no better rates.
+     */
+    public void tradeWithBank(Player player, long gives, long gets) {
+        ensureNormalPhase("tradeWithBank");
+        ensureCurrentPlayer(player, "tradeWithBank");
+        checkTradeCards(gives, gets);
+        int lots = 0;
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            int count = ResourceVector.get(gives, lane);
+            if (count % BANK_TRADE_RATE != 0) throw new IllegalArgumentException("Bank trades are " + BANK_TRADE_RATE + ":1.");
+            lots += count / BANK_TRADE_RATE;
+        }
+        if (ResourceVector.total(gets) != lots) throw new IllegalArgumentException("Bank trades are " + BANK_TRADE_RATE + ":1.");
+        if (!player.getInventory().hasEnoughResources(gives)) throw new IllegalArgumentException("Not enough resources to trade.");
+        if (!ResourceVector.covers(ResourceVector.add(resourcePool.getResources(), gives), gets)) {
+            throw new IllegalArgumentException("The bank does not have the requested resources.");
+        }
+        beginAction();
+        moveCards(player, -gives);
+        moveCards(player, gets);
+        if (events != null) events.tradedWithBank(board.getPlayerSlot(player), gives, gets);
+    }
+
+    /** Trades between the current player, who gives {@code gives}, and {@code other}, who gives {@code gets}. */
+    public void tradeWithPlayer(Player player, long gives, Player other, long gets) {
+        ensureNormalPhase("tradeWithPlayer");
+        ensureCurrentPlayer(player, "tradeWithPlayer");
+        if (other == null || other == player) throw new IllegalArgumentException("Trading partner must be another player.");
+        checkTradeCards(gives, gets);
+        if (!player.getInventory().hasEnoughResources(gives) || !other.getInventory().hasEnoughResources(gets)) {
+            throw new IllegalArgumentException("Not enough resources to trade.");
+        }
+        beginAction();
+        giveCards(player, other, gives);
+        giveCards(other, player, gets);
+        if (events != null) events.tradedWithPlayer(board.getPlayerSlot(player), gives, board.getPlayerSlot(other), gets);
+    }
+
+    /**
+     * Checks the cards of a trade on their own, before any hand is looked at:
+     * both sides give something, and no resource changes hands both ways.
+     * @throws IllegalArgumentException If a vector is malformed or the trade is not one.
+     */
+    public static void checkTradeCards(long gives, long gets) {
+        if (!ResourceVector.isValid(gives) || !ResourceVector.isValid(gets)) throw new IllegalArgumentException("Malformed resource vector.");
+        if (gives == ResourceVector.EMPTY || gets == ResourceVector.EMPTY) throw new IllegalArgumentException("Both sides of a trade must give cards.");
+        if (ResourceVector.overlaps(gives, gets)) throw new IllegalArgumentException("A resource cannot be traded for itself.");
+    }
+
+    private void giveCards(Player from, Player to, long cards) {
+        from.getInventory().removeResources(cards);
+        to.getInventory().addResources(cards);
+        record(UNDO_GIFT, board.getPlayerSlot(from), board.getPlayerSlot(to), (int) (cards >>> 32), (int) cards);
+    }
+
     // -------------------- Internals --------------------
 
     private Settlement placeSettlementInternal(Player player, int intersectionIndex, boolean isSetup) {
         if (player == null) throw new IllegalArgumentException("Player cannot be null.");
-        List<Intersection> ints = board.getIntersections();
-        if (intersectionIndex < 0 || intersectionIndex >= ints.size()) throw new IllegalArgumentException("Intersection index out of range.");
-        Intersection loc = ints.get(intersectionIndex);
+        if (intersectionIndex < 0 || intersectionIndex >= board.getIntersectionCount()) throw new IllegalArgumentException("Intersection index out of range.");
 
-        if (!Validator.isValidSettlementPlacement(board, player, loc, isSetup)) throw new IllegalArgumentException("Invalid settlement placement.");
+        if (!Validator.isValidSettlementPlacement(board, player, intersectionIndex, isSetup)) throw new IllegalArgumentException("Invalid settlement placement.");
 
-        Settlement s = new Settlement(player, loc);
+        Settlement s = new Settlement(player, board.getIntersections().get(intersectionIndex));
         board.placeSettlement(s);
         player.addSettlement(s);
+        record(UNDO_SETTLEMENT, intersectionIndex);
+        int holder = longestRoad.getHolderSlot();
+        longestRoad.onSettlementPlaced(intersectionIndex);
+        if (longestRoad.getHolderSlot() != holder) record(UNDO_AWARD, holder);
         return s;
     }
     
     private City upgradeSettlementToCityInternal(Player player, int intersectionIndex) {
         if (player == null) throw new IllegalArgumentException("Player cannot be null.");
-        List<Intersection> ints = board.getIntersections();
-        if (intersectionIndex < 0 || intersectionIndex >= ints.size()) throw new IllegalArgumentException("Intersection index out of range.");
+        if (intersectionIndex < 0 || intersectionIndex >= board.getIntersectionCount()) throw new IllegalArgumentException("Intersection index out of range.");
 
-        Intersection loc = ints.get(intersectionIndex);
-        Settlement settlement = board.getSettlementAt(loc);
+        Settlement settlement = board.getSettlementAt(intersectionIndex);
         if (settlement == null) throw new IllegalArgumentException("No settlement exists at this intersection.");
         if (settlement.getOwner() != player) throw new IllegalArgumentException("You can only upgrade your own settlement.");
 
-        City city = new City(player, loc);
+        City city = new City(player, settlement.getLocation());
         board.upgradeSettlementToCity(city);
         player.upgradeSettlementToCity(settlement, city);
+        if (undoEnabled) {
+            undoLog.pushObject(settlement);
+            undoLog.push(UNDO_CITY);
+        }
         return city;
     }
 
     public List<Integer> getValidSettlementPlacements(Player player, boolean isSetup) {
-        List<Integer> valid = new ArrayList<>();
-        List<Intersection> ints = board.getIntersections();
-        for (int i = 0; i < ints.size(); i++) {
-            if (Validator.isValidSettlementPlacement(board, player, ints.get(i), isSetup)) {
-                valid.add(i);
-            }
-        }
-        return valid;
+        return getLegalSettlements(player, isSetup).toList();
     }
-    
+
+    /**
+     * Returns every legal settlement site for the player as an intersection bitmask
+     * (bit i set = intersection i is legal), copied from the maintained legal set.
+     */
+    public long[] getValidSettlementMask(Player player, boolean isSetup) {
+        long[] mask = new long[board.getIntersectionWordCount()];
+        getLegalSettlements(player, isSetup).copyTo(mask);
+        return mask;
+    }
+
     public List<Integer> getValidCityPlacements(Player player) {
-        List<Integer> valid = new ArrayList<>();
-        if (player == null) return valid;
-
-        List<Intersection> ints = board.getIntersections();
-        for (int i = 0; i < ints.size(); i++) {
-            Intersection intersection = ints.get(i);
-            Settlement settlement = board.getSettlementAt(intersection);
-            if (settlement != null && settlement.getOwner() == player) {
-                valid.add(i);
-            }
-        }
-        return valid;
+        return getLegalCities(player).toList();
     }
 
     public List<Integer> getValidRoadPlacements(Player player, boolean isSetup) {
-        List<Integer> valid = new ArrayList<>();
-        List<Edge> es = board.getEdges();
-        for (int i = 0; i < es.size(); i++) {
-            Edge e = es.get(i);
-            boolean ok = isSetup
-                    ? Validator.isValidSetupRoadPlacement(board, player, e, pendingSetupRoadAnchor)
-                    : Validator.isValidRoadPlacement(board, player, e);
-            if (ok) valid.add(i);
-        }
-        return valid;
+        return getLegalRoads(player, isSetup).toList();
     }
-    
+
+    /**
+     * Returns every legal road edge for the player as an edge bitmask
+     * (bit i set = edge i is legal). During setup only edges touching the
+     * pending settlement anchor are legal.
+     */
+    public long[] getValidRoadMask(Player player, boolean isSetup) {
+        long[] mask = new long[board.getEdgeWordCount()];
+        getLegalRoads(player, isSetup).copyTo(mask);
+        return mask;
+    }
+
+    // Legal move sets are maintained by the board as pieces are placed; these return live views.
+
+    /** Live set of intersection ids where the player may place a settlement (same rules as Validator). */
+    public IdSet getLegalSettlements(Player player, boolean isSetup) {
+        if (player == null) return IdSet.empty();
+        return board.getLegalSettlementSites(board.getPlayerSlot(player), isSetup);
+    }
+
+    /** Live set of edge ids where the player may place a road; during setup, the edges touching the anchor. */
+    public IdSet getLegalRoads(Player player, boolean isSetup) {
+        if (player == null) return IdSet.empty();
+        return isSetup ? setupRoads : board.getLegalRoadEdges(board.getPlayerSlot(player));
+    }
+
+    /** Live set of intersection ids holding the player's settlements (the legal city upgrades). */
+    public IdSet getLegalCities(Player player) {
+        if (player == null) return IdSet.empty();
+        return board.getSettlementSites(board.getPlayerSlot(player));
+    }
+
+    /** Player holding the Longest Road award, or null if nobody holds it. */
+    public Player getLongestRoadHolder() {
+        return longestRoad.getHolder();
+    }
+
+    /** Length of the player's longest continuous road (opponent buildings break a road). */
+    public int getLongestRoadLength(Player player) {
+        if (player == null) return 0;
+        return longestRoad.getLongestRoad(board.getPlayerSlot(player));
+    }
+
     public List<Integer> getValidRobberHexDestinations() {
         List<Integer> valid = new ArrayList<>();
         int current = getRobberHexIndex();
-        for (int i = 0; i < board.getHexes().size(); i++) {
+        for (int i = 0; i < board.getHexCount(); i++) {
             if (i != current) valid.add(i);
         }
         return valid;
@@ -423,19 +843,22 @@ public class Game {
 
     private Road placeRoadInternal(Player player, int edgeIndex, boolean isSetup) {
         if (player == null) throw new IllegalArgumentException("Player cannot be null.");
-        List<Edge> es = board.getEdges();
-        if (edgeIndex < 0 || edgeIndex >= es.size()) throw new IllegalArgumentException("Edge index out of range.");
-        Edge edge = es.get(edgeIndex);
+        if (edgeIndex < 0 || edgeIndex >= board.getEdgeCount()) throw new IllegalArgumentException("Edge index out of range.");
 
         if (isSetup) {
-            if (!Validator.isValidSetupRoadPlacement(board, player, edge, pendingSetupRoadAnchor)) throw new IllegalArgumentException("Invalid setup road placement.");
+            int anchorId = board.getIntersectionId(pendingSetupRoadAnchor);
+            if (anchorId < 0 || !Validator.isValidSetupRoadPlacement(board, edgeIndex, anchorId)) throw new IllegalArgumentException("Invalid setup road placement.");
         } else {
-            if (!Validator.isValidRoadPlacement(board, player, edge)) throw new IllegalArgumentException("Invalid road placement.");
+            if (!Validator.isValidRoadPlacement(board, player, edgeIndex)) throw new IllegalArgumentException("Invalid road placement.");
         }
 
-        Road r = new Road(player, edge);
+        Road r = new Road(player, board.getEdges().get(edgeIndex));
         board.placeRoad(r);
         player.addRoad(r);
+        record(UNDO_ROAD, edgeIndex);
+        int holder = longestRoad.getHolderSlot();
+        longestRoad.onRoadPlaced(edgeIndex);
+        if (longestRoad.getHolderSlot() != holder) record(UNDO_AWARD, holder);
         return r;
     }
 
@@ -456,23 +879,9 @@ public class Game {
     }
 
     private void advanceSetupTurnOrderAfterRoad() {
-        int n = turnManager.getPlayerCount();
-        int idx = turnManager.getCurrentPlayerIndex();
-
-        if (setupForward) {
-            if (idx == n - 1) {
-                setupForward = false;
-                setupRound = 1;
-            } else {
-                turnManager.nextTurn();
-            }
-        } else {
-            if (idx == 0) {
-                phase = GamePhase.NORMAL;
-                turnManager.setCurrentPlayerIndex(0);
-            } else {
-                turnManager.previousTurn();
-            }
+        recordTurn();
+        if (turnManager.advanceSetup()) {
+            setPhase(GamePhase.NORMAL);
         }
     }
 
@@ -486,42 +895,282 @@ public class Game {
         return null;
     }
 
-    // -------------------- Economy helpers --------------------
+    // -------------------- Undo --------------------
+
+    /**
+     * Turns undo recording on or off; it is off by default and turning it off
+     * drops the history. While on, every successful call to an action
+     * (setup placements, builds, roll payouts, discards, robber moves, steals,
+     * endTurn) is recorded as one compact entry that {@link #undo()} reverses.
+     * Failed calls record nothing. Recording and undoing do not allocate once
+     * the journal has grown to the search depth.
+     */
+    public void setUndoEnabled(boolean enabled) {
+        undoEnabled = enabled;
+        if (!enabled) undoLog.clear();
+    }
+
+    public boolean isUndoEnabled() {
+        return undoEnabled;
+    }
+
+    /** Number of recorded actions that can be undone. */
+    public int getUndoDepth() {
+        return undoLog.getActionCount();
+    }
+
+    public boolean canUndo() {
+        return undoLog.getActionCount() > 0;
+    }
+
+    /**
+     * Reverses the latest recorded action, restoring board occupancy, hands,
+     * bank, robber, Longest Road, turn and setup state and the random generator
+     * exactly as they were before it.
+     */
+    public void undo() {
+        if (!canUndo()) throw new IllegalStateException("Nothing to undo.");
+        while (undoLog.hasRecordsInAction()) {
+            switch (undoLog.pop()) {
+                case UNDO_HAND: {
+                    int cards = undoLog.pop();
+                    Resource res = RESOURCES[undoLog.pop()];
+                    Player player = board.getPlayerInSlot(undoLog.pop());
+                    if (cards > 0) player.getInventory().removeResource(res, cards);
+                    else player.getInventory().addResource(res, -cards);
+                    break;
+                }
+                case UNDO_BANK_TRANSFER: {
+                    int cards = undoLog.pop();
+                    Resource res = RESOURCES[undoLog.pop()];
+                    Player player = board.getPlayerInSlot(undoLog.pop());
+                    if (cards > 0) {
+                        player.getInventory().removeResource(res, cards);
+                        resourcePool.addResource(res, cards);
+                    } else {
+                        resourcePool.removeResource(res, -cards);
+                        player.getInventory().addResource(res, -cards);
+                    }
+                    break;
+                }
+                case UNDO_PAYMENT: {
+                    long low = undoLog.pop() & 0xFFFFFFFFL;
+                    long cards = (long) undoLog.pop() << 32 | low;
+                    transferCards(board.getPlayerInSlot(undoLog.pop()), -cards);
+                    break;
+                }
+                case UNDO_GIFT: {
+                    long low = undoLog.pop() & 0xFFFFFFFFL;
+                    long cards = (long) undoLog.pop() << 32 | low;
+                    Player to = board.getPlayerInSlot(undoLog.pop());
+                    Player from = board.getPlayerInSlot(undoLog.pop());
+                    to.getInventory().removeResources(cards);
+                    from.getInventory().addResources(cards);
+                    break;
+                }
+                case UNDO_SETTLEMENT: {
+                    int intersectionId = undoLog.pop();
+                    Settlement settlement = board.removeSettlement(intersectionId);
+                    longestRoad.onSettlementRemoved(intersectionId);
+                    settlement.getOwner().removeSettlement(settlement);
+                    break;
+                }
+                case UNDO_CITY: {
+                    Settlement settlement = (Settlement) undoLog.popObject();
+                    City city = board.downgradeCityToSettlement(settlement);
+                    settlement.getOwner().downgradeCityToSettlement(city, settlement);
+                    break;
+                }
+                case UNDO_ROAD: {
+                    int edgeId = undoLog.pop();
+                    int slot = board.getRoadOwnerSlot(edgeId);
+                    Road road = board.removeRoad(edgeId);
+                    longestRoad.onRoadRemoved(edgeId, slot);
+                    road.getOwner().removeRoad(road);
+                    break;
+                }
+                case UNDO_ROBBER:
+                    board.moveRobberTo(undoLog.pop());
+                    break;
+                case UNDO_TURN: {
+                    boolean complete = undoLog.pop() != 0;
+                    int round = undoLog.pop();
+                    turnManager.restore(undoLog.pop(), round, complete);
+                    break;
+                }
+                case UNDO_FLOW: {
+                    int anchor = undoLog.pop();
+                    setSetupStep(SETUP_STEPS[undoLog.pop()]);
+                    setPhase(PHASES[undoLog.pop()]);
+                    setPendingSetupRoadAnchor(anchor < 0 ? null : board.getIntersections().get(anchor));
+                    board.fillValidSetupRoadMask(anchor, setupRoadMask);
+                    break;
+                }
+                case UNDO_AWARD:
+                    longestRoad.restoreAward(undoLog.pop());
+                    break;
+                case UNDO_RANDOM: {
+                    long low = undoLog.pop() & 0xFFFFFFFFL;
+                    rng.setState(((long) undoLog.pop() << 32) | low);
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Corrupt undo log.");
+            }
+        }
+        undoLog.endUndo();
+        if (events != null) events.actionUndone();
+    }
+
+    private void beginAction() {
+        if (undoEnabled) undoLog.beginAction();
+    }
+
+    private void abandonAction() {
+        if (undoEnabled) undoLog.abandonAction();
+    }
+
+    private void record(int kind, int a) {
+        if (!undoEnabled) return;
+        undoLog.push(a);
+        undoLog.push(kind);
+    }
+
+    private void record(int kind, int a, int b) {
+        if (!undoEnabled) return;
+        undoLog.push(a);
+        undoLog.push(b);
+        undoLog.push(kind);
+    }
+
+    private void record(int kind, int a, int b, int c) {
+        if (!undoEnabled) return;
+        undoLog.push(a);
+        undoLog.push(b);
+        undoLog.push(c);
+        undoLog.push(kind);
+    }
+
+    private void record(int kind, int a, int b, int c, int d) {
+        if (!undoEnabled) return;
+        undoLog.push(a);
+        undoLog.push(b);
+        undoLog.push(c);
+        undoLog.push(d);
+        undoLog.push(kind);
+    }
+
+    private void recordTurn() {
+        record(UNDO_TURN, turnManager.getCurrentPlayerIndex(), turnManager.getSetupRound(), turnManager.isSetupComplete() ? 1 : 0);
+    }
 
-    private static Map<Resource, Integer> cost(Object... kv) {
-        Map<Resource, Integer> m = new EnumMap<>(Resource.class);
-        for (int i = 0; i < kv.length; i += 2) {
-            Resource r = (Resource) kv[i];
-            int v = (Integer) kv[i + 1];
-            m.put(r, v);
+    private void recordFlow() {
+        record(UNDO_FLOW, phase.ordinal(), setupStep.ordinal(), board.getIntersectionId(pendingSetupRoadAnchor));
+    }
+
+    // -------------------- Snapshot support (see GameSnapshot) --------------------
+
+    long getRandomState() { return rng.getState(); }
+    int getLongestRoadHolderSlot() { return longestRoad.getHolderSlot(); }
+    boolean isSetupComplete() { return turnManager.isSetupComplete(); }
+
+    /** Sets up an empty board for a game being restored, without printing or logging anything. */
+    void initializeRestored(int numberOfPlayers, BoardTopology topology, int bankSizePerResource, BoardLayout layout) {
+        boolean wasQuiet = quiet;
+        GameEventListener listener = events;
+        quiet = true;
+        events = null;
+        try {
+            initializeGame(numberOfPlayers, topology, bankSizePerResource, layout);
+        } finally {
+            quiet = wasQuiet;
+            events = listener;
+        }
+    }
+
+    /** Puts a building back without rule checks or payment; Longest Road is fixed up by {@link #restoreFlow}. */
+    void restoreBuilding(int slot, int intersectionId, boolean city) {
+        Player owner = board.getPlayerInSlot(slot);
+        Settlement settlement = new Settlement(owner, board.getIntersections().get(intersectionId));
+        board.placeSettlement(settlement);
+        owner.addSettlement(settlement);
+        if (city) {
+            City upgraded = new City(owner, settlement.getLocation());
+            board.upgradeSettlementToCity(upgraded);
+            owner.upgradeSettlementToCity(settlement, upgraded);
+        }
+    }
+
+    void restoreRoad(int slot, int edgeId) {
+        Player owner = board.getPlayerInSlot(slot);
+        Road road = new Road(owner, board.getEdges().get(edgeId));
+        board.placeRoad(road);
+        owner.addRoad(road);
+    }
+
+    /** Restores turn order, setup flow, the Longest Road holder and the random generator once pieces are back. */
+    void restoreFlow(int currentIndex, int setupRound, boolean setupComplete, GamePhase restoredPhase,
+                     SetupStep restoredStep, int anchorId, int holderSlot, long randomState) {
+        turnManager.restore(currentIndex, setupRound, setupComplete);
+        setPhase(restoredPhase);
+        setSetupStep(restoredStep);
+        setPendingSetupRoadAnchor(anchorId < 0 ? null : board.getIntersections().get(anchorId));
+        if (restoredPhase == GamePhase.SETUP && restoredStep == SetupStep.PLACE_ROAD) {
+            board.fillValidSetupRoadMask(anchorId, setupRoadMask);
         }
-        return m;
+        longestRoad.recomputeAll();
+        longestRoad.setHolderSlot(holderSlot);
+        rng.setState(randomState);
     }
 
-    private void payCostToBank(Player player, Map<Resource, Integer> cost) {
+    // -------------------- Economy helpers --------------------
+
+    private void payCostToBank(Player player, long cost) {
         if (!player.getInventory().hasEnoughResources(cost)) throw new IllegalArgumentException("Not enough resources to build.");
-        player.getInventory().removeResources(cost);
-        resourcePool.addResources(cost);
+        moveCards(player, -cost);
+    }
+
+    private void refundFromBank(Player player, long cost) {
+        moveCards(player, cost);
+    }
+
+    /** Moves cards from the bank to the player's hand. */
+    private void takeFromBank(Player player, Resource res, int amount) {
+        resourcePool.removeResource(res, amount);
+        player.getInventory().addResource(res, amount);
+        record(UNDO_BANK_TRANSFER, board.getPlayerSlot(player), res.ordinal(), amount);
+    }
+
+    /**
+     * Moves a whole card vector between the bank and the player's hand in one
+     * step: bank to hand if {@code cards} is positive, hand to bank if it is
+     * the negation of a vector.
+     */
+    private void moveCards(Player player, long cards) {
+        transferCards(player, cards);
+        record(UNDO_PAYMENT, board.getPlayerSlot(player), (int) (cards >>> 32), (int) cards);
     }
 
-    private void refundFromBank(Player player, Map<Resource, Integer> cost) {
-        resourcePool.removeResources(cost);
-        player.getInventory().addResources(cost);
+    private void transferCards(Player player, long cards) {
+        if (cards >= 0) {
+            resourcePool.removeResources(cards);
+            player.getInventory().addResources(cards);
+        } else {
+            player.getInventory().removeResources(-cards);
+            resourcePool.addResources(-cards);
+        }
     }
 
     private void grantStartingResourcesFromSecondSettlement(Settlement settlement) {
-        Intersection loc = settlement.getLocation();
+        int loc = board.getIntersectionId(settlement.getLocation());
         Player owner = settlement.getOwner();
 
-        for (catan.board.Hex hex : board.getHexesTouchingIntersection(loc)) {
-            Resource res = hex.getResource();
+        for (int k = 0; k < board.getTouchingHexCount(loc); k++) {
+            Resource res = board.getHexResource(board.getTouchingHexId(loc, k));
             if (res == null) continue;
             if (res == Resource.DESERT) continue;
 
-            if (resourcePool.hasEnoughResource(res, 1)) {
-                resourcePool.removeResource(res, 1);
-                owner.getInventory().addResource(res, 1);
-            }
+            if (resourcePool.hasEnoughResource(res, 1)) takeFromBank(owner, res, 1);
         }
     }
 
@@ -532,7 +1181,7 @@ public class Game {
             Player currentPlayer = getCurrentPlayer();
             System.out.println(currentPlayer.getName() + ", it's your turn.");
             System.out.println("Rolling the dice...");
-            int diceRoll = (int) (Math.random() * 6 + 1) + (int) (Math.random() * 6 + 1);
+            int diceRoll = dice.roll();
             System.out.println("You rolled: " + diceRoll);
             System.out.println("Enter any key to end your turn.");
             scanner.nextLine();
@@ -544,23 +1193,24 @@ public class Game {
     }
 
     public static void main(String[] args) {
-        Game game = new Game();
         int numberOfPlayers;
+        GameRandom seeds = new GameRandom();
 
         if (args.length > 0) {
             try {
                 numberOfPlayers = Integer.parseInt(args[0]);
+                if (args.length > 1) seeds = new GameRandom(Long.parseLong(args[1]));
             } catch (NumberFormatException e) {
-                System.out.println("Invalid number of players: " + args[0]);
-                System.out.println("Usage: java catan.main.Game [2-4]");
+                System.out.println("Invalid arguments: " + String.join(" ", args));
+                System.out.println("Usage: java catan.main.Game [2-6] [seed] [deck]");
                 return;
             }
         } else {
             Scanner scanner = new Scanner(System.in);
-            System.out.println("Enter number of players (2-4):");
+            System.out.println("Enter number of players (2-6):");
 
             if (!scanner.hasNextInt()) {
-                System.out.println("Invalid input. Please enter a whole number between 2 and 4.");
+                System.out.println("Invalid input. Please enter a whole number between 2 and 6.");
                 scanner.close();
                 return;
             }
@@ -569,6 +1219,9 @@ public class Game {
             scanner.nextLine();
         }
 
+        // With a seed the dice and steals repeat from run to run; bot seats are played with catan.ai.MctsSeat
+        Game game = new Game(seeds.nextLong());
+        if (args.length > 2 && args[2].equals("deck")) game.useBalancedDice(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 0);
         try {
             game.initializeGame(numberOfPlayers);
             Scanner scanner = new Scanner(System.in);
@@ -0,0 +1,215 @@
+package catan.main;
+
+import java.nio.ByteBuffer;
+
+import catan.board.Board;
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.log.DiceCodec;
+import catan.log.Varint;
+import catan.players.Player;
+import catan.resources.Resource;
+
+/**
+ * Versioned binary image of a whole {@link Game}: board layout, robber,
+ * pieces, hands, points, bank, turn and setup flow, the Longest Road holder,
+ * the random generator and the dice, down to the order of a dice deck. A game read back plays on exactly like the one
+ * written, and has the same {@link Game#getStateHash() state hash}.
+ *
+ * Snapshots go straight into and out of a {@link ByteBuffer}, heap or direct,
+ * at its position, with nothing allocated on the way out. Counts and ids are
+ * varints and pieces are stored by id delta, so a four-player game in full
+ * swing takes about 140 bytes (40 more with a dice deck) and never more than
+ * {@link #maxBytes(Game)}.
+ *
+ * Not stored: player names (always "Player 1".."Player n"), the undo history,
+ * the event listener and the quiet flag.
+ */
+public final class GameSnapshot {
+    public static final byte VERSION = 3;
+
+    // Topology kinds; custom boards carry their hex coordinates
+    private static final int STANDARD = 0;
+    private static final int EXTENSION = 1;
+    private static final int CUSTOM = 2;
+
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final Game.GamePhase[] PHASES = Game.GamePhase.values();
+    private static final Game.SetupStep[] SETUP_STEPS = Game.SetupStep.values();
+
+    private GameSnapshot() {}
+
+    /** Upper bound on the size of a snapshot of {@code game}. */
+    public static int maxBytes(Game game) {
+        Board board = game.getBoard();
+        int hexes = board.getHexCount();
+        int seats = game.getPlayers().size();
+        return 64 + DiceCodec.MAX_BYTES + hexes * (1 + 2 * Varint.MAX_LONG_BYTES)
+                + board.getIntersectionCount() * 4 + board.getEdgeCount() * 4
+                + (seats + 1) * (Varint.MAX_CARDS_BYTES + 5);
+    }
+
+    /** Writes the game at the buffer's position and advances past it. */
+    public static void write(Game game, ByteBuffer buf) {
+        if (game.getBoard() == null) throw new IllegalArgumentException("Game has not been initialized");
+        Board board = game.getBoard();
+        BoardTopology topology = board.getTopology();
+        int hexes = board.getHexCount();
+        buf.put(VERSION);
+
+        if (topology == BoardTopology.standard()) {
+            buf.put((byte) STANDARD);
+        } else if (topology == BoardTopology.extension()) {
+            buf.put((byte) EXTENSION);
+        } else {
+            buf.put((byte) CUSTOM);
+            Varint.putInt(buf, hexes);
+            for (int h = 0; h < hexes; h++) {
+                Varint.putSignedLong(buf, topology.getHexQ(h));
+                Varint.putSignedLong(buf, topology.getHexR(h));
+            }
+        }
+        buf.put((byte) game.getPlayers().size());
+        Varint.putInt(buf, game.getBankSize());
+        buf.putLong(game.getLayoutSeed());
+        for (int h = 0; h < hexes; h++) {
+            buf.put((byte) (board.getHexResource(h).ordinal() << 4 | board.getHexNumberToken(h)));
+        }
+        Varint.putInt(buf, board.getRobberHexId());
+
+        int intersections = board.getIntersectionCount();
+        int buildings = 0;
+        for (int i = 0; i < intersections; i++) {
+            if (board.getBuildingLevel(i) != 0) buildings++;
+        }
+        Varint.putInt(buf, buildings);
+        for (int i = 0, last = 0; i < intersections; i++) {
+            int level = board.getBuildingLevel(i);
+            if (level == 0) continue;
+            Varint.putInt(buf, i - last);
+            buf.put((byte) (board.getBuildingOwnerSlot(i) << 1 | (level - 1)));
+            last = i;
+        }
+
+        int edges = board.getEdgeCount();
+        int roads = 0;
+        for (int e = 0; e < edges; e++) {
+            if (board.getRoadOwnerSlot(e) >= 0) roads++;
+        }
+        Varint.putInt(buf, roads);
+        for (int e = 0, last = 0; e < edges; e++) {
+            int slot = board.getRoadOwnerSlot(e);
+            if (slot < 0) continue;
+            Varint.putInt(buf, e - last);
+            buf.put((byte) slot);
+            last = e;
+        }
+
+        for (Player player : game.getPlayers()) {
+            Varint.putCards(buf, player.getInventory().getResources());
+            Varint.putInt(buf, player.getVictoryPoints());
+        }
+        Varint.putCards(buf, game.getResourcePool().getResources());
+
+        Varint.putInt(buf, game.getPlayers().indexOf(game.getCurrentPlayer()));
+        Varint.putInt(buf, game.getSetupRound());
+        buf.put((byte) ((game.isSetupComplete() ? 1 : 0) | game.getPhase().ordinal() << 1 | game.getSetupStep().ordinal() << 2));
+        Varint.putInt(buf, board.getIntersectionId(game.getPendingSetupRoadAnchor()) + 1);
+        Varint.putInt(buf, game.getLongestRoadHolderSlot() + 1);
+        buf.putLong(game.getRandomState());
+        DiceCodec.write(buf, game.getDice());
+    }
+
+    /**
+     * Reads a game written by {@link #write} at the buffer's position and
+     * advances past it.
+     * @throws IllegalArgumentException If the snapshot has another version or is malformed.
+     * @throws java.nio.BufferUnderflowException If the buffer ends inside the snapshot.
+     */
+    public static Game read(ByteBuffer buf) {
+        byte version = buf.get();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported snapshot version " + version);
+
+        BoardTopology topology;
+        int kind = buf.get();
+        if (kind == STANDARD) {
+            topology = BoardTopology.standard();
+        } else if (kind == EXTENSION) {
+            topology = BoardTopology.extension();
+        } else if (kind == CUSTOM) {
+            int hexes = Varint.getInt(buf);
+            int[] q = new int[hexes];
+            int[] r = new int[hexes];
+            for (int h = 0; h < hexes; h++) {
+                q[h] = (int) Varint.getSignedLong(buf);
+                r[h] = (int) Varint.getSignedLong(buf);
+            }
+            topology = BoardTopology.fromAxial(q, r);
+        } else {
+            throw new IllegalArgumentException("Unknown board kind " + kind);
+        }
+        int seats = buf.get();
+        int bankSize = Varint.getInt(buf);
+        long layoutSeed = buf.getLong();
+        int hexes = topology.getHexCount();
+        Resource[] tiles = new Resource[hexes];
+        int[] tokens = new int[hexes];
+        for (int h = 0; h < hexes; h++) {
+            int packed = buf.get() & 0xFF;
+            if (packed >>> 4 >= RESOURCES.length) throw new IllegalArgumentException("Malformed hex " + h);
+            tiles[h] = RESOURCES[packed >>> 4];
+            tokens[h] = packed & 0xF;
+        }
+
+        Game game = new Game();
+        game.initializeRestored(seats, topology, bankSize, BoardLayout.of(layoutSeed, tiles, tokens));
+        Board board = game.getBoard();
+        board.moveRobberTo(Varint.getInt(buf));
+
+        int buildings = Varint.getInt(buf);
+        for (int k = 0, id = 0; k < buildings; k++) {
+            id += Varint.getInt(buf);
+            int packed = buf.get();
+            game.restoreBuilding(packed >>> 1, id, (packed & 1) != 0);
+        }
+        int roads = Varint.getInt(buf);
+        for (int k = 0, id = 0; k < roads; k++) {
+            id += Varint.getInt(buf);
+            game.restoreRoad(buf.get(), id);
+        }
+
+        int[] points = new int[seats];
+        for (int s = 0; s < seats; s++) {
+            game.getPlayers().get(s).getInventory().addResources(Varint.getCards(buf));
+            points[s] = Varint.getInt(buf);
+        }
+        long bank = Varint.getCards(buf);
+        game.getResourcePool().removeResources(game.getResourcePool().getResources());
+        game.getResourcePool().addResources(bank);
+
+        int current = Varint.getInt(buf);
+        int setupRound = Varint.getInt(buf);
+        int flags = buf.get();
+        int anchor = Varint.getInt(buf) - 1;
+        int holder = Varint.getInt(buf) - 1;
+        long randomState = buf.getLong();
+        game.setDice(DiceCodec.read(buf));
+        game.restoreFlow(current, setupRound, (flags & 1) != 0, PHASES[flags >>> 1 & 1], SETUP_STEPS[flags >>> 2 & 1],
+                anchor, holder, randomState);
+
+        // Pieces score as they are placed; awards and anything else come from the image
+        for (int s = 0; s < seats; s++) {
+            Player player = game.getPlayers().get(s);
+            player.addVictoryPoints(points[s] - player.getVictoryPoints());
+        }
+        return game;
+    }
+
+    /** Convenience for one-off copies: the snapshot in a fresh heap buffer, flipped for reading. */
+    public static ByteBuffer toBuffer(Game game) {
+        ByteBuffer buf = ByteBuffer.allocate(maxBytes(game));
+        write(game, buf);
+        buf.flip();
+        return buf;
+    }
+}
@@ -0,0 +1,350 @@
+package catan.main;
+
+import java.util.Arrays;
+
+import catan.board.Board;
+import catan.players.Player;
+import catan.utils.Bits;
+import catan.utils.IdSet;
+import catan.utils.StateHash;
+
+/**
+ * Tracks every player's longest road and the Longest Road award.
+ *
+ * Roads are grouped into components: edges of one player joined at intersections
+ * that no opponent has built on (an opponent settlement or city breaks a road).
+ * Each road edge remembers the longest trail of its component, so after a change
+ * only the affected components are searched again:
+ * - a new road re-searches the component it joins (merging neighbors if needed)
+ * - a new settlement re-searches the opponent components passing through it
+ *
+ * The award goes to the first player to reach {@link #MINIMUM_LENGTH}; it moves
+ * only when someone strictly exceeds the holder. If the holder's road is broken
+ * and several players tie for longest, the award is set aside. The 2 VP move
+ * through {@link Player#addVictoryPoints(int)}.
+ */
+public class LongestRoad {
+    public static final int MINIMUM_LENGTH = 5;
+    public static final int AWARD_POINTS = 2;
+
+    private final Board board;
+    private final int[] componentLength;   // edge -> longest trail of its component (0 if no road)
+    private int[] longest = new int[0];    // slot -> longest trail
+    private int holderSlot = -1;
+    private StateHash hash;
+
+    // Scratch, allocated on the first update and reused so updates do not allocate
+    private long[] used;                   // edges on the trail currently being searched
+    private long[] visited;                // edges already collected in this update
+    private long[] nodeSeen;               // intersections already listed for the current component
+    private long[] member;                 // edges of the component being searched
+    private int[] componentEdges;
+    private int[] componentNodes;
+    private int[] touchedEdges;
+
+    public LongestRoad(Board board) {
+        if (board == null) throw new IllegalArgumentException("Board cannot be null");
+        this.board = board;
+        this.componentLength = new int[board.getEdgeCount()];
+    }
+
+    private LongestRoad(LongestRoad source, Board board, StateHash hash) {
+        this.board = board;
+        this.componentLength = source.componentLength.clone();
+        this.longest = source.longest.clone();
+        this.holderSlot = source.holderSlot;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns a copy tracking {@code board}, a fork of this tracker's board.
+     * The copy reports to {@code hash}, which must already hold the holder.
+     */
+    public LongestRoad fork(Board board, StateHash hash) {
+        if (board == null || board.getEdgeCount() != componentLength.length) {
+            throw new IllegalArgumentException("Board must be a fork of the tracked board");
+        }
+        return new LongestRoad(this, board, hash);
+    }
+
+    // -------------------- Queries --------------------
+
+    /** Longest trail of the given slot's roads (0 if it has none). */
+    public int getLongestRoad(int slot) {
+        return slot >= 0 && slot < longest.length ? longest[slot] : 0;
+    }
+
+    /** Slot holding the award, or -1 if nobody holds it. */
+    public int getHolderSlot() {
+        return holderSlot;
+    }
+
+    /** Player holding the award, or null if nobody holds it. */
+    public Player getHolder() {
+        return holderSlot < 0 ? null : board.getPlayerInSlot(holderSlot);
+    }
+
+    // -------------------- Updates --------------------
+
+    /** Call after a road has been placed on the board. */
+    public void onRoadPlaced(int edgeId) {
+        int slot = board.getRoadOwnerSlot(edgeId);
+        if (slot < 0) return;
+        ensureSlots();
+        recomputeComponent(edgeId, slot);
+        clearVisited(componentEdges, componentEdgeCount);
+        refreshLongest(slot);
+        updateAward();
+    }
+
+    /** Call after a settlement has been placed; it may break opponents' roads through that intersection. */
+    public void onSettlementPlaced(int intersectionId) {
+        int owner = board.getBuildingOwnerSlot(intersectionId);
+        ensureSlots();
+
+        int touched = 0;
+        for (int k = 0; k < board.getTouchingEdgeCount(intersectionId); k++) {
+            int e = board.getTouchingEdgeId(intersectionId, k);
+            int slot = board.getRoadOwnerSlot(e);
+            if (slot < 0 || slot == owner || Bits.get(visited, e)) continue;
+            recomputeComponent(e, slot);
+            for (int i = 0; i < componentEdgeCount; i++) touchedEdges[touched++] = componentEdges[i];
+        }
+        if (touched == 0) return;
+
+        clearVisited(touchedEdges, touched);
+        for (int k = 0; k < board.getTouchingEdgeCount(intersectionId); k++) {
+            int slot = board.getRoadOwnerSlot(board.getTouchingEdgeId(intersectionId, k));
+            if (slot >= 0 && slot != owner) refreshLongest(slot);
+        }
+        updateAward();
+    }
+
+    /**
+     * Call after the slot's road on the edge has been removed (undo). Lengths are
+     * updated; the award is not, see {@link #restoreAward(int)}.
+     */
+    public void onRoadRemoved(int edgeId, int slot) {
+        ensureSlots();
+        componentLength[edgeId] = 0;
+        int touched = 0;
+        for (int end = 0; end < 2; end++) {
+            int node = end == 0 ? board.getEdgeStartId(edgeId) : board.getEdgeEndId(edgeId);
+            for (int k = 0; k < board.getTouchingEdgeCount(node); k++) {
+                int e = board.getTouchingEdgeId(node, k);
+                if (board.getRoadOwnerSlot(e) != slot || Bits.get(visited, e)) continue;
+                recomputeComponent(e, slot);
+                for (int i = 0; i < componentEdgeCount; i++) touchedEdges[touched++] = componentEdges[i];
+            }
+        }
+        clearVisited(touchedEdges, touched);
+        refreshLongest(slot);
+    }
+
+    /**
+     * Call after a settlement has been removed (undo); roads it broke join up again.
+     * Lengths are updated; the award is not, see {@link #restoreAward(int)}.
+     */
+    public void onSettlementRemoved(int intersectionId) {
+        ensureSlots();
+        int touched = 0;
+        for (int k = 0; k < board.getTouchingEdgeCount(intersectionId); k++) {
+            int e = board.getTouchingEdgeId(intersectionId, k);
+            int slot = board.getRoadOwnerSlot(e);
+            if (slot < 0 || Bits.get(visited, e)) continue;
+            recomputeComponent(e, slot);
+            for (int i = 0; i < componentEdgeCount; i++) touchedEdges[touched++] = componentEdges[i];
+        }
+        clearVisited(touchedEdges, touched);
+        for (int k = 0; k < board.getTouchingEdgeCount(intersectionId); k++) {
+            int slot = board.getRoadOwnerSlot(board.getTouchingEdgeId(intersectionId, k));
+            if (slot >= 0) refreshLongest(slot);
+        }
+    }
+
+    /**
+     * Gives the award back to {@code slot} (-1 for nobody), moving its points,
+     * without checking lengths. Used to undo an award change exactly, since who
+     * holds it depends on the order roads were built in.
+     */
+    public void restoreAward(int slot) {
+        if (slot == holderSlot) return;
+        if (holderSlot >= 0) board.getPlayerInSlot(holderSlot).addVictoryPoints(-AWARD_POINTS);
+        if (slot >= 0) board.getPlayerInSlot(slot).addVictoryPoints(AWARD_POINTS);
+        setHolderSlot(slot);
+    }
+
+    /** Recomputes everything from the board, e.g. after state was restored wholesale. */
+    public void recomputeAll() {
+        ensureSlots();
+        for (int e = 0; e < componentLength.length; e++) componentLength[e] = 0;
+        for (int e = 0; e < board.getEdgeCount(); e++) {
+            int slot = board.getRoadOwnerSlot(e);
+            if (slot < 0 || Bits.get(visited, e)) continue;
+            recomputeComponent(e, slot);
+        }
+        Arrays.fill(visited, 0L);
+        for (int slot = 0; slot < longest.length; slot++) refreshLongest(slot);
+    }
+
+    /**
+     * Restores the award holder without touching victory points (the points are
+     * part of the restored player state).
+     */
+    public void setHolderSlot(int slot) {
+        if (hash != null) hash.change(StateHash.LONGEST_ROAD, 0, holderSlot, slot);
+        this.holderSlot = slot;
+    }
+
+    /** Reports award changes to the hash; the current holder is hashed in on attach. */
+    public void attachHash(StateHash hash) {
+        this.hash = hash;
+        if (hash != null) hash.toggle(computeHash());
+    }
+
+    /** Hash of the award holder, computed from scratch. */
+    public long computeHash() {
+        return StateHash.key(StateHash.LONGEST_ROAD, 0, holderSlot);
+    }
+
+    // -------------------- Internals --------------------
+
+    private int componentEdgeCount;
+
+    /**
+     * Collects the component of {@code startEdge} (marking its edges visited),
+     * searches its longest trail and stores the result on every edge.
+     */
+    private void recomputeComponent(int startEdge, int slot) {
+        int edgeCount = 0;
+        int nodeCount = 0;
+        componentEdges[edgeCount++] = startEdge;
+        Bits.set(visited, startEdge);
+
+        for (int head = 0; head < edgeCount; head++) {
+            int e = componentEdges[head];
+            for (int end = 0; end < 2; end++) {
+                int node = end == 0 ? board.getEdgeStartId(e) : board.getEdgeEndId(e);
+                if (Bits.get(nodeSeen, node)) continue;
+                Bits.set(nodeSeen, node);
+                componentNodes[nodeCount++] = node;
+                if (isBroken(node, slot)) continue;
+                for (int k = 0; k < board.getTouchingEdgeCount(node); k++) {
+                    int f = board.getTouchingEdgeId(node, k);
+                    if (board.getRoadOwnerSlot(f) != slot || Bits.get(visited, f)) continue;
+                    Bits.set(visited, f);
+                    componentEdges[edgeCount++] = f;
+                }
+            }
+        }
+        componentEdgeCount = edgeCount;
+        for (int i = 0; i < nodeCount; i++) Bits.clear(nodeSeen, componentNodes[i]);
+        for (int i = 0; i < edgeCount; i++) Bits.set(member, componentEdges[i]);
+
+        // A longest trail can always be taken to start at a trail end: a broken
+        // intersection or one where this player's degree is not 2. A plain cycle has
+        // none, so fall back to any of its intersections.
+        int best = 0;
+        boolean searched = false;
+        for (int i = 0; i < nodeCount; i++) {
+            int node = componentNodes[i];
+            if (!isBroken(node, slot) && roadDegree(node, slot) == 2) continue;
+            best = Math.max(best, longestTrailFrom(node, slot, false));
+            searched = true;
+        }
+        if (!searched) best = longestTrailFrom(componentNodes[0], slot, false);
+
+        for (int i = 0; i < edgeCount; i++) {
+            componentLength[componentEdges[i]] = best;
+            Bits.clear(member, componentEdges[i]);
+        }
+    }
+
+    /**
+     * Depth-first search over unused edges of the component; a trail may end at,
+     * but not pass through, a broken intersection. Starting from a broken
+     * intersection, the player's road on its far side belongs to another
+     * component and is not followed.
+     */
+    private int longestTrailFrom(int node, int slot, boolean arrived) {
+        if (arrived && isBroken(node, slot)) return 0;
+        int best = 0;
+        for (int k = 0; k < board.getTouchingEdgeCount(node); k++) {
+            int e = board.getTouchingEdgeId(node, k);
+            if (!Bits.get(member, e) || Bits.get(used, e)) continue;
+            Bits.set(used, e);
+            int length = 1 + longestTrailFrom(board.getAdjacentIntersectionId(node, k), slot, true);
+            Bits.clear(used, e);
+            if (length > best) best = length;
+        }
+        return best;
+    }
+
+    private boolean isBroken(int node, int slot) {
+        int owner = board.getBuildingOwnerSlot(node);
+        return owner >= 0 && owner != slot;
+    }
+
+    private int roadDegree(int node, int slot) {
+        int degree = 0;
+        for (int k = 0; k < board.getTouchingEdgeCount(node); k++) {
+            if (board.getRoadOwnerSlot(board.getTouchingEdgeId(node, k)) == slot) degree++;
+        }
+        return degree;
+    }
+
+    private void clearVisited(int[] edges, int count) {
+        for (int i = 0; i < count; i++) Bits.clear(visited, edges[i]);
+    }
+
+    private void refreshLongest(int slot) {
+        IdSet roads = board.getRoadEdges(slot);
+        int best = 0;
+        for (int e = roads.first(); e >= 0; e = roads.next(e)) best = Math.max(best, componentLength[e]);
+        longest[slot] = best;
+    }
+
+    private void ensureSlots() {
+        if (used == null) {
+            int edges = board.getEdgeCount();
+            used = new long[board.getEdgeWordCount()];
+            visited = new long[board.getEdgeWordCount()];
+            nodeSeen = new long[board.getIntersectionWordCount()];
+            member = new long[board.getEdgeWordCount()];
+            componentEdges = new int[edges];
+            componentNodes = new int[board.getIntersectionCount()];
+            touchedEdges = new int[edges];
+        }
+        int slots = board.getPlayerSlotCount();
+        if (longest.length < slots) longest = Arrays.copyOf(longest, slots);
+    }
+
+    private void updateAward() {
+        int max = 0;
+        int leaders = 0;
+        int leader = -1;
+        for (int slot = 0; slot < longest.length; slot++) {
+            if (longest[slot] > max) {
+                max = longest[slot];
+                leaders = 1;
+                leader = slot;
+            } else if (longest[slot] == max) {
+                leaders++;
+            }
+        }
+
+        int newHolder;
+        if (holderSlot >= 0 && longest[holderSlot] >= MINIMUM_LENGTH && longest[holderSlot] == max) {
+            newHolder = holderSlot;  // holder keeps the award on a tie
+        } else if (max >= MINIMUM_LENGTH && leaders == 1) {
+            newHolder = leader;
+        } else {
+            newHolder = -1;
+        }
+
+        if (newHolder == holderSlot) return;
+        if (holderSlot >= 0) board.getPlayerInSlot(holderSlot).addVictoryPoints(-AWARD_POINTS);
+        if (newHolder >= 0) board.getPlayerInSlot(newHolder).addVictoryPoints(AWARD_POINTS);
+        setHolderSlot(newHolder);
+    }
+}
@@ -1,6 +1,7 @@
 package catan.main;
 
 import catan.players.Player;
+import catan.utils.StateHash;
 
 import java.util.List;
 
@@ -11,6 +12,14 @@ public class TurnManager {
     private final List<Player> players;
     private int currentPlayerIndex;
 
+    // Setup placement runs in snake order: even rounds in seat order, odd rounds reversed
+    private int setupRounds = 2;
+    private int setupRound = 0;
+    private boolean setupComplete = false;
+
+    // Optional state hash kept current on turn and setup round changes
+    private StateHash hash;
+
     public TurnManager(List<Player> players) {
         if (players == null || players.isEmpty()) {
             throw new IllegalArgumentException("Players list cannot be null or empty.");
@@ -19,16 +28,33 @@ public class TurnManager {
         this.currentPlayerIndex = 0;
     }
 
+    /**
+     * Returns a copy that rotates over {@code players} (the forked seats, in the
+     * same order) from the same turn and setup position, reporting to {@code hash}.
+     */
+    public TurnManager fork(List<Player> players, StateHash hash) {
+        if (players == null || players.size() != this.players.size()) {
+            throw new IllegalArgumentException("Expected " + this.players.size() + " players.");
+        }
+        TurnManager copy = new TurnManager(players);
+        copy.currentPlayerIndex = currentPlayerIndex;
+        copy.setupRounds = setupRounds;
+        copy.setupRound = setupRound;
+        copy.setupComplete = setupComplete;
+        copy.hash = hash;
+        return copy;
+    }
+
     public Player getCurrentPlayer() {
         return players.get(currentPlayerIndex);
     }
 
     public void nextTurn() {
-        currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
+        setCurrent((currentPlayerIndex + 1) % players.size());
     }
 
     public void previousTurn() {
-        currentPlayerIndex = (currentPlayerIndex - 1 + players.size()) % players.size();
+        setCurrent((currentPlayerIndex - 1 + players.size()) % players.size());
     }
 
     public int getCurrentPlayerIndex() {
@@ -39,7 +65,93 @@ public class TurnManager {
         if (idx < 0 || idx >= players.size()) {
             throw new IllegalArgumentException("Player index out of range.");
         }
-        this.currentPlayerIndex = idx;
+        setCurrent(idx);
+    }
+
+    private void setCurrent(int idx) {
+        if (hash != null) hash.change(StateHash.TURN, 0, currentPlayerIndex, idx);
+        currentPlayerIndex = idx;
+    }
+
+    private void setSetupState(int round, boolean complete) {
+        if (hash != null) hash.change(StateHash.SETUP_ROUND, 0, setupFeature(setupRound, setupComplete), setupFeature(round, complete));
+        setupRound = round;
+        setupComplete = complete;
+    }
+
+    private static int setupFeature(int round, boolean complete) {
+        return complete ? -1 : round;
+    }
+
+    /** Reports turn and setup round changes to the hash; the current state is hashed in on attach. */
+    public void attachHash(StateHash hash) {
+        this.hash = hash;
+        if (hash != null) hash.toggle(computeHash());
+    }
+
+    /** Hash of the player to move and the setup round, computed from scratch. */
+    public long computeHash() {
+        return StateHash.key(StateHash.TURN, 0, currentPlayerIndex)
+                ^ StateHash.key(StateHash.SETUP_ROUND, 0, setupFeature(setupRound, setupComplete));
+    }
+
+    /**
+     * Starts the setup placement order with the given number of rounds, beginning
+     * with the first seat. Rounds alternate direction, so the last player of a
+     * round is the first of the next.
+     */
+    public void startSetup(int rounds) {
+        if (rounds < 1) throw new IllegalArgumentException("Setup needs at least one round.");
+        this.setupRounds = rounds;
+        setSetupState(0, false);
+        setCurrent(0);
+    }
+
+    /**
+     * Moves to the next player in setup order. After the last placement of the
+     * last round setup is complete and the first seat starts the normal game.
+     *
+     * @return true once setup is complete
+     */
+    public boolean advanceSetup() {
+        if (setupComplete) throw new IllegalStateException("Setup is already complete.");
+        boolean forward = setupRound % 2 == 0;
+        int lastSeat = forward ? players.size() - 1 : 0;
+
+        if (currentPlayerIndex != lastSeat) {
+            setCurrent(currentPlayerIndex + (forward ? 1 : -1));
+        } else if (setupRound + 1 < setupRounds) {
+            setSetupState(setupRound + 1, false);  // the same player places again as the round turns around
+        } else {
+            setSetupState(setupRound, true);
+            setCurrent(0);
+        }
+        return setupComplete;
+    }
+
+    /**
+     * Puts the rotation back to a previously read position (player to move,
+     * setup round and whether setup is complete), e.g. when a game undoes a move.
+     */
+    public void restore(int currentIndex, int round, boolean complete) {
+        if (currentIndex < 0 || currentIndex >= players.size()) {
+            throw new IllegalArgumentException("Player index out of range.");
+        }
+        setSetupState(round, complete);
+        setCurrent(currentIndex);
+    }
+
+    /** Current setup round, starting at 0. */
+    public int getSetupRound() {
+        return setupRound;
+    }
+
+    public int getSetupRounds() {
+        return setupRounds;
+    }
+
+    public boolean isSetupComplete() {
+        return setupComplete;
     }
 
     public int getPlayerCount() {
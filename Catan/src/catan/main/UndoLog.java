@@ -0,0 +1,81 @@
+package catan.main;
+
+import java.util.Arrays;
+
+/**
+ * Journal of reversible game actions: a stack of ints (record operands followed
+ * by the record kind) plus a stack of object references for the few records that
+ * need one, split into actions by marks.
+ *
+ * The arrays only grow, so after warm-up neither recording nor undoing allocates.
+ * Game writes and interprets the records; this class only stores them.
+ */
+final class UndoLog {
+    private int[] ints = new int[256];
+    private int intCount;
+    private Object[] objects = new Object[16];
+    private int objectCount;
+    private int[] actionStarts = new int[64];    // int position where each action begins
+    private int[] actionObjectStarts = new int[64];
+    private int actionCount;
+
+    /** Starts a new action; records pushed from now on belong to it. */
+    void beginAction() {
+        if (actionCount == actionStarts.length) {
+            actionStarts = Arrays.copyOf(actionStarts, actionCount * 2);
+            actionObjectStarts = Arrays.copyOf(actionObjectStarts, actionCount * 2);
+        }
+        actionStarts[actionCount] = intCount;
+        actionObjectStarts[actionCount] = objectCount;
+        actionCount++;
+    }
+
+    /** Drops the current action and its records (used when an action fails and leaves no change). */
+    void abandonAction() {
+        actionCount--;
+        intCount = actionStarts[actionCount];
+        for (int i = actionObjectStarts[actionCount]; i < objectCount; i++) objects[i] = null;
+        objectCount = actionObjectStarts[actionCount];
+    }
+
+    /** True while records of the latest action remain to be popped. */
+    boolean hasRecordsInAction() {
+        return intCount > actionStarts[actionCount - 1];
+    }
+
+    /** Ends undoing the latest action, whose records must all have been popped. */
+    void endUndo() {
+        actionCount--;
+    }
+
+    int getActionCount() {
+        return actionCount;
+    }
+
+    void clear() {
+        intCount = 0;
+        Arrays.fill(objects, 0, objectCount, null);
+        objectCount = 0;
+        actionCount = 0;
+    }
+
+    void push(int value) {
+        if (intCount == ints.length) ints = Arrays.copyOf(ints, intCount * 2);
+        ints[intCount++] = value;
+    }
+
+    int pop() {
+        return ints[--intCount];
+    }
+
+    void pushObject(Object value) {
+        if (objectCount == objects.length) objects = Arrays.copyOf(objects, objectCount * 2);
+        objects[objectCount++] = value;
+    }
+
+    Object popObject() {
+        Object value = objects[--objectCount];
+        objects[objectCount] = null;
+        return value;
+    }
+}
@@ -1,40 +1,105 @@
 package catan.players;
 
 import catan.resources.Resource;
-import java.util.EnumMap;
+import catan.resources.ResourceAccount;
+import catan.resources.ResourceVector;
+import catan.utils.StateHash;
 import java.util.Map;
 
 /**
  * Represents a player's inventory of resources in the game.
  */
-public class Inventory {
-    private Map<Resource, Integer> resourceCounts;
+public class Inventory implements ResourceAccount {
+    // Packed counts of the five resource cards (see ResourceVector)
+    private long counts;
+
+    // Optional state hash kept current on every count change
+    private StateHash hash;
+    private int hashSlot;
 
     public Inventory() {
-        resourceCounts = new EnumMap<>(Resource.class);
-        for (Resource resource : Resource.values()) {
-            resourceCounts.put(resource, 0);
-        }
+    }
+
+    /** Copies the counts; the copy reports to {@code hash} under the same slot. */
+    private Inventory(Inventory source, StateHash hash) {
+        this.counts = source.counts;
+        this.hash = hash;
+        this.hashSlot = source.hashSlot;
+    }
+
+    /**
+     * Returns an independent copy for a forked game. The copy reports to
+     * {@code hash}, which must already hold this inventory's state.
+     */
+    public Inventory fork(StateHash hash) {
+        return new Inventory(this, hash);
     }
 
     public int getResourceCount(Resource resource) {
-        return resourceCounts.getOrDefault(resource, 0);
+        return ResourceVector.get(counts, resource);
+    }
+
+    /** All counts as a {@link ResourceVector}. */
+    @Override
+    public long getResources() {
+        return counts;
     }
 
     public void addResource(Resource resource, int amount) {
         if (amount < 0) throw new IllegalArgumentException("Amount to add cannot be negative");
-        resourceCounts.put(resource, resourceCounts.get(resource) + amount);
+        if (amount == 0) return;
+        setCounts(ResourceVector.add(counts, ResourceVector.of(resource, amount)));
     }
 
     public void removeResource(Resource resource, int amount) {
         if (amount < 0) throw new IllegalArgumentException("Amount to remove cannot be negative");
-        int currentCount = resourceCounts.get(resource);
-        if (currentCount < amount) throw new IllegalArgumentException("Not enough resources to remove");
-        resourceCounts.put(resource, currentCount - amount);
+        if (amount == 0) return;
+        if (getResourceCount(resource) < amount) throw new IllegalArgumentException("Not enough resources to remove");
+        setCounts(counts - ResourceVector.of(resource, amount));
+    }
+
+    private void setCounts(long next) {
+        long old = counts;
+        counts = next;
+        if (hash == null) return;
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            int before = ResourceVector.get(old, lane);
+            int after = ResourceVector.get(next, lane);
+            if (before != after) hash.change(StateHash.HAND, handFeature(hashSlot, ResourceVector.resource(lane)), before, after);
+        }
+    }
+
+    /**
+     * Reports every count change to the hash under the given player slot.
+     * The current counts are hashed in on attach.
+     */
+    public void attachHash(StateHash hash, int slot) {
+        this.hash = hash;
+        this.hashSlot = slot;
+        if (hash != null) hash.toggle(computeHash(slot));
+    }
+
+    /** Hash of the counts as held by the player in the given slot, computed from scratch. */
+    public long computeHash(int slot) {
+        long h = 0L;
+        for (Resource resource : Resource.values()) {
+            h ^= StateHash.key(StateHash.HAND, handFeature(slot, resource), getResourceCount(resource));
+        }
+        return h;
+    }
+
+    private static int handFeature(int slot, Resource resource) {
+        return slot * 16 + resource.ordinal();
     }
 
     public boolean hasEnoughResource(Resource resource, int amount) {
-        return resourceCounts.getOrDefault(resource, 0) >= amount;
+        return getResourceCount(resource) >= amount;
+    }
+
+    /** True if the hand holds at least the given {@link ResourceVector}, e.g. a build cost. */
+    @Override
+    public boolean hasEnoughResources(long required) {
+        return ResourceVector.covers(counts, required);
     }
 
     public boolean hasEnoughResources(Map<Resource, Integer> requiredResources) {
@@ -44,47 +109,39 @@ public class Inventory {
         return true;
     }
 
+    @Override
+    public void addResources(long resources) {
+        setCounts(ResourceVector.add(counts, resources));
+    }
+
+    @Override
+    public void removeResources(long resources) {
+        setCounts(ResourceVector.subtract(counts, resources));
+    }
+
     public void addResources(Map<Resource, Integer> resources) {
-        for (Map.Entry<Resource, Integer> e : resources.entrySet()) {
-            addResource(e.getKey(), e.getValue());
-        }
+        addResources(ResourceVector.of(resources));
     }
 
     public void removeResources(Map<Resource, Integer> resources) {
         if (!hasEnoughResources(resources)) {
             throw new IllegalArgumentException("Not enough resources to remove");
         }
-        for (Map.Entry<Resource, Integer> e : resources.entrySet()) {
-            removeResource(e.getKey(), e.getValue());
-        }
+        removeResources(ResourceVector.of(resources));
     }
 
     /** Total number of resource cards in hand (excludes DESERT). */
     public int getTotalResourceCards() {
-        int total = 0;
-        for (Map.Entry<Resource, Integer> e : resourceCounts.entrySet()) {
-            Resource r = e.getKey();
-            if (r == Resource.DESERT) continue;
-            total += e.getValue();
-        }
-        return total;
+        return ResourceVector.total(counts);
     }
 
     /** True if the player has at least one resource card (excludes DESERT). */
     public boolean hasAnyResources() {
-        return getTotalResourceCards() > 0;
+        return counts != ResourceVector.EMPTY;
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        boolean first = true;
-        for (Resource r : Resource.values()) {
-            if (r == Resource.DESERT) continue;
-            if (!first) sb.append(", ");
-            sb.append(r).append(": ").append(getResourceCount(r));
-            first = false;
-        }
-        return sb.toString();
+        return ResourceVector.toString(counts);
     }
 }
@@ -1,8 +1,11 @@
 package catan.players;
 
+import catan.board.Board;
 import catan.components.City;
 import catan.components.Road;
 import catan.components.Settlement;
+import catan.utils.IdSet;
+import catan.utils.StateHash;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,6 +23,13 @@ public class Player {
     // Economy: each player has a resource inventory
     private Inventory inventory;
 
+    // Optional state hash kept current on victory point and inventory changes
+    private StateHash hash;
+    private int hashSlot;
+
+    // A forked player takes its piece lists from the board on first use (null once loaded)
+    private Board pieceBoard;
+
     public Player(String name) {
         this.name = name;
         this.victoryPoints = 0;
@@ -29,6 +39,26 @@ public class Player {
         this.inventory = new Inventory();
     }
 
+    private Player(Player source, Board board, StateHash hash) {
+        this.name = source.name;
+        this.victoryPoints = source.victoryPoints;
+        this.inventory = source.inventory.fork(hash);
+        this.hash = hash;
+        this.hashSlot = source.hashSlot;
+        this.pieceBoard = board;
+    }
+
+    /**
+     * Returns an independent copy for a forked game whose board is {@code board}
+     * (the copy must own this player's slot there). Points and hand are copied;
+     * the piece lists are rebuilt from the board on first use, ordered by id.
+     * The copy reports to {@code hash}, which must already hold this player's state.
+     */
+    public Player fork(Board board, StateHash hash) {
+        if (board == null) throw new IllegalArgumentException("Board cannot be null");
+        return new Player(this, board, hash);
+    }
+
     public String getName() {
         return name;
     }
@@ -38,37 +68,108 @@ public class Player {
     }
 
     public List<Settlement> getSettlements() {
+        loadPieces();
         return settlements;
     }
 
     public List<City> getCities() {
+        loadPieces();
         return cities;
     }
 
     public List<Road> getRoads() {
+        loadPieces();
         return roads;
     }
 
+    private void loadPieces() {
+        if (pieceBoard == null) return;
+        Board board = pieceBoard;
+        pieceBoard = null;
+        int slot = board.getPlayerSlot(this);
+        settlements = new ArrayList<>();
+        cities = new ArrayList<>();
+        roads = new ArrayList<>();
+        if (slot < 0) return;
+        IdSet sites = board.getSettlementSites(slot);
+        for (int i = sites.first(); i >= 0; i = sites.next(i)) settlements.add(board.getSettlementAt(i));
+        for (int i = 0; i < board.getIntersectionCount(); i++) {
+            if (board.getBuildingLevel(i) == 2 && board.getBuildingOwnerSlot(i) == slot) cities.add(board.getCityAt(i));
+        }
+        IdSet roadEdges = board.getRoadEdges(slot);
+        for (int e = roadEdges.first(); e >= 0; e = roadEdges.next(e)) roads.add(board.getRoadAt(e));
+    }
+
     public Inventory getInventory() {
         return inventory;
     }
 
+    // Until a forked player's lists are loaded, the board is the only record of its pieces
+
     public void addSettlement(Settlement settlement) {
-        settlements.add(settlement);
-        victoryPoints += 1;
+        if (pieceBoard == null) settlements.add(settlement);
+        setVictoryPoints(victoryPoints + 1);
     }
 
     public void upgradeSettlementToCity(Settlement settlement, City city) {
-        settlements.remove(settlement);
-        cities.add(city);
-        victoryPoints += 1;
+        if (pieceBoard == null) {
+            settlements.remove(settlement);
+            cities.add(city);
+        }
+        setVictoryPoints(victoryPoints + 1);
     }
 
     public void addRoad(Road road) {
-        roads.add(road);
+        if (pieceBoard == null) roads.add(road);
+    }
+
+    // Reverse of the methods above, used when a game undoes a placement
+
+    public void removeSettlement(Settlement settlement) {
+        if (pieceBoard == null) removeLast(settlements, settlement);
+        setVictoryPoints(victoryPoints - 1);
+    }
+
+    public void downgradeCityToSettlement(City city, Settlement settlement) {
+        if (pieceBoard == null) {
+            removeLast(cities, city);
+            settlements.add(settlement);
+        }
+        setVictoryPoints(victoryPoints - 1);
+    }
+
+    public void removeRoad(Road road) {
+        if (pieceBoard == null) removeLast(roads, road);
+    }
+
+    /** Removes the last occurrence by index, so undoing the latest piece is O(1) and allocation-free. */
+    private static void removeLast(List<?> pieces, Object piece) {
+        int i = pieces.lastIndexOf(piece);
+        if (i >= 0) pieces.remove(i);
     }
 
     public void addVictoryPoints(int i) {
-        this.victoryPoints += i;
+        setVictoryPoints(victoryPoints + i);
+    }
+
+    private void setVictoryPoints(int points) {
+        if (hash != null) hash.change(StateHash.VICTORY_POINTS, hashSlot, victoryPoints, points);
+        victoryPoints = points;
+    }
+
+    /**
+     * Reports victory point and inventory changes to the hash under the given
+     * player slot. The current state is hashed in on attach.
+     */
+    public void attachHash(StateHash hash, int slot) {
+        this.hash = hash;
+        this.hashSlot = slot;
+        if (hash != null) hash.toggle(StateHash.key(StateHash.VICTORY_POINTS, slot, victoryPoints));
+        inventory.attachHash(hash, slot);
+    }
+
+    /** Hash of the player's points and hand as held in the given slot, computed from scratch. */
+    public long computeHash(int slot) {
+        return StateHash.key(StateHash.VICTORY_POINTS, slot, victoryPoints) ^ inventory.computeHash(slot);
     }
 }
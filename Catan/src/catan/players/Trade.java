@@ -2,23 +2,41 @@ package catan.players;
 
 import catan.resources.Resource;
 import catan.resources.ResourcePool;
+import catan.resources.ResourceVector;
+import catan.resources.TransferEngine;
 import java.util.Map;
 
 /**
  * Represents trade actions in the game, including player-to-player and player-to-bank trades.
+ * Trades run through a {@link TransferEngine}, so each one happens completely or not at all,
+ * even when other threads trade with the same inventories or bank.
  */
 public class Trade {
     private ResourcePool resourcePool;
+    private final TransferEngine engine;
 
     /**
      * Constructs a Trade object with a resource pool for bank trades.
      * @param resourcePool The resource pool to use for bank trades.
      */
     public Trade(ResourcePool resourcePool) {
+        this(resourcePool, TransferEngine.getDefault());
+    }
+
+    /**
+     * Constructs a Trade object whose trades lock through the given engine.
+     * @param resourcePool The resource pool to use for bank trades.
+     * @param engine The engine shared by everything that trades with the same accounts.
+     */
+    public Trade(ResourcePool resourcePool, TransferEngine engine) {
         if (resourcePool == null) {
             throw new IllegalArgumentException("ResourcePool cannot be null");
         }
+        if (engine == null) {
+            throw new IllegalArgumentException("TransferEngine cannot be null");
+        }
         this.resourcePool = resourcePool;
+        this.engine = engine;
     }
 
     /**
@@ -36,18 +54,9 @@ public class Trade {
             return false;
         }
 
-        // Execute the trade
-        for (Map.Entry<Resource, Integer> entry : player1Offer.entrySet()) {
-            player1Inventory.removeResource(entry.getKey(), entry.getValue());
-            player2Inventory.addResource(entry.getKey(), entry.getValue());
-        }
-
-        for (Map.Entry<Resource, Integer> entry : player2Offer.entrySet()) {
-            player2Inventory.removeResource(entry.getKey(), entry.getValue());
-            player1Inventory.addResource(entry.getKey(), entry.getValue());
-        }
-
-        return true;
+        // Re-checked under the engine's locks; the check above only rejects malformed offers early
+        return engine.exchange(player1Inventory, ResourceVector.of(player1Offer),
+                player2Inventory, ResourceVector.of(player2Offer));
     }
 
     /**
@@ -68,14 +77,8 @@ public class Trade {
             return false;
         }
 
-        // Execute the trade
-        playerInventory.removeResource(offerResource, offerAmount);
-        resourcePool.addResource(offerResource, offerAmount);
-
-        resourcePool.removeResource(requestResource, requestAmount);
-        playerInventory.addResource(requestResource, requestAmount);
-
-        return true;
+        return engine.exchange(playerInventory, ResourceVector.of(offerResource, offerAmount),
+                resourcePool, ResourceVector.of(requestResource, requestAmount));
     }
 
     /**
@@ -0,0 +1,127 @@
+package catan.resources;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Thread-safe bank for servers where several request threads pay into and
+ * draw from one bank at once.
+ *
+ * All five counts live in one packed {@link ResourceVector}, so every update,
+ * single or multi-resource, is one compare-and-set of a single word: a
+ * withdrawal either takes every card it asks for or none, and readers always
+ * see a consistent set of counts. There is no lock; a thread that loses a race
+ * re-reads the counts and tries again.
+ *
+ * Unlike {@link ResourcePool} this bank is not part of a game's state hash or
+ * undo journal.
+ */
+public class ConcurrentResourcePool {
+    private static final AtomicLongFieldUpdater<ConcurrentResourcePool> COUNTS =
+            AtomicLongFieldUpdater.newUpdater(ConcurrentResourcePool.class, "counts");
+
+    private volatile long counts;
+
+    /**
+     * Bank starts with classic Catan counts: 19 of each resource card.
+     */
+    public ConcurrentResourcePool() {
+        this(ResourcePool.CLASSIC_BANK_SIZE);
+    }
+
+    /**
+     * Bank starts with the given number of cards of each resource.
+     */
+    public ConcurrentResourcePool(int cardsPerResource) {
+        if (cardsPerResource < 0) throw new IllegalArgumentException("Card count cannot be negative");
+        counts = ResourceVector.of(cardsPerResource, cardsPerResource, cardsPerResource, cardsPerResource, cardsPerResource);
+    }
+
+    public int getResourceCount(Resource resource) {
+        return ResourceVector.get(counts, resource);
+    }
+
+    /** Snapshot of all counts as a {@link ResourceVector}. */
+    public long getResources() {
+        return counts;
+    }
+
+    public boolean hasEnoughResource(Resource resource, int amount) {
+        return getResourceCount(resource) >= amount;
+    }
+
+    /** True if the bank held at least the given vector when looked at; may change right after. */
+    public boolean hasEnoughResources(long required) {
+        return ResourceVector.covers(counts, required);
+    }
+
+    /**
+     * Takes the given cards if the bank holds all of them.
+     * @return True if the cards were taken, false if any count was short (nothing is taken then).
+     */
+    public boolean tryRemoveResources(long resources) {
+        long current;
+        do {
+            current = counts;
+            if (!ResourceVector.covers(current, resources)) return false;
+        } while (!COUNTS.compareAndSet(this, current, current - resources));
+        return true;
+    }
+
+    public boolean tryRemoveResources(Map<Resource, Integer> resources) {
+        return tryRemoveResources(ResourceVector.of(resources));
+    }
+
+    /** Takes the given cards, or throws without taking any if the bank is short. */
+    public void removeResources(long resources) {
+        if (!tryRemoveResources(resources)) throw new IllegalArgumentException("Not enough resources to remove");
+    }
+
+    public void removeResources(Map<Resource, Integer> resources) {
+        removeResources(ResourceVector.of(resources));
+    }
+
+    public void removeResource(Resource resource, int amount) {
+        removeResources(ResourceVector.of(resource, amount));
+    }
+
+    /** Deposits the given cards; throws without depositing if a count would exceed {@link ResourceVector#MAX_COUNT}. */
+    public void addResources(long resources) {
+        long current;
+        long next;
+        do {
+            current = counts;
+            next = ResourceVector.add(current, resources);
+        } while (!COUNTS.compareAndSet(this, current, next));
+    }
+
+    public void addResources(Map<Resource, Integer> resources) {
+        addResources(ResourceVector.of(resources));
+    }
+
+    public void addResource(Resource resource, int amount) {
+        addResources(ResourceVector.of(resource, amount));
+    }
+
+    /**
+     * A bank trade in one step: deposits {@code in} and takes {@code out},
+     * provided the bank holds {@code out} afterwards.
+     * @return True if the exchange happened, false if the bank was short (nothing changes then).
+     */
+    public boolean tryExchange(long in, long out) {
+        long current;
+        long next;
+        do {
+            current = counts;
+            long deposited = ResourceVector.add(current, in);
+            if (!ResourceVector.covers(deposited, out)) return false;
+            next = deposited - out;
+        } while (!COUNTS.compareAndSet(this, current, next));
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return ResourceVector.toString(counts);
+    }
+}
@@ -0,0 +1,18 @@
+package catan.resources;
+
+/**
+ * Anything that holds resource cards as a {@link ResourceVector}: a player's
+ * hand or the bank. {@link TransferEngine} moves cards between accounts.
+ */
+public interface ResourceAccount {
+
+    /** All counts as a {@link ResourceVector}. */
+    long getResources();
+
+    /** True if the account holds at least the given vector. */
+    boolean hasEnoughResources(long required);
+
+    void addResources(long resources);
+
+    void removeResources(long resources);
+}
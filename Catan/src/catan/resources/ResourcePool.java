@@ -1,70 +1,131 @@
 package catan.resources;
 
-import java.util.EnumMap;
+import catan.utils.StateHash;
+
 import java.util.Map;
 
 /**
  * Represents a pool of resources that can be used in the game.
  */
-public class ResourcePool {
-    private Map<Resource, Integer> resourceCounts;
+public class ResourcePool implements ResourceAccount {
+    /** Cards per resource in the classic bank. */
+    public static final int CLASSIC_BANK_SIZE = 19;
+    /** Cards per resource in the 5-6 player extension bank. */
+    public static final int EXTENSION_BANK_SIZE = 24;
+
+    // Packed counts of the five resource cards (see ResourceVector)
+    private long counts;
+
+    // Optional state hash kept current on every count change
+    private StateHash hash;
 
     /**
      * Bank starts with classic Catan counts: 19 of each resource card.
      */
     public ResourcePool() {
-        resourceCounts = new EnumMap<>(Resource.class);
-        for (Resource resource : Resource.values()) {
-            if (resource.name().equalsIgnoreCase("DESERT")) {
-                resourceCounts.put(resource, 0);
-            } else {
-                resourceCounts.put(resource, 19);
-            }
-        }
+        this(CLASSIC_BANK_SIZE);
+    }
+
+    /**
+     * Bank starts with the given number of cards of each resource.
+     */
+    public ResourcePool(int cardsPerResource) {
+        if (cardsPerResource < 0) throw new IllegalArgumentException("Card count cannot be negative");
+        counts = ResourceVector.of(cardsPerResource, cardsPerResource, cardsPerResource, cardsPerResource, cardsPerResource);
+    }
+
+    private ResourcePool(ResourcePool source, StateHash hash) {
+        this.counts = source.counts;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns an independent copy for a forked game. The copy reports to
+     * {@code hash}, which must already hold this bank's state.
+     */
+    public ResourcePool fork(StateHash hash) {
+        return new ResourcePool(this, hash);
     }
 
     public int getResourceCount(Resource resource) {
-        return resourceCounts.getOrDefault(resource, 0);
+        return ResourceVector.get(counts, resource);
+    }
+
+    /** All counts as a {@link ResourceVector}. */
+    @Override
+    public long getResources() {
+        return counts;
     }
 
     public void addResource(Resource resource, int amount) {
         if (amount < 0) throw new IllegalArgumentException("Amount to add cannot be negative");
-        resourceCounts.put(resource, resourceCounts.get(resource) + amount);
+        if (amount == 0) return;
+        setCounts(ResourceVector.add(counts, ResourceVector.of(resource, amount)));
     }
 
     public void removeResource(Resource resource, int amount) {
         if (amount < 0) throw new IllegalArgumentException("Amount to remove cannot be negative");
-        int currentCount = resourceCounts.get(resource);
-        if (currentCount < amount) throw new IllegalArgumentException("Not enough resources to remove");
-        resourceCounts.put(resource, currentCount - amount);
+        if (amount == 0) return;
+        if (getResourceCount(resource) < amount) throw new IllegalArgumentException("Not enough resources to remove");
+        setCounts(counts - ResourceVector.of(resource, amount));
+    }
+
+    private void setCounts(long next) {
+        long old = counts;
+        counts = next;
+        if (hash == null) return;
+        for (int lane = 0; lane < ResourceVector.LANES; lane++) {
+            int before = ResourceVector.get(old, lane);
+            int after = ResourceVector.get(next, lane);
+            if (before != after) hash.change(StateHash.BANK, lane, before, after);
+        }
+    }
+
+    /** Reports every count change to the hash; the current counts are hashed in on attach. */
+    public void attachHash(StateHash hash) {
+        this.hash = hash;
+        if (hash != null) hash.toggle(computeHash());
+    }
+
+    /** Hash of the bank counts, computed from scratch. */
+    public long computeHash() {
+        long h = 0L;
+        for (Resource resource : Resource.values()) {
+            h ^= StateHash.key(StateHash.BANK, resource.ordinal(), getResourceCount(resource));
+        }
+        return h;
     }
 
     public boolean hasEnoughResource(Resource resource, int amount) {
-        return resourceCounts.getOrDefault(resource, 0) >= amount;
+        return getResourceCount(resource) >= amount;
+    }
+
+    /** True if the bank holds at least the given {@link ResourceVector}. */
+    @Override
+    public boolean hasEnoughResources(long required) {
+        return ResourceVector.covers(counts, required);
+    }
+
+    @Override
+    public void addResources(long resources) {
+        setCounts(ResourceVector.add(counts, resources));
+    }
+
+    @Override
+    public void removeResources(long resources) {
+        setCounts(ResourceVector.subtract(counts, resources));
     }
 
     public void addResources(Map<Resource, Integer> resources) {
-        for (Map.Entry<Resource, Integer> e : resources.entrySet()) {
-            addResource(e.getKey(), e.getValue());
-        }
+        addResources(ResourceVector.of(resources));
     }
 
     public void removeResources(Map<Resource, Integer> resources) {
-        for (Map.Entry<Resource, Integer> e : resources.entrySet()) {
-            removeResource(e.getKey(), e.getValue());
-        }
+        removeResources(ResourceVector.of(resources));
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        boolean first = true;
-        for (Resource r : Resource.values()) {
-            if (r.name().equalsIgnoreCase("DESERT")) continue;
-            if (!first) sb.append(", ");
-            sb.append(r).append(": ").append(getResourceCount(r));
-            first = false;
-        }
-        return sb.toString();
+        return ResourceVector.toString(counts);
     }
 }
@@ -0,0 +1,128 @@
+package catan.resources;
+
+import java.util.Map;
+
+/**
+ * Counts of the five resource cards packed into one {@code long}: 12 bits per
+ * resource (lane = {@link Resource#ordinal()}), the top bit of each lane kept
+ * clear as a guard, so a count is at most {@value #MAX_COUNT}. DESERT has no
+ * lane.
+ *
+ * Adding, subtracting and comparing whole vectors are a few word operations
+ * with no per-resource loop; an overflow or borrow shows up in the guard bits.
+ */
+public final class ResourceVector {
+    public static final int LANES = 5;
+    public static final int MAX_COUNT = (1 << 11) - 1;
+
+    private static final int LANE_BITS = 12;
+    private static final long LANE_MASK = (1L << LANE_BITS) - 1;
+    private static final long GUARDS = 0x800_800_800_800_800L;   // bit 11 of every lane
+    private static final long EVEN_LANES = LANE_MASK | LANE_MASK << 24 | LANE_MASK << 48;
+    private static final long ALL_LANES = (1L << (LANES * LANE_BITS)) - 1;
+    private static final Resource[] RESOURCES = Resource.values();
+
+    public static final long EMPTY = 0L;
+
+    private ResourceVector() {
+    }
+
+    /** Vector holding {@code count} cards of one resource. */
+    public static long of(Resource resource, int count) {
+        checkCount(count);
+        return (long) count << shift(resource);
+    }
+
+    public static long of(int wood, int brick, int wheat, int ore, int sheep) {
+        return of(Resource.WOOD, wood) | of(Resource.BRICK, brick) | of(Resource.WHEAT, wheat)
+                | of(Resource.ORE, ore) | of(Resource.SHEEP, sheep);
+    }
+
+    /** Vector of a count map; null keys, null counts and zero DESERT counts are ignored. */
+    public static long of(Map<Resource, Integer> counts) {
+        long v = EMPTY;
+        for (Map.Entry<Resource, Integer> e : counts.entrySet()) {
+            int count = e.getValue() == null ? 0 : e.getValue();
+            if (e.getKey() == null || count == 0) continue;
+            v = add(v, of(e.getKey(), count));
+        }
+        return v;
+    }
+
+    public static int get(long v, Resource resource) {
+        if (resource == Resource.DESERT) return 0;
+        return (int) (v >>> shift(resource) & LANE_MASK);
+    }
+
+    /** Count in lane {@code lane} (a resource ordinal below {@link #LANES}). */
+    public static int get(long v, int lane) {
+        return (int) (v >>> (lane * LANE_BITS) & LANE_MASK);
+    }
+
+    /** Lane-wise sum; throws if a count would exceed {@link #MAX_COUNT}. */
+    public static long add(long a, long b) {
+        long sum = a + b;
+        if ((sum & GUARDS) != 0) throw new IllegalArgumentException("Resource count cannot exceed " + MAX_COUNT);
+        return sum;
+    }
+
+    /** Lane-wise difference; throws if {@code a} does not cover {@code b}. */
+    public static long subtract(long a, long b) {
+        if (!covers(a, b)) throw new IllegalArgumentException("Not enough resources to remove");
+        return a - b;
+    }
+
+    /** True if every count of {@code a} is at least the count of {@code b}. */
+    public static boolean covers(long a, long b) {
+        // Setting the guards first means a lane that borrows clears its own guard and nothing else
+        return (((a | GUARDS) - b) & GUARDS) == GUARDS;
+    }
+
+    /**
+     * True if {@code v} is a vector these operations accept: every count at
+     * most {@link #MAX_COUNT} (guard bits clear) and nothing above the last lane.
+     */
+    public static boolean isValid(long v) {
+        return (v & (GUARDS | ~ALL_LANES)) == 0;
+    }
+
+    /** True if some resource has a count in both vectors. */
+    public static boolean overlaps(long a, long b) {
+        for (int lane = 0; lane < LANES; lane++) {
+            if (get(a, lane) != 0 && get(b, lane) != 0) return true;
+        }
+        return false;
+    }
+
+    /** Total number of cards. */
+    public static int total(long v) {
+        // Add odd lanes onto even ones (24-bit fields, no carry out), then fold the three fields
+        long pairs = (v & EVEN_LANES) + (v >>> LANE_BITS & EVEN_LANES);
+        return (int) ((pairs & 0xFFFFFF) + (pairs >>> 24 & 0xFFFFFF) + (pairs >>> 48));
+    }
+
+    /** Resource of a lane. */
+    public static Resource resource(int lane) {
+        return RESOURCES[lane];
+    }
+
+    public static String toString(long v) {
+        StringBuilder sb = new StringBuilder();
+        for (int lane = 0; lane < LANES; lane++) {
+            if (lane > 0) sb.append(", ");
+            sb.append(RESOURCES[lane]).append(": ").append(get(v, lane));
+        }
+        return sb.toString();
+    }
+
+    private static int shift(Resource resource) {
+        if (resource == null) throw new IllegalArgumentException("Resource cannot be null");
+        if (resource == Resource.DESERT) throw new IllegalArgumentException("DESERT is not a resource card");
+        return resource.ordinal() * LANE_BITS;
+    }
+
+    private static void checkCount(int count) {
+        if (count < 0) throw new IllegalArgumentException("Resource count cannot be negative");
+        if (count > MAX_COUNT) throw new IllegalArgumentException("Resource count cannot exceed " + MAX_COUNT);
+    }
+}
@@ -0,0 +1,164 @@
+package catan.resources;
+
+import java.util.Arrays;
+
+/**
+ * Moves cards between {@link ResourceAccount}s all-or-nothing when several
+ * threads trade at once.
+ *
+ * Every account maps to one of a fixed set of lock stripes by identity. A
+ * transfer locks the stripes of its accounts in ascending stripe order, so
+ * two transfers can never wait on each other in a cycle, then checks every
+ * balance and only then moves the cards. Transfers on disjoint accounts
+ * contend only when their accounts share a stripe, which with the default
+ * {@value #DEFAULT_STRIPES} stripes is rare.
+ *
+ * The guarantee covers changes made through an engine; an account changed
+ * directly by another thread at the same time is not protected. All threads
+ * should share one engine, e.g. {@link #getDefault()}.
+ */
+public final class TransferEngine {
+    public static final int DEFAULT_STRIPES = 1024;
+
+    private static final TransferEngine DEFAULT = new TransferEngine();
+
+    private final Object[] locks;
+    private final int mask;
+
+    public TransferEngine() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /** @param stripes Number of locks, a power of two. */
+    public TransferEngine(int stripes) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) throw new IllegalArgumentException("Stripe count must be a power of two");
+        this.locks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) locks[i] = new Object();
+        this.mask = stripes - 1;
+    }
+
+    /** The engine shared by code that does not bring its own. */
+    public static TransferEngine getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Two-sided swap: {@code a} gives {@code aGives} to {@code b} and
+     * {@code b} gives {@code bGives} to {@code a}, e.g. a player trade or a
+     * bank trade with the bank as {@code b}.
+     * @return True if both sides could pay; false (and nothing moved) otherwise.
+     */
+    public boolean exchange(ResourceAccount a, long aGives, ResourceAccount b, long bGives) {
+        if (a == null || b == null) throw new IllegalArgumentException("Account cannot be null");
+        if (a == b) throw new IllegalArgumentException("Cannot trade with the same account");
+        int sa = stripe(a);
+        int sb = stripe(b);
+        synchronized (locks[Math.min(sa, sb)]) {
+            synchronized (locks[Math.max(sa, sb)]) {
+                long aHas = a.getResources();
+                long bHas = b.getResources();
+                if (!ResourceVector.covers(aHas, aGives) || !ResourceVector.covers(bHas, bGives)) return false;
+                // Overflow checks before the first change
+                ResourceVector.add(aHas - aGives, bGives);
+                ResourceVector.add(bHas - bGives, aGives);
+                a.removeResources(aGives);
+                b.removeResources(bGives);
+                a.addResources(bGives);
+                b.addResources(aGives);
+                return true;
+            }
+        }
+    }
+
+    /** Starts an empty multi-account transfer on this engine. */
+    public Transfer newTransfer() {
+        return new Transfer();
+    }
+
+    private int stripe(ResourceAccount account) {
+        int h = System.identityHashCode(account) * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+
+    /**
+     * A set of moves between any accounts, executed as one unit. Built once,
+     * a transfer can be executed any number of times without allocating.
+     * Not safe to build from several threads.
+     */
+    public final class Transfer {
+        private ResourceAccount[] accounts = new ResourceAccount[4];
+        private long[] incoming = new long[4];
+        private long[] outgoing = new long[4];
+        private int[] stripes = new int[4];
+        private int accountCount;
+        private int stripeCount;
+
+        private Transfer() {
+        }
+
+        /** Adds a move of {@code cards} from {@code from} to {@code to}. */
+        public Transfer move(ResourceAccount from, ResourceAccount to, long cards) {
+            if (from == null || to == null) throw new IllegalArgumentException("Account cannot be null");
+            if (from == to) throw new IllegalArgumentException("Cannot move cards to the same account");
+            int f = indexOf(from);
+            int t = indexOf(to);
+            outgoing[f] = ResourceVector.add(outgoing[f], cards);
+            incoming[t] = ResourceVector.add(incoming[t], cards);
+            return this;
+        }
+
+        private int indexOf(ResourceAccount account) {
+            for (int i = 0; i < accountCount; i++) {
+                if (accounts[i] == account) return i;
+            }
+            if (accountCount == accounts.length) {
+                int size = accountCount * 2;
+                accounts = Arrays.copyOf(accounts, size);
+                incoming = Arrays.copyOf(incoming, size);
+                outgoing = Arrays.copyOf(outgoing, size);
+                stripes = Arrays.copyOf(stripes, size);
+            }
+            accounts[accountCount] = account;
+            addStripe(stripe(account));
+            return accountCount++;
+        }
+
+        // Keeps the distinct stripes sorted, which is the lock order
+        private void addStripe(int s) {
+            int i = Arrays.binarySearch(stripes, 0, stripeCount, s);
+            if (i >= 0) return;
+            i = -i - 1;
+            System.arraycopy(stripes, i, stripes, i + 1, stripeCount - i);
+            stripes[i] = s;
+            stripeCount++;
+        }
+
+        /**
+         * Executes every move, or none if any account cannot pay its share.
+         * Each account is checked against its net position, so cards an
+         * account receives in this transfer count towards what it gives.
+         * @return True if the transfer happened.
+         */
+        public boolean execute() {
+            return executeLocked(0);
+        }
+
+        // Takes the i-th lock and recurses, so the monitors nest in stripe order
+        private boolean executeLocked(int i) {
+            if (i < stripeCount) {
+                synchronized (locks[stripes[i]]) {
+                    return executeLocked(i + 1);
+                }
+            }
+            for (int k = 0; k < accountCount; k++) {
+                long after = ResourceVector.add(accounts[k].getResources(), incoming[k]);
+                if (!ResourceVector.covers(after, outgoing[k])) return false;
+            }
+            for (int k = 0; k < accountCount; k++) {
+                accounts[k].addResources(incoming[k]);
+                accounts[k].removeResources(outgoing[k]);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package catan.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import catan.ai.Action;
+import catan.ai.PlayState;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+import catan.sim.LatencyHistogram;
+
+/**
+ * Sole owner of one game: every command and query goes through its bounded
+ * mailbox and runs on whichever pool thread the actor is scheduled on, one
+ * message at a time, so the game needs no locks and only ever sees one
+ * writer.
+ *
+ * An idle actor holds no thread. The first message into an empty mailbox
+ * schedules the actor on the host's executor; it then drains up to
+ * {@link #BATCH} messages and either goes idle or schedules itself again,
+ * so a busy game cannot starve the others on the pool.
+ *
+ * A full mailbox rejects: {@link #submit} and {@link #query} return a future
+ * already failed with {@link RejectedExecutionException}, and the client is
+ * expected to back off and retry. A command that breaks the rules fails its
+ * future with the game's {@link IllegalArgumentException} or
+ * {@link IllegalStateException} and leaves the game as it was. Only the seat
+ * to act may move, except that the seat it offered a trade to may accept.
+ * If the executor refuses to run the actor, the messages waiting for it
+ * fail with its {@link RejectedExecutionException}.
+ */
+public final class GameActor implements Runnable {
+    /** Messages handled per scheduling before the actor yields its thread. */
+    public static final int BATCH = 32;
+
+    private final long id;
+    private final PlayState state;
+    private final Executor executor;
+    private final int capacity;
+
+    private final ConcurrentLinkedQueue<Envelope> mailbox = new ConcurrentLinkedQueue<>();
+    // Messages offered and not yet handled; the actor is scheduled while this is above 0
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    // Only touched by the actor
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private int offerFrom = -1;  // open trade offer, from the seat to act
+    private int offerTo;
+    private long offerGives;
+    private long offerGets;
+
+    GameActor(long id, Game game, Executor executor, int capacity) {
+        this.id = id;
+        this.state = new PlayState(game);
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Queues a command.
+     * @return Its outcome: the sum for a roll, the stolen card's ordinal (-1
+     *         for none) for a steal, otherwise 0.
+     */
+    public CompletableFuture<Integer> submit(GameCommand command) {
+        if (command == null) throw new IllegalArgumentException("Command cannot be null");
+        return offer(new Envelope(command, null), true);
+    }
+
+    /**
+     * Runs {@code reader} on the actor against the game, e.g. to list the
+     * legal actions. It must not change the game or keep the state.
+     */
+    public <T> CompletableFuture<T> query(Function<PlayState, T> reader) {
+        if (reader == null) throw new IllegalArgumentException("Query cannot be null");
+        return offer(new Envelope(null, reader), true);
+    }
+
+    /**
+     * A copy of the time from queueing to completion of every command handled
+     * so far. Not bounded by the mailbox, so metrics can be read under load.
+     */
+    public CompletableFuture<LatencyHistogram> latencies() {
+        return offer(new Envelope(null, ignored -> {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.merge(latencies);
+            return copy;
+        }), false);
+    }
+
+    /** Messages waiting or running. */
+    public int getQueuedCount() {
+        return pending.get();
+    }
+
+    /** Messages turned away because the mailbox was full. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> offer(Envelope envelope, boolean bounded) {
+        int before;
+        do {
+            before = pending.get();
+            if (bounded && before >= capacity) {
+                rejected.increment();
+                CompletableFuture<T> full = new CompletableFuture<>();
+                full.completeExceptionally(new RejectedExecutionException("Mailbox of game " + id + " is full"));
+                return full;
+            }
+        } while (!pending.compareAndSet(before, before + 1));
+        mailbox.add(envelope);
+        if (before == 0) schedule();
+        return (CompletableFuture<T>) envelope.reply;
+    }
+
+    // Called by whoever holds the actor's turn: the first offer into an empty mailbox, or the actor itself
+    private void schedule() {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException ex) {
+            // Nothing will run the actor, so its turn fails what is queued instead of handling it
+            do {
+                Envelope envelope;
+                while ((envelope = mailbox.poll()) == null) {
+                    Thread.yield();
+                }
+                envelope.reply.completeExceptionally(ex);
+            } while (pending.decrementAndGet() != 0);
+        }
+    }
+
+    /** Drains the mailbox; called by the executor only. */
+    @Override
+    public void run() {
+        for (int i = 0; i < BATCH; i++) {
+            Envelope envelope;
+            while ((envelope = mailbox.poll()) == null) {
+                Thread.yield(); // counted by an offer that has not queued it yet
+            }
+            handle(envelope);
+            if (pending.decrementAndGet() == 0) return;
+        }
+        schedule();
+    }
+
+    // Never throws, so every message handled is counted off
+    private void handle(Envelope envelope) {
+        try {
+            if (envelope.command == null) {
+                envelope.reply.complete(envelope.query.apply(state));
+            } else {
+                int outcome = execute(envelope.command);
+                latencies.record(System.nanoTime() - envelope.queuedNanos);
+                envelope.reply.complete(outcome);
+            }
+        } catch (Throwable ex) {
+            envelope.reply.completeExceptionally(ex);
+        }
+    }
+
+    private int execute(GameCommand command) {
+        if (state.isOver()) throw new IllegalStateException("The game is over.");
+        if (command.getKind() == GameCommand.Kind.ACCEPT_TRADE) return acceptTrade(command);
+        if (command.getSeat() != state.getSeatToAct()) {
+            throw new IllegalStateException("Seat " + command.getSeat() + " cannot act; seat " + state.getSeatToAct() + " is to act");
+        }
+        Game game = state.getGame();
+        switch (command.getKind()) {
+            case ROLL: {
+                if (!state.isChance()) throw new IllegalStateException("Cannot roll in step " + state.getStep());
+                int sum = game.getDice().roll();
+                state.roll(sum);
+                offerFrom = -1;
+                return sum;
+            }
+            case ACTION: {
+                Resource stolen = state.apply(command.getAction());
+                offerFrom = -1;
+                if (Action.kind(command.getAction()) != Action.Kind.STEAL) return 0;
+                return stolen == null ? -1 : stolen.ordinal();
+            }
+            case TRADE_BANK:
+                requireBuildStep();
+                game.tradeWithBank(seat(command.getSeat()), command.getGives(), command.getGets());
+                offerFrom = -1;
+                return 0;
+            case OFFER_TRADE:
+                requireBuildStep();
+                if (command.getOtherSeat() >= state.getSeatCount()) throw new IllegalArgumentException("No seat " + command.getOtherSeat());
+                offerFrom = command.getSeat();
+                offerTo = command.getOtherSeat();
+                offerGives = command.getGives();
+                offerGets = command.getGets();
+                return 0;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command);
+        }
+    }
+
+    // The seat the offer was made to takes it on the same terms, seen from its side
+    private int acceptTrade(GameCommand command) {
+        if (offerFrom != command.getOtherSeat() || offerTo != command.getSeat()
+                || offerGives != command.getGets() || offerGets != command.getGives()) {
+            throw new IllegalStateException("Seat " + command.getOtherSeat() + " has no such offer open to seat " + command.getSeat());
+        }
+        state.getGame().tradeWithPlayer(seat(offerFrom), offerGives, seat(offerTo), offerGets);
+        offerFrom = -1;
+        return 0;
+    }
+
+    private void requireBuildStep() {
+        if (state.getStep() != PlayState.Step.BUILD) throw new IllegalStateException("Trades are only allowed after the roll");
+    }
+
+    private Player seat(int seat) {
+        if (seat >= state.getSeatCount()) throw new IllegalArgumentException("No seat " + seat);
+        return state.getGame().getPlayers().get(seat);
+    }
+
+    private static final class Envelope {
+        final GameCommand command;
+        final Function<PlayState, ?> query;
+        final CompletableFuture<Object> reply = new CompletableFuture<>();
+        final long queuedNanos = System.nanoTime();
+
+        Envelope(GameCommand command, Function<PlayState, ?> query) {
+            this.command = command;
+            this.query = query;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package catan.server;
+
+import catan.ai.Action;
+import catan.main.Game;
+
+/**
+ * A move sent to a {@link GameActor} on behalf of one seat: a dice roll, one
+ * of the board {@link Action}s (setup, robber, steal, builds, end of turn) or
+ * a trade. Commands are immutable, so a client can send the same one again.
+ * Seats are indexes in {@code Game.getPlayers()}.
+ *
+ * Trade cards are checked when the command is made (see
+ * {@link Game#checkTradeCards}). A trade between seats takes two commands:
+ * the seat to act offers it, and the other seat accepts the same terms.
+ */
+public final class GameCommand {
+
+    public enum Kind { ROLL, ACTION, TRADE_BANK, OFFER_TRADE, ACCEPT_TRADE }
+
+    private final Kind kind;
+    private final int seat;
+    private final int action;
+    private final long gives;
+    private final int otherSeat;
+    private final long gets;
+
+    private GameCommand(Kind kind, int seat, int action, long gives, int otherSeat, long gets) {
+        if (seat < 0) throw new IllegalArgumentException("Seat cannot be negative");
+        this.kind = kind;
+        this.seat = seat;
+        this.action = action;
+        this.gives = gives;
+        this.otherSeat = otherSeat;
+        this.gets = gets;
+    }
+
+    /** Rolls the game's dice; the command's result is the sum. */
+    public static GameCommand roll(int seat) {
+        return new GameCommand(Kind.ROLL, seat, Action.ROLL, 0, -1, 0);
+    }
+
+    /**
+     * Plays a decision encoded as an {@link Action} (anything but ROLL). The
+     * result of a STEAL is the ordinal of the card taken, or -1 for none.
+     */
+    public static GameCommand action(int seat, int action) {
+        if (action >>> 24 >= Action.Kind.values().length) throw new IllegalArgumentException("Unknown action kind " + (action >>> 24));
+        if (Action.kind(action) == Action.Kind.ROLL) throw new IllegalArgumentException("Use roll(seat) to roll");
+        return new GameCommand(Kind.ACTION, seat, action, 0, -1, 0);
+    }
+
+    /**
+     * Trades packed resource vectors with the bank, after the roll, at
+     * {@link Game#BANK_TRADE_RATE}:1.
+     */
+    public static GameCommand tradeWithBank(int seat, long gives, long gets) {
+        Game.checkTradeCards(gives, gets);
+        return new GameCommand(Kind.TRADE_BANK, seat, 0, gives, -1, gets);
+    }
+
+    /**
+     * Offers another seat a trade, after the roll. Nothing changes hands until
+     * that seat accepts; a new offer replaces the last one, and any other move
+     * withdraws it.
+     */
+    public static GameCommand offerTrade(int seat, long gives, int otherSeat, long gets) {
+        if (otherSeat < 0 || otherSeat == seat) throw new IllegalArgumentException("Need another seat to trade with");
+        Game.checkTradeCards(gives, gets);
+        return new GameCommand(Kind.OFFER_TRADE, seat, 0, gives, otherSeat, gets);
+    }
+
+    /**
+     * Accepts the open offer of {@code offeringSeat}, which must be to this
+     * seat and on these terms, seen from this seat: it gives {@code gives}
+     * and gets {@code gets}. The trade is then made.
+     */
+    public static GameCommand acceptTrade(int seat, long gives, int offeringSeat, long gets) {
+        if (offeringSeat < 0 || offeringSeat == seat) throw new IllegalArgumentException("Need another seat to trade with");
+        Game.checkTradeCards(gives, gets);
+        return new GameCommand(Kind.ACCEPT_TRADE, seat, 0, gives, offeringSeat, gets);
+    }
+
+    public Kind getKind() { return kind; }
+    public int getSeat() { return seat; }
+    public int getAction() { return action; }
+    public long getGives() { return gives; }
+    public int getOtherSeat() { return otherSeat; }
+    public long getGets() { return gets; }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case ROLL:
+            case ACTION:
+                return "seat " + seat + " " + Action.toString(action);
+            default:
+                return "seat " + seat + " " + kind + (otherSeat >= 0 ? " with seat " + otherSeat : "");
+        }
+    }
+}
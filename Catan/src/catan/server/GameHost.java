@@ -0,0 +1,119 @@
+package catan.server;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import catan.main.Game;
+import catan.sim.LatencyHistogram;
+import catan.utils.GameRandom;
+
+/**
+ * Hosts many games at once, each owned by its own {@link GameActor}. Clients
+ * look a game up by id and send it commands; no client ever touches a game
+ * directly.
+ *
+ * Actors share one executor and hold a thread only while they have messages,
+ * so a host can keep far more games open than it has threads: an idle game
+ * costs its state and an empty mailbox. By default the executor is a
+ * {@link ForkJoinPool} in FIFO mode with one thread per core; any executor
+ * can be passed in instead, e.g. a virtual thread per task on JDKs that
+ * have them.
+ */
+public final class GameHost implements Closeable {
+    public static final int DEFAULT_MAILBOX_CAPACITY = 64;
+
+    private final Executor executor;
+    private final ExecutorService ownedPool;
+    private final int mailboxCapacity;
+    private final ConcurrentHashMap<Long, GameActor> games = new ConcurrentHashMap<>();
+
+    public GameHost() {
+        this(DEFAULT_MAILBOX_CAPACITY);
+    }
+
+    public GameHost(int mailboxCapacity) {
+        this(new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true), mailboxCapacity, true);
+    }
+
+    /** Runs the actors on {@code executor}, which the host does not shut down. */
+    public GameHost(Executor executor, int mailboxCapacity) {
+        this(executor, mailboxCapacity, false);
+    }
+
+    private GameHost(Executor executor, int mailboxCapacity, boolean owned) {
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        if (mailboxCapacity < 1) throw new IllegalArgumentException("Mailbox capacity must be positive");
+        this.executor = executor;
+        this.ownedPool = owned ? (ExecutorService) executor : null;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    /**
+     * Starts a game on a generated layout. The layout, dice and steals all
+     * follow from {@code seed}, so the same seed and commands play the same
+     * game.
+     * @throws IllegalStateException If a game with this id is open.
+     */
+    public GameActor open(long gameId, int players, long seed) {
+        GameRandom random = new GameRandom(seed);
+        Game game = new Game(random.nextLong());
+        game.setQuiet(true);
+        game.initializeGame(players, random.nextLong());
+        GameActor actor = new GameActor(gameId, game, executor, mailboxCapacity);
+        if (games.putIfAbsent(gameId, actor) != null) throw new IllegalStateException("Game " + gameId + " is already open");
+        return actor;
+    }
+
+    /** The open game with this id, or null. */
+    public GameActor get(long gameId) {
+        return games.get(gameId);
+    }
+
+    /**
+     * Stops hosting a game; commands already in its mailbox still run.
+     * @return The game's actor, or null if it was not open.
+     */
+    public GameActor remove(long gameId) {
+        return games.remove(gameId);
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    public int getMailboxCapacity() {
+        return mailboxCapacity;
+    }
+
+    /** Commands turned away by full mailboxes, over the open games. */
+    public long getRejectedCount() {
+        long rejected = 0;
+        for (GameActor actor : games.values()) rejected += actor.getRejectedCount();
+        return rejected;
+    }
+
+    /** Command latencies of every open game, merged. */
+    public CompletableFuture<LatencyHistogram> latencies() {
+        List<CompletableFuture<LatencyHistogram>> parts = new ArrayList<>(games.size());
+        for (GameActor actor : games.values()) parts.add(actor.latencies());
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            LatencyHistogram merged = new LatencyHistogram();
+            for (CompletableFuture<LatencyHistogram> part : parts) merged.merge(part.join());
+            return merged;
+        });
+    }
+
+    /** Shuts down the host's own pool; games are dropped without waiting for their mailboxes. */
+    @Override
+    public void close() {
+        games.clear();
+        if (ownedPool != null) ownedPool.shutdownNow();
+    }
+}
@@ -0,0 +1,42 @@
+package catan.sim;
+
+/**
+ * Outcome of one simulated game.
+ */
+public final class GameResult {
+    private final long seed;
+    private final int winnerSeat;
+    private final int turns;
+    private final int actions;
+    private final int[] victoryPoints;
+
+    GameResult(long seed, int winnerSeat, int turns, int actions, int[] victoryPoints) {
+        this.seed = seed;
+        this.winnerSeat = winnerSeat;
+        this.turns = turns;
+        this.actions = actions;
+        this.victoryPoints = victoryPoints;
+    }
+
+    /** Seed the game was played from; {@link SelfPlay#play(long)} with it replays the game. */
+    public long getSeed() { return seed; }
+
+    /** Winning seat, or -1 if the game hit the turn limit. */
+    public int getWinnerSeat() { return winnerSeat; }
+
+    public boolean isFinished() { return winnerSeat >= 0; }
+
+    /** Turns played after setup. */
+    public int getTurns() { return turns; }
+
+    /** Actions applied, counting setup placements and dice rolls. */
+    public int getActions() { return actions; }
+
+    public int getVictoryPoints(int seat) { return victoryPoints[seat]; }
+
+    @Override
+    public String toString() {
+        return "Game " + seed + ": " + (isFinished() ? "seat " + winnerSeat + " won" : "unfinished")
+                + " after " + turns + " turns, " + actions + " actions";
+    }
+}
@@ -0,0 +1,68 @@
+package catan.sim;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds: 16 buckets per power of
+ * two, so any recorded value is reported within about 6%. Recording is a
+ * few shifts and an array increment. Not thread-safe; record on one thread
+ * and {@link #merge} the results.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BITS = 4;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucket(nanos)]++;
+        count++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    /** Adds every value recorded in {@code other}. */
+    public void merge(LatencyHistogram other) {
+        for (int b = 0; b < BUCKETS; b++) counts[b] += other.counts[b];
+        count += other.count;
+        sum += other.sum;
+        if (other.max > max) max = other.max;
+    }
+
+    public long getCount() { return count; }
+    public long getMax() { return max; }
+
+    public double getMean() {
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    /** Smallest bucket value at or below which {@code percent}% of the values lie (0 when empty). */
+    public long getPercentile(double percent) {
+        if (percent < 0 || percent > 100) throw new IllegalArgumentException("Percent must be between 0 and 100");
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(count * percent / 100));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) return Math.min(upperBound(b), max);
+        }
+        return max;
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + mantissa;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        long mantissa = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + mantissa + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
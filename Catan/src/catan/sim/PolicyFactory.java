@@ -0,0 +1,17 @@
+package catan.sim;
+
+import catan.ai.Policy;
+
+/**
+ * Creates the policy for one seat of one simulated game. Games run on
+ * several threads at once, so each call should return a policy that is safe
+ * to use for that game (e.g. a new {@link catan.ai.RandomPolicy}).
+ */
+public interface PolicyFactory {
+
+    /**
+     * @param seat Seat index in the game's player list.
+     * @param seed Seed derived from the game seed, distinct per seat.
+     */
+    Policy create(int seat, long seed);
+}
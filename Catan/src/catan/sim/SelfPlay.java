@@ -0,0 +1,185 @@
+package catan.sim;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import catan.ai.Action;
+import catan.ai.Policy;
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.main.Game;
+import catan.utils.BalancedDice;
+import catan.utils.GameRandom;
+
+/**
+ * Headless self-play: plays complete games (setup snake draft through
+ * victory) with one {@link Policy} per seat, no console input and no output.
+ *
+ * Everything random in a game (layout, dice, steals, policy seeds) derives
+ * from the game seed, so a game can be replayed from its {@link GameResult}
+ * as long as the policies are deterministic for a seed.
+ */
+public final class SelfPlay {
+    public static final int DEFAULT_TURN_LIMIT = 1000;
+
+    private static final Action.Kind[] KINDS = Action.Kind.values();
+
+    private final int players;
+    private final PolicyFactory policies;
+    private int turnLimit = DEFAULT_TURN_LIMIT;
+    private boolean balancedDice;
+    private int reshuffleThreshold;
+    private int antiStreakPercent;
+
+    public SelfPlay(int players, PolicyFactory policies) {
+        if (players < 2 || players > 6) throw new IllegalArgumentException("Number of players must be between 2 and 6");
+        if (policies == null) throw new IllegalArgumentException("Policy factory cannot be null");
+        this.players = players;
+        this.policies = policies;
+    }
+
+    /** Turns after which a game is abandoned as unfinished. */
+    public void setTurnLimit(int turns) {
+        if (turns < 1) throw new IllegalArgumentException("Turn limit must be positive");
+        this.turnLimit = turns;
+    }
+
+    /**
+     * Rolls every game from its own 36-card dice deck instead of two dice;
+     * see {@link BalancedDice}.
+     */
+    public void setBalancedDice(int reshuffleThreshold, int antiStreakPercent) {
+        if (reshuffleThreshold < 0 || reshuffleThreshold >= BalancedDice.DECK_SIZE) {
+            throw new IllegalArgumentException("Reshuffle threshold must be between 0 and " + (BalancedDice.DECK_SIZE - 1));
+        }
+        if (antiStreakPercent < 0 || antiStreakPercent > 100) {
+            throw new IllegalArgumentException("Anti-streak percent must be between 0 and 100");
+        }
+        this.balancedDice = true;
+        this.reshuffleThreshold = reshuffleThreshold;
+        this.antiStreakPercent = antiStreakPercent;
+    }
+
+    /** Plays one game on the calling thread. */
+    public GameResult play(long seed) {
+        return play(seed, null);
+    }
+
+    /**
+     * Plays {@code games} games on the executor (one task per game) and waits
+     * for all of them. Game i is played from the i-th seed of a generator
+     * seeded with {@code seed}.
+     */
+    public SimulationReport run(int games, long seed, ExecutorService executor) {
+        if (games < 1) throw new IllegalArgumentException("Need at least one game");
+        CompletionService<Played> done = new ExecutorCompletionService<>(executor);
+        GameRandom seeds = new GameRandom(seed);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            long gameSeed = seeds.nextLong();
+            done.submit(() -> {
+                Map<Action.Kind, LatencyHistogram> latencies = newLatencies();
+                return new Played(play(gameSeed, latencies), latencies);
+            });
+        }
+
+        SimulationReport report = new SimulationReport(players);
+        try {
+            for (int i = 0; i < games; i++) {
+                Played played = done.take().get();
+                report.add(played.result, played.latencies);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Simulated game failed", ex.getCause());
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private GameResult play(long seed, Map<Action.Kind, LatencyHistogram> latencies) {
+        GameRandom random = new GameRandom(seed);
+        Game game = new Game();
+        game.setQuiet(true);
+        game.initializeGame(players, random.nextLong());
+        game.reseedRandom(random.nextLong());
+        Policy[] seats = new Policy[players];
+        for (int seat = 0; seat < players; seat++) seats[seat] = policies.create(seat, random.nextLong());
+        BalancedDice deck = balancedDice ? new BalancedDice(random.split(), reshuffleThreshold, antiStreakPercent) : null;
+
+        // Histograms are indexed by kind ordinal here to keep EnumMap lookups out of the loop
+        LatencyHistogram[] byKind = null;
+        if (latencies != null) {
+            byKind = new LatencyHistogram[KINDS.length];
+            for (Action.Kind kind : KINDS) byKind[kind.ordinal()] = latencies.get(kind);
+        }
+
+        PlayState state = new PlayState(game);
+        int turns = 0;
+        int actions = 0;
+        while (!state.isOver() && turns < turnLimit) {
+            long start = byKind == null ? 0 : System.nanoTime();
+            Action.Kind kind;
+            if (state.isChance()) {
+                kind = Action.Kind.ROLL;
+                state.roll(deck != null ? deck.roll() : 2 + random.nextInt(6) + random.nextInt(6));
+            } else {
+                int action = seats[state.getSeatToAct()].chooseAction(state);
+                kind = Action.kind(action);
+                state.apply(action);
+                if (kind == Action.Kind.END_TURN) turns++;
+            }
+            if (byKind != null) byKind[kind.ordinal()].record(System.nanoTime() - start);
+            actions++;
+        }
+
+        int[] points = new int[players];
+        for (int seat = 0; seat < players; seat++) points[seat] = state.getVictoryPoints(seat);
+        return new GameResult(seed, state.getWinnerSeat(), turns, actions, points);
+    }
+
+    private static Map<Action.Kind, LatencyHistogram> newLatencies() {
+        Map<Action.Kind, LatencyHistogram> latencies = new EnumMap<>(Action.Kind.class);
+        for (Action.Kind kind : KINDS) latencies.put(kind, new LatencyHistogram());
+        return latencies;
+    }
+
+    private static final class Played {
+        final GameResult result;
+        final Map<Action.Kind, LatencyHistogram> latencies;
+
+        Played(GameResult result, Map<Action.Kind, LatencyHistogram> latencies) {
+            this.result = result;
+            this.latencies = latencies;
+        }
+    }
+
+    /**
+     * Runs a batch of greedy-random games and prints the report.
+     * Usage: java catan.sim.SelfPlay [games] [threads] [players] [seed] [deck]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        SelfPlay selfPlay = new SelfPlay(players, (seat, policySeed) -> new RandomPolicy(policySeed));
+        if (args.length > 4 && args[4].equals("deck")) selfPlay.setBalancedDice(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            selfPlay.run(Math.max(1, games / 10), seed, executor); // warm-up
+            System.out.println(selfPlay.run(games, seed, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package catan.sim;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import catan.ai.Action;
+
+/**
+ * Totals of a batch of simulated games: throughput, wins per seat and the
+ * latency of each action type (policy decision plus applying it; for ROLL,
+ * rolling and resolving the dice).
+ */
+public final class SimulationReport {
+    private final int seats;
+    private final int[] wins;
+    private final Map<Action.Kind, LatencyHistogram> latencies = new EnumMap<>(Action.Kind.class);
+    private int games;
+    private int finished;
+    private long turns;
+    private long actions;
+    private long elapsedNanos;
+
+    SimulationReport(int seats) {
+        this.seats = seats;
+        this.wins = new int[seats];
+        for (Action.Kind kind : Action.Kind.values()) latencies.put(kind, new LatencyHistogram());
+    }
+
+    void add(GameResult result, Map<Action.Kind, LatencyHistogram> gameLatencies) {
+        games++;
+        if (result.isFinished()) {
+            finished++;
+            wins[result.getWinnerSeat()]++;
+        }
+        turns += result.getTurns();
+        actions += result.getActions();
+        for (Map.Entry<Action.Kind, LatencyHistogram> e : gameLatencies.entrySet()) latencies.get(e.getKey()).merge(e.getValue());
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getGames() { return games; }
+
+    /** Games that ended with a winner (the rest hit the turn limit). */
+    public int getFinishedGames() { return finished; }
+
+    public int getWins(int seat) { return wins[seat]; }
+    public long getTurns() { return turns; }
+    public long getActions() { return actions; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getGamesPerSecond() { return perSecond(games); }
+    public double getTurnsPerSecond() { return perSecond(turns); }
+    public double getActionsPerSecond() { return perSecond(actions); }
+
+    /** Latencies of one action type over all games. */
+    public LatencyHistogram getLatency(Action.Kind kind) {
+        return latencies.get(kind);
+    }
+
+    private double perSecond(long n) {
+        return elapsedNanos == 0 ? 0 : n * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d games (%d finished) in %.2f s: %.1f games/s, %.0f turns/s, %.0f actions/s%n",
+                games, finished, elapsedNanos / 1e9, getGamesPerSecond(), getTurnsPerSecond(), getActionsPerSecond()));
+        sb.append("Wins per seat:");
+        for (int seat = 0; seat < seats; seat++) sb.append(' ').append(wins[seat]);
+        sb.append(String.format("%n%-18s %12s %10s %10s %10s %10s %10s%n", "action", "count", "mean ns", "p50 ns", "p90 ns", "p99 ns", "max ns"));
+        for (Map.Entry<Action.Kind, LatencyHistogram> e : latencies.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            if (h.getCount() == 0) continue;
+            sb.append(String.format("%-18s %12d %10.0f %10d %10d %10d %10d%n", e.getKey(), h.getCount(), h.getMean(),
+                    h.getPercentile(50), h.getPercentile(90), h.getPercentile(99), h.getMax()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package catan.utils;
+
+/**
+ * The "dice deck" variant: rolls are drawn without replacement from a deck
+ * of 36 cards, one for each ordered pair of two dice, so every sum comes up
+ * at exactly its expected rate over a full deck (six 7s, one 2, ...).
+ *
+ * The deck is reshuffled once only {@code reshuffleThreshold} cards are
+ * left, so the last few rolls of a deck cannot be counted out; 0 plays every
+ * card. With anti-streak weighting, a card that repeats the previous sum is
+ * put back and redrawn once with the given percent chance; that only changes
+ * the order in which a deck comes out, never what is in it.
+ *
+ * Drawing is one step of an inside-out Fisher-Yates shuffle over a fixed
+ * array, so a roll costs O(1) and allocates nothing, and reshuffling just
+ * makes every card drawable again.
+ */
+public class BalancedDice extends Dice {
+    public static final int DECK_SIZE = 36;
+    /** Cards left unplayed by the usual table rule for the deck. */
+    public static final int DEFAULT_RESHUFFLE_THRESHOLD = 5;
+
+    private final byte[] deck = new byte[DECK_SIZE];
+    private final int reshuffleThreshold;
+    private final int antiStreakPercent;
+    private int remaining;
+    private int lastRoll;
+
+    /** A full deck with no reshuffle threshold and no anti-streak weighting. */
+    public BalancedDice(long seed) {
+        this(new GameRandom(seed), 0, 0);
+    }
+
+    /**
+     * @param random Generator the deck is shuffled with, which it then owns.
+     * @param reshuffleThreshold Cards left when the deck is reshuffled, 0-35.
+     * @param antiStreakPercent Chance of redrawing a card that repeats the last sum, 0-100.
+     */
+    public BalancedDice(GameRandom random, int reshuffleThreshold, int antiStreakPercent) {
+        super(random);
+        if (reshuffleThreshold < 0 || reshuffleThreshold >= DECK_SIZE) {
+            throw new IllegalArgumentException("Reshuffle threshold must be between 0 and " + (DECK_SIZE - 1));
+        }
+        if (antiStreakPercent < 0 || antiStreakPercent > 100) {
+            throw new IllegalArgumentException("Anti-streak percent must be between 0 and 100");
+        }
+        this.reshuffleThreshold = reshuffleThreshold;
+        this.antiStreakPercent = antiStreakPercent;
+        int card = 0;
+        for (int die1 = 1; die1 <= 6; die1++) {
+            for (int die2 = 1; die2 <= 6; die2++) deck[card++] = (byte) (die1 + die2);
+        }
+        this.remaining = DECK_SIZE;
+    }
+
+    /**
+     * Dice in the state {@link #getCard}, {@link #getRemaining} and
+     * {@link #getLastRoll} describe, rolling from a stream in state
+     * {@code randomState}, e.g. read back from a saved game.
+     * @throws IllegalArgumentException If {@code deck} is not the 36 cards or a value is out of range.
+     */
+    public static BalancedDice restore(long randomState, int reshuffleThreshold, int antiStreakPercent,
+            byte[] deck, int remaining, int lastRoll) {
+        BalancedDice dice = new BalancedDice(new GameRandom(randomState), reshuffleThreshold, antiStreakPercent);
+        if (deck == null || deck.length != DECK_SIZE) throw new IllegalArgumentException("Deck must hold " + DECK_SIZE + " cards");
+        int[] missing = new int[13];
+        for (byte card : dice.deck) missing[card]++;
+        for (byte card : deck) {
+            if (card < 2 || card > 12 || missing[card]-- == 0) throw new IllegalArgumentException("Not a dice deck");
+        }
+        if (remaining < 0 || remaining > DECK_SIZE) throw new IllegalArgumentException("Remaining cards must be between 0 and " + DECK_SIZE);
+        if (lastRoll != 0 && (lastRoll < 2 || lastRoll > 12)) throw new IllegalArgumentException("Last roll out of range: " + lastRoll);
+        System.arraycopy(deck, 0, dice.deck, 0, DECK_SIZE);
+        dice.remaining = remaining;
+        dice.lastRoll = lastRoll;
+        return dice;
+    }
+
+    private BalancedDice(BalancedDice source) {
+        super(source.random.copy());
+        System.arraycopy(source.deck, 0, deck, 0, DECK_SIZE);
+        this.reshuffleThreshold = source.reshuffleThreshold;
+        this.antiStreakPercent = source.antiStreakPercent;
+        this.remaining = source.remaining;
+        this.lastRoll = source.lastRoll;
+    }
+
+    /**
+     * Draws the next card of the deck.
+     * @return The sum on the card, between 2 and 12.
+     */
+    @Override
+    public int roll() {
+        if (remaining <= reshuffleThreshold) remaining = DECK_SIZE;
+        int pick = random.nextInt(remaining);
+        if (antiStreakPercent > 0 && deck[pick] == lastRoll && remaining > 1
+                && random.nextInt(100) < antiStreakPercent) {
+            pick = random.nextInt(remaining);
+        }
+
+        // The drawn card moves behind the drawable part of the deck
+        byte card = deck[pick];
+        deck[pick] = deck[--remaining];
+        deck[remaining] = card;
+        lastRoll = card;
+        return card;
+    }
+
+    /** Cards left to draw before the deck is reshuffled (counting the threshold). */
+    public int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Sum on the card at {@code position}; the first {@link #getRemaining()}
+     * positions are the cards still to draw, the rest those drawn since the
+     * last reshuffle, most recent first.
+     */
+    public int getCard(int position) {
+        return deck[position];
+    }
+
+    /** Sum of the last card drawn, or 0 before the first roll. */
+    public int getLastRoll() {
+        return lastRoll;
+    }
+
+    public int getReshuffleThreshold() {
+        return reshuffleThreshold;
+    }
+
+    public int getAntiStreakPercent() {
+        return antiStreakPercent;
+    }
+
+    /** Dice with the same deck, position and sequence as these. */
+    @Override
+    public BalancedDice copy() {
+        return new BalancedDice(this);
+    }
+}
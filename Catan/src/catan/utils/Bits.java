@@ -0,0 +1,83 @@
+package catan.utils;
+
+/**
+ * Static helpers for fixed-size bit sets stored as {@code long[]} words.
+ *
+ * Board masks use these instead of {@link java.util.BitSet} so that callers can
+ * combine them word by word into their own buffers without allocating.
+ * Bit i lives in word i >>> 6 at position i & 63.
+ */
+public final class Bits {
+
+    private Bits() {
+    }
+
+    /** Number of words needed to hold the given number of bits. */
+    public static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /** Mask of the bits in use in the last word of a set of the given size. */
+    public static long lastWordMask(int bits) {
+        int rem = bits & 63;
+        return rem == 0 ? -1L : (1L << rem) - 1;
+    }
+
+    public static boolean get(long[] words, int i) {
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public static void set(long[] words, int i) {
+        words[i >>> 6] |= 1L << i;
+    }
+
+    public static void clear(long[] words, int i) {
+        words[i >>> 6] &= ~(1L << i);
+    }
+
+    /** Bit i of the set whose words start at {@code offset}. */
+    public static boolean get(long[] words, int offset, int i) {
+        return (words[offset + (i >>> 6)] & (1L << i)) != 0;
+    }
+
+    public static void set(long[] words, int offset, int i) {
+        words[offset + (i >>> 6)] |= 1L << i;
+    }
+
+    public static void clear(long[] words, int offset, int i) {
+        words[offset + (i >>> 6)] &= ~(1L << i);
+    }
+
+    public static int cardinality(long[] words) {
+        int count = 0;
+        for (long w : words) count += Long.bitCount(w);
+        return count;
+    }
+
+    /** Returns the index of the first set bit at or after {@code from}, or -1 if there is none. */
+    public static int nextSetBit(long[] words, int from) {
+        int w = from >>> 6;
+        if (w >= words.length) return -1;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == words.length) return -1;
+            word = words[w];
+        }
+    }
+
+    /**
+     * Like {@link #nextSetBit(long[], int)} for the set stored in words
+     * {@code [offset, end)}; bit indexes are relative to the set.
+     */
+    public static int nextSetBit(long[] words, int offset, int end, int from) {
+        int w = offset + (from >>> 6);
+        if (w >= end) return -1;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return ((w - offset) << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == end) return -1;
+            word = words[w];
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package catan.utils;
 
-import java.util.Random;
-
 /**
  * Dice class to simulate rolling two 6-sided dice.
+ *
+ * Rolls come from a {@link GameRandom}, so dice built with the same seed
+ * roll the same sequence.
  */
 public class Dice {
-    private Random random;
+    final GameRandom random;
 
+    /** Dice with a seed that differs from run to run. */
     public Dice() {
-        random = new Random();
+        this(new GameRandom());
+    }
+
+    public Dice(long seed) {
+        this(new GameRandom(seed));
+    }
+
+    /** Dice that roll from {@code random}, which they then own. */
+    public Dice(GameRandom random) {
+        if (random == null) throw new IllegalArgumentException("Random cannot be null");
+        this.random = random;
     }
 
     /**
@@ -21,4 +33,26 @@ public class Dice {
         int die2 = random.nextInt(6) + 1; // Roll 1-6
         return die1 + die2; // Sum the rolls (2-12)
     }
+
+    /** State of the stream the dice roll from; {@link #setState(long)} with it repeats the rolls from here. */
+    public long getState() {
+        return random.getState();
+    }
+
+    public void setState(long state) {
+        random.setState(state);
+    }
+
+    /** Dice that roll the same sequence as these from here on. */
+    public Dice copy() {
+        return new Dice(random.copy());
+    }
+
+    /**
+     * A {@link BalancedDice} deck that shuffles from the same stream as these
+     * dice, which should not be rolled afterwards.
+     */
+    public BalancedDice balanced(int reshuffleThreshold, int antiStreakPercent) {
+        return new BalancedDice(random, reshuffleThreshold, antiStreakPercent);
+    }
 }
@@ -0,0 +1,74 @@
+package catan.utils;
+
+/**
+ * Small, copyable pseudo-random generator for game logic (SplitMix64).
+ *
+ * Unlike {@link java.util.Random} the whole state is one {@code long}, so a
+ * forked game can carry on the exact random sequence of its source and two
+ * generators with the same seed always agree.
+ */
+public final class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static long seedUniquifier = 0x2545F4914F6CDD1DL;
+
+    private long state;
+
+    /** Creates a generator with a seed that differs from run to run. */
+    public GameRandom() {
+        this(nextSeed());
+    }
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    private static synchronized long nextSeed() {
+        seedUniquifier *= 0x5851F42D4C957F2DL;
+        return seedUniquifier ^ System.nanoTime();
+    }
+
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Returns a uniformly distributed int in [0, bound). */
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("Bound must be positive");
+        int r = (int) (nextLong() >>> 33);
+        int m = bound - 1;
+        if ((bound & m) == 0) return (int) ((bound * (long) r) >>> 31);
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+            // reject values from the incomplete last range so the result stays uniform
+        }
+        return r;
+    }
+
+    /** The whole generator state; {@link #setState(long)} with it replays the sequence from here. */
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /** Returns a generator that continues with the same sequence as this one. */
+    public GameRandom copy() {
+        return new GameRandom(state);
+    }
+
+    /**
+     * Returns a new generator seeded from this one's next output, so parallel
+     * work can each take its own stream without sharing a generator. The split
+     * is itself deterministic: the same parent state always splits off the
+     * same child. Every generator walks the same 2^64 cycle, and a mixed seed
+     * starts the child at an unrelated point of it, so game-length streams do
+     * not overlap in practice.
+     */
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+}
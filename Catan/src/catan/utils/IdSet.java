@@ -0,0 +1,116 @@
+package catan.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of a set of dense ids backed by {@code long[]} bit words.
+ * The words may be a window of a larger array, so an owner can keep many sets
+ * in one contiguous block.
+ *
+ * The view does not copy: it reflects later changes to the words it wraps, so the
+ * owner can hand out one instance and keep it up to date incrementally. Iterate with
+ * {@code for (int i = set.first(); i >= 0; i = set.next(i))}.
+ */
+public final class IdSet {
+    private static final IdSet EMPTY = new IdSet(new long[0], 0);
+
+    private final long[] words;
+    private final int offset;     // index of the set's first word
+    private final int end;        // index past the set's last word
+    private final int capacity;
+
+    /**
+     * Wraps the given words.
+     * @param words The backing bit words (bit i set = id i is in the set).
+     * @param capacity The number of ids the set can hold.
+     */
+    public IdSet(long[] words, int capacity) {
+        this(words, 0, words == null ? 0 : words.length, capacity);
+    }
+
+    /**
+     * Wraps the {@code Bits.words(capacity)} words starting at {@code offset}.
+     * @param words The array holding the set's words.
+     * @param offset The index of the set's first word.
+     * @param capacity The number of ids the set can hold.
+     */
+    public IdSet(long[] words, int offset, int capacity) {
+        this(words, offset, Bits.words(capacity), capacity);
+    }
+
+    private IdSet(long[] words, int offset, int length, int capacity) {
+        if (words == null) throw new IllegalArgumentException("Words cannot be null");
+        if (offset < 0 || offset + length > words.length) throw new IllegalArgumentException("Words do not cover the set");
+        this.words = words;
+        this.offset = offset;
+        this.end = offset + length;
+        this.capacity = capacity;
+    }
+
+    /** Returns a shared empty set. */
+    public static IdSet empty() {
+        return EMPTY;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < capacity && Bits.get(words, offset, id);
+    }
+
+    public boolean isEmpty() {
+        for (int w = offset; w < end; w++) if (words[w] != 0) return false;
+        return true;
+    }
+
+    public int size() {
+        int count = 0;
+        for (int w = offset; w < end; w++) count += Long.bitCount(words[w]);
+        return count;
+    }
+
+    /** Returns the smallest id in the set, or -1 if the set is empty. */
+    public int first() {
+        return Bits.nextSetBit(words, offset, end, 0);
+    }
+
+    /** Returns the smallest id greater than {@code id}, or -1 if there is none. */
+    public int next(int id) {
+        return Bits.nextSetBit(words, offset, end, id + 1);
+    }
+
+    /** Returns the k-th smallest id (0-based), or -1 if the set has k or fewer ids. */
+    public int get(int k) {
+        for (int w = offset; w < end; w++) {
+            long word = words[w];
+            int count = Long.bitCount(word);
+            if (k >= count) {
+                k -= count;
+                continue;
+            }
+            for (int i = 0; i < k; i++) word &= word - 1;
+            return ((w - offset) << 6) + Long.numberOfTrailingZeros(word);
+        }
+        return -1;
+    }
+
+    /** Copies the backing words into {@code out}, which must hold at least as many words. */
+    public void copyTo(long[] out) {
+        System.arraycopy(words, offset, out, 0, end - offset);
+    }
+
+    /** Returns the ids in ascending order. */
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(size());
+        for (int i = first(); i >= 0; i = next(i)) list.add(i);
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -0,0 +1,69 @@
+package catan.utils;
+
+/**
+ * Incrementally maintained Zobrist hash of a game state.
+ *
+ * Every state feature (a piece on a site, a card count, the player to move, ...)
+ * has a pseudo-random 64-bit key and the hash is the XOR of the keys of the
+ * features that currently hold. Mutating code toggles the key of the feature
+ * it removes and of the one it adds, so the hash is always current and reading
+ * it costs nothing. Counts are features too: changing a count from 3 to 4
+ * toggles key(..., 3) out and key(..., 4) in.
+ *
+ * Keys are computed by mixing (feature, a, b) with the SplitMix64 finalizer
+ * instead of being looked up in tables, so boards and player counts of any
+ * size are covered without allocation.
+ */
+public final class StateHash {
+    // Feature kinds; a and b identify the feature within its kind
+    public static final int SETTLEMENT = 1;     // a = player slot, b = intersection
+    public static final int CITY = 2;           // a = player slot, b = intersection
+    public static final int ROAD = 3;           // a = player slot, b = edge
+    public static final int ROBBER = 4;         // b = hex
+    public static final int TILE = 5;           // a = hex, b = resource ordinal * 16 + token
+    public static final int HAND = 6;           // a = player slot * 16 + resource ordinal, b = count
+    public static final int BANK = 7;           // a = resource ordinal, b = count
+    public static final int VICTORY_POINTS = 8; // a = player slot, b = points
+    public static final int TURN = 9;           // b = current player index
+    public static final int SETUP_ROUND = 10;   // b = setup round, or -1 once setup is complete
+    public static final int PHASE = 11;         // b = phase ordinal
+    public static final int SETUP_STEP = 12;    // b = setup step ordinal
+    public static final int SETUP_ANCHOR = 13;  // b = intersection of the pending setup road, or -1
+    public static final int LONGEST_ROAD = 14;  // b = holder slot, or -1
+
+    private long value;
+
+    /** Key of a feature; stable across runs and JVMs. */
+    public static long key(int feature, int a, int b) {
+        long z = ((long) feature << 56) ^ ((long) a << 32) ^ (b & 0xFFFFFFFFL);
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** XORs a key (or a combination of keys) into the hash; toggling twice undoes it. */
+    public void toggle(long key) {
+        value ^= key;
+    }
+
+    /** Replaces feature (feature, a, from) with (feature, a, to). */
+    public void change(int feature, int a, int from, int to) {
+        if (from != to) value ^= key(feature, a, from) ^ key(feature, a, to);
+    }
+
+    /** Returns a hash with the same value, for a copy of the state it describes. */
+    public StateHash copy() {
+        StateHash copy = new StateHash();
+        copy.value = value;
+        return copy;
+    }
+
+    public long get() {
+        return value;
+    }
+
+    public void reset() {
+        value = 0L;
+    }
+}
@@ -3,11 +3,8 @@ package catan.utils;
 import catan.board.Board;
 import catan.board.Edge;
 import catan.board.Intersection;
-import catan.components.Road;
 import catan.players.Player;
 
-import java.util.List;
-
 /**
  * Validates core game rules.
  *
@@ -28,19 +25,22 @@ public class Validator {
      */
     public static boolean isValidSettlementPlacement(Board board, Player player, Intersection intersection, boolean isSetupPhase) {
         if (board == null || player == null || intersection == null) return false;
-        if (board.isIntersectionOccupied(intersection)) return false;
+        int id = board.getIntersectionId(intersection);
+        return id >= 0 && isValidSettlementPlacement(board, player, id, isSetupPhase);
+    }
 
-        // Distance rule: adjacent intersections must be empty
-        for (Intersection adj : board.getAdjacentIntersections(intersection)) {
-            if (board.isIntersectionOccupied(adj)) return false;
-        }
+    /** Same as {@link #isValidSettlementPlacement(Board, Player, Intersection, boolean)}, by intersection id. */
+    public static boolean isValidSettlementPlacement(Board board, Player player, int intersectionId, boolean isSetupPhase) {
+        // Empty and distance rule in one bit: the blocked mask covers occupied intersections and their neighbors
+        if (board.isSettlementSiteBlocked(intersectionId)) return false;
 
         if (isSetupPhase) {
             return true;
         }
 
         // Normal rule: settlement must connect to player's road network
-        return isIntersectionConnectedToPlayerNetwork(board, player, intersection);
+        int slot = board.getPlayerSlot(player);
+        return slot >= 0 && board.isInNetwork(slot, intersectionId);
     }
 
     /**
@@ -50,11 +50,17 @@ public class Validator {
      */
     public static boolean isValidRoadPlacement(Board board, Player player, Edge edge) {
         if (board == null || player == null || edge == null) return false;
-        if (board.isEdgeOccupied(edge)) return false;
+        int id = board.getEdgeId(edge);
+        return id >= 0 && isValidRoadPlacement(board, player, id);
+    }
 
-        // Connects to player's network via either endpoint
-        return isIntersectionConnectedToPlayerNetwork(board, player, edge.getStart())
-                || isIntersectionConnectedToPlayerNetwork(board, player, edge.getEnd());
+    /** Same as {@link #isValidRoadPlacement(Board, Player, Edge)}, by edge id. */
+    public static boolean isValidRoadPlacement(Board board, Player player, int edgeId) {
+        if (board.isEdgeOccupied(edgeId)) return false;
+
+        // Connects to player's network via either endpoint (the frontier mask holds exactly those edges)
+        int slot = board.getPlayerSlot(player);
+        return slot >= 0 && board.touchesNetwork(slot, edgeId);
     }
 
     /**
@@ -64,10 +70,17 @@ public class Validator {
      */
     public static boolean isValidSetupRoadPlacement(Board board, Player player, Edge edge, Intersection anchor) {
         if (board == null || player == null || edge == null || anchor == null) return false;
-        if (board.isEdgeOccupied(edge)) return false;
+        int id = board.getEdgeId(edge);
+        int anchorId = board.getIntersectionId(anchor);
+        return id >= 0 && anchorId >= 0 && isValidSetupRoadPlacement(board, id, anchorId);
+    }
+
+    /** Same as {@link #isValidSetupRoadPlacement(Board, Player, Edge, Intersection)}, by edge and anchor id. */
+    public static boolean isValidSetupRoadPlacement(Board board, int edgeId, int anchorId) {
+        if (board.isEdgeOccupied(edgeId)) return false;
 
         // Must touch the anchor intersection
-        return edge.getStart().equals(anchor) || edge.getEnd().equals(anchor);
+        return board.getEdgeStartId(edgeId) == anchorId || board.getEdgeEndId(edgeId) == anchorId;
     }
 
     /**
@@ -76,25 +89,4 @@ public class Validator {
     public static boolean isValidTrade(int offerAmount, int requestAmount) {
         return offerAmount > 0 && requestAmount > 0;
     }
-
-    // -------------------- Helpers --------------------
-
-    private static boolean isIntersectionConnectedToPlayerNetwork(Board board, Player player, Intersection intersection) {
-        // If player already has a settlement/city here (shouldn't happen for new placement)
-        if (playerOwnsBuildingAtIntersection(player, intersection)) return true;
-
-        // If any adjacent edge has a player's road, it's connected
-        List<Edge> touching = board.getEdgesTouching(intersection);
-        for (Edge e : touching) {
-            Road r = board.getRoadAt(e);
-            if (r != null && r.getOwner() == player) return true;
-        }
-        return false;
-    }
-
-    private static boolean playerOwnsBuildingAtIntersection(Player player, Intersection intersection) {
-        // Player stores settlements/cities lists.
-        return player.getSettlements().stream().anyMatch(s -> s.getLocation().equals(intersection))
-                || player.getCities().stream().anyMatch(c -> c.getLocation().equals(intersection));
-    }
 }
@@ -0,0 +1,126 @@
+package test.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import catan.ai.Action;
+import catan.ai.MctsBot;
+import catan.ai.PlayState;
+import catan.ai.SearchResult;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+
+public class MctsBotTest {
+    private static MctsBot bot;
+
+    @BeforeClass
+    public static void createBot() {
+        bot = new MctsBot(1, 0, 300, 42);
+    }
+
+    @AfterClass
+    public static void closeBot() {
+        bot.close();
+    }
+
+    private static Game newGame(int players) {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.initializeGame(players, 7L);
+        return game;
+    }
+
+    @Test
+    public void testRandomPlayReachesVictoryThroughPlayState() {
+        Random random = new Random(1);
+        PlayState state = new PlayState(newGame(4));
+        int[] actions = new int[state.getMaxActionCount()];
+        int steps = 0;
+        while (!state.isOver() && steps++ < 200_000) {
+            if (state.isChance()) {
+                state.roll(2 + random.nextInt(6) + random.nextInt(6));
+                continue;
+            }
+            int n = state.getLegalActions(actions);
+            assertTrue("Every running state has a legal action", n > 0);
+            // Favour buildings so the game ends
+            int pick = actions[random.nextInt(n)];
+            if (Action.kind(actions[0]) == Action.Kind.BUILD_CITY || Action.kind(actions[0]) == Action.Kind.BUILD_SETTLEMENT) pick = actions[0];
+            state.apply(pick);
+        }
+        assertTrue(state.isOver());
+        assertTrue(state.getWinnerSeat() >= 0);
+        assertEquals(0, state.getLegalActions(actions));
+    }
+
+    @Test
+    public void testRolloutBudgetIsHonoredAndChoiceIsLegal() {
+        PlayState state = new PlayState(newGame(3));
+        SearchResult result = bot.search(state);
+        assertEquals(300, result.getRollouts());
+        assertEquals(Action.Kind.SETUP_SETTLEMENT, Action.kind(result.getAction()));
+        assertTrue(state.getGame().getLegalSettlements(state.getGame().getCurrentPlayer(), true).contains(Action.target(result.getAction())));
+        assertTrue(result.getRolloutsPerSecond() > 0);
+    }
+
+    @Test
+    public void testSearchLeavesTheStateUntouched() {
+        PlayState state = new PlayState(newGame(2));
+        long key = state.getGame().getStateHash();
+        bot.search(state);
+        assertEquals(key, state.getGame().getStateHash());
+        assertEquals(PlayState.Step.SETUP, state.getStep());
+    }
+
+    @Test
+    public void testBotTakesTheWinningCity() {
+        Game game = newGame(2);
+        PlayState state = new PlayState(game);
+        while (state.getStep() == PlayState.Step.SETUP) state.apply(bot.chooseAction(state));
+
+        state.roll(8);
+        Player current = game.getCurrentPlayer();
+        current.addVictoryPoints(10 - 1 - current.getVictoryPoints());
+        current.getInventory().addResource(Resource.ORE, 3);
+        current.getInventory().addResource(Resource.WHEAT, 2);
+
+        int action = bot.chooseAction(state);
+        assertEquals(Action.Kind.BUILD_CITY, Action.kind(action));
+        state.apply(action);
+        assertTrue(state.isOver());
+        assertEquals(current, game.getWinningPlayer());
+    }
+
+    @Test
+    public void testParallelSearchWithTimeBudget() {
+        try (MctsBot parallel = new MctsBot(4, 100, 0)) {
+            PlayState state = new PlayState(newGame(4));
+            long start = System.nanoTime();
+            SearchResult result = parallel.search(state);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue("Stops near the budget, took " + millis + " ms", millis < 1000);
+            assertTrue(result.getRollouts() > 0);
+            assertTrue(result.getVisits() > 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSearchRejectsDiceRoll() {
+        Game game = newGame(2);
+        PlayState state = new PlayState(game);
+        while (state.getStep() == PlayState.Step.SETUP) state.apply(bot.chooseAction(state));
+        bot.search(state);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBotNeedsABudget() {
+        new MctsBot(1, 0, 0);
+    }
+}
@@ -0,0 +1,48 @@
+package test.ai;
+
+import catan.ai.Action;
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.main.Game;
+import catan.utils.GameRandom;
+
+/**
+ * The loop of {@link catan.sim.SelfPlay} for tests that set up their own
+ * game: every seat plays a {@link RandomPolicy} and the dice are two plain
+ * dice, both seeded from one seed, so a seed always plays the same game.
+ */
+public final class RandomPlay {
+    private final PlayState state;
+    private final RandomPolicy policy;
+    private final GameRandom dice;
+    private int turns;
+
+    public RandomPlay(Game game, long seed) {
+        this.state = new PlayState(game);
+        this.policy = new RandomPolicy(seed);
+        this.dice = new GameRandom(seed + 1);
+    }
+
+    /** Plays until the game is over or {@code turns} turns have ended. */
+    public static PlayState play(Game game, long seed, int turns) {
+        RandomPlay play = new RandomPlay(game, seed);
+        while (!play.state.isOver() && play.turns < turns) play.step();
+        return play.state;
+    }
+
+    /** Takes one step: a roll when the dice are due, otherwise the policy's action. */
+    public void step() {
+        if (state.isChance()) {
+            state.roll(2 + dice.nextInt(6) + dice.nextInt(6));
+            return;
+        }
+        int action = policy.chooseAction(state);
+        state.apply(action);
+        if (action == Action.END_TURN) turns++;
+    }
+
+    public PlayState getState() { return state; }
+
+    /** Turns ended so far. */
+    public int getTurns() { return turns; }
+}
@@ -2,14 +2,17 @@ package test.board;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import catan.resources.Resource;
 import catan.board.Board;
+import catan.board.Edge;
 import catan.board.Intersection;
 import catan.components.City;
+import catan.components.Road;
 import catan.components.Settlement;
 import catan.players.Player;
 
@@ -62,4 +65,60 @@ public class BoardTest {
         assertEquals("City should occupy the upgraded intersection", city, board.getCityAt(intersection));
     }
 
+    @Test
+    public void testIdsMatchListPositions() {
+        for (int i = 0; i < board.getIntersections().size(); i++) {
+            assertEquals("Intersection id should be its index", i, board.getIntersections().get(i).getId());
+        }
+        for (int i = 0; i < board.getEdges().size(); i++) {
+            assertEquals("Edge id should be its index", i, board.getEdges().get(i).getId());
+        }
+        for (int i = 0; i < board.getHexes().size(); i++) {
+            assertEquals("Hex id should be its index", i, board.getHexes().get(i).getId());
+        }
+    }
+
+    @Test
+    public void testAdjacencyTablesMatchObjectViews() {
+        int degreeSum = 0;
+        for (int i = 0; i < board.getIntersectionCount(); i++) {
+            Intersection in = board.getIntersections().get(i);
+            int degree = board.getAdjacentIntersectionCount(i);
+            assertTrue("Intersections have 2 or 3 neighbors", degree == 2 || degree == 3);
+            assertEquals("Neighbor view should match table", degree, board.getAdjacentIntersections(in).size());
+            for (int k = 0; k < degree; k++) {
+                int edgeId = board.getTouchingEdgeId(i, k);
+                int other = board.getAdjacentIntersectionId(i, k);
+                assertTrue("Touching edge should join the pair",
+                        (board.getEdgeStartId(edgeId) == i && board.getEdgeEndId(edgeId) == other)
+                                || (board.getEdgeEndId(edgeId) == i && board.getEdgeStartId(edgeId) == other));
+            }
+            degreeSum += degree;
+        }
+        assertEquals("Every edge is counted from both ends", 2 * board.getEdgeCount(), degreeSum);
+
+        for (int h = 0; h < board.getHexCount(); h++) {
+            assertEquals("Every hex has 6 corners", 6, board.getCornerCount(h));
+        }
+    }
+
+    @Test
+    public void testLookupByEqualCoordinatesAndDetachedEdge() {
+        Player player = new Player("Alice");
+        Intersection onBoard = board.getIntersections().get(3);
+        Intersection copy = new Intersection(onBoard.getX(), onBoard.getY());
+        board.placeSettlement(new Settlement(player, copy));
+
+        assertTrue("Occupancy should resolve by coordinates", board.isIntersectionOccupied(onBoard));
+        assertTrue("Occupancy should be visible by id", board.isIntersectionOccupied(3));
+
+        Edge boardEdge = board.getEdges().get(5);
+        Edge detached = new Edge(boardEdge.getEnd(), boardEdge.getStart());
+        assertEquals("Reversed detached edge resolves to the board edge", 5, board.getEdgeId(detached));
+
+        Road road = new Road(player, detached);
+        board.placeRoad(road);
+        assertEquals("Road should be found through the board edge", road, board.getRoadAt(boardEdge));
+        assertTrue("Road should be visible by id", board.isEdgeOccupied(5));
+    }
 }
@@ -0,0 +1,128 @@
+package test.board;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import catan.board.Board;
+import catan.board.BoardTopology;
+import catan.components.Settlement;
+import catan.players.Player;
+
+public class BoardTopologyTest {
+
+    @Test
+    public void testStandardTopologyIsSharedBetweenBoards() {
+        Board first = new Board();
+        Board second = new Board();
+        first.initializeBoard();
+        second.initializeBoard();
+
+        assertSame("Boards should share one topology", first.getTopology(), second.getTopology());
+        assertSame("Intersections should be shared", first.getIntersections(), second.getIntersections());
+        assertSame("Edges should be shared", first.getEdges(), second.getEdges());
+        assertNotSame("Hexes are per-game state", first.getHexes(), second.getHexes());
+    }
+
+    @Test
+    public void testStandardCounts() {
+        BoardTopology topology = BoardTopology.standard();
+        assertEquals("Expected 19 hexes", 19, topology.getHexCount());
+        assertEquals("Expected 54 intersections", 54, topology.getIntersectionCount());
+        assertEquals("Expected 72 edges", 72, topology.getEdgeCount());
+    }
+
+    @Test
+    public void testOccupancyIsNotShared() {
+        Board first = new Board();
+        Board second = new Board();
+        first.initializeBoard();
+        second.initializeBoard();
+
+        first.placeSettlement(new Settlement(new Player("Alice"), first.getIntersections().get(10)));
+
+        assertEquals("Settlement should be on the first board", true, first.isIntersectionOccupied(10));
+        assertNull("Second board should stay empty", second.getSettlementAt(10));
+    }
+
+    @Test
+    public void testFreshTopologyMatchesShared() {
+        BoardTopology shared = BoardTopology.standard();
+        BoardTopology fresh = BoardTopology.createStandard();
+        for (int i = 0; i < shared.getIntersectionCount(); i++) {
+            assertEquals("Intersections should be built in the same order", shared.getIntersections().get(i), fresh.getIntersections().get(i));
+        }
+        for (int e = 0; e < shared.getEdgeCount(); e++) {
+            assertEquals("Edge starts should match", shared.getEdgeStartId(e), fresh.getEdgeStartId(e));
+            assertEquals("Edge ends should match", shared.getEdgeEndId(e), fresh.getEdgeEndId(e));
+        }
+    }
+
+    @Test
+    public void testHexagonCountsFollowClosedForm() {
+        for (int radius = 0; radius <= 6; radius++) {
+            BoardTopology topology = BoardTopology.hexagon(radius);
+            assertEquals("Hexes for radius " + radius, 3 * radius * radius + 3 * radius + 1, topology.getHexCount());
+            assertEquals("Intersections for radius " + radius, 6 * radius * radius + 12 * radius + 6, topology.getIntersectionCount());
+            assertEquals("Edges for radius " + radius, 9 * radius * radius + 15 * radius + 6, topology.getEdgeCount());
+        }
+    }
+
+    @Test
+    public void testExtensionMapShape() {
+        BoardTopology topology = BoardTopology.extension();
+        assertEquals("Expected 30 hexes", 30, topology.getHexCount());
+        assertEquals("Expected 80 intersections", 80, topology.getIntersectionCount());
+        assertEquals("Expected 109 edges", 109, topology.getEdgeCount());
+        assertSame("Extension topology should be shared", topology, BoardTopology.extension());
+        assertAdjacencyConsistent(topology);
+    }
+
+    @Test
+    public void testLargeBoardAdjacencyIsConsistent() {
+        BoardTopology topology = BoardTopology.hexagon(40);
+        assertEquals(3 * 40 * 40 + 3 * 40 + 1, topology.getHexCount());
+        assertAdjacencyConsistent(topology);
+
+        for (int h = 0; h < topology.getHexCount(); h++) {
+            assertEquals("Axial lookup should round-trip", h, topology.getHexId(topology.getHexQ(h), topology.getHexR(h)));
+        }
+        assertEquals("Off-board coordinates have no hex", -1, topology.getHexId(1000, 1000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateHexIsRejected() {
+        BoardTopology.fromAxial(new int[] { 0, 1, 0 }, new int[] { 0, 0, 0 });
+    }
+
+    private static void assertAdjacencyConsistent(BoardTopology topology) {
+        for (int i = 0; i < topology.getIntersectionCount(); i++) {
+            int degree = topology.getAdjacentIntersectionCount(i);
+            assertEquals("Every corner joins 2 or 3 edges", true, degree == 2 || degree == 3);
+            for (int k = 0; k < degree; k++) {
+                int j = topology.getAdjacentIntersectionId(i, k);
+                int e = topology.getTouchingEdgeId(i, k);
+                boolean endsMatch = (topology.getEdgeStartId(e) == i && topology.getEdgeEndId(e) == j)
+                        || (topology.getEdgeStartId(e) == j && topology.getEdgeEndId(e) == i);
+                assertEquals("Touching edge should join the neighbor", true, endsMatch);
+            }
+        }
+        for (int h = 0; h < topology.getHexCount(); h++) {
+            for (int k = 0; k < 6; k++) {
+                int a = topology.getCornerId(h, k);
+                int b = topology.getCornerId(h, (k + 1) % 6);
+                boolean adjacent = false;
+                for (int n = 0; n < topology.getAdjacentIntersectionCount(a); n++) adjacent |= topology.getAdjacentIntersectionId(a, n) == b;
+                assertEquals("Consecutive corners should be adjacent", true, adjacent);
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIntersectionListIsImmutable() {
+        BoardTopology.standard().getIntersections().clear();
+    }
+}
@@ -0,0 +1,108 @@
+package test.board;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import catan.board.Board;
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.board.LayoutGenerator;
+import catan.resources.Resource;
+
+public class LayoutGeneratorTest {
+
+    @Test
+    public void testSameSeedGivesSameLayout() {
+        LayoutGenerator generator = new LayoutGenerator(BoardTopology.standard());
+        BoardLayout first = generator.generate(42L);
+        BoardLayout second = new LayoutGenerator(BoardTopology.standard()).generate(42L);
+
+        assertEquals("Seed should reproduce the layout", first, second);
+        assertEquals("Equal layouts should have equal fingerprints", first.fingerprint(), second.fingerprint());
+        assertEquals(42L, first.getSeed());
+    }
+
+    @Test
+    public void testLayoutsSatisfyConstraintsAndKeepTileSet() {
+        BoardTopology topology = BoardTopology.standard();
+        LayoutGenerator generator = new LayoutGenerator(topology);
+        BoardLayout fixed = BoardLayout.fixed(topology);
+
+        Set<Long> fingerprints = new HashSet<>();
+        for (long seed = 0; seed < 500; seed++) {
+            BoardLayout layout = generator.generate(seed);
+            assertTrue("Layout " + seed + " should satisfy the constraints", generator.isValid(layout));
+            assertArrayEquals("Tile counts should match the classic set", tileCounts(fixed), tileCounts(layout));
+            assertArrayEquals("Token counts should match the classic set", tokenCounts(fixed), tokenCounts(layout));
+            for (int h = 0; h < layout.getHexCount(); h++) {
+                assertEquals("Only deserts lack a token", layout.getResource(h) == Resource.DESERT, layout.getNumberToken(h) == 0);
+            }
+            fingerprints.add(layout.fingerprint());
+        }
+        assertTrue("Layouts should vary between seeds", fingerprints.size() > 490);
+    }
+
+    @Test
+    public void testPipBalanceIsRespected() {
+        LayoutGenerator generator = new LayoutGenerator(BoardTopology.standard(), true, true, 2);
+        for (long seed = 0; seed < 100; seed++) {
+            assertTrue(generator.isValid(generator.generate(seed)));
+        }
+    }
+
+    @Test
+    public void testExtensionMapLayouts() {
+        LayoutGenerator generator = new LayoutGenerator(BoardTopology.extension());
+        for (long seed = 0; seed < 100; seed++) {
+            assertTrue(generator.isValid(generator.generate(seed)));
+        }
+    }
+
+    @Test
+    public void testParallelGenerationMatchesSequential() {
+        LayoutGenerator generator = new LayoutGenerator(BoardTopology.standard());
+        List<BoardLayout> layouts = generator.generate(1000L, 2000);
+        assertEquals(2000, layouts.size());
+        for (int i = 0; i < layouts.size(); i += 97) {
+            assertEquals("Element i should be the layout of seed first + i", generator.generate(1000L + i), layouts.get(i));
+        }
+    }
+
+    @Test
+    public void testBoardUsesLayout() {
+        BoardLayout layout = new LayoutGenerator(BoardTopology.standard()).generate(7L);
+        Board board = new Board();
+        board.initializeBoard(layout);
+        for (int h = 0; h < board.getHexCount(); h++) {
+            assertEquals(layout.getResource(h), board.getHexes().get(h).getResource());
+            assertEquals(layout.getNumberToken(h), board.getHexes().get(h).getNumberToken());
+        }
+        assertEquals("Robber starts on the desert", Resource.DESERT, board.getRobberHex().getResource());
+        assertNotEquals("Generated layout should differ from the fixed one", BoardLayout.fixed(BoardTopology.standard()), layout);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLargeBoardsAreRejected() {
+        new LayoutGenerator(BoardTopology.hexagon(5));
+    }
+
+    private static int[] tileCounts(BoardLayout layout) {
+        int[] counts = new int[Resource.values().length];
+        for (int h = 0; h < layout.getHexCount(); h++) counts[layout.getResource(h).ordinal()]++;
+        return counts;
+    }
+
+    private static int[] tokenCounts(BoardLayout layout) {
+        int[] counts = new int[13];
+        for (int h = 0; h < layout.getHexCount(); h++) counts[layout.getNumberToken(h)]++;
+        return counts;
+    }
+}
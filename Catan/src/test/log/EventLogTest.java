@@ -0,0 +1,155 @@
+package test.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import catan.board.BoardLayout;
+import catan.log.EventLogReader;
+import catan.log.EventLogWriter;
+import catan.log.EventType;
+import catan.log.GameEvent;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+import test.ai.RandomPlay;
+
+public class EventLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Plays a seeded random game of the given number of turns with the writer attached. */
+    private static Game playLogged(EventLogWriter writer, int turns) {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(writer);
+        game.initializeGame(4, 42L);
+        game.reseedRandom(7);
+        RandomPlay.play(game, 3, turns);
+        return game;
+    }
+
+    @Test
+    public void testGameReadsBackInOrder() throws IOException {
+        Path file = folder.newFile("game.log").toPath();
+        long written;
+        try (EventLogWriter writer = new EventLogWriter(file, 256)) {
+            playLogged(writer, 60);
+            written = writer.getEventCount();
+        }
+
+        int setups = 0;
+        int endTurns = 0;
+        try (EventLogReader reader = new EventLogReader(file)) {
+            assertTrue(reader.next());
+            GameEvent start = reader.getEvent();
+            assertEquals(EventType.START, start.getType());
+            assertEquals(4, start.getPlayerCount());
+            assertEquals(19, start.getHexCount());
+            assertEquals(42L, start.getLayoutSeed());
+            assertTrue(reader.next());
+            assertEquals(EventType.RESEED, reader.getEvent().getType());
+            assertEquals(7L, reader.getEvent().getRandomState());
+
+            while (reader.next()) {
+                GameEvent event = reader.getEvent();
+                switch (event.getType()) {
+                    case SETUP_SETTLEMENT:
+                    case SETUP_ROAD:
+                        setups++;
+                        break;
+                    case ROLL:
+                        assertTrue(event.getTarget() >= 2 && event.getTarget() <= 12);
+                        break;
+                    case END_TURN:
+                        endTurns++;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            assertEquals(written - 1, reader.getEventIndex());
+        }
+        assertEquals(16, setups);
+        assertEquals(60, endTurns);
+    }
+
+    @Test
+    public void testTradeAndUndoEvents() throws IOException {
+        Path file = folder.newFile("trade.log").toPath();
+        try (EventLogWriter writer = new EventLogWriter(file)) {
+            Game game = playLogged(writer, 10);
+            game.setUndoEnabled(true);
+            Player current = game.getCurrentPlayer();
+            Player other = game.getPlayers().get((game.getPlayers().indexOf(current) + 1) % 4);
+            current.getInventory().addResource(Resource.WOOD, 4);
+            other.getInventory().addResource(Resource.ORE, 1);
+            game.tradeWithBank(current, ResourceVector.of(Resource.WOOD, 4), ResourceVector.of(Resource.SHEEP, 1));
+            game.tradeWithPlayer(current, ResourceVector.of(Resource.SHEEP, 1), other, ResourceVector.of(Resource.ORE, 1));
+            game.undo();
+        }
+
+        try (EventLogReader reader = new EventLogReader(file)) {
+            GameEvent event = reader.getEvent();
+            while (reader.next() && event.getType() != EventType.TRADE_BANK) {
+                // skip the game up to the trades
+            }
+            assertEquals(ResourceVector.of(Resource.WOOD, 4), event.getCards());
+            assertEquals(ResourceVector.of(Resource.SHEEP, 1), event.getOtherCards());
+            assertTrue(reader.next());
+            assertEquals(EventType.TRADE_PLAYER, event.getType());
+            assertEquals(ResourceVector.of(Resource.ORE, 1), event.getOtherCards());
+            assertTrue(reader.next());
+            assertEquals(EventType.UNDO, event.getType());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testTruncatedSegmentIsReported() throws IOException {
+        Path file = folder.newFile("torn.log").toPath();
+        try (EventLogWriter writer = new EventLogWriter(file)) {
+            Game game = new Game();
+            game.setQuiet(true);
+            game.setEventListener(writer);
+            game.initializeGame(3);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        try (EventLogReader reader = new EventLogReader(file)) {
+            reader.next();
+            fail("A torn event should not read as a whole one");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("middle of event"));
+        }
+    }
+
+    @Test
+    public void testFixedLayoutHasNoSeed() throws IOException {
+        Path file = folder.newFile("fixed.log").toPath();
+        try (EventLogWriter writer = new EventLogWriter(file)) {
+            Game game = new Game();
+            game.setQuiet(true);
+            game.setEventListener(writer);
+            game.initializeGame(5);
+        }
+        try (EventLogReader reader = new EventLogReader(file)) {
+            assertTrue(reader.next());
+            assertEquals(BoardLayout.NO_SEED, reader.getEvent().getLayoutSeed());
+            assertEquals(30, reader.getEvent().getHexCount());
+            assertFalse(reader.next());
+        }
+    }
+}
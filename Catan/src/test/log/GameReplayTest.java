@@ -0,0 +1,182 @@
+package test.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.board.LayoutGenerator;
+import catan.log.EventLogWriter;
+import catan.log.GameReplay;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+import test.ai.RandomPlay;
+
+public class GameReplayTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Plays and logs a seeded random game, recording the state key after every
+     * action at the index of the action's last event.
+     */
+    private static Game playLogged(EventLogWriter writer, long seed, int turns, long[] keys, boolean undo) {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(writer);
+        game.setUndoEnabled(undo);
+        game.initializeGame(4, seed);
+        return play(game, writer, seed, turns, keys);
+    }
+
+    private static Game play(Game game, EventLogWriter writer, long seed, int turns, long[] keys) {
+        game.reseedRandom(seed + 1);
+        RandomPlay play = new RandomPlay(game, seed + 2);
+        while (!play.getState().isOver() && play.getTurns() < turns) {
+            play.step();
+            if (keys != null) keys[(int) writer.getEventCount() - 1] = game.getStateHash();
+        }
+        return game;
+    }
+
+    @Test
+    public void testSeekMatchesTheLoggedGame() throws IOException {
+        Path file = folder.newFile("game.log").toPath();
+        long[] keys = new long[20_000];
+        Game original;
+        try (EventLogWriter writer = new EventLogWriter(file)) {
+            original = playLogged(writer, 17, 80, keys, false);
+        }
+
+        GameReplay replay = new GameReplay(file, 16);
+        assertTrue(replay.getCheckpointCount() > 10);
+        assertEquals(original.getStateHash(), replay.seekEnd().getStateHash());
+        for (int i = (int) replay.getEventCount() - 1; i >= 0; i--) {
+            if (keys[i] == 0) continue; // inside a multi-event action
+            Game game = replay.seek(i);
+            assertEquals("State after event " + i, keys[i], game.getStateHash());
+            assertEquals(game.computeStateHash(), game.getStateHash());
+        }
+    }
+
+    @Test
+    public void testCustomBoardsReplayOnTheirOwnLayout() throws IOException {
+        BoardLayout classic = BoardLayout.fixed(BoardTopology.standard());
+        Resource[] reversed = new Resource[classic.getHexCount()];
+        int[] tokens = new int[classic.getHexCount()];
+        for (int h = 0; h < reversed.length; h++) {
+            reversed[h] = classic.getResource(reversed.length - 1 - h);
+            tokens[h] = classic.getNumberToken(reversed.length - 1 - h);
+        }
+        BoardTopology small = BoardTopology.hexagon(2);
+        BoardTopology large = BoardTopology.hexagon(3);
+        BoardTopology[] topologies = { small, large, BoardTopology.standard() };
+        BoardLayout[] layouts = { new LayoutGenerator(small).generate(9), BoardLayout.fixed(large),
+                BoardLayout.of(BoardLayout.NO_SEED, reversed, tokens) };
+
+        for (int i = 0; i < topologies.length; i++) {
+            Path file = folder.newFile("custom" + i + ".log").toPath();
+            Game original = new Game();
+            try (EventLogWriter writer = new EventLogWriter(file)) {
+                original.setQuiet(true);
+                original.setEventListener(writer);
+                original.initializeGame(4, topologies[i], 19, layouts[i]);
+                play(original, writer, 21, 12, null);
+            }
+            Game replayed = new GameReplay(file, 16).seekEnd();
+            assertEquals("Board " + i, original.getBoard().getHexCount(), replayed.getBoard().getHexCount());
+            for (int h = 0; h < replayed.getBoard().getHexCount(); h++) {
+                assertEquals(topologies[i].getHexQ(h), replayed.getBoard().getTopology().getHexQ(h));
+                assertEquals(topologies[i].getHexR(h), replayed.getBoard().getTopology().getHexR(h));
+                assertEquals(layouts[i].getResource(h), replayed.getBoard().getHexResource(h));
+                assertEquals(layouts[i].getNumberToken(h), replayed.getBoard().getHexNumberToken(h));
+            }
+            assertEquals("Board " + i, original.getStateHash(), replayed.getStateHash());
+        }
+    }
+
+    @Test
+    public void testRollPayingOtherCardsThanLoggedDiverges() throws IOException {
+        Path file = folder.newFile("payouts.log").toPath();
+        try (EventLogWriter writer = new EventLogWriter(file)) {
+            Game game = playLogged(writer, 8, 10, null, false);
+            // Log the next roll with one ore too many for seat 0
+            Game fork = game.fork();
+            Player first = fork.getPlayers().get(0);
+            long hand = first.getInventory().getResources();
+            fork.applyRollPayouts(8);
+            long[] payouts = new long[game.getPlayers().size()];
+            payouts[0] = ResourceVector.add(ResourceVector.subtract(first.getInventory().getResources(), hand),
+                    ResourceVector.of(Resource.ORE, 1));
+            writer.diceRolled(game.getPlayers().indexOf(game.getCurrentPlayer()), 8, payouts);
+        }
+        try {
+            new GameReplay(file, 16);
+            fail("Expected the replay to diverge");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("seat 0 received"));
+        }
+    }
+
+    @Test
+    public void testSeekTurn() throws IOException {
+        Path file = folder.newFile("turns.log").toPath();
+        try (EventLogWriter writer = new EventLogWriter(file)) {
+            playLogged(writer, 3, 30, null, false);
+        }
+        GameReplay replay = new GameReplay(file, 32);
+        assertEquals(31, replay.getTurnCount());
+        Game first = replay.seekTurn(0);
+        assertFalse(first.isSetupPhase());
+        assertEquals(first.getPlayers().get(0), first.getCurrentPlayer());
+        Game later = replay.seekTurn(9);
+        assertEquals(later.getPlayers().get(9 % 4), later.getCurrentPlayer());
+        assertTrue(replay.getTurnStartEvent(9) > replay.getTurnStartEvent(8));
+    }
+
+    @Test
+    public void testUndoReachingPastACheckpoint() throws IOException {
+        Path file = folder.newFile("undo.log").toPath();
+        Game game;
+        try (EventLogWriter writer = new EventLogWriter(file)) {
+            game = playLogged(writer, 5, 6, null, true);
+            for (int i = 0; i < 5; i++) game.undo();
+        }
+        GameReplay replay = new GameReplay(file, 2);
+        assertEquals(game.getStateHash(), replay.seekEnd().getStateHash());
+    }
+
+    @Test
+    public void testReplayAllInParallel() throws IOException {
+        Path[] files = new Path[4];
+        long[] expected = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = folder.newFile("batch" + i + ".log").toPath();
+            try (EventLogWriter writer = new EventLogWriter(files[i])) {
+                expected[i] = playLogged(writer, 100 + i, 40, null, false).getStateHash();
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Long> keys = GameReplay.replayAll(Arrays.asList(files), Game::getStateHash, executor);
+            for (int i = 0; i < files.length; i++) assertEquals(expected[i], (long) keys.get(i));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
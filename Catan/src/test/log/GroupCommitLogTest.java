@@ -0,0 +1,191 @@
+package test.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import catan.log.GroupCommitLog;
+import catan.main.Game;
+import catan.utils.BalancedDice;
+import test.ai.RandomPlay;
+
+public class GroupCommitLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Game newGame(GroupCommitLog.GameLog log, long seed) {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(log);
+        game.initializeGame(4, seed);
+        game.reseedRandom(seed + 1);
+        return game;
+    }
+
+    @Test
+    public void testRecoversGamesThatWereNotClosed() throws IOException {
+        Path file = folder.newFile("node.wal").toPath();
+        Game first;
+        Game third;
+        try (GroupCommitLog log = new GroupCommitLog(file)) {
+            GroupCommitLog.GameLog firstLog = log.openGame(1);
+            GroupCommitLog.GameLog secondLog = log.openGame(2);
+            GroupCommitLog.GameLog thirdLog = log.openGame(3);
+            first = newGame(firstLog, 10);
+            Game second = newGame(secondLog, 20);
+            third = newGame(thirdLog, 30);
+            for (int round = 0; round < 5; round++) { // interleaved, as on a busy node
+                RandomPlay.play(first, round, 4);
+                RandomPlay.play(second, round + 10, 4);
+                RandomPlay.play(third, round + 20, 4);
+            }
+            secondLog.close();
+        }
+
+        Map<Long, Game> recovered = GroupCommitLog.recover(file).getGames();
+        assertEquals(2, recovered.size());
+        assertFalse(recovered.containsKey(2L));
+        assertEquals(first.getStateHash(), recovered.get(1L).getStateHash());
+        assertEquals(third.getStateHash(), recovered.get(3L).getStateHash());
+    }
+
+    @Test
+    public void testRecoveredGamesKeepTheirDiceDeck() throws IOException {
+        Path file = folder.newFile("deck.wal").toPath();
+        Game fromStart = new Game(5);
+        Game fromCheckpoint = new Game(6);
+        try (GroupCommitLog log = new GroupCommitLog(file)) {
+            Game[] games = { fromStart, fromCheckpoint };
+            for (int g = 0; g < games.length; g++) {
+                games[g].setQuiet(true);
+                games[g].useBalancedDice(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 25);
+                games[g].setEventListener(log.openGame(g));
+                games[g].initializeGame(4, g);
+                RandomPlay.play(games[g], g, 3);
+            }
+            for (int i = 0; i < 17; i++) fromCheckpoint.getDice().roll();
+            ((GroupCommitLog.GameLog) fromCheckpoint.getEventListener()).checkpoint(fromCheckpoint);
+        }
+
+        Map<Long, Game> recovered = GroupCommitLog.recover(file).getGames();
+        Game[] expected = { fromStart, fromCheckpoint };
+        for (int g = 0; g < expected.length; g++) {
+            Game game = recovered.get((long) g);
+            assertTrue(game.getDice() instanceof BalancedDice);
+            assertEquals(25, ((BalancedDice) game.getDice()).getAntiStreakPercent());
+            for (int i = 0; i < 60; i++) assertEquals("Game " + g + " roll " + i, expected[g].getDice().roll(), game.getDice().roll());
+        }
+    }
+
+    @Test
+    public void testGameThatDoesNotReplayIsReportedAlone() throws IOException {
+        Path file = folder.newFile("broken.wal").toPath();
+        Game first;
+        Game third;
+        try (GroupCommitLog log = new GroupCommitLog(file)) {
+            first = newGame(log.openGame(1), 10);
+            GroupCommitLog.GameLog brokenLog = log.openGame(2);
+            newGame(brokenLog, 20);
+            third = newGame(log.openGame(3), 30);
+            RandomPlay.play(first, 1, 4);
+            brokenLog.roadBuilt(0, 5); // not legal during setup, so replay diverges
+            RandomPlay.play(third, 3, 4);
+        }
+
+        GroupCommitLog.Recovery recovery = GroupCommitLog.recover(file);
+        assertEquals(2, recovery.getGames().size());
+        assertEquals(first.getStateHash(), recovery.getGames().get(1L).getStateHash());
+        assertEquals(third.getStateHash(), recovery.getGames().get(3L).getStateHash());
+        assertEquals(1, recovery.getFailures().size());
+        assertTrue(recovery.getFailures().get(2L) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testRecoveryStartsFromTheLatestCheckpoint() throws IOException {
+        Path file = folder.newFile("checkpoint.wal").toPath();
+        Game game;
+        try (GroupCommitLog log = new GroupCommitLog(file)) {
+            GroupCommitLog.GameLog gameLog = log.openGame(7);
+            game = newGame(gameLog, 4);
+            RandomPlay.play(game, 1, 10);
+            gameLog.checkpoint(game);
+            RandomPlay.play(game, 2, 10);
+            gameLog.checkpoint(game);
+            game.setUndoEnabled(true);
+            RandomPlay.play(game, 3, 2);
+            gameLog.checkpoint(game);
+            for (int i = 0; i < 3; i++) game.undo(); // back past the latest checkpoint
+        }
+        Game recovered = GroupCommitLog.recover(file).getGames().get(7L);
+        assertEquals(game.getStateHash(), recovered.getStateHash());
+        assertEquals(recovered.computeStateHash(), recovered.getStateHash());
+    }
+
+    @Test
+    public void testTornBatchIsDroppedAndTruncated() throws IOException {
+        Path file = folder.newFile("torn.wal").toPath();
+        long beforeCrash;
+        try (GroupCommitLog log = new GroupCommitLog(file)) {
+            Game game = newGame(log.openGame(1), 2);
+            RandomPlay.play(game, 1, 8);
+            beforeCrash = game.getStateHash();
+        }
+        long valid;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            valid = channel.size();
+            // Half of a batch frame: length and CRC of a record that never made it
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2}), valid);
+        }
+        assertEquals(beforeCrash, GroupCommitLog.recover(file).getGames().get(1L).getStateHash());
+
+        long afterRestart;
+        try (GroupCommitLog log = new GroupCommitLog(file)) {
+            Game game = newGame(log.openGame(2), 3);
+            RandomPlay.play(game, 4, 2);
+            afterRestart = game.getStateHash();
+        }
+        Map<Long, Game> recovered = GroupCommitLog.recover(file).getGames();
+        assertEquals(beforeCrash, recovered.get(1L).getStateHash());
+        assertEquals(afterRestart, recovered.get(2L).getStateHash());
+    }
+
+    @Test
+    public void testConcurrentGamesShareBatches() throws Exception {
+        Path file = folder.newFile("group.wal").toPath();
+        int games = 8;
+        long[] expected = new long[games];
+        long records;
+        long batches;
+        try (GroupCommitLog log = new GroupCommitLog(file, TimeUnit.MILLISECONDS.toNanos(2), GroupCommitLog.DEFAULT_BATCH_BYTES)) {
+            Thread[] threads = new Thread[games];
+            for (int g = 0; g < games; g++) {
+                int id = g;
+                threads[g] = new Thread(() -> {
+                    Game game = newGame(log.openGame(id), id);
+                    RandomPlay.play(game, id, 6);
+                    expected[id] = game.getStateHash();
+                });
+                threads[g].start();
+            }
+            for (Thread thread : threads) thread.join();
+            records = log.getCommittedRecords();
+            batches = log.getCommittedBatches();
+        }
+        assertTrue("Batches should hold records of several games (" + records + " in " + batches + ")",
+                records > 2 * batches);
+        Map<Long, Game> recovered = GroupCommitLog.recover(file).getGames();
+        for (int g = 0; g < games; g++) assertEquals(expected[g], recovered.get((long) g).getStateHash());
+    }
+}
@@ -0,0 +1,210 @@
+package test.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import catan.board.BoardLayout;
+import catan.board.BoardTopology;
+import catan.log.EventType;
+import catan.log.GameEvent;
+import catan.log.NotationReader;
+import catan.log.NotationWriter;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+import test.ai.RandomPlay;
+
+public class NotationTest {
+
+    private static Game playRecorded(NotationWriter writer, long seed, int turns) {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(writer);
+        game.initializeGame(4, seed);
+        return play(game, seed, turns);
+    }
+
+    private static Game play(Game game, long seed, int turns) {
+        game.reseedRandom(seed * 7);
+        RandomPlay.play(game, seed, turns);
+        return game;
+    }
+
+    private static NotationReader reader(ByteArrayOutputStream out) {
+        return new NotationReader(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testRecordsLoadBackIntoTheSameGames() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long[] keys = new long[3];
+        try (NotationWriter writer = new NotationWriter(out)) {
+            for (int g = 0; g < keys.length; g++) keys[g] = playRecorded(writer, 40 + g, 50).getStateHash();
+            assertEquals(3, writer.getGameCount());
+        }
+        try (NotationReader reader = reader(out)) {
+            for (long key : keys) assertEquals(key, reader.readGame().getStateHash());
+            assertNull(reader.readGame());
+        }
+    }
+
+    @Test
+    public void testTradesStealsAndUndo() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Game game;
+        try (NotationWriter writer = new NotationWriter(out)) {
+            game = playRecorded(writer, 9, 12);
+            game.setUndoEnabled(true);
+            Player current = game.getCurrentPlayer();
+            Player other = game.getPlayers().get((game.getPlayers().indexOf(current) + 1) % 4);
+            current.getInventory().addResource(Resource.WOOD, 4);
+            other.getInventory().addResource(Resource.ORE, 1);
+            game.tradeWithBank(current, ResourceVector.of(Resource.WOOD, 4), ResourceVector.of(Resource.SHEEP, 1));
+            game.tradeWithPlayer(current, ResourceVector.of(Resource.SHEEP, 1), other, ResourceVector.of(Resource.ORE, 1));
+            game.undo();
+        }
+        String text = new String(out.toByteArray(), StandardCharsets.US_ASCII);
+        assertTrue(text, text.contains("T4w:1s P"));
+        assertTrue(text, text.contains(":1s:1o U"));
+
+        // Hands were topped up outside the game, so only the logged actions are compared
+        try (NotationReader reader = reader(out)) {
+            assertTrue(reader.nextGame());
+            int trades = 0;
+            while (reader.next()) {
+                GameEvent event = reader.getEvent();
+                if (event.getType() == EventType.TRADE_PLAYER) {
+                    trades++;
+                    assertEquals(ResourceVector.of(Resource.SHEEP, 1), event.getCards());
+                    assertEquals(ResourceVector.of(Resource.ORE, 1), event.getOtherCards());
+                    assertEquals(game.getPlayers().indexOf(game.getCurrentPlayer()), event.getSeat());
+                }
+            }
+            assertEquals(1, trades);
+            assertFalse(reader.nextGame());
+        }
+    }
+
+    @Test
+    public void testCustomBoardsLoadBackOnTheirOwnLayout() throws IOException {
+        BoardLayout classic = BoardLayout.fixed(BoardTopology.standard());
+        Resource[] reversed = new Resource[classic.getHexCount()];
+        int[] tokens = new int[classic.getHexCount()];
+        for (int h = 0; h < reversed.length; h++) {
+            reversed[h] = classic.getResource(reversed.length - 1 - h);
+            tokens[h] = classic.getNumberToken(reversed.length - 1 - h);
+        }
+        BoardTopology large = BoardTopology.hexagon(3);
+        BoardTopology[] topologies = { large, BoardTopology.standard() };
+        BoardLayout[] layouts = { BoardLayout.fixed(large), BoardLayout.of(BoardLayout.NO_SEED, reversed, tokens) };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Game[] expected = new Game[topologies.length];
+        try (NotationWriter writer = new NotationWriter(out)) {
+            for (int i = 0; i < topologies.length; i++) {
+                expected[i] = new Game();
+                expected[i].setQuiet(true);
+                expected[i].setEventListener(writer);
+                expected[i].initializeGame(4, topologies[i], 19, layouts[i]);
+                play(expected[i], 3 + i, 8);
+            }
+        }
+        try (NotationReader reader = reader(out)) {
+            for (int i = 0; i < topologies.length; i++) {
+                Game game = reader.readGame();
+                assertEquals(topologies[i].getHexCount(), game.getBoard().getHexCount());
+                for (int h = 0; h < game.getBoard().getHexCount(); h++) {
+                    assertEquals(topologies[i].getHexQ(h), game.getBoard().getTopology().getHexQ(h));
+                    assertEquals(topologies[i].getHexR(h), game.getBoard().getTopology().getHexR(h));
+                    assertEquals(layouts[i].getResource(h), game.getBoard().getHexResource(h));
+                    assertEquals(layouts[i].getNumberToken(h), game.getBoard().getHexNumberToken(h));
+                }
+                assertEquals("Game " + i, expected[i].getStateHash(), game.getStateHash());
+            }
+            assertNull(reader.readGame());
+        }
+    }
+
+    @Test
+    public void testHandWrittenRecord() throws IOException {
+        String record = "[Event \"Club night\"]\n[Players \"3\"] [Hexes \"19\"] [Bank \"19\"]\n"
+                + "[Layout \"fixed\"] [Random \"-9223372036854775808\"]\n\n"
+                + "@0 s12 r17 @2 D1:2w1g x0- *\n";
+        try (NotationReader reader = new NotationReader(new ByteArrayInputStream(record.getBytes(StandardCharsets.US_ASCII)))) {
+            assertTrue(reader.nextGame());
+            assertTrue(reader.next());
+            GameEvent event = reader.getEvent();
+            assertEquals(EventType.START, event.getType());
+            assertEquals(3, event.getPlayerCount());
+            assertEquals(BoardLayout.NO_SEED, event.getLayoutSeed());
+            assertEquals(Long.MIN_VALUE, event.getRandomState());
+            assertTrue(reader.next());
+            assertEquals(EventType.SETUP_SETTLEMENT, event.getType());
+            assertEquals(12, event.getTarget());
+            assertTrue(reader.next());
+            assertEquals(EventType.SETUP_ROAD, event.getType());
+            assertEquals(0, event.getSeat());
+            assertTrue(reader.next());
+            assertEquals(EventType.DISCARD, event.getType());
+            assertEquals(1, event.getSeat());
+            assertEquals(ResourceVector.of(2, 0, 1, 0, 0), event.getCards());
+            assertTrue(reader.next());
+            assertEquals(EventType.STEAL, event.getType());
+            assertEquals(2, event.getSeat());
+            assertEquals(0, event.getOtherSeat());
+            assertNull(event.getResource());
+            assertFalse(reader.next());
+            assertFalse(reader.nextGame());
+        }
+    }
+
+    @Test
+    public void testMalformedTokenReportsItsLine() throws IOException {
+        String record = "[Players \"4\"] [Hexes \"19\"] [Bank \"19\"] [Layout \"1\"] [Random \"2\"]\n@0 s3\nr4 Q5 *\n";
+        try (NotationReader reader = new NotationReader(new ByteArrayInputStream(record.getBytes(StandardCharsets.US_ASCII)))) {
+            assertTrue(reader.nextGame());
+            while (reader.next()) {
+                // read up to the bad token
+            }
+            fail("An unknown token should not parse");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("line 3"));
+        }
+    }
+
+    @Test
+    public void testNonAsciiByteIsAnErrorNotTheEnd() throws IOException {
+        String record = "[Players \"4\"] [Hexes \"19\"] [Bank \"19\"] [Layout \"1\"] [Random \"2\"]\n@0 s3 *\n\n\u00e9";
+        try (NotationReader reader = new NotationReader(new ByteArrayInputStream(record.getBytes(StandardCharsets.UTF_8)))) {
+            assertTrue(reader.nextGame());
+            reader.nextGame();
+            fail("A non-ASCII byte should not read as the end of the input");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("line 4"));
+        }
+    }
+
+    @Test
+    public void testRepeatedCardLetterIsRejected() throws IOException {
+        String record = "[Players \"4\"] [Hexes \"19\"] [Bank \"19\"] [Layout \"1\"] [Random \"2\"]\n@0 D1:1w1w *\n";
+        try (NotationReader reader = new NotationReader(new ByteArrayInputStream(record.getBytes(StandardCharsets.US_ASCII)))) {
+            assertTrue(reader.nextGame());
+            assertTrue(reader.next());
+            reader.next();
+            fail("Cards naming a resource twice should not parse");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("line 2"));
+        }
+    }
+}
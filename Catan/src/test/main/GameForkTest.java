@@ -0,0 +1,135 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import catan.components.Road;
+import catan.components.Settlement;
+import catan.main.Game;
+import catan.players.Player;
+
+public class GameForkTest {
+    private PrintStream out;
+
+    @Before
+    public void silence() {
+        out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @After
+    public void restore() {
+        System.setOut(out);
+    }
+
+    @Test
+    public void testForkHasTheSameStateAndSharesTopology() {
+        Game game = playedGame(1, 20);
+        Game fork = game.fork();
+
+        assertEquals("Fork should have the same state key", game.getStateHash(), fork.getStateHash());
+        assertEquals("Fork key should match recomputation", fork.computeStateHash(), fork.getStateHash());
+        assertSame("Topology should be shared", game.getBoard().getTopology(), fork.getBoard().getTopology());
+        assertEquals(game.getRobberHexIndex(), fork.getRobberHexIndex());
+        assertEquals(game.getPhase(), fork.getPhase());
+        for (int i = 0; i < game.getPlayers().size(); i++) {
+            Player original = game.getPlayers().get(i);
+            Player copy = fork.getPlayers().get(i);
+            assertNotSame("Players should be copied", original, copy);
+            assertEquals(original.getVictoryPoints(), copy.getVictoryPoints());
+            assertEquals(original.getInventory().toString(), copy.getInventory().toString());
+            assertEquals(original.getSettlements().size(), copy.getSettlements().size());
+            assertEquals(original.getCities().size(), copy.getCities().size());
+            assertEquals(original.getRoads().size(), copy.getRoads().size());
+        }
+        assertEquals(game.getCurrentPlayer().getName(), fork.getCurrentPlayer().getName());
+    }
+
+    @Test
+    public void testForkedPiecesBelongToForkedPlayers() {
+        Game game = playedGame(2, 10);
+        Game fork = game.fork();
+
+        for (Player player : fork.getPlayers()) {
+            for (Settlement settlement : player.getSettlements()) assertSame(player, settlement.getOwner());
+            for (Road road : player.getRoads()) assertSame(player, road.getOwner());
+        }
+        for (int i = 0; i < fork.getBoard().getIntersectionCount(); i++) {
+            Settlement settlement = fork.getBoard().getSettlementAt(i);
+            if (settlement != null) assertEquals("Board pieces should belong to fork players", true, fork.getPlayers().contains(settlement.getOwner()));
+        }
+    }
+
+    @Test
+    public void testPlayingOnAForkLeavesTheSourceUntouched() {
+        Game game = playedGame(3, 15);
+        long key = game.getStateHash();
+        int[] settlements = new int[game.getPlayers().size()];
+        for (int i = 0; i < settlements.length; i++) settlements[i] = game.getPlayers().get(i).getSettlements().size();
+
+        Game fork = game.fork();
+        RandomActions.playTurns(fork, new Random(99), 40);
+
+        assertEquals("Source key should not change", key, game.getStateHash());
+        assertEquals("Source key should still match its state", game.computeStateHash(), game.getStateHash());
+        assertEquals("Fork key should match its own state", fork.computeStateHash(), fork.getStateHash());
+        for (int i = 0; i < settlements.length; i++) {
+            assertEquals(settlements[i], game.getPlayers().get(i).getSettlements().size());
+        }
+    }
+
+    @Test
+    public void testForksReplayIdentically() {
+        Game game = playedGame(4, 10);
+        Game first = game.fork();
+        Game second = game.fork();
+
+        // Steals draw from the copied generator, so equal moves give equal states
+        RandomActions.playTurns(first, new Random(7), 40);
+        RandomActions.playTurns(second, new Random(7), 40);
+        assertEquals(first.getStateHash(), second.getStateHash());
+
+        RandomActions.playTurns(game, new Random(7), 40);
+        assertEquals("The source continues like its forks", first.getStateHash(), game.getStateHash());
+    }
+
+    @Test
+    public void testForkDuringSetup() {
+        Game game = new Game();
+        game.initializeGame(4);
+        Player current = game.getCurrentPlayer();
+        game.placeSetupSettlement(current, game.getLegalSettlements(current, true).first());
+
+        Game fork = game.fork();
+        Player forkCurrent = fork.getCurrentPlayer();
+        assertEquals(game.getLegalRoads(current, true).toList(), fork.getLegalRoads(forkCurrent, true).toList());
+        fork.placeSetupRoad(forkCurrent, fork.getLegalRoads(forkCurrent, true).first());
+
+        assertEquals("Source should still wait for its road", Game.SetupStep.PLACE_ROAD, game.getSetupStep());
+        assertEquals("Source should have no road yet", 0, current.getRoads().size());
+        assertEquals(1, forkCurrent.getRoads().size());
+        assertEquals(fork.computeStateHash(), fork.getStateHash());
+    }
+
+    private static Game playedGame(long seed, int turns) {
+        Random random = new Random(seed);
+        Game game = new Game();
+        game.initializeGame(4);
+        RandomActions.playSetup(game, random);
+        RandomActions.playTurns(game, random, turns);
+        return game;
+    }
+}
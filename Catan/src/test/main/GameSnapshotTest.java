@@ -0,0 +1,137 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import catan.board.BoardTopology;
+import catan.main.Game;
+import catan.main.GameSnapshot;
+import catan.utils.BalancedDice;
+import test.ai.RandomPlay;
+
+public class GameSnapshotTest {
+
+    /** Plays a seeded random game until the given number of actions has been taken. */
+    private static void play(Game game, int actions, long seed) {
+        RandomPlay play = new RandomPlay(game, seed);
+        for (int taken = 0; taken < actions && !play.getState().isOver(); taken++) play.step();
+    }
+
+    private static Game newGame(int players, long layoutSeed) {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.initializeGame(players, layoutSeed);
+        game.reseedRandom(layoutSeed * 31);
+        return game;
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertEquals("State key should survive the round trip", expected.getStateHash(), actual.getStateHash());
+        assertEquals("Restored key should match recomputation", actual.computeStateHash(), actual.getStateHash());
+        assertEquals(expected.getPhase(), actual.getPhase());
+        assertEquals(expected.getSetupStep(), actual.getSetupStep());
+        assertEquals(expected.getLayoutSeed(), actual.getLayoutSeed());
+        assertEquals(expected.getRobberHexIndex(), actual.getRobberHexIndex());
+        for (int s = 0; s < expected.getPlayers().size(); s++) {
+            assertEquals(expected.getPlayers().get(s).getVictoryPoints(), actual.getPlayers().get(s).getVictoryPoints());
+            assertEquals(expected.getPlayers().get(s).getInventory().getResources(),
+                    actual.getPlayers().get(s).getInventory().getResources());
+        }
+    }
+
+    @Test
+    public void testMidGameRoundTripPlaysOnIdentically() {
+        Game game = newGame(4, 11);
+        play(game, 400, 3);
+        ByteBuffer buf = ByteBuffer.allocate(GameSnapshot.maxBytes(game));
+        GameSnapshot.write(game, buf);
+        assertTrue("Snapshot should take a few hundred bytes, took " + buf.position(), buf.position() < 300);
+        buf.flip();
+        Game restored = GameSnapshot.read(buf);
+        restored.setQuiet(true);
+        assertEquals("Reader should consume the whole snapshot", 0, buf.remaining());
+        assertSameGame(game, restored);
+
+        // Same policy, dice and generator state: the two games must stay in step
+        play(game, 300, 9);
+        play(restored, 300, 9);
+        assertSameGame(game, restored);
+    }
+
+    @Test
+    public void testRestoredGameRollsTheSameDice() {
+        Game game = new Game(77);
+        game.setQuiet(true);
+        game.initializeGame(4, 12);
+        for (int i = 0; i < 25; i++) game.getDice().roll();
+        ByteBuffer buf = ByteBuffer.allocate(GameSnapshot.maxBytes(game));
+        GameSnapshot.write(game, buf);
+        buf.flip();
+        Game restored = GameSnapshot.read(buf);
+        for (int i = 0; i < 100; i++) assertEquals("Roll " + i, game.getDice().roll(), restored.getDice().roll());
+    }
+
+    @Test
+    public void testRestoredGameKeepsItsDiceDeck() {
+        Game game = new Game(78);
+        game.setQuiet(true);
+        game.useBalancedDice(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 40);
+        game.initializeGame(4, 12);
+        for (int i = 0; i < 20; i++) game.getDice().roll(); // part way into the deck
+        ByteBuffer buf = ByteBuffer.allocate(GameSnapshot.maxBytes(game));
+        GameSnapshot.write(game, buf);
+        buf.flip();
+        Game restored = GameSnapshot.read(buf);
+        assertTrue(restored.getDice() instanceof BalancedDice);
+        BalancedDice deck = (BalancedDice) restored.getDice();
+        assertEquals(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, deck.getReshuffleThreshold());
+        assertEquals(40, deck.getAntiStreakPercent());
+        assertEquals(((BalancedDice) game.getDice()).getRemaining(), deck.getRemaining());
+        for (int i = 0; i < 100; i++) assertEquals("Roll " + i, game.getDice().roll(), restored.getDice().roll());
+    }
+
+    @Test
+    public void testSetupRoadStepRoundTrip() {
+        Game game = newGame(3, 5);
+        play(game, 5, 1); // ends between a setup settlement and its road
+        assertEquals(Game.SetupStep.PLACE_ROAD, game.getSetupStep());
+        Game restored = GameSnapshot.read(GameSnapshot.toBuffer(game));
+        assertSameGame(game, restored);
+        assertEquals(game.getLegalRoads(game.getCurrentPlayer(), true).size(),
+                restored.getLegalRoads(restored.getCurrentPlayer(), true).size());
+    }
+
+    @Test
+    public void testDirectBufferAndCustomBoard() {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.initializeGame(6, BoardTopology.hexagon(3), 30);
+        play(game, 200, 7);
+        ByteBuffer buf = ByteBuffer.allocateDirect(GameSnapshot.maxBytes(game) + 8);
+        buf.putLong(-1L); // snapshots may sit anywhere in a buffer
+        GameSnapshot.write(game, buf);
+        buf.flip();
+        buf.getLong();
+        Game restored = GameSnapshot.read(buf);
+        assertEquals(game.getBoard().getHexCount(), restored.getBoard().getHexCount());
+        assertEquals(30, restored.getBankSize());
+        assertSameGame(game, restored);
+    }
+
+    @Test
+    public void testUnknownVersionIsRejected() {
+        ByteBuffer buf = GameSnapshot.toBuffer(newGame(2, 1));
+        buf.put(0, (byte) (GameSnapshot.VERSION + 1));
+        try {
+            GameSnapshot.read(buf);
+            fail("A snapshot from another version should not load");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("version"));
+        }
+    }
+}
@@ -3,14 +3,29 @@ package test.main;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
+import catan.board.Board;
+import catan.board.Edge;
+import catan.board.Intersection;
+import catan.board.Hex;
+import catan.components.City;
+import catan.components.Road;
+import catan.components.Settlement;
 import catan.main.Game;
 import catan.players.Player;
 import catan.resources.Resource;
+import catan.resources.ResourceVector;
+import catan.utils.Validator;
 
 public class GameTest {
     private Game game;
@@ -32,6 +47,34 @@ public class GameTest {
         game.initializeGame(4); // Example: Start the game with 4 players
     }
 
+    @Test
+    public void testSeededGamesShareTheirLayout() {
+        Game first = new Game();
+        Game second = new Game();
+        first.initializeGame(4, 99L);
+        second.initializeGame(4, 99L);
+        for (int h = 0; h < first.getBoard().getHexCount(); h++) {
+            assertEquals(first.getBoard().getHexes().get(h).getResource(), second.getBoard().getHexes().get(h).getResource());
+            assertEquals(first.getBoard().getHexes().get(h).getNumberToken(), second.getBoard().getHexes().get(h).getNumberToken());
+        }
+    }
+
+    @Test
+    public void testSixPlayerGameUsesExtensionMap() {
+        Game sixPlayers = new Game();
+        sixPlayers.initializeGame(6);
+        assertEquals("Extension map has 30 hexes", 30, sixPlayers.getBoard().getHexCount());
+        assertEquals("Extension bank holds 24 of each resource", 24, sixPlayers.getResourcePool().getResourceCount(Resource.WOOD));
+
+        game = sixPlayers;
+        completeSetupPhase();
+        for (Player player : sixPlayers.getPlayers()) {
+            assertEquals("Each player places two settlements", 2, player.getSettlements().size());
+            assertEquals("Each player places two roads", 2, player.getRoads().size());
+        }
+        assertEquals("Normal play starts with the first seat", "Player 1", sixPlayers.getCurrentPlayer().getName());
+    }
+
     @Test
     public void testGameInitialization() {
         assertEquals("Game should initialize with 4 players", 4, game.getPlayers().size());
@@ -94,4 +137,200 @@ public class GameTest {
         game.buildCity(player, invalidIndex);
     }
 
+    private static void assertRejected(Runnable trade) {
+        try {
+            trade.run();
+            fail("Trade should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // rejected before any card moved
+        }
+    }
+
+    @Test
+    public void testBankTradesAreFourToOne() {
+        completeSetupPhase();
+        Player player = game.getCurrentPlayer();
+        player.getInventory().addResource(Resource.WOOD, 8);
+        long hand = player.getInventory().getResources();
+
+        assertRejected(() -> game.tradeWithBank(player, ResourceVector.EMPTY, ResourceVector.of(Resource.ORE, 1)));
+        assertRejected(() -> game.tradeWithBank(player, ResourceVector.of(Resource.WOOD, 3), ResourceVector.of(Resource.ORE, 1)));
+        assertRejected(() -> game.tradeWithBank(player, ResourceVector.of(Resource.WOOD, 4), ResourceVector.of(Resource.ORE, 2)));
+        assertRejected(() -> game.tradeWithBank(player, ResourceVector.of(Resource.WOOD, 4), ResourceVector.of(Resource.WOOD, 1)));
+        assertRejected(() -> game.tradeWithBank(player, ResourceVector.of(Resource.WOOD, 4) | 1L << 62, ResourceVector.of(Resource.ORE, 1)));
+        assertRejected(() -> game.tradeWithBank(player, ResourceVector.of(Resource.WOOD, 4), 0x800L));
+        assertEquals(hand, player.getInventory().getResources());
+
+        game.tradeWithBank(player, ResourceVector.of(Resource.WOOD, 8), ResourceVector.of(0, 0, 0, 1, 1));
+        assertEquals(ResourceVector.add(ResourceVector.subtract(hand, ResourceVector.of(Resource.WOOD, 8)), ResourceVector.of(0, 0, 0, 1, 1)),
+                player.getInventory().getResources());
+    }
+
+    @Test
+    public void testPlayerTradesNeedCardsBothWays() {
+        completeSetupPhase();
+        Player player = game.getCurrentPlayer();
+        Player other = game.getPlayers().get((game.getPlayers().indexOf(player) + 1) % 4);
+        player.getInventory().addResource(Resource.WOOD, 1);
+        other.getInventory().addResource(Resource.ORE, 1);
+
+        assertRejected(() -> game.tradeWithPlayer(player, ResourceVector.EMPTY, other, ResourceVector.of(Resource.ORE, 1)));
+        assertRejected(() -> game.tradeWithPlayer(player, ResourceVector.of(Resource.WOOD, 1), other, ResourceVector.EMPTY));
+        assertRejected(() -> game.tradeWithPlayer(player, -1L, other, ResourceVector.of(Resource.ORE, 1)));
+        int otherWood = other.getInventory().getResourceCount(Resource.WOOD);
+        game.tradeWithPlayer(player, ResourceVector.of(Resource.WOOD, 1), other, ResourceVector.of(Resource.ORE, 1));
+        assertEquals(otherWood + 1, other.getInventory().getResourceCount(Resource.WOOD));
+    }
+
+    @Test
+    public void testPlacementMasksMatchBruteForce() {
+        Random random = new Random(42);
+        while (game.isSetupPhase()) {
+            Player current = game.getCurrentPlayer();
+            List<Integer> settlements = game.getValidSettlementPlacements(current, true);
+            assertEquals("Setup settlements should match brute force", bruteForceSettlements(current, true), settlements);
+            game.placeSetupSettlement(current, settlements.get(random.nextInt(settlements.size())));
+
+            List<Integer> roads = game.getValidRoadPlacements(current, true);
+            assertEquals("Setup roads should match Validator", bruteForceSetupRoads(current), roads);
+            game.placeSetupRoad(current, roads.get(random.nextInt(roads.size())));
+        }
+
+        for (int turn = 0; turn < 40; turn++) {
+            for (Player p : game.getPlayers()) {
+                assertEquals("Maintained roads should match for every player", bruteForceRoads(p), game.getValidRoadPlacements(p, false));
+                assertEquals("Maintained settlements should match for every player", bruteForceSettlements(p, false), game.getValidSettlementPlacements(p, false));
+            }
+            Player current = game.getCurrentPlayer();
+            current.getInventory().addResource(Resource.WOOD, 2);
+            current.getInventory().addResource(Resource.BRICK, 2);
+            current.getInventory().addResource(Resource.WHEAT, 1);
+            current.getInventory().addResource(Resource.SHEEP, 1);
+
+            List<Integer> roads = game.getValidRoadPlacements(current, false);
+            assertEquals("Roads should match brute force", bruteForceRoads(current), roads);
+            if (!roads.isEmpty()) game.buildRoad(current, roads.get(random.nextInt(roads.size())));
+
+            List<Integer> settlements = game.getValidSettlementPlacements(current, false);
+            assertEquals("Settlements should match brute force", bruteForceSettlements(current, false), settlements);
+            if (!settlements.isEmpty()) game.buildSettlement(current, settlements.get(0));
+
+            game.endTurn();
+        }
+    }
+
+    @Test
+    public void testRollPayoutsMatchHexScan() {
+        Random random = new Random(7);
+        completeSetupPhase();
+
+        for (int step = 0; step < 200; step++) {
+            Player current = game.getCurrentPlayer();
+            if (step % 5 == 0) {
+                List<Integer> destinations = game.getValidRobberHexDestinations();
+                game.moveRobberToHex(destinations.get(random.nextInt(destinations.size())));
+            }
+            if (step % 7 == 0) {
+                current.getInventory().addResource(Resource.ORE, 3);
+                current.getInventory().addResource(Resource.WHEAT, 2);
+                List<Integer> cities = game.getValidCityPlacements(current);
+                if (!cities.isEmpty()) game.buildCity(current, cities.get(0));
+            }
+
+            int roll = 2 + random.nextInt(11);
+            if (roll == 7) continue;
+            Map<Player, Map<Resource, Integer>> expected = expectedPayouts(roll);
+            Map<Player, int[]> before = snapshotInventories();
+
+            game.distributeResourcesForRoll(roll);
+
+            for (Player p : game.getPlayers()) {
+                for (Resource r : Resource.values()) {
+                    int gained = p.getInventory().getResourceCount(r) - before.get(p)[r.ordinal()];
+                    Map<Resource, Integer> m = expected.get(p);
+                    int want = (m == null || !m.containsKey(r)) ? 0 : m.get(r);
+                    assertEquals("Payout for " + p.getName() + " " + r + " on " + roll, want, gained);
+                }
+            }
+            game.endTurn();
+        }
+    }
+
+    private Map<Player, Map<Resource, Integer>> expectedPayouts(int roll) {
+        Board board = game.getBoard();
+        Map<Player, Map<Resource, Integer>> requested = new HashMap<>();
+        Map<Resource, Integer> totals = new EnumMap<>(Resource.class);
+        for (Hex hex : board.getHexes()) {
+            if (hex.getNumberToken() != roll || hex == board.getRobberHex() || hex.getResource() == Resource.DESERT) continue;
+            for (Intersection corner : board.getCornersForHex(hex)) {
+                City city = board.getCityAt(corner);
+                Settlement settlement = board.getSettlementAt(corner);
+                Player owner = city != null ? city.getOwner() : settlement != null ? settlement.getOwner() : null;
+                if (owner == null) continue;
+                int amount = city != null ? 2 : 1;
+                requested.computeIfAbsent(owner, k -> new EnumMap<>(Resource.class)).merge(hex.getResource(), amount, Integer::sum);
+                totals.merge(hex.getResource(), amount, Integer::sum);
+            }
+        }
+        for (Map.Entry<Resource, Integer> e : totals.entrySet()) {
+            if (!game.getResourcePool().hasEnoughResource(e.getKey(), e.getValue())) {
+                for (Map<Resource, Integer> m : requested.values()) m.remove(e.getKey());
+            }
+        }
+        return requested;
+    }
+
+    private Map<Player, int[]> snapshotInventories() {
+        Map<Player, int[]> counts = new HashMap<>();
+        for (Player p : game.getPlayers()) {
+            int[] c = new int[Resource.values().length];
+            for (Resource r : Resource.values()) c[r.ordinal()] = p.getInventory().getResourceCount(r);
+            counts.put(p, c);
+        }
+        return counts;
+    }
+
+    private List<Integer> bruteForceSettlements(Player player, boolean isSetup) {
+        Board board = game.getBoard();
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < board.getIntersections().size(); i++) {
+            Intersection in = board.getIntersections().get(i);
+            boolean ok = !board.isIntersectionOccupied(in);
+            for (Intersection adj : board.getAdjacentIntersections(in)) ok &= !board.isIntersectionOccupied(adj);
+            if (ok && !isSetup) ok = isConnected(board, player, in);
+            if (ok) valid.add(i);
+        }
+        return valid;
+    }
+
+    private List<Integer> bruteForceRoads(Player player) {
+        Board board = game.getBoard();
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < board.getEdges().size(); i++) {
+            Edge e = board.getEdges().get(i);
+            if (board.getRoadAt(e) == null && (isConnected(board, player, e.getStart()) || isConnected(board, player, e.getEnd()))) {
+                valid.add(i);
+            }
+        }
+        return valid;
+    }
+
+    private List<Integer> bruteForceSetupRoads(Player player) {
+        Board board = game.getBoard();
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < board.getEdges().size(); i++) {
+            if (Validator.isValidSetupRoadPlacement(board, player, board.getEdges().get(i), game.getPendingSetupRoadAnchor())) valid.add(i);
+        }
+        return valid;
+    }
+
+    private boolean isConnected(Board board, Player player, Intersection in) {
+        if (board.getSettlementAt(in) != null && board.getSettlementAt(in).getOwner() == player) return true;
+        if (board.getCityAt(in) != null && board.getCityAt(in).getOwner() == player) return true;
+        for (Edge e : board.getEdgesTouching(in)) {
+            Road r = board.getRoadAt(e);
+            if (r != null && r.getOwner() == player) return true;
+        }
+        return false;
+    }
 }
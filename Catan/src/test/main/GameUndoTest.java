@@ -0,0 +1,166 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import catan.board.Board;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+
+public class GameUndoTest {
+    private PrintStream out;
+
+    @Before
+    public void silence() {
+        out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @After
+    public void restore() {
+        System.setOut(out);
+    }
+
+    @Test
+    public void testUndoingEveryActionRestoresEveryState() {
+        for (int seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            Game game = new Game();
+            game.initializeGame(2 + random.nextInt(3));
+            game.setUndoEnabled(true);
+
+            List<String> states = new ArrayList<>();
+            List<Long> keys = new ArrayList<>();
+            states.add(describe(game));
+            keys.add(game.getStateHash());
+            Runnable after = () -> after(game, states, keys);
+            RandomActions.playSetup(game, random, after);
+            RandomActions.playTurns(game, random, 80, after);
+
+            assertEquals("One undo entry per action", states.size() - 1, game.getUndoDepth());
+            for (int i = states.size() - 2; i >= 0; i--) {
+                game.undo();
+                assertEquals("State after undoing action " + i, states.get(i), describe(game));
+                assertEquals("Key after undoing action " + i, (long) keys.get(i), game.getStateHash());
+                assertEquals(game.computeStateHash(), game.getStateHash());
+            }
+            assertFalse(game.canUndo());
+        }
+    }
+
+    @Test
+    public void testUndoThenReplayGivesTheSameSteal() {
+        Game game = new Game();
+        game.initializeGame(2);
+        game.setUndoEnabled(true);
+        RandomActions.playSetup(game, new Random(3));
+
+        Player thief = game.getCurrentPlayer();
+        Player victim = game.getPlayers().get(1 - game.getPlayers().indexOf(thief));
+        victim.getInventory().addResource(Resource.WOOD, 3);
+        victim.getInventory().addResource(Resource.ORE, 3);
+
+        Resource first = game.stealRandomResource(thief, victim);
+        long key = game.getStateHash();
+        game.undo();
+        Resource second = game.stealRandomResource(thief, victim);
+        assertEquals("The generator is restored too", first, second);
+        assertEquals(key, game.getStateHash());
+    }
+
+    @Test
+    public void testFailedActionRecordsNothing() {
+        Game game = new Game();
+        game.initializeGame(3);
+        game.setUndoEnabled(true);
+        RandomActions.playSetup(game, new Random(5));
+        int depth = game.getUndoDepth();
+        Player current = game.getCurrentPlayer();
+        long key = game.getStateHash();
+
+        try {
+            game.buildCity(current, game.getLegalCities(current).first());
+        } catch (IllegalArgumentException notAffordable) {
+            // the player holds no ore yet
+        }
+        assertEquals(depth, game.getUndoDepth());
+        assertEquals(key, game.getStateHash());
+    }
+
+    @Test
+    public void testUndoIsOffByDefault() {
+        Game game = new Game();
+        game.initializeGame(2);
+        RandomActions.playSetup(game, new Random(1));
+        assertFalse(game.canUndo());
+
+        game.setUndoEnabled(true);
+        game.endTurn();
+        assertTrue(game.canUndo());
+        game.setUndoEnabled(false);
+        assertFalse("Turning recording off drops the history", game.canUndo());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUndoWithEmptyHistoryThrows() {
+        Game game = new Game();
+        game.initializeGame(2);
+        game.setUndoEnabled(true);
+        game.undo();
+    }
+
+    private static void after(Game game, List<String> states, List<Long> keys) {
+        states.add(describe(game));
+        keys.add(game.getStateHash());
+        assertEquals("Every action is one undo entry", states.size() - 1, game.getUndoDepth());
+    }
+
+    /** Everything undo must restore, including the derived legal move sets. */
+    private static String describe(Game game) {
+        Board board = game.getBoard();
+        StringBuilder sb = new StringBuilder();
+        sb.append(game.getPhase()).append(' ').append(game.getSetupStep()).append(' ')
+                .append(board.getIntersectionId(game.getPendingSetupRoadAnchor())).append(' ')
+                .append(game.getCurrentPlayer().getName()).append(' ').append(game.getSetupRound())
+                .append(" robber ").append(game.getRobberHexIndex())
+                .append(" bank ").append(game.getResourcePool())
+                .append(" open ").append(board.getLegalSettlementSites(-1, true))
+                .append(" longest ").append(game.getLongestRoadHolder() == null ? "-" : game.getLongestRoadHolder().getName()).append('\n');
+        for (Player player : game.getPlayers()) {
+            int slot = board.getPlayerSlot(player);
+            sb.append(player.getName()).append(" vp ").append(player.getVictoryPoints())
+                    .append(" hand ").append(player.getInventory())
+                    .append(" pieces ").append(player.getSettlements().size()).append('/').append(player.getCities().size()).append('/').append(player.getRoads().size())
+                    .append(" settlements ").append(board.getSettlementSites(slot))
+                    .append(" roads ").append(board.getRoadEdges(slot))
+                    .append(" legal ").append(board.getLegalSettlementSites(slot, false)).append(board.getLegalRoadEdges(slot))
+                    .append(" road ").append(game.getLongestRoadLength(player))
+                    .append(" setupRoads ").append(game.getLegalRoads(player, true)).append('\n');
+            for (int roll = 2; roll <= 12; roll++) {
+                for (Resource res : Resource.values()) sb.append(board.getProduction(slot, roll, res));
+            }
+            sb.append('\n');
+        }
+        for (int i = 0; i < board.getIntersectionCount(); i++) {
+            if (board.getCityAt(i) != null) sb.append('c').append(i).append(board.getCityAt(i).getOwner().getName());
+            if (board.getSettlementAt(i) != null) sb.append('s').append(i).append(board.getSettlementAt(i).getOwner().getName());
+        }
+        return sb.toString();
+    }
+}
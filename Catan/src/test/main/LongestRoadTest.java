@@ -0,0 +1,204 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import catan.board.Board;
+import catan.components.Road;
+import catan.components.Settlement;
+import catan.main.LongestRoad;
+import catan.players.Player;
+
+public class LongestRoadTest {
+    private Board board;
+    private Player alice;
+    private Player bob;
+    private LongestRoad longestRoad;
+
+    @Before
+    public void setUp() {
+        board = new Board();
+        board.initializeBoard();
+        alice = new Player("Alice");
+        bob = new Player("Bob");
+        board.registerPlayer(alice);
+        board.registerPlayer(bob);
+        longestRoad = new LongestRoad(board);
+    }
+
+    private void road(Player player, int edgeId) {
+        board.placeRoad(new Road(player, board.getEdges().get(edgeId)));
+        longestRoad.onRoadPlaced(edgeId);
+    }
+
+    private void settlement(Player player, int intersectionId) {
+        board.placeSettlement(new Settlement(player, board.getIntersections().get(intersectionId)));
+        longestRoad.onSettlementPlaced(intersectionId);
+    }
+
+    /** Places a simple path of free edges starting at the given intersection; returns its intersections. */
+    private int[] path(Player player, int start, int length) {
+        int[] nodes = new int[length + 1];
+        nodes[0] = start;
+        if (!findPath(nodes, 0, length)) throw new IllegalStateException("No free path of length " + length);
+        for (int step = 0; step < length; step++) {
+            road(player, edgeBetween(nodes[step], nodes[step + 1]));
+        }
+        return nodes;
+    }
+
+    private boolean findPath(int[] nodes, int depth, int length) {
+        if (depth == length) return true;
+        int node = nodes[depth];
+        for (int k = 0; k < board.getAdjacentIntersectionCount(node); k++) {
+            int next = board.getAdjacentIntersectionId(node, k);
+            boolean seen = false;
+            for (int i = 0; i <= depth; i++) seen |= nodes[i] == next;
+            if (seen || board.isEdgeOccupied(board.getTouchingEdgeId(node, k))) continue;
+            nodes[depth + 1] = next;
+            if (findPath(nodes, depth + 1, length)) return true;
+        }
+        return false;
+    }
+
+    private int edgeBetween(int a, int b) {
+        for (int k = 0; k < board.getAdjacentIntersectionCount(a); k++) {
+            if (board.getAdjacentIntersectionId(a, k) == b) return board.getTouchingEdgeId(a, k);
+        }
+        throw new IllegalArgumentException("Not adjacent");
+    }
+
+    @Test
+    public void testAwardNeedsFiveRoads() {
+        path(alice, 0, 4);
+        assertEquals(4, longestRoad.getLongestRoad(0));
+        assertNull(longestRoad.getHolder());
+        assertEquals(0, alice.getVictoryPoints());
+    }
+
+    @Test
+    public void testFifthRoadGrantsAwardAndPoints() {
+        path(alice, 0, 5);
+        assertEquals(5, longestRoad.getLongestRoad(0));
+        assertSame(alice, longestRoad.getHolder());
+        assertEquals(LongestRoad.AWARD_POINTS, alice.getVictoryPoints());
+    }
+
+    @Test
+    public void testTieKeepsHolderAndLongerRoadTakesAward() {
+        path(alice, 0, 5);
+        int far = board.getEdgeStartId(board.getEdgeCount() - 1);
+        int[] bobNodes = path(bob, far, 5);
+        assertSame("holder keeps the award on a tie", alice, longestRoad.getHolder());
+
+        // extend Bob's road by one from its end
+        int end = bobNodes[bobNodes.length - 1];
+        for (int k = 0; k < board.getTouchingEdgeCount(end); k++) {
+            int e = board.getTouchingEdgeId(end, k);
+            if (!board.isEdgeOccupied(e)) {
+                road(bob, e);
+                break;
+            }
+        }
+        assertEquals(6, longestRoad.getLongestRoad(1));
+        assertSame(bob, longestRoad.getHolder());
+        assertEquals(0, alice.getVictoryPoints());
+        assertEquals(LongestRoad.AWARD_POINTS, bob.getVictoryPoints());
+    }
+
+    @Test
+    public void testOpponentSettlementBreaksRoad() {
+        int[] nodes = path(alice, 0, 6);
+        assertSame(alice, longestRoad.getHolder());
+
+        settlement(bob, nodes[3]);
+        assertEquals(3, longestRoad.getLongestRoad(0));
+        assertNull(longestRoad.getHolder());
+        assertEquals(0, alice.getVictoryPoints());
+    }
+
+    @Test
+    public void testSecondCutIgnoresRoadBeyondFirstCut() {
+        int[] nodes = path(alice, 0, 6);
+        int junction = nodes[6];
+        for (int k = 0; k < board.getTouchingEdgeCount(junction); k++) {
+            int e = board.getTouchingEdgeId(junction, k);
+            if (!board.isEdgeOccupied(e)) {
+                road(alice, e);
+                break;
+            }
+        }
+        assertEquals(7, longestRoad.getLongestRoad(0));
+
+        settlement(bob, junction);
+        assertEquals(6, longestRoad.getLongestRoad(0));
+        assertSame(alice, longestRoad.getHolder());
+
+        settlement(bob, nodes[3]);
+        assertEquals(3, longestRoad.getLongestRoad(0));
+        assertNull(longestRoad.getHolder());
+        assertEquals(0, alice.getVictoryPoints());
+    }
+
+    @Test
+    public void testOwnSettlementDoesNotBreakRoad() {
+        int[] nodes = path(alice, 0, 6);
+        settlement(alice, nodes[3]);
+        assertEquals(6, longestRoad.getLongestRoad(0));
+    }
+
+    @Test
+    public void testIncrementalMatchesBruteForce() {
+        Random random = new Random(7);
+        Player[] players = { alice, bob };
+        for (int step = 0; step < 60; step++) {
+            Player player = players[step % 2];
+            if (random.nextInt(4) == 0) {
+                int v = random.nextInt(board.getIntersectionCount());
+                if (!board.isIntersectionOccupied(v)) settlement(player, v);
+            } else {
+                int e = random.nextInt(board.getEdgeCount());
+                if (!board.isEdgeOccupied(e)) road(player, e);
+            }
+            for (int slot = 0; slot < 2; slot++) {
+                assertEquals("step " + step + " slot " + slot, bruteForceLongest(slot), longestRoad.getLongestRoad(slot));
+            }
+        }
+
+        LongestRoad fresh = new LongestRoad(board);
+        fresh.recomputeAll();
+        for (int slot = 0; slot < 2; slot++) {
+            assertEquals(longestRoad.getLongestRoad(slot), fresh.getLongestRoad(slot));
+        }
+    }
+
+    // Reference: longest trail from every intersection, no pruning
+    private int bruteForceLongest(int slot) {
+        boolean[] used = new boolean[board.getEdgeCount()];
+        int best = 0;
+        for (int v = 0; v < board.getIntersectionCount(); v++) {
+            best = Math.max(best, walk(v, slot, used, false));
+        }
+        return best;
+    }
+
+    private int walk(int node, int slot, boolean[] used, boolean arrived) {
+        int owner = board.getBuildingOwnerSlot(node);
+        if (arrived && owner >= 0 && owner != slot) return 0;
+        int best = 0;
+        for (int k = 0; k < board.getTouchingEdgeCount(node); k++) {
+            int e = board.getTouchingEdgeId(node, k);
+            if (used[e] || board.getRoadOwnerSlot(e) != slot) continue;
+            used[e] = true;
+            best = Math.max(best, 1 + walk(board.getAdjacentIntersectionId(node, k), slot, used, true));
+            used[e] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,99 @@
+package test.main;
+
+import java.util.List;
+import java.util.Random;
+
+import catan.ai.PlayState;
+import catan.main.Game;
+import catan.players.Player;
+import catan.utils.IdSet;
+
+/**
+ * Random legal play straight through {@link Game}, one call per action, for
+ * tests that check the game after every action: the setup snake draft, then
+ * turns of a roll, the 7 (discards, robber, steal), a few build attempts and
+ * the end of the turn. Builds the player cannot afford are refunded by the
+ * game and not reported.
+ */
+final class RandomActions {
+    private static final int BUILD_ATTEMPTS = 3;
+
+    private RandomActions() {
+    }
+
+    /** Places every setup settlement and road at random. */
+    static void playSetup(Game game, Random random) {
+        playSetup(game, random, () -> { });
+    }
+
+    /** Places every setup settlement and road at random, running {@code after} after each. */
+    static void playSetup(Game game, Random random, Runnable after) {
+        while (game.isSetupPhase()) {
+            Player current = game.getCurrentPlayer();
+            game.placeSetupSettlement(current, pick(game.getLegalSettlements(current, true), random));
+            after.run();
+            game.placeSetupRoad(current, pick(game.getLegalRoads(current, true), random));
+            after.run();
+        }
+    }
+
+    /** Plays up to {@code turns} random turns, fewer if someone wins. */
+    static void playTurns(Game game, Random random, int turns) {
+        playTurns(game, random, turns, () -> { });
+    }
+
+    /** Plays up to {@code turns} random turns, running {@code after} after every action. */
+    static void playTurns(Game game, Random random, int turns, Runnable after) {
+        for (int turn = 0; turn < turns && !game.checkVictory(); turn++) {
+            Player current = game.getCurrentPlayer();
+            int roll = 2 + random.nextInt(6) + random.nextInt(6);
+            if (roll == 7) {
+                for (Player player : game.getPlayers()) {
+                    if (game.mustDiscardOnSeven(player)) {
+                        game.discardResourcesToBank(player, PlayState.chooseDiscard(player, game.getDiscardCountOnSeven(player)));
+                        after.run();
+                    }
+                }
+                List<Integer> destinations = game.getValidRobberHexDestinations();
+                game.moveRobberToHex(destinations.get(random.nextInt(destinations.size())));
+                after.run();
+                List<Player> victims = game.getRobbablePlayers(current);
+                if (!victims.isEmpty()) {
+                    game.stealRandomResource(current, victims.get(random.nextInt(victims.size())));
+                    after.run();
+                }
+            } else {
+                game.applyRollPayouts(roll);
+                after.run();
+            }
+
+            for (int attempt = 0; attempt < BUILD_ATTEMPTS; attempt++) {
+                try {
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            if (game.getLegalCities(current).isEmpty()) continue;
+                            game.buildCity(current, pick(game.getLegalCities(current), random));
+                            break;
+                        case 1:
+                            if (game.getLegalSettlements(current, false).isEmpty()) continue;
+                            game.buildSettlement(current, pick(game.getLegalSettlements(current, false), random));
+                            break;
+                        default:
+                            if (game.getLegalRoads(current, false).isEmpty()) continue;
+                            game.buildRoad(current, pick(game.getLegalRoads(current, false), random));
+                            break;
+                    }
+                    after.run();
+                } catch (IllegalArgumentException notAffordable) {
+                    // refunded by the game
+                }
+            }
+            game.endTurn();
+            after.run();
+        }
+    }
+
+    private static int pick(IdSet set, Random random) {
+        return set.get(random.nextInt(set.size()));
+    }
+}
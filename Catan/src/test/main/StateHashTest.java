@@ -0,0 +1,108 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import catan.board.Board;
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+
+public class StateHashTest {
+
+    @Test
+    public void testIncrementalKeyMatchesRecomputationInRandomGames() {
+        Map<Long, String> seen = new HashMap<>();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+        try {
+            for (int seed = 0; seed < 20; seed++) {
+                playRandomGame(seed, seen);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    @Test
+    public void testUndoingAChangeRestoresTheKey() {
+        Game game = new Game();
+        game.initializeGame(3);
+        Player player = game.getPlayers().get(0);
+        long before = game.getStateHash();
+
+        player.getInventory().addResource(Resource.WOOD, 2);
+        long after = game.getStateHash();
+        assertNotEquals("Changing a hand should change the key", before, after);
+
+        player.getInventory().removeResource(Resource.WOOD, 2);
+        assertEquals("Restoring the hand should restore the key", before, game.getStateHash());
+    }
+
+    @Test
+    public void testEqualStatesReachedInDifferentOrderShareAKey() {
+        Game first = new Game();
+        Game second = new Game();
+        first.initializeGame(2);
+        second.initializeGame(2);
+
+        first.getPlayers().get(0).getInventory().addResource(Resource.ORE, 1);
+        first.getPlayers().get(1).getInventory().addResource(Resource.SHEEP, 1);
+        second.getPlayers().get(1).getInventory().addResource(Resource.SHEEP, 1);
+        second.getPlayers().get(0).getInventory().addResource(Resource.ORE, 1);
+
+        assertEquals(first.getStateHash(), second.getStateHash());
+    }
+
+    private void playRandomGame(long seed, Map<Long, String> seen) {
+        Random random = new Random(seed);
+        Game game = new Game();
+        game.initializeGame(2 + random.nextInt(3));
+        check(game, seen);
+        RandomActions.playSetup(game, random, () -> check(game, seen));
+        RandomActions.playTurns(game, random, 120, () -> check(game, seen));
+    }
+
+    /** Checks the key against a recomputation and that distinct states never share a key. */
+    private static void check(Game game, Map<Long, String> seen) {
+        long key = game.getStateHash();
+        assertEquals("Incremental key should match recomputation", game.computeStateHash(), key);
+
+        String state = describe(game);
+        String previous = seen.putIfAbsent(key, state);
+        if (previous != null) assertEquals("Two different states share key " + key, previous, state);
+    }
+
+    private static String describe(Game game) {
+        Board board = game.getBoard();
+        StringBuilder sb = new StringBuilder();
+        sb.append(board.getPlayerSlotCount()).append('|').append(game.getPhase()).append('|').append(game.getSetupStep())
+                .append('|').append(game.getSetupRound()).append('|').append(game.getPlayers().indexOf(game.getCurrentPlayer()))
+                .append('|').append(board.getIntersectionId(game.getPendingSetupRoadAnchor()))
+                .append('|').append(game.getRobberHexIndex()).append('|').append(game.getResourcePool());
+        for (int h = 0; h < board.getHexCount(); h++) {
+            sb.append(board.getHexes().get(h).getResource().ordinal()).append(board.getHexes().get(h).getNumberToken()).append(',');
+        }
+        for (int v = 0; v < board.getIntersectionCount(); v++) {
+            sb.append(board.getBuildingOwnerSlot(v)).append(board.getBuildingLevel(v));
+        }
+        for (int e = 0; e < board.getEdgeCount(); e++) sb.append(board.getRoadOwnerSlot(e));
+        for (Player player : game.getPlayers()) {
+            sb.append('|').append(player.getVictoryPoints()).append(':').append(player.getInventory());
+        }
+        Player holder = game.getLongestRoadHolder();
+        return sb.append('|').append(holder == null ? "-" : holder.getName()).toString();
+    }
+}
@@ -54,4 +54,30 @@ public class TurnManagerTest {
         Player currentPlayer = turnManager.getCurrentPlayer();
         assertEquals("Current player should be Alice initially", "Alice", currentPlayer.getName());
     }
+
+    @Test
+    public void testSetupOrderIsSnake() {
+        turnManager.startSetup(2);
+        StringBuilder order = new StringBuilder(turnManager.getCurrentPlayer().getName().substring(0, 1));
+        while (!turnManager.advanceSetup()) {
+            order.append(turnManager.getCurrentPlayer().getName().substring(0, 1));
+        }
+
+        assertEquals("Setup should go forward then back", "ABCDDCBA", order.toString());
+        assertEquals("Normal play starts with the first seat", "Alice", turnManager.getCurrentPlayer().getName());
+    }
+
+    @Test
+    public void testSetupOrderForSixPlayers() {
+        players.add(new Player("Eve"));
+        players.add(new Player("Frank"));
+        turnManager.startSetup(3);
+
+        StringBuilder order = new StringBuilder(turnManager.getCurrentPlayer().getName().substring(0, 1));
+        while (!turnManager.advanceSetup()) {
+            order.append(turnManager.getCurrentPlayer().getName().substring(0, 1));
+        }
+        assertEquals("ABCDEFFEDCBAABCDEF", order.toString());
+        assertEquals(2, turnManager.getSetupRound());
+    }
 }
@@ -0,0 +1,83 @@
+package test.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import catan.resources.ConcurrentResourcePool;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+
+public class ConcurrentResourcePoolTest {
+    private static final long CITY = ResourceVector.of(0, 0, 2, 3, 0);
+
+    @Test
+    public void testWithdrawIsAllOrNothing() {
+        ConcurrentResourcePool bank = new ConcurrentResourcePool(2);
+        assertFalse(bank.tryRemoveResources(CITY));
+        assertEquals(2, bank.getResourceCount(Resource.WHEAT));
+        assertEquals(2, bank.getResourceCount(Resource.ORE));
+
+        bank.addResource(Resource.ORE, 1);
+        assertTrue(bank.tryRemoveResources(CITY));
+        assertEquals(0, bank.getResourceCount(Resource.WHEAT));
+        assertEquals(0, bank.getResourceCount(Resource.ORE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveThrowsWhenShort() {
+        new ConcurrentResourcePool(0).removeResource(Resource.WOOD, 1);
+    }
+
+    @Test
+    public void testExchangeNeedsOnlyTheOutgoingCards() {
+        ConcurrentResourcePool bank = new ConcurrentResourcePool(0);
+        bank.addResource(Resource.ORE, 1);
+        assertTrue(bank.tryExchange(ResourceVector.of(Resource.WOOD, 4), ResourceVector.of(Resource.ORE, 1)));
+        assertEquals(4, bank.getResourceCount(Resource.WOOD));
+        assertEquals(0, bank.getResourceCount(Resource.ORE));
+        assertFalse(bank.tryExchange(ResourceVector.of(Resource.WOOD, 4), ResourceVector.of(Resource.ORE, 1)));
+        assertEquals(4, bank.getResourceCount(Resource.WOOD));
+    }
+
+    @Test
+    public void testConcurrentPaymentsConserveCards() throws Exception {
+        ConcurrentResourcePool bank = new ConcurrentResourcePool();
+        long before = bank.getResources();
+        AtomicInteger outstanding = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    int taken = 0;
+                    for (int i = 0; i < 20_000; i++) {
+                        if (!bank.tryRemoveResources(CITY)) continue;
+                        taken++;
+                        // 19 ore pay for at most 6 cities at a time
+                        assertTrue(outstanding.incrementAndGet() <= 6);
+                        outstanding.decrementAndGet();
+                        bank.addResources(CITY);
+                    }
+                    return taken;
+                });
+            }
+            int taken = 0;
+            for (Future<Integer> done : executor.invokeAll(tasks)) taken += done.get();
+            assertTrue(taken > 0);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(before, bank.getResources());
+    }
+}
@@ -0,0 +1,86 @@
+package test.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+
+public class ResourceVectorTest {
+
+    @Test
+    public void testLanesHoldIndependentCounts() {
+        long v = ResourceVector.of(1, 2, 3, 4, 5);
+        assertEquals(1, ResourceVector.get(v, Resource.WOOD));
+        assertEquals(2, ResourceVector.get(v, Resource.BRICK));
+        assertEquals(3, ResourceVector.get(v, Resource.WHEAT));
+        assertEquals(4, ResourceVector.get(v, Resource.ORE));
+        assertEquals(5, ResourceVector.get(v, Resource.SHEEP));
+        assertEquals(0, ResourceVector.get(v, Resource.DESERT));
+        assertEquals(15, ResourceVector.total(v));
+    }
+
+    @Test
+    public void testAddAndSubtract() {
+        long a = ResourceVector.of(2, 0, 7, 1, 0);
+        long b = ResourceVector.of(1, 3, 0, 1, 4);
+        long sum = ResourceVector.add(a, b);
+        assertEquals(ResourceVector.of(3, 3, 7, 2, 4), sum);
+        assertEquals(a, ResourceVector.subtract(sum, b));
+    }
+
+    @Test
+    public void testCoversComparesEveryLane() {
+        long hand = ResourceVector.of(1, 1, 2, 3, 0);
+        assertTrue(ResourceVector.covers(hand, ResourceVector.of(0, 0, 2, 3, 0)));
+        assertTrue(ResourceVector.covers(hand, ResourceVector.EMPTY));
+        assertFalse(ResourceVector.covers(hand, ResourceVector.of(1, 1, 1, 0, 1)));
+        // A shortage in a low lane must not be hidden by a surplus above it
+        assertFalse(ResourceVector.covers(ResourceVector.of(0, 5, 0, 0, 0), ResourceVector.of(1, 0, 0, 0, 0)));
+    }
+
+    @Test
+    public void testTotalAtMaximum() {
+        int max = ResourceVector.MAX_COUNT;
+        assertEquals(5 * max, ResourceVector.total(ResourceVector.of(max, max, max, max, max)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddOverflowThrows() {
+        ResourceVector.add(ResourceVector.of(Resource.ORE, ResourceVector.MAX_COUNT), ResourceVector.of(Resource.ORE, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubtractBelowZeroThrows() {
+        ResourceVector.subtract(ResourceVector.of(Resource.WOOD, 1), ResourceVector.of(Resource.WOOD, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDesertHasNoLane() {
+        ResourceVector.of(Resource.DESERT, 1);
+    }
+
+    @Test
+    public void testOfMapMatchesCounts() {
+        Map<Resource, Integer> counts = new EnumMap<>(Resource.class);
+        counts.put(Resource.WHEAT, 2);
+        counts.put(Resource.ORE, 3);
+        counts.put(Resource.DESERT, 0);
+        assertEquals(ResourceVector.of(0, 0, 2, 3, 0), ResourceVector.of(counts));
+    }
+
+    @Test
+    public void testValidityAndOverlap() {
+        assertTrue(ResourceVector.isValid(ResourceVector.of(ResourceVector.MAX_COUNT, 0, 0, 0, 7)));
+        assertFalse(ResourceVector.isValid(-1L));
+        assertFalse(ResourceVector.isValid(0x800L));         // guard bit of the first lane
+        assertFalse(ResourceVector.isValid(1L << 60));       // above the last lane
+        assertTrue(ResourceVector.overlaps(ResourceVector.of(1, 2, 0, 0, 0), ResourceVector.of(0, 1, 0, 0, 0)));
+        assertFalse(ResourceVector.overlaps(ResourceVector.of(1, 0, 0, 0, 0), ResourceVector.of(0, 1, 0, 0, 0)));
+    }
+}
@@ -0,0 +1,105 @@
+package test.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import catan.players.Inventory;
+import catan.resources.Resource;
+import catan.resources.ResourcePool;
+import catan.resources.ResourceVector;
+import catan.resources.TransferEngine;
+import catan.utils.GameRandom;
+
+public class TransferEngineTest {
+    private TransferEngine engine;
+    private ResourcePool bank;
+    private Inventory first;
+    private Inventory second;
+
+    @Before
+    public void setUp() {
+        engine = new TransferEngine(8);
+        bank = new ResourcePool();
+        first = new Inventory();
+        second = new Inventory();
+        first.addResources(ResourceVector.of(4, 1, 0, 0, 0));
+        second.addResources(ResourceVector.of(0, 0, 2, 0, 0));
+    }
+
+    @Test
+    public void testExchangeMovesBothSides() {
+        assertTrue(engine.exchange(first, ResourceVector.of(Resource.WOOD, 2), second, ResourceVector.of(Resource.WHEAT, 1)));
+        assertEquals(ResourceVector.of(2, 1, 1, 0, 0), first.getResources());
+        assertEquals(ResourceVector.of(2, 0, 1, 0, 0), second.getResources());
+    }
+
+    @Test
+    public void testFailedExchangeChangesNothing() {
+        assertFalse(engine.exchange(first, ResourceVector.of(Resource.WOOD, 1), second, ResourceVector.of(Resource.WHEAT, 3)));
+        assertEquals(ResourceVector.of(4, 1, 0, 0, 0), first.getResources());
+        assertEquals(ResourceVector.of(0, 0, 2, 0, 0), second.getResources());
+    }
+
+    @Test
+    public void testTransferUsesNetPositions() {
+        // second pays the bank with wood it only receives in the same transfer
+        TransferEngine.Transfer transfer = engine.newTransfer()
+                .move(first, second, ResourceVector.of(Resource.WOOD, 4))
+                .move(second, bank, ResourceVector.of(Resource.WOOD, 4))
+                .move(bank, first, ResourceVector.of(Resource.ORE, 1));
+        assertTrue(transfer.execute());
+        assertEquals(ResourceVector.of(0, 1, 0, 1, 0), first.getResources());
+        assertEquals(ResourceVector.of(0, 0, 2, 0, 0), second.getResources());
+        assertEquals(23, bank.getResourceCount(Resource.WOOD));
+
+        assertFalse(transfer.execute());
+        assertEquals(ResourceVector.of(0, 1, 0, 1, 0), first.getResources());
+        assertEquals(23, bank.getResourceCount(Resource.WOOD));
+    }
+
+    @Test
+    public void testConcurrentTradesConserveCards() throws Exception {
+        Inventory[] hands = new Inventory[4];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = new Inventory();
+            hands[i].addResources(ResourceVector.of(3, 3, 3, 3, 3));
+        }
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                tasks.add(() -> {
+                    GameRandom random = new GameRandom(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        Inventory a = hands[random.nextInt(4)];
+                        Inventory b = hands[random.nextInt(4)];
+                        long give = ResourceVector.of(Resource.values()[random.nextInt(5)], 1 + random.nextInt(2));
+                        long take = ResourceVector.of(Resource.values()[random.nextInt(5)], 1);
+                        if (a == b) engine.exchange(a, give, bank, take);
+                        else engine.exchange(a, give, b, take);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> done : executor.invokeAll(tasks)) done.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        long total = bank.getResources();
+        for (Inventory hand : hands) total = ResourceVector.add(total, hand.getResources());
+        assertEquals(ResourceVector.of(31, 31, 31, 31, 31), total);
+    }
+}
@@ -0,0 +1,291 @@
+package test.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+
+import catan.ai.Action;
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.main.Game;
+import catan.resources.Resource;
+import catan.resources.ResourceVector;
+import catan.server.GameActor;
+import catan.server.GameCommand;
+import catan.server.GameHost;
+import catan.sim.LatencyHistogram;
+import catan.utils.GameRandom;
+
+public class GameHostTest {
+
+    /** Runs tasks only when told to, so tests decide when actors get a thread. */
+    private static final class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.poll().run();
+        }
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (CompletionException ex) {
+            return ex.getCause();
+        }
+        fail("Expected the command to fail");
+        return null;
+    }
+
+    @Test
+    public void testCommandsPlayTheSameGameAsDirectCalls() {
+        long seed = 17;
+        try (GameHost host = new GameHost()) {
+            GameActor actor = host.open(1, 4, seed);
+            RandomPolicy policy = new RandomPolicy(5);
+            int commands = 0;
+            while (commands < 400 && !actor.query(PlayState::isOver).join()) {
+                GameCommand command = actor.query(state -> state.isChance()
+                        ? GameCommand.roll(state.getSeatToAct())
+                        : GameCommand.action(state.getSeatToAct(), policy.chooseAction(state))).join();
+                actor.submit(command).join();
+                commands++;
+            }
+
+            // The same game played directly, with the same dice and choices
+            GameRandom random = new GameRandom(seed);
+            Game game = new Game(random.nextLong());
+            game.setQuiet(true);
+            game.initializeGame(4, random.nextLong());
+            PlayState state = new PlayState(game);
+            RandomPolicy replay = new RandomPolicy(5);
+            for (int i = 0; i < commands; i++) {
+                if (state.isChance()) {
+                    state.roll(game.getDice().roll());
+                } else {
+                    state.apply(replay.chooseAction(state));
+                }
+            }
+            assertEquals(game.getStateHash(), (long) actor.query(s -> s.getGame().getStateHash()).join());
+            assertEquals(commands, actor.latencies().join().getCount());
+        }
+    }
+
+    @Test
+    public void testFullMailboxRejects() {
+        ManualExecutor executor = new ManualExecutor();
+        GameHost host = new GameHost(executor, 4);
+        GameActor actor = host.open(7, 3, 1);
+        List<CompletableFuture<Integer>> accepted = new ArrayList<>();
+        for (int i = 0; i < 4; i++) accepted.add(actor.submit(GameCommand.roll(1)));
+        CompletableFuture<Integer> overflow = actor.submit(GameCommand.roll(1));
+        assertTrue(failure(overflow) instanceof RejectedExecutionException);
+        assertEquals(1, host.getRejectedCount());
+        assertEquals(4, actor.getQueuedCount());
+        assertEquals(1, executor.tasks.size());
+
+        // Metrics get through a full mailbox
+        CompletableFuture<LatencyHistogram> metrics = actor.latencies();
+        executor.runAll();
+        for (CompletableFuture<Integer> done : accepted) assertTrue(done.isDone());
+        assertNotNull(metrics.join());
+        assertEquals(0, actor.getQueuedCount());
+    }
+
+    @Test
+    public void testErrorInAQueryFailsOnlyThatQuery() {
+        try (GameHost host = new GameHost()) {
+            GameActor actor = host.open(4, 4, 3);
+            CompletableFuture<Object> broken = actor.query(state -> {
+                throw new AssertionError("boom");
+            });
+            assertTrue(failure(broken) instanceof AssertionError);
+            assertEquals(4, (int) actor.query(PlayState::getSeatCount).join());
+            assertEquals(0, actor.getQueuedCount());
+        }
+    }
+
+    @Test
+    public void testRejectedSchedulingFailsTheQueuedMessages() {
+        boolean[] refuse = { true };
+        ManualExecutor pool = new ManualExecutor();
+        GameHost host = new GameHost(task -> {
+            if (refuse[0]) throw new RejectedExecutionException("Pool is shut down");
+            pool.execute(task);
+        }, 4);
+        GameActor actor = host.open(9, 3, 1);
+        assertTrue(failure(actor.submit(GameCommand.roll(0))) instanceof RejectedExecutionException);
+        assertTrue(failure(actor.latencies()) instanceof RejectedExecutionException);
+        assertEquals(0, actor.getQueuedCount());
+        assertEquals(0, host.getRejectedCount());
+
+        // Once the executor takes tasks again the actor runs as before
+        refuse[0] = false;
+        CompletableFuture<Integer> seat = actor.query(PlayState::getSeatToAct);
+        pool.runAll();
+        assertEquals(0, (int) seat.join());
+    }
+
+    @Test
+    public void testIllegalCommandsFailAndLeaveTheGameAlone() {
+        try (GameHost host = new GameHost()) {
+            GameActor actor = host.open(3, 4, 2);
+            long before = actor.query(s -> s.getGame().getStateHash()).join();
+            int seat = actor.query(PlayState::getSeatToAct).join();
+
+            assertTrue(failure(actor.submit(GameCommand.roll((seat + 1) % 4))) instanceof IllegalStateException);
+            assertTrue(failure(actor.submit(GameCommand.roll(seat))) instanceof IllegalStateException); // still in setup
+            assertTrue(failure(actor.submit(GameCommand.action(seat, Action.of(Action.Kind.SETUP_ROAD, 0)))) instanceof IllegalStateException);
+            long fourWood = ResourceVector.of(Resource.WOOD, 4);
+            long oneOre = ResourceVector.of(Resource.ORE, 1);
+            assertTrue(failure(actor.submit(GameCommand.tradeWithBank(seat, fourWood, oneOre))) instanceof IllegalStateException);
+            assertEquals(before, (long) actor.query(s -> s.getGame().getStateHash()).join());
+            assertEquals(0, actor.latencies().join().getCount());
+        }
+    }
+
+    @Test
+    public void testStealFromAnUnknownSeatLeavesTheTurnAlone() {
+        try (GameHost host = new GameHost()) {
+            GameActor actor = host.open(5, 4, 3);
+            RandomPolicy policy = new RandomPolicy(9);
+            for (int commands = 0; actor.query(PlayState::getStep).join() != PlayState.Step.STEAL; commands++) {
+                assertTrue("No steal came up", commands < 5_000);
+                actor.submit(actor.query(state -> state.isChance()
+                        ? GameCommand.roll(state.getSeatToAct())
+                        : GameCommand.action(state.getSeatToAct(), policy.chooseAction(state))).join()).join();
+            }
+            int seat = actor.query(PlayState::getSeatToAct).join();
+            int victim = Action.target(actor.query(policy::chooseAction).join());
+            long before = actor.query(s -> s.getGame().getStateHash()).join();
+
+            // Seat 32 + victim passed the robbable-seats bit test before the range check
+            assertTrue(failure(actor.submit(GameCommand.action(seat, Action.of(Action.Kind.STEAL, 32 + victim))))
+                    instanceof IllegalArgumentException);
+            assertEquals(PlayState.Step.STEAL, actor.query(PlayState::getStep).join());
+            assertEquals(before, (long) actor.query(s -> s.getGame().getStateHash()).join());
+            assertRejected(() -> GameCommand.action(seat, -1));
+            assertRejected(() -> GameCommand.action(seat, Action.Kind.values().length << 24));
+        }
+    }
+
+    /**
+     * Plays random commands until the seat to act may trade and holds a card
+     * another seat lacks, while that seat holds one of another resource.
+     * @return {seat, its resource, other seat, the other's resource}
+     */
+    private static int[] playToTrade(GameActor actor) {
+        RandomPolicy policy = new RandomPolicy(8);
+        for (int commands = 0; commands < 5_000; commands++) {
+            int[] trade = actor.query(state -> {
+                if (state.getStep() != PlayState.Step.BUILD) return null;
+                long hand = state.getGame().getCurrentPlayer().getInventory().getResources();
+                for (int other = 0; other < state.getSeatCount(); other++) {
+                    if (other == state.getSeatToAct()) continue;
+                    long otherHand = state.getGame().getPlayers().get(other).getInventory().getResources();
+                    for (int a = 0; a < ResourceVector.LANES; a++) {
+                        for (int b = 0; b < ResourceVector.LANES; b++) {
+                            if (a != b && ResourceVector.get(hand, a) > 0 && ResourceVector.get(otherHand, b) > 0) {
+                                return new int[] { state.getSeatToAct(), a, other, b };
+                            }
+                        }
+                    }
+                }
+                return null;
+            }).join();
+            if (trade != null) return trade;
+            actor.submit(actor.query(state -> state.isChance()
+                    ? GameCommand.roll(state.getSeatToAct())
+                    : GameCommand.action(state.getSeatToAct(), policy.chooseAction(state))).join()).join();
+        }
+        fail("No trade came up");
+        return null;
+    }
+
+    @Test
+    public void testTradesAreCheckedAndNeedBothSeats() {
+        try (GameHost host = new GameHost()) {
+            GameActor actor = host.open(11, 4, 6);
+            int[] trade = playToTrade(actor);
+            int seat = trade[0];
+            int other = trade[2];
+            int bystander = 0;
+            while (bystander == seat || bystander == other) bystander++;
+            long gives = ResourceVector.of(Resource.values()[trade[1]], 1);
+            long gets = ResourceVector.of(Resource.values()[trade[3]], 1);
+
+            // Vectors are checked before they reach the actor, and the bank takes 4:1 only
+            assertRejected(() -> GameCommand.tradeWithBank(seat, ResourceVector.EMPTY, gets));
+            assertRejected(() -> GameCommand.tradeWithBank(seat, -1L, gets));
+            assertRejected(() -> GameCommand.offerTrade(seat, gives, other, gives));
+            assertTrue(failure(actor.submit(GameCommand.tradeWithBank(seat, ResourceVector.of(Resource.values()[trade[1]], 3), gets)))
+                    instanceof IllegalArgumentException);
+
+            // Nothing moves until the other seat accepts the same terms
+            long before = actor.query(s -> s.getGame().getStateHash()).join();
+            assertTrue(failure(actor.submit(GameCommand.acceptTrade(other, gets, seat, gives))) instanceof IllegalStateException);
+            assertTrue(failure(actor.submit(GameCommand.offerTrade(other, gets, seat, gives))) instanceof IllegalStateException);
+            actor.submit(GameCommand.offerTrade(seat, gives, other, gets)).join();
+            assertEquals(before, (long) actor.query(s -> s.getGame().getStateHash()).join());
+            assertTrue(failure(actor.submit(GameCommand.acceptTrade(bystander, gets, seat, gives))) instanceof IllegalStateException);
+            assertTrue(failure(actor.submit(GameCommand.acceptTrade(other, ResourceVector.add(gets, gets), seat, gives)))
+                    instanceof IllegalStateException);
+            assertEquals(before, (long) actor.query(s -> s.getGame().getStateHash()).join());
+
+            long hand = actor.query(s -> s.getGame().getPlayers().get(seat).getInventory().getResources()).join();
+            actor.submit(GameCommand.acceptTrade(other, gets, seat, gives)).join();
+            long after = actor.query(s -> s.getGame().getPlayers().get(seat).getInventory().getResources()).join();
+            assertEquals(ResourceVector.add(ResourceVector.subtract(hand, gives), gets), after);
+            assertTrue(failure(actor.submit(GameCommand.acceptTrade(other, gets, seat, gives))) instanceof IllegalStateException);
+        }
+    }
+
+    private static void assertRejected(Runnable make) {
+        try {
+            make.run();
+            fail("Expected the command to be refused");
+        } catch (IllegalArgumentException expected) {
+            // refused
+        }
+    }
+
+    @Test
+    public void testManyGamesRunConcurrently() {
+        try (GameHost host = new GameHost()) {
+            int games = 200;
+            List<CompletableFuture<Integer>> firsts = new ArrayList<>();
+            for (int id = 0; id < games; id++) {
+                GameActor actor = host.open(id, 4, id);
+                firsts.add(actor.query(state -> state.getLegalActions(new int[state.getMaxActionCount()])));
+            }
+            for (CompletableFuture<Integer> legal : firsts) assertTrue(legal.join() > 0);
+            assertEquals(games, host.getGameCount());
+            assertEquals(0, host.latencies().join().getCount());
+
+            try {
+                host.open(5, 4, 0);
+                fail("Game ids are unique");
+            } catch (IllegalStateException expected) {
+                // already open
+            }
+            assertNotNull(host.remove(5));
+            assertEquals(games - 1, host.getGameCount());
+        }
+    }
+}
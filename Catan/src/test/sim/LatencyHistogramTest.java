@@ -0,0 +1,55 @@
+package test.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import catan.sim.LatencyHistogram;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 10_000; v++) h.record(v);
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000, h.getMax());
+        assertEquals(5000.5, h.getMean(), 1e-9);
+        assertNear(5000, h.getPercentile(50));
+        assertNear(9900, h.getPercentile(99));
+        assertEquals(10_000, h.getPercentile(100));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(3);
+        h.record(7);
+        assertEquals(3, h.getPercentile(50));
+        assertEquals(7, h.getPercentile(100));
+    }
+
+    @Test
+    public void testMergeAddsCounts() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(100);
+        b.record(1_000_000);
+        a.merge(b);
+        assertEquals(2, a.getCount());
+        assertEquals(1_000_000, a.getMax());
+        assertEquals(1_000_000, a.getPercentile(100));
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getPercentile(99));
+        assertEquals(0, h.getMean(), 0);
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual, Math.abs(actual - expected) <= expected / 16 + 1);
+    }
+}
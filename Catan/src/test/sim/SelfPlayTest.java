@@ -0,0 +1,68 @@
+package test.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import catan.ai.Action;
+import catan.ai.RandomPolicy;
+import catan.sim.GameResult;
+import catan.sim.SelfPlay;
+import catan.sim.SimulationReport;
+
+public class SelfPlayTest {
+
+    private static SelfPlay randomSelfPlay(int players) {
+        return new SelfPlay(players, (seat, seed) -> new RandomPolicy(seed));
+    }
+
+    @Test
+    public void testGamesPlayToVictory() {
+        GameResult result = null;
+        for (long seed = 0; seed < 10 && (result == null || !result.isFinished()); seed++) result = randomSelfPlay(4).play(seed);
+        assertTrue(result.isFinished());
+        assertTrue(result.getVictoryPoints(result.getWinnerSeat()) >= 10);
+        assertTrue(result.getTurns() > 0);
+    }
+
+    @Test
+    public void testSameSeedReplaysTheSameGame() {
+        SelfPlay selfPlay = randomSelfPlay(3);
+        GameResult first = selfPlay.play(11);
+        GameResult second = selfPlay.play(11);
+        assertEquals(first.getWinnerSeat(), second.getWinnerSeat());
+        assertEquals(first.getTurns(), second.getTurns());
+        assertEquals(first.getActions(), second.getActions());
+    }
+
+    @Test
+    public void testTurnLimitStopsAGame() {
+        SelfPlay selfPlay = randomSelfPlay(2);
+        selfPlay.setTurnLimit(5);
+        GameResult result = selfPlay.play(1);
+        assertEquals(5, result.getTurns());
+        assertEquals(-1, result.getWinnerSeat());
+    }
+
+    @Test
+    public void testConcurrentBatchReport() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            SimulationReport report = randomSelfPlay(4).run(40, 5, executor);
+            assertEquals(40, report.getGames());
+            int wins = 0;
+            for (int seat = 0; seat < 4; seat++) wins += report.getWins(seat);
+            assertEquals(report.getFinishedGames(), wins);
+            assertEquals(40 * 4 * 4, report.getLatency(Action.Kind.SETUP_SETTLEMENT).getCount() + report.getLatency(Action.Kind.SETUP_ROAD).getCount());
+            assertEquals(report.getTurns(), report.getLatency(Action.Kind.END_TURN).getCount());
+            assertTrue(report.getGamesPerSecond() > 0);
+            assertTrue(report.toString().contains("games/s"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
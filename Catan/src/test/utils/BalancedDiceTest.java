@@ -0,0 +1,78 @@
+package test.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import catan.main.Game;
+import catan.utils.BalancedDice;
+import catan.utils.Dice;
+import catan.utils.GameRandom;
+
+public class BalancedDiceTest {
+    // Ways to roll each sum with two dice, out of 36
+    private static final int[] WAYS = {0, 0, 1, 2, 3, 4, 5, 6, 5, 4, 3, 2, 1};
+
+    @Test
+    public void testEveryDeckHoldsTheExactDistribution() {
+        BalancedDice dice = new BalancedDice(new GameRandom(3), 0, 50);
+        for (int deck = 0; deck < 100; deck++) {
+            int[] counts = new int[13];
+            for (int i = 0; i < BalancedDice.DECK_SIZE; i++) counts[dice.roll()]++;
+            for (int sum = 2; sum <= 12; sum++) assertEquals("sum " + sum, WAYS[sum], counts[sum]);
+        }
+    }
+
+    @Test
+    public void testReshuffleThreshold() {
+        BalancedDice dice = new BalancedDice(new GameRandom(8), 5, 0);
+        for (int i = 0; i < 31; i++) dice.roll();
+        assertEquals(5, dice.getRemaining());
+        dice.roll();
+        assertEquals(BalancedDice.DECK_SIZE - 1, dice.getRemaining());
+
+        // Over many decks the rate of each sum still matches two dice
+        int[] counts = new int[13];
+        int rolls = 31 * 10_000;
+        for (int i = 0; i < rolls; i++) counts[dice.roll()]++;
+        for (int sum = 2; sum <= 12; sum++) {
+            double expected = rolls * WAYS[sum] / 36.0;
+            assertTrue("sum " + sum + ": " + counts[sum], Math.abs(counts[sum] - expected) < 0.05 * expected + 50);
+        }
+    }
+
+    @Test
+    public void testAntiStreakCutsRepeats() {
+        assertTrue(repeats(100) < repeats(0) * 3 / 4);
+    }
+
+    private static int repeats(int antiStreakPercent) {
+        BalancedDice dice = new BalancedDice(new GameRandom(11), 0, antiStreakPercent);
+        int repeats = 0;
+        int last = dice.roll();
+        for (int i = 0; i < 36_000; i++) {
+            int roll = dice.roll();
+            if (roll == last) repeats++;
+            last = roll;
+        }
+        return repeats;
+    }
+
+    @Test
+    public void testCopiesAndSeededGamesRepeat() {
+        Game a = new Game(21);
+        Game b = new Game(21);
+        a.useBalancedDice(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 30);
+        b.useBalancedDice(BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 30);
+        for (int i = 0; i < 50; i++) assertEquals(a.getDice().roll(), b.getDice().roll());
+
+        Dice copy = a.getDice().copy();
+        for (int i = 0; i < 100; i++) assertEquals(a.getDice().roll(), copy.roll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThresholdMustLeaveCardsToDraw() {
+        new BalancedDice(new GameRandom(1), BalancedDice.DECK_SIZE, 0);
+    }
+}
@@ -0,0 +1,49 @@
+package test.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import catan.utils.Bits;
+
+public class BitsTest {
+
+    @Test
+    public void testWordCounts() {
+        assertEquals("54 intersections fit in one word", 1, Bits.words(54));
+        assertEquals("72 edges need two words", 2, Bits.words(72));
+        assertEquals("Exactly 64 bits fit in one word", 1, Bits.words(64));
+    }
+
+    @Test
+    public void testSetGetClear() {
+        long[] words = new long[Bits.words(72)];
+        Bits.set(words, 0);
+        Bits.set(words, 63);
+        Bits.set(words, 71);
+        assertTrue("Bit 63 should be set", Bits.get(words, 63));
+        assertTrue("Bit 71 should be set", Bits.get(words, 71));
+        assertEquals("Three bits set", 3, Bits.cardinality(words));
+
+        Bits.clear(words, 63);
+        assertFalse("Bit 63 should be cleared", Bits.get(words, 63));
+    }
+
+    @Test
+    public void testNextSetBitAcrossWords() {
+        long[] words = new long[2];
+        Bits.set(words, 5);
+        Bits.set(words, 70);
+        assertEquals("First bit", 5, Bits.nextSetBit(words, 0));
+        assertEquals("Next bit crosses into the second word", 70, Bits.nextSetBit(words, 6));
+        assertEquals("No bit after the last", -1, Bits.nextSetBit(words, 71));
+        assertEquals("Out of range start", -1, Bits.nextSetBit(words, 128));
+    }
+
+    @Test
+    public void testLastWordMask() {
+        assertEquals("54 bits leave 10 unused", (1L << 54) - 1, Bits.lastWordMask(54));
+        assertEquals("Full word", -1L, Bits.lastWordMask(128));
+    }
+}
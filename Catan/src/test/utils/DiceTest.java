@@ -1,6 +1,8 @@
 package test.utils;
+import catan.main.Game;
 import catan.utils.Dice;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
@@ -36,4 +38,23 @@ public class DiceTest {
             assertTrue("Each roll (2-12) should occur at least 10 times in 10,000 rolls", rollCounts[i] > 10);
         }
     }
+
+    @Test
+    public void testSeededDiceRepeat() {
+        Dice a = new Dice(99);
+        Dice b = new Dice(99);
+        for (int i = 0; i < 1000; i++) assertEquals(a.roll(), b.roll());
+    }
+
+    @Test
+    public void testGameSeedFixesItsDice() {
+        Dice a = new Game(5).getDice();
+        Dice b = new Game(5).getDice();
+        Dice copy = a.copy();
+        for (int i = 0; i < 1000; i++) {
+            int roll = a.roll();
+            assertEquals(roll, b.roll());
+            assertEquals(roll, copy.roll());
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package test.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import catan.utils.GameRandom;
+
+public class GameRandomTest {
+
+    @Test
+    public void testSameSeedSameSequence() {
+        GameRandom a = new GameRandom(42);
+        GameRandom b = new GameRandom(42);
+        for (int i = 0; i < 100; i++) assertEquals(a.nextLong(), b.nextLong());
+    }
+
+    @Test
+    public void testSplitIsDeterministicAndIndependent() {
+        GameRandom parent = new GameRandom(7);
+        GameRandom first = parent.split();
+        GameRandom second = parent.split();
+
+        GameRandom again = new GameRandom(7).split();
+        int same = 0;
+        for (int i = 0; i < 100; i++) {
+            long x = first.nextLong();
+            assertEquals(x, again.nextLong());
+            if (x == second.nextLong()) same++;
+        }
+        assertEquals(0, same);
+        assertNotEquals(new GameRandom(7).split().getState(), new GameRandom(8).split().getState());
+    }
+}
@@ -0,0 +1,38 @@
+package test.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import catan.utils.Bits;
+import catan.utils.IdSet;
+
+public class IdSetTest {
+
+    @Test
+    public void testViewReflectsBackingWords() {
+        long[] words = new long[2];
+        IdSet set = new IdSet(words, 72);
+        assertTrue("New set should be empty", set.isEmpty());
+
+        Bits.set(words, 3);
+        Bits.set(words, 70);
+        assertEquals("Set should see later changes", 2, set.size());
+        assertTrue("Set should contain 70", set.contains(70));
+        assertFalse("Out of range ids are not contained", set.contains(100));
+        assertEquals("Ids should iterate in order", Arrays.asList(3, 70), set.toList());
+    }
+
+    @Test
+    public void testPositionalAccess() {
+        long[] words = new long[2];
+        for (int id : new int[]{1, 5, 64, 65}) Bits.set(words, id);
+        IdSet set = new IdSet(words, 128);
+        assertEquals("First id", 1, set.get(0));
+        assertEquals("Third id crosses a word", 64, set.get(2));
+        assertEquals("Past the end", -1, set.get(4));
+    }
+}
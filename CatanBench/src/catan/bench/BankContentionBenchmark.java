@@ -0,0 +1,144 @@
+package catan.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import catan.main.Game;
+import catan.resources.ConcurrentResourcePool;
+import catan.resources.Resource;
+import catan.resources.ResourcePool;
+import catan.resources.ResourceVector;
+
+/**
+ * Bank operations per second with 1 to 64 threads sharing one bank: the
+ * lock-free {@link ConcurrentResourcePool} against a {@link ResourcePool}
+ * behind one lock. Every thread loops over a mix of build payments, single
+ * card roll payouts and 4:1 bank trades, each a withdraw-if-available followed
+ * by a deposit that puts the cards back, so the bank never runs dry.
+ */
+public class BankContentionBenchmark {
+    private static final long[] WITHDRAWALS = {
+            Game.ROAD_COST, Game.SETTLEMENT_COST, Game.CITY_COST,
+            ResourceVector.of(Resource.WHEAT, 1), ResourceVector.of(Resource.ORE, 1),
+    };
+    private static final long TRADE_IN = ResourceVector.of(Resource.WOOD, 4);
+    private static final long TRADE_OUT = ResourceVector.of(Resource.SHEEP, 1);
+
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+
+        System.out.println("== Shared bank, withdraw-if-available + deposit (" + millis + " ms per run, "
+                + Runtime.getRuntime().availableProcessors() + " cores) ==");
+        System.out.printf("%8s %18s %18s %8s%n", "threads", "synchronized op/s", "CAS op/s", "speedup");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            run(new LockedBank(), threads, millis); // warm-up
+            double locked = run(new LockedBank(), threads, millis);
+            run(new CasBank(), threads, millis);
+            double cas = run(new CasBank(), threads, millis);
+            System.out.printf("%8d %18.0f %18.0f %7.2fx%n", threads, locked, cas, cas / locked);
+        }
+    }
+
+    /** The bank operations the benchmark drives. */
+    private interface Bank {
+        boolean tryWithdraw(long cards);
+
+        void deposit(long cards);
+
+        boolean tryExchange(long in, long out);
+    }
+
+    /** Baseline: the single-threaded pool with every check-then-act under one monitor. */
+    private static final class LockedBank implements Bank {
+        private final ResourcePool pool = new ResourcePool();
+
+        @Override
+        public synchronized boolean tryWithdraw(long cards) {
+            if (!pool.hasEnoughResources(cards)) return false;
+            pool.removeResources(cards);
+            return true;
+        }
+
+        @Override
+        public synchronized void deposit(long cards) {
+            pool.addResources(cards);
+        }
+
+        @Override
+        public synchronized boolean tryExchange(long in, long out) {
+            pool.addResources(in);
+            if (!pool.hasEnoughResources(out)) {
+                pool.removeResources(in);
+                return false;
+            }
+            pool.removeResources(out);
+            return true;
+        }
+    }
+
+    private static final class CasBank implements Bank {
+        private final ConcurrentResourcePool pool = new ConcurrentResourcePool();
+
+        @Override
+        public boolean tryWithdraw(long cards) {
+            return pool.tryRemoveResources(cards);
+        }
+
+        @Override
+        public void deposit(long cards) {
+            pool.addResources(cards);
+        }
+
+        @Override
+        public boolean tryExchange(long in, long out) {
+            return pool.tryExchange(in, out);
+        }
+    }
+
+    /** Runs {@code threads} threads on one bank for {@code millis} and returns operations per second. */
+    private static double run(Bank bank, int threads, long millis) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                long end = deadline[0];
+                long done = 0;
+                int i = offset;
+                while ((done & 0xFF) != 0 || System.nanoTime() < end) {
+                    int pick = i++ % (WITHDRAWALS.length + 1);
+                    if (pick == WITHDRAWALS.length) {
+                        // Trade 4 wood for a sheep, then trade back so the counts stay put
+                        if (bank.tryExchange(TRADE_IN, TRADE_OUT)) {
+                            bank.deposit(TRADE_OUT);
+                            bank.tryWithdraw(TRADE_IN);
+                        }
+                    } else if (bank.tryWithdraw(WITHDRAWALS[pick])) {
+                        bank.deposit(WITHDRAWALS[pick]);
+                    }
+                    done++;
+                }
+                ops.add(done);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + millis * 1_000_000L;
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        Bench.sink += ops.sum();
+        return ops.sum() / elapsed;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package catan.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Minimal timing harness shared by the benchmark mains in this package.
+ *
+ * Each measurement runs a few warmup rounds so the JIT settles, then reports the
+ * best and mean time per operation over the measured rounds together with the
+ * bytes allocated per operation on the calling thread (when the JVM exposes it).
+ */
+final class Bench {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    // Results are folded into this field so the JIT cannot drop the measured work.
+    static volatile long sink;
+
+    private Bench() {
+    }
+
+    /** Result of one measurement, in nanoseconds and bytes per operation. */
+    static final class Result {
+        final String label;
+        final double bestNanosPerOp;
+        final double meanNanosPerOp;
+        final double bytesPerOp;
+
+        Result(String label, double bestNanosPerOp, double meanNanosPerOp, double bytesPerOp) {
+            this.label = label;
+            this.bestNanosPerOp = bestNanosPerOp;
+            this.meanNanosPerOp = meanNanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        double opsPerSecond() {
+            return 1e9 / meanNanosPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-48s best %10.1f ns/op  mean %10.1f ns/op  %9.1f B/op",
+                    label, bestNanosPerOp, meanNanosPerOp, bytesPerOp);
+        }
+    }
+
+    /**
+     * Times {@code opsPerRound} calls of {@code op} per round.
+     * @param label Name printed with the result.
+     * @param opsPerRound Operations per measured round.
+     * @param op The operation; its return value is consumed so it cannot be optimized away.
+     * @return The measurement.
+     */
+    static Result measure(String label, int opsPerRound, IntSupplier op) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) runRound(opsPerRound, op);
+
+        double best = Double.MAX_VALUE;
+        double total = 0;
+        long bytesBefore = allocatedBytes();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            runRound(opsPerRound, op);
+            double perOp = (System.nanoTime() - start) / (double) opsPerRound;
+            best = Math.min(best, perOp);
+            total += perOp;
+        }
+        long bytesAfter = allocatedBytes();
+        double bytesPerOp = (bytesBefore < 0 || bytesAfter < 0) ? Double.NaN
+                : (bytesAfter - bytesBefore) / (double) opsPerRound / MEASURED_ROUNDS;
+
+        Result result = new Result(label, best, total / MEASURED_ROUNDS, bytesPerOp);
+        System.out.println(result);
+        return result;
+    }
+
+    private static void runRound(int ops, IntSupplier op) {
+        long acc = 0;
+        for (int i = 0; i < ops; i++) acc += op.getAsInt();
+        sink += acc;
+    }
+
+    /**
+     * Estimates the heap retained by each object produced by {@code factory}
+     * by keeping {@code count} of them reachable and comparing used heap after GC.
+     */
+    static double retainedBytesPerInstance(int count, Supplier<Object> factory) {
+        Object[] keep = new Object[count];
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < count; i++) keep[i] = factory.get();
+        long after = usedHeapAfterGc();
+        sink += keep.length;
+        return (after - before) / (double) count;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,52 @@
+package catan.bench;
+
+import catan.board.Board;
+import catan.board.BoardTopology;
+
+/**
+ * Compares per-game board creation against rebuilding the topology for every game.
+ *
+ * "rebuild topology per game" reproduces what every Game.initializeGame used to pay
+ * (corner trigonometry, quantized keys, edge dedupe and adjacency indexes) and is the
+ * baseline for the shared-topology numbers below it.
+ */
+public class BoardCreationBenchmark {
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        System.out.println("== Board creation (" + ops + " boards per round) ==");
+        Bench.Result rebuilt = Bench.measure("rebuild topology per game", ops, () -> {
+            Board board = new Board(BoardTopology.createStandard());
+            board.initializeBoard();
+            return board.getEdgeCount();
+        });
+        Bench.Result shared = Bench.measure("board on shared topology", ops, () -> {
+            Board board = new Board();
+            board.initializeBoard();
+            return board.getEdgeCount();
+        });
+
+        System.out.println();
+        System.out.println("== Retained heap per game ==");
+        int count = 20_000;
+        double rebuiltBytes = Bench.retainedBytesPerInstance(count, () -> {
+            Board board = new Board(BoardTopology.createStandard());
+            board.initializeBoard();
+            return board;
+        });
+        double sharedBytes = Bench.retainedBytesPerInstance(count, () -> {
+            Board board = new Board();
+            board.initializeBoard();
+            return board;
+        });
+        System.out.printf("%-48s %10.0f B/game%n", "rebuild topology per game", rebuiltBytes);
+        System.out.printf("%-48s %10.0f B/game%n", "board on shared topology", sharedBytes);
+
+        System.out.println();
+        System.out.printf("creation speedup: %.1fx, allocation reduction: %.1fx, heap reduction: %.1fx%n",
+                rebuilt.meanNanosPerOp / shared.meanNanosPerOp,
+                rebuilt.bytesPerOp / shared.bytesPerOp,
+                rebuiltBytes / sharedBytes);
+    }
+}
@@ -0,0 +1,105 @@
+package catan.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import catan.ai.Action;
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.log.EventLogReader;
+import catan.log.EventLogWriter;
+import catan.main.Game;
+import catan.resources.ResourceVector;
+import catan.utils.GameRandom;
+
+/**
+ * Cost of the binary event log on the game thread: single events encoded
+ * straight into the writer (flushes to the file included), then whole
+ * greedy-random games played with and without a writer attached, and the
+ * rate at which a segment streams back.
+ */
+public class EventLogBenchmark {
+    private static final long[] PAYOUTS = {ResourceVector.of(1, 0, 2, 0, 0), 0, ResourceVector.of(0, 0, 0, 1, 0), 0};
+
+    public static void main(String[] args) throws IOException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        Path file = Files.createTempFile("catan-events", ".log");
+        try {
+            System.out.println("== Event encoding into a buffered segment (" + ops + " events per round) ==");
+            try (EventLogWriter writer = new EventLogWriter(file)) {
+                Bench.measure("roll with payouts", ops, () -> {
+                    writer.diceRolled(2, 8, PAYOUTS);
+                    return 0;
+                });
+                Bench.measure("build road", ops, () -> {
+                    writer.roadBuilt(1, 57);
+                    return 0;
+                });
+            }
+            Files.delete(file);
+
+            System.out.println("== " + games + " 4-player games, with and without the log ==");
+            playGames(games, null); // warm-up
+            double plain = playGames(games, null);
+            playGames(games, file);
+            Files.delete(file);
+            double logged = playGames(games, file);
+            System.out.printf("%-32s %8.1f ns/action%n", "without log", plain);
+            System.out.printf("%-32s %8.1f ns/action%n", "with log", logged);
+            System.out.printf("%-32s %8.1f ns/action%n", "overhead", logged - plain);
+
+            long events = 0;
+            double readNanos = 0;
+            for (int round = 0; round < 5; round++) { // the last round is reported
+                events = 0;
+                long start = System.nanoTime();
+                try (EventLogReader reader = new EventLogReader(file)) {
+                    while (reader.next()) events++;
+                }
+                readNanos = (System.nanoTime() - start) / (double) events;
+            }
+            System.out.printf("%-32s %8.1f ns/event (%d events, %.1f bytes/event)%n", "streaming read",
+                    readNanos, events, Files.size(file) / (double) events);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Mean ns per action over the games; logs all of them into one segment if {@code file} is set. */
+    private static double playGames(int games, Path file) throws IOException {
+        long start = System.nanoTime();
+        long actions = 0;
+        EventLogWriter writer = file == null ? null : new EventLogWriter(file);
+        try {
+            for (int g = 0; g < games; g++) actions += play(g, writer);
+        } finally {
+            if (writer != null) writer.close();
+        }
+        return (System.nanoTime() - start) / (double) actions;
+    }
+
+    private static int play(long seed, EventLogWriter writer) {
+        GameRandom random = new GameRandom(seed);
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(writer);
+        game.initializeGame(4, random.nextLong());
+        PlayState state = new PlayState(game);
+        RandomPolicy policy = new RandomPolicy(random.nextLong());
+        int actions = 0;
+        int turns = 0;
+        while (!state.isOver() && turns < 1000) {
+            if (state.isChance()) {
+                state.roll(2 + random.nextInt(6) + random.nextInt(6));
+            } else {
+                int action = policy.chooseAction(state);
+                if (action == Action.END_TURN) turns++;
+                state.apply(action);
+            }
+            actions++;
+        }
+        return actions;
+    }
+}
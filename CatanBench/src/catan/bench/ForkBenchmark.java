@@ -0,0 +1,85 @@
+package catan.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import catan.main.Game;
+import catan.players.Player;
+import catan.utils.IdSet;
+
+/**
+ * Measures {@link Game#fork()} on a four-player game in the middle of play
+ * (setup done, every player holding roads, settlements and cards), the copy a
+ * Monte-Carlo bot makes before every rollout.
+ *
+ * "fresh game" builds and initializes a new four-player game, a lower bound
+ * for any copy that rebuilds the board instead of copying its state.
+ */
+public class ForkBenchmark {
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        PrintStream out = System.out;
+        PrintStream quiet = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+
+        System.setOut(quiet);
+        Game game = midGame(new Random(1));
+        System.setOut(out);
+
+        System.out.println("== Game fork, 4 players mid-game (" + ops + " forks per round) ==");
+        Bench.Result fork = Bench.measure("fork", ops, () -> game.fork().getPlayers().size());
+        Bench.Result forkAndMove = Bench.measure("fork + payout + road", ops, () -> {
+            Game copy = game.fork();
+            copy.applyRollPayouts(8);
+            Player current = copy.getCurrentPlayer();
+            IdSet roads = copy.getLegalRoads(current, false);
+            return roads.size();
+        });
+
+        System.setOut(quiet);
+        Bench.Result fresh = Bench.measure("fresh game", ops / 20, () -> {
+            Game g = new Game();
+            g.initializeGame(4);
+            return g.getPlayers().size();
+        });
+        System.setOut(out);
+        System.out.println(fresh);
+
+        System.out.println();
+        System.out.printf("fork vs fresh game: %.1fx faster%n", fresh.meanNanosPerOp / fork.meanNanosPerOp);
+        System.out.printf("fork + first move: %.0f ns%n", forkAndMove.meanNanosPerOp);
+    }
+
+    /** Plays setup and 30 random turns of a four-player game. */
+    private static Game midGame(Random random) {
+        Game game = new Game();
+        game.initializeGame(4);
+        while (game.isSetupPhase()) {
+            Player current = game.getCurrentPlayer();
+            game.placeSetupSettlement(current, pick(game.getLegalSettlements(current, true), random));
+            game.placeSetupRoad(current, pick(game.getLegalRoads(current, true), random));
+        }
+        for (int turn = 0; turn < 30; turn++) {
+            Player current = game.getCurrentPlayer();
+            int roll = 2 + random.nextInt(6) + random.nextInt(6);
+            if (roll != 7) game.applyRollPayouts(roll);
+            try {
+                IdSet roads = game.getLegalRoads(current, false);
+                if (!roads.isEmpty()) game.buildRoad(current, pick(roads, random));
+            } catch (IllegalArgumentException notAffordable) {
+                // refunded by the game
+            }
+            game.endTurn();
+        }
+        return game;
+    }
+
+    private static int pick(IdSet set, Random random) {
+        return set.get(random.nextInt(set.size()));
+    }
+}
@@ -0,0 +1,140 @@
+package catan.bench;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import catan.ai.PlayState;
+import catan.server.GameActor;
+import catan.server.GameCommand;
+import catan.server.GameHost;
+import catan.sim.LatencyHistogram;
+import catan.utils.GameRandom;
+
+/**
+ * Load generator for {@link GameHost}: opens a large number of games, then
+ * drives them from asynchronous client sessions for a while and reports
+ * commands per second, command latency and how often mailboxes pushed back.
+ *
+ * Each session repeatedly picks a game, asks it for its legal moves, picks
+ * one and sends it, with no thread of its own. Most games sit idle at any
+ * moment; a tenth of the sessions all play the same few hot games, so their
+ * mailboxes fill up and the sessions back off for a millisecond and try
+ * elsewhere. A move can also fail because another session moved first.
+ *
+ * Usage: HostLoadBenchmark [games] [seconds per run] [max sessions]
+ * (an idle 4-player game takes about 15 KB, so 100,000 games want -Xmx4g)
+ */
+public class HostLoadBenchmark {
+    private static final int HOT_GAMES = 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+        int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : 16_384;
+
+        ScheduledExecutorService backoff = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "backoff");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (int sessions = 64; sessions <= maxSessions; sessions *= 4) {
+                run(games, sessions, seconds, backoff);
+            }
+        } finally {
+            backoff.shutdownNow();
+        }
+    }
+
+    private static void run(int games, int sessions, double seconds, ScheduledExecutorService backoff)
+            throws InterruptedException {
+        try (GameHost host = new GameHost()) {
+            int[] opened = new int[1];
+            double bytesPerGame = Bench.retainedBytesPerInstance(games, () -> host.open(opened[0], 4, opened[0]++));
+            if (sessions == 64) {
+                System.out.printf("== %d games per run, %.0f bytes per idle game, %d cores ==%n", games, bytesPerGame,
+                        Runtime.getRuntime().availableProcessors());
+                System.out.printf("%9s %12s %10s %10s %10s %10s %10s %8s%n", "sessions", "commands/s", "p50 us",
+                        "p99 us", "p99.9 us", "max us", "rejected", "stale");
+            }
+
+            Load load = new Load(host, games, System.nanoTime() + (long) (seconds * 1e9), backoff, sessions);
+            long start = System.nanoTime();
+            for (int s = 0; s < sessions; s++) new Session(load, s, s % 10 == 0).step();
+            load.finished.await();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            LatencyHistogram latencies = host.latencies().join();
+            System.out.printf("%9d %12.0f %10.1f %10.1f %10.1f %10.1f %10d %8d%n", sessions,
+                    latencies.getCount() / elapsed, latencies.getPercentile(50) / 1e3,
+                    latencies.getPercentile(99) / 1e3, latencies.getPercentile(99.9) / 1e3, latencies.getMax() / 1e3,
+                    host.getRejectedCount(), load.stale.sum());
+        }
+    }
+
+    /** What the sessions of one run share. */
+    private static final class Load {
+        final GameHost host;
+        final int games;
+        final long deadline;
+        final ScheduledExecutorService backoff;
+        final CountDownLatch finished;
+        final LongAdder stale = new LongAdder();
+
+        Load(GameHost host, int games, long deadline, ScheduledExecutorService backoff, int sessions) {
+            this.host = host;
+            this.games = games;
+            this.deadline = deadline;
+            this.backoff = backoff;
+            this.finished = new CountDownLatch(sessions);
+        }
+    }
+
+    /** One client; its steps run one after another, on whichever thread completed the last. */
+    private static final class Session {
+        private final Load load;
+        private final boolean hot;
+        private final GameRandom random;
+        private int[] legal = new int[0];
+
+        Session(Load load, long seed, boolean hot) {
+            this.load = load;
+            this.hot = hot;
+            this.random = new GameRandom(seed);
+        }
+
+        void step() {
+            if (System.nanoTime() >= load.deadline) {
+                load.finished.countDown();
+                return;
+            }
+            GameActor actor = load.host.get(random.nextInt(hot ? HOT_GAMES : load.games));
+            actor.query(this::choose)
+                    .thenCompose(command -> command == null ? CompletableFuture.completedFuture(0) : actor.submit(command))
+                    .whenComplete((outcome, failure) -> {
+                        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                        if (cause instanceof RejectedExecutionException) {
+                            load.backoff.schedule(this::step, 1, TimeUnit.MILLISECONDS);
+                            return;
+                        }
+                        if (cause != null) load.stale.increment();
+                        step();
+                    });
+        }
+
+        // Runs on the game's actor
+        private GameCommand choose(PlayState state) {
+            if (state.isOver()) return null;
+            if (state.isChance()) return GameCommand.roll(state.getSeatToAct());
+            if (legal.length < state.getMaxActionCount()) legal = new int[state.getMaxActionCount()];
+            int n = state.getLegalActions(legal);
+            return GameCommand.action(state.getSeatToAct(), legal[random.nextInt(n)]);
+        }
+    }
+}
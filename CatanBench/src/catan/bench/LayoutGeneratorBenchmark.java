@@ -0,0 +1,36 @@
+package catan.bench;
+
+import catan.board.BoardTopology;
+import catan.board.LayoutGenerator;
+
+/**
+ * Measures randomized layout generation on the classic map, on one thread and
+ * across all cores, with and without pip balancing.
+ */
+public class LayoutGeneratorBenchmark {
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        BoardTopology topology = BoardTopology.standard();
+        LayoutGenerator plain = new LayoutGenerator(topology);
+        LayoutGenerator balanced = new LayoutGenerator(topology, true, true, 2);
+
+        System.out.println("== Layout generation (" + ops + " layouts per round, "
+                + Runtime.getRuntime().availableProcessors() + " cores) ==");
+        long[] seed = { 0L };
+        Bench.Result single = Bench.measure("one thread, adjacency rules", ops,
+                () -> (int) plain.generate(seed[0]++).fingerprint());
+        Bench.Result singleBalanced = Bench.measure("one thread, adjacency + pip balance", ops,
+                () -> (int) balanced.generate(seed[0]++).fingerprint());
+        Bench.Result parallel = Bench.measure("all cores, adjacency rules", 1, () -> {
+            long first = seed[0];
+            seed[0] += ops;
+            return plain.generate(first, ops).size();
+        });
+
+        System.out.println();
+        System.out.printf("one thread:         %,12.0f layouts/s%n", 1e9 / single.meanNanosPerOp);
+        System.out.printf("one thread balanced:%,12.0f layouts/s%n", 1e9 / singleBalanced.meanNanosPerOp);
+        System.out.printf("all cores:          %,12.0f layouts/s%n", 1e9 * ops / parallel.meanNanosPerOp);
+    }
+}
@@ -0,0 +1,84 @@
+package catan.bench;
+
+import catan.board.Board;
+import catan.components.Road;
+import catan.main.LongestRoad;
+import catan.players.Player;
+
+/**
+ * Measures Longest Road updates with four players who each own a dense, cycle-heavy
+ * network of 15 roads (the piece limit), the worst case for the trail search.
+ *
+ * "incremental road update" re-searches only the component the new road joined;
+ * "full recompute" re-searches every player's roads, which is what a scan-on-every-
+ * placement implementation pays.
+ */
+public class LongestRoadBenchmark {
+    private static final int ROADS = 15;
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        Board board = new Board();
+        board.initializeBoard();
+        Player[] players = new Player[4];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player("Player " + (i + 1));
+            board.registerPlayer(players[i]);
+        }
+        LongestRoad longestRoad = new LongestRoad(board);
+
+        int lastEdge = -1;
+        int firstHex = 0;
+        for (Player player : players) {
+            int[] built = buildDenseNetwork(board, player, longestRoad, firstHex);
+            if (lastEdge < 0) lastEdge = built[0];
+            firstHex = built[1];
+        }
+        int edge = lastEdge;
+        System.out.println("== Longest Road, 4 players x " + ROADS + " roads (longest = "
+                + longestRoad.getLongestRoad(0) + ", " + ops + " updates per round) ==");
+
+        Bench.Result incremental = Bench.measure("incremental road update", ops, () -> {
+            longestRoad.onRoadPlaced(edge);
+            return longestRoad.getLongestRoad(0);
+        });
+        Bench.Result full = Bench.measure("full recompute", ops, () -> {
+            longestRoad.recomputeAll();
+            return longestRoad.getLongestRoad(0);
+        });
+
+        System.out.println();
+        System.out.printf("incremental speedup: %.1fx%n", full.meanNanosPerOp / incremental.meanNanosPerOp);
+    }
+
+    /**
+     * Rings the corners of consecutive hexes with roads so the network is full of
+     * cycles. Returns the last edge placed and the next hex still free to use.
+     */
+    private static int[] buildDenseNetwork(Board board, Player owner, LongestRoad longestRoad, int firstHex) {
+        int placed = 0;
+        int last = -1;
+        int hex = firstHex;
+        for (; hex < board.getHexCount() && placed < ROADS; hex++) {
+            for (int k = 0; k < board.getCornerCount(hex) && placed < ROADS; k++) {
+                int a = board.getCornerId(hex, k);
+                int b = board.getCornerId(hex, (k + 1) % board.getCornerCount(hex));
+                int edge = edgeBetween(board, a, b);
+                if (edge < 0 || board.isEdgeOccupied(edge)) continue;
+                board.placeRoad(new Road(owner, board.getEdges().get(edge)));
+                longestRoad.onRoadPlaced(edge);
+                last = edge;
+                placed++;
+            }
+        }
+        return new int[] { last, hex };
+    }
+
+    private static int edgeBetween(Board board, int a, int b) {
+        for (int k = 0; k < board.getAdjacentIntersectionCount(a); k++) {
+            if (board.getAdjacentIntersectionId(a, k) == b) return board.getTouchingEdgeId(a, k);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,62 @@
+package catan.bench;
+
+import catan.ai.MctsBot;
+import catan.ai.PlayState;
+import catan.ai.SearchResult;
+import catan.main.Game;
+
+/**
+ * Rollouts per second of {@link MctsBot} on the first setup decision and on a
+ * mid-game build decision of a four-player game, from one search thread up to
+ * every core.
+ */
+public class MctsBenchmark {
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("== MCTS rollouts/s, 4 players (" + millis + " ms per decision, " + cores + " cores) ==");
+        PlayState setup = setupState();
+        PlayState midGame = midGameState();
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            run("setup settlement", setup, threads, millis);
+            run("mid-game build", midGame, threads, millis);
+            if (threads == cores) break;
+        }
+    }
+
+    private static void run(String label, PlayState state, int threads, long millis) {
+        try (MctsBot bot = new MctsBot(threads, millis, 0, 1)) {
+            bot.search(state); // warm-up
+            SearchResult result = bot.search(state);
+            System.out.printf("%-24s %2d threads %12.0f rollouts/s  %s%n", label, threads, result.getRolloutsPerSecond(), result);
+        }
+    }
+
+    private static PlayState setupState() {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.initializeGame(4, 1L);
+        return new PlayState(game);
+    }
+
+    /** Setup and ten turns played by a fast bot, stopped at a build decision with a choice. */
+    private static PlayState midGameState() {
+        PlayState state = setupState();
+        int[] actions = new int[state.getMaxActionCount()];
+        try (MctsBot quick = new MctsBot(1, 0, 50, 7)) {
+            int turns = 0;
+            int roll = 0;
+            while (turns < 10 || state.getStep() != PlayState.Step.BUILD || state.getLegalActions(actions) < 2) {
+                if (state.isChance()) {
+                    state.roll(new int[] {6, 8, 5, 9, 4, 10, 3, 11}[roll++ % 8]);
+                    turns++;
+                    continue;
+                }
+                state.apply(quick.chooseAction(state));
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,110 @@
+package catan.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.board.BoardTopology;
+import catan.board.LayoutGenerator;
+import catan.log.NotationReader;
+import catan.log.NotationWriter;
+import catan.main.Game;
+import catan.resources.ResourceVector;
+import catan.utils.Dice;
+import catan.utils.GameRandom;
+
+/**
+ * Throughput of the text notation: tokens written into the writer's buffer,
+ * then an archive of greedy-random games streamed back from disk event by
+ * event, and loaded into games.
+ */
+public class NotationBenchmark {
+    private static final long[] PAYOUTS = new long[4];
+
+    public static void main(String[] args) throws IOException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Path file = Files.createTempFile("catan-games", ".ctn");
+        try {
+            System.out.println("== Writing tokens (" + ops + " per round) ==");
+            try (NotationWriter writer = new NotationWriter(new NullOutputStream())) {
+                BoardTopology board = BoardTopology.standard();
+                writer.gameStarted(4, board, 19, new LayoutGenerator(board).generate(42), new Dice(7), 7);
+                Bench.measure("roll", ops, () -> {
+                    writer.diceRolled(2, 8, PAYOUTS);
+                    return 0;
+                });
+                Bench.measure("bank trade", ops, () -> {
+                    writer.tradedWithBank(2, ResourceVector.of(4, 0, 0, 0, 0), ResourceVector.of(0, 0, 0, 1, 0));
+                    return 0;
+                });
+            }
+
+            try (NotationWriter writer = new NotationWriter(Files.newOutputStream(file))) {
+                for (int g = 0; g < games; g++) play(g, writer);
+            }
+            double megabytes = Files.size(file) / 1e6;
+            System.out.printf("== Archive of %d games, %.1f MB ==%n", games, megabytes);
+
+            long events = 0;
+            double parseSeconds = 0;
+            for (int round = 0; round < 5; round++) { // the last round is reported
+                events = 0;
+                long start = System.nanoTime();
+                try (NotationReader reader = new NotationReader(Files.newInputStream(file))) {
+                    while (reader.nextGame()) {
+                        while (reader.next()) events++;
+                    }
+                }
+                parseSeconds = (System.nanoTime() - start) / 1e9;
+            }
+            System.out.printf("%-32s %8.1f MB/s %8.1f ns/event (%d events)%n", "parse", megabytes / parseSeconds,
+                    parseSeconds * 1e9 / events, events);
+
+            double loadSeconds = 0;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                try (NotationReader reader = new NotationReader(Files.newInputStream(file))) {
+                    while (reader.readGame() != null) {
+                        // each record is played on a new game
+                    }
+                }
+                loadSeconds = (System.nanoTime() - start) / 1e9;
+            }
+            System.out.printf("%-32s %8.0f games/s %8.1f MB/s%n", "load into Game", games / loadSeconds, megabytes / loadSeconds);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void play(long seed, NotationWriter writer) {
+        GameRandom random = new GameRandom(seed);
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(writer);
+        game.initializeGame(4, random.nextLong());
+        game.reseedRandom(random.nextLong());
+        PlayState state = new PlayState(game);
+        RandomPolicy policy = new RandomPolicy(random.nextLong());
+        for (int actions = 0; !state.isOver() && actions < 20_000; actions++) {
+            if (state.isChance()) {
+                state.roll(2 + random.nextInt(6) + random.nextInt(6));
+            } else {
+                state.apply(policy.chooseAction(state));
+            }
+        }
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package catan.bench;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import catan.utils.BalancedDice;
+import catan.utils.Dice;
+import catan.utils.GameRandom;
+
+/**
+ * Dice rolls per second with 1 to 64 threads simulating at once: every
+ * thread rolling from one shared {@link java.util.Random}, whose seed is a
+ * single contended atomic, against each thread rolling its own {@link Dice}
+ * on a stream split from one seeded {@link GameRandom}. Starts with the
+ * single-thread cost of a roll from two dice and from the 36-card
+ * {@link BalancedDice} deck.
+ */
+public class RandomBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+
+        System.out.println("== One roll ==");
+        Dice dice = new Dice(1);
+        BalancedDice deck = new BalancedDice(new GameRandom(1), BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 0);
+        BalancedDice antiStreak = new BalancedDice(new GameRandom(1), BalancedDice.DEFAULT_RESHUFFLE_THRESHOLD, 50);
+        Bench.measure("two dice", 10_000_000, dice::roll);
+        Bench.measure("dice deck", 10_000_000, deck::roll);
+        Bench.measure("dice deck, anti-streak 50%", 10_000_000, antiStreak::roll);
+
+        System.out.println();
+        System.out.println("== Parallel dice rolls (" + millis + " ms per run, "
+                + Runtime.getRuntime().availableProcessors() + " cores) ==");
+        System.out.printf("%8s %18s %18s %8s%n", "threads", "shared Random/s", "split streams/s", "speedup");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            run(threads, millis, false); // warm-up
+            double shared = run(threads, millis, false);
+            run(threads, millis, true);
+            double split = run(threads, millis, true);
+            System.out.printf("%8d %18.0f %18.0f %7.2fx%n", threads, shared, split, split / shared);
+        }
+    }
+
+    private static double run(int threads, long millis, boolean split) throws InterruptedException {
+        Random shared = new Random(42);
+        GameRandom seeds = new GameRandom(42);
+        LongAdder rolls = new LongAdder();
+        CountDownLatch go = new CountDownLatch(1);
+        long[] stop = new long[1];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            Dice dice = new Dice(seeds.split());
+            workers[t] = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0;
+                long sum = 0;
+                while (System.nanoTime() < stop[0]) {
+                    for (int i = 0; i < 1024; i++) {
+                        sum += split ? dice.roll() : shared.nextInt(6) + shared.nextInt(6) + 2;
+                    }
+                    n += 1024;
+                }
+                rolls.add(n);
+                Bench.sink += sum;
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        stop[0] = start + millis * 1_000_000L;
+        go.countDown();
+        for (Thread worker : workers) worker.join();
+        return rolls.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
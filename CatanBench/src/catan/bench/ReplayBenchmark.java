@@ -0,0 +1,91 @@
+package catan.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.log.EventLogWriter;
+import catan.log.GameReplay;
+import catan.main.Game;
+import catan.utils.GameRandom;
+
+/**
+ * Seeking in a logged game with {@link GameReplay}: random seeks through the
+ * checkpoints against replaying from the start every time, then batch replay
+ * of archived games on 1..n threads.
+ */
+public class ReplayBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Path dir = Files.createTempDirectory("catan-replay");
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int g = 0; g < games; g++) {
+                Path file = dir.resolve("game" + g + ".log");
+                try (EventLogWriter writer = new EventLogWriter(file)) {
+                    play(g, writer);
+                }
+                files.add(file);
+            }
+
+            Path longest = files.get(0);
+            for (Path file : files) if (Files.size(file) > Files.size(longest)) longest = file;
+            GameReplay checkpointed = new GameReplay(longest, GameReplay.DEFAULT_CHECKPOINT_INTERVAL);
+            GameReplay unindexed = new GameReplay(longest, Integer.MAX_VALUE);
+            long events = checkpointed.getEventCount();
+            System.out.println("== Random seeks in a " + events + "-event game (" + checkpointed.getCheckpointCount()
+                    + " checkpoints, every " + GameReplay.DEFAULT_CHECKPOINT_INTERVAL + " events) ==");
+            GameRandom targets = new GameRandom(1);
+            Bench.Result seek = Bench.measure("seek via checkpoint", ops,
+                    () -> (int) checkpointed.seek(targets.nextInt((int) events)).getStateHash());
+            Bench.Result full = Bench.measure("replay from start", Math.max(1, ops / 20),
+                    () -> (int) unindexed.seek(targets.nextInt((int) events)).getStateHash());
+            System.out.printf("seek: %.3f ms, from start: %.3f ms (%.0fx)%n", seek.meanNanosPerOp / 1e6,
+                    full.meanNanosPerOp / 1e6, full.meanNanosPerOp / seek.meanNanosPerOp);
+
+            System.out.println("== Batch replay of " + games + " games ==");
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                    GameReplay.replayAll(files, Game::getStateHash, executor); // warm-up
+                    long start = System.nanoTime();
+                    GameReplay.replayAll(files, Game::getStateHash, executor);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("%2d threads %10.0f games/s%n", threads, games / seconds);
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        } finally {
+            for (Path file : files) Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void play(long seed, EventLogWriter writer) {
+        GameRandom random = new GameRandom(seed);
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(writer);
+        game.initializeGame(4, random.nextLong());
+        game.reseedRandom(random.nextLong());
+        PlayState state = new PlayState(game);
+        RandomPolicy policy = new RandomPolicy(random.nextLong());
+        for (int actions = 0; !state.isOver() && actions < 20_000; actions++) {
+            if (state.isChance()) {
+                state.roll(2 + random.nextInt(6) + random.nextInt(6));
+            } else {
+                state.apply(policy.chooseAction(state));
+            }
+        }
+    }
+}
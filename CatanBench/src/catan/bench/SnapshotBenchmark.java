@@ -0,0 +1,67 @@
+package catan.bench;
+
+import java.nio.ByteBuffer;
+
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.main.Game;
+import catan.main.GameSnapshot;
+import catan.utils.GameRandom;
+
+/**
+ * Measures {@link GameSnapshot} on a four-player game in the middle of play:
+ * encoding into a reused heap and direct buffer, decoding into a new game, and
+ * the snapshot size. "fork" is the in-memory copy for comparison.
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Game game = midGame(1);
+        ByteBuffer heap = ByteBuffer.allocate(GameSnapshot.maxBytes(game));
+        ByteBuffer direct = ByteBuffer.allocateDirect(GameSnapshot.maxBytes(game));
+        GameSnapshot.write(game, heap);
+        int size = heap.position();
+        heap.flip();
+        ByteBuffer image = heap.duplicate();
+
+        System.out.println("== Game snapshot, 4 players mid-game (" + size + " bytes, " + ops + " ops per round) ==");
+        Bench.Result write = Bench.measure("write (heap)", ops, () -> {
+            heap.clear();
+            GameSnapshot.write(game, heap);
+            return heap.position();
+        });
+        Bench.measure("write (direct)", ops, () -> {
+            direct.clear();
+            GameSnapshot.write(game, direct);
+            return direct.position();
+        });
+        Bench.Result read = Bench.measure("read", ops, () -> {
+            image.rewind();
+            return GameSnapshot.read(image).getPlayers().size();
+        });
+        Bench.Result fork = Bench.measure("fork", ops, () -> game.fork().getPlayers().size());
+
+        System.out.println();
+        System.out.printf("write: %.0f snapshots/s, read: %.0f snapshots/s (fork %.0f/s)%n",
+                write.opsPerSecond(), read.opsPerSecond(), fork.opsPerSecond());
+    }
+
+    /** Plays 400 greedy-random actions of a four-player game. */
+    private static Game midGame(long seed) {
+        Game game = new Game();
+        game.setQuiet(true);
+        game.initializeGame(4, seed);
+        PlayState state = new PlayState(game);
+        RandomPolicy policy = new RandomPolicy(seed);
+        GameRandom dice = new GameRandom(seed);
+        for (int taken = 0; taken < 400 && !state.isOver(); taken++) {
+            if (state.isChance()) {
+                state.roll(2 + dice.nextInt(6) + dice.nextInt(6));
+            } else {
+                state.apply(policy.chooseAction(state));
+            }
+        }
+        return game;
+    }
+}
@@ -0,0 +1,22 @@
+package catan.bench;
+
+import catan.board.BoardTopology;
+
+/**
+ * Measures topology generation for hexagonal boards of growing radius. Time per
+ * hex should stay flat as boards grow (generation is linear in the hex count).
+ */
+public class TopologyScalingBenchmark {
+
+    public static void main(String[] args) {
+        int[] radii = { 2, 10, 20, 40, 80 };
+        System.out.println("== Topology generation ==");
+        for (int radius : radii) {
+            int hexes = 3 * radius * radius + 3 * radius + 1;
+            int ops = Math.max(1, 200_000 / hexes);
+            Bench.Result result = Bench.measure("hexagon(" + radius + "), " + hexes + " hexes", ops,
+                    () -> BoardTopology.hexagon(radius).getEdgeCount());
+            System.out.printf("%-48s %10.1f ns/hex%n", "", result.meanNanosPerOp / hexes);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package catan.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import catan.players.Inventory;
+import catan.resources.Resource;
+import catan.resources.ResourceAccount;
+import catan.resources.ResourcePool;
+import catan.resources.ResourceVector;
+import catan.resources.TransferEngine;
+
+/**
+ * Trades per second through {@link TransferEngine} with 1 to 64 threads,
+ * against the same check-and-move done under one global lock.
+ *
+ * "one game" puts every thread on the four hands and bank of a single game,
+ * the worst case; "own game" gives each thread its own game, so only the
+ * global lock makes them wait on each other.
+ */
+public class TransferContentionBenchmark {
+    private static final Resource[] CARDS = {Resource.WOOD, Resource.BRICK, Resource.WHEAT, Resource.ORE, Resource.SHEEP};
+
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+
+        System.out.println("== Trades/s, striped engine vs one global lock (" + millis + " ms per run, "
+                + Runtime.getRuntime().availableProcessors() + " cores) ==");
+        System.out.printf("%8s %-9s %16s %16s %8s%n", "threads", "accounts", "global lock", "striped", "speedup");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            for (boolean shared : new boolean[] {true, false}) {
+                run(threads, shared, false, millis); // warm-up
+                double locked = run(threads, shared, false, millis);
+                run(threads, shared, true, millis);
+                double striped = run(threads, shared, true, millis);
+                System.out.printf("%8d %-9s %16.0f %16.0f %7.2fx%n", threads, shared ? "one game" : "own game",
+                        locked, striped, striped / locked);
+            }
+        }
+    }
+
+    private static double run(int threads, boolean shared, boolean striped, long millis) throws InterruptedException {
+        TransferEngine engine = new TransferEngine();
+        Object globalLock = new Object();
+        ResourceAccount[][] games = new ResourceAccount[shared ? 1 : threads][];
+        for (int g = 0; g < games.length; g++) games[g] = newGame();
+
+        LongAdder trades = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            ResourceAccount[] accounts = games[shared ? 0 : t];
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                long end = deadline[0];
+                long done = 0;
+                int i = offset;
+                while ((done & 0xFF) != 0 || System.nanoTime() < end) {
+                    // Hands 0-3 trade one card with each other or, when paired with themselves, 4:1 with the bank
+                    ResourceAccount a = accounts[i & 3];
+                    ResourceAccount b = accounts[(i >>> 2) & 3];
+                    long give = ResourceVector.of(CARDS[i % 5], a == b ? 4 : 1);
+                    long take = ResourceVector.of(CARDS[(i + 2) % 5], 1);
+                    if (a == b) b = accounts[4];
+                    if (striped) {
+                        engine.exchange(a, give, b, take);
+                    } else {
+                        synchronized (globalLock) {
+                            if (a.hasEnoughResources(give) && b.hasEnoughResources(take)) {
+                                a.removeResources(give);
+                                b.removeResources(take);
+                                a.addResources(take);
+                                b.addResources(give);
+                            }
+                        }
+                    }
+                    i += 7;
+                    done++;
+                }
+                trades.add(done);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + millis * 1_000_000L;
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        Bench.sink += trades.sum();
+        return trades.sum() / elapsed;
+    }
+
+    /** Four hands of ten cards each and a full bank. */
+    private static ResourceAccount[] newGame() {
+        ResourceAccount[] accounts = new ResourceAccount[5];
+        for (int p = 0; p < 4; p++) {
+            Inventory hand = new Inventory();
+            hand.addResources(ResourceVector.of(2, 2, 2, 2, 2));
+            accounts[p] = hand;
+        }
+        accounts[4] = new ResourcePool();
+        return accounts;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
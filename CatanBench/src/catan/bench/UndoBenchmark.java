@@ -0,0 +1,98 @@
+package catan.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import catan.main.Game;
+import catan.players.Player;
+import catan.utils.IdSet;
+
+/**
+ * Measures make/unmake with the undo journal on a four-player game in the
+ * middle of play, against forking the game for every move.
+ *
+ * The unmake half of each pair must not allocate; the B/op column therefore
+ * shows only what the action itself allocates (the returned piece object,
+ * and the cost map iterator of a build).
+ */
+public class UndoBenchmark {
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+        Game game = midGame(new Random(1));
+        System.setOut(out);
+        game.setUndoEnabled(true);
+
+        Player current = game.getCurrentPlayer();
+        IdSet roads = game.getLegalRoads(current, false);
+        int edge = roads.first();
+        int hex = (game.getRobberHexIndex() + 1) % game.getBoard().getHexCount();
+
+        System.out.println("== Make/unmake, 4 players mid-game (" + ops + " pairs per round) ==");
+        Bench.measure("payout 8 + undo", ops, () -> {
+            int paid = game.applyRollPayouts(8);
+            game.undo();
+            return paid;
+        });
+        Bench.measure("robber move + undo", ops, () -> {
+            game.moveRobberToHex(hex);
+            game.undo();
+            return game.getRobberHexIndex();
+        });
+        Bench.Result road = Bench.measure("build road + undo", ops, () -> {
+            current.getInventory().addResource(catan.resources.Resource.WOOD, 1);
+            current.getInventory().addResource(catan.resources.Resource.BRICK, 1);
+            game.buildRoad(current, edge);
+            game.undo();
+            current.getInventory().removeResource(catan.resources.Resource.WOOD, 1);
+            current.getInventory().removeResource(catan.resources.Resource.BRICK, 1);
+            return game.getLongestRoadLength(current);
+        });
+        Bench.Result fork = Bench.measure("fork + build road", ops / 5, () -> {
+            Game copy = game.fork();
+            Player p = copy.getCurrentPlayer();
+            p.getInventory().addResource(catan.resources.Resource.WOOD, 1);
+            p.getInventory().addResource(catan.resources.Resource.BRICK, 1);
+            copy.buildRoad(p, edge);
+            return copy.getLongestRoadLength(p);
+        });
+
+        System.out.println();
+        System.out.printf("make/unmake vs fork per road: %.1fx faster%n", fork.meanNanosPerOp / road.meanNanosPerOp);
+    }
+
+    /** Plays setup and 30 random turns of a four-player game. */
+    private static Game midGame(Random random) {
+        Game game = new Game();
+        game.initializeGame(4);
+        while (game.isSetupPhase()) {
+            Player current = game.getCurrentPlayer();
+            game.placeSetupSettlement(current, pick(game.getLegalSettlements(current, true), random));
+            game.placeSetupRoad(current, pick(game.getLegalRoads(current, true), random));
+        }
+        for (int turn = 0; turn < 30; turn++) {
+            Player current = game.getCurrentPlayer();
+            int roll = 2 + random.nextInt(6) + random.nextInt(6);
+            if (roll != 7) game.applyRollPayouts(roll);
+            try {
+                IdSet roads = game.getLegalRoads(current, false);
+                if (!roads.isEmpty()) game.buildRoad(current, pick(roads, random));
+            } catch (IllegalArgumentException notAffordable) {
+                // refunded by the game
+            }
+            game.endTurn();
+        }
+        return game;
+    }
+
+    private static int pick(IdSet set, Random random) {
+        return set.get(random.nextInt(set.size()));
+    }
+}
@@ -0,0 +1,96 @@
+package catan.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.log.GroupCommitLog;
+import catan.main.Game;
+import catan.utils.GameRandom;
+
+/**
+ * Committed actions per second through one {@link GroupCommitLog}, with one
+ * game per thread and every action waiting for its group commit, for growing
+ * numbers of concurrent games and two latency bounds. Games that finish are
+ * closed and replaced until the time is up. Ends with the time to recover the
+ * games left open.
+ *
+ * Usage: WalBenchmark [seconds per run] [max games] [directory for the log]
+ */
+public class WalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        int maxGames = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Path dir = args.length > 2 ? Files.createTempDirectory(Paths.get(args[2]), "catan-wal") : Files.createTempDirectory("catan-wal");
+        Path file = dir.resolve("node.wal");
+        try {
+            System.out.println("== Group commit into " + file + " ==");
+            System.out.printf("%-8s %-10s %14s %12s%n", "games", "max delay", "actions/s", "per batch");
+            for (long delayMicros : new long[] {0, 1000}) {
+                for (int games = 1; games <= maxGames; games *= 4) {
+                    Files.deleteIfExists(file);
+                    run(file, games, delayMicros, seconds);
+                }
+            }
+
+            long start = System.nanoTime();
+            GroupCommitLog.Recovery recovered = GroupCommitLog.recover(file);
+            System.out.printf("recovered %d open games (%d failed) from %.1f MB in %.1f ms%n", recovered.getGames().size(),
+                    recovered.getFailures().size(), Files.size(file) / 1e6, (System.nanoTime() - start) / 1e6);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void run(Path file, int games, long delayMicros, double seconds) throws IOException, InterruptedException {
+        AtomicLong nextId = new AtomicLong();
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long records;
+        long batches;
+        long elapsed;
+        try (GroupCommitLog log = new GroupCommitLog(file, TimeUnit.MICROSECONDS.toNanos(delayMicros), GroupCommitLog.DEFAULT_BATCH_BYTES)) {
+            Thread[] threads = new Thread[games];
+            long start = System.nanoTime();
+            for (int t = 0; t < games; t++) {
+                threads[t] = new Thread(() -> {
+                    while (System.nanoTime() < deadline) playGame(log, nextId.getAndIncrement(), deadline);
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) thread.join();
+            elapsed = System.nanoTime() - start;
+            records = log.getCommittedRecords();
+            batches = log.getCommittedBatches();
+        }
+        System.out.printf("%-8d %-10s %14.0f %12.1f%n", games, delayMicros + " us", records / (elapsed / 1e9),
+                records / (double) Math.max(1, batches));
+    }
+
+    private static void playGame(GroupCommitLog log, long id, long deadline) {
+        GroupCommitLog.GameLog gameLog = log.openGame(id);
+        GameRandom random = new GameRandom(id);
+        Game game = new Game();
+        game.setQuiet(true);
+        game.setEventListener(gameLog);
+        game.initializeGame(4, random.nextLong());
+        game.reseedRandom(random.nextLong());
+        PlayState state = new PlayState(game);
+        RandomPolicy policy = new RandomPolicy(random.nextLong());
+        for (int actions = 0; !state.isOver() && actions < 5_000; actions++) {
+            if (System.nanoTime() >= deadline) return; // left open, for recovery
+            if (state.isChance()) {
+                state.roll(2 + random.nextInt(6) + random.nextInt(6));
+            } else {
+                state.apply(policy.chooseAction(state));
+            }
+        }
+        gameLog.close();
+    }
+}
@@ -0,0 +1,27 @@
+package catan.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import catan.board.Board;
+import catan.board.BoardTopology;
+
+/**
+ * Board creation: a new {@link Board} on the shared standard topology, laid
+ * out with the fixed beginner layout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+
+    @Benchmark
+    public Board initializeBoard() {
+        Board board = new Board(BoardTopology.standard());
+        board.initializeBoard();
+        return board;
+    }
+}
@@ -0,0 +1,92 @@
+package catan.jmh;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import catan.main.Game;
+import catan.players.Inventory;
+import catan.players.Trade;
+import catan.resources.Resource;
+
+/**
+ * Hand operations on the mid-game hands: the affordability check and the
+ * pay-and-refund pair of a city, and a two-player trade followed by the
+ * reverse trade so the hands stay the same between invocations. The city
+ * cost is run both as a count map and as a packed {@link Game#CITY_COST}
+ * vector.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class InventoryBenchmark {
+    private static final Map<Resource, Integer> CITY_COST = new EnumMap<>(Resource.class);
+    private static final Map<Resource, Integer> OFFER = new EnumMap<>(Resource.class);
+    private static final Map<Resource, Integer> REQUEST = new EnumMap<>(Resource.class);
+
+    static {
+        CITY_COST.put(Resource.ORE, 3);
+        CITY_COST.put(Resource.WHEAT, 2);
+        OFFER.put(Resource.WOOD, 1);
+        OFFER.put(Resource.BRICK, 1);
+        REQUEST.put(Resource.ORE, 1);
+    }
+
+    private Inventory first;
+    private Inventory second;
+    private Trade trade;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Game game = MidGame.create();
+        first = game.getPlayers().get(0).getInventory();
+        second = game.getPlayers().get(1).getInventory();
+        // Make sure both sides can pay, whatever the position dealt them
+        first.addResource(Resource.ORE, 3);
+        first.addResource(Resource.WHEAT, 2);
+        first.addResource(Resource.WOOD, 1);
+        first.addResource(Resource.BRICK, 1);
+        second.addResource(Resource.ORE, 1);
+        trade = new Trade(game.getResourcePool());
+    }
+
+    @Benchmark
+    public boolean hasEnoughResources() {
+        return first.hasEnoughResources(CITY_COST);
+    }
+
+    @Benchmark
+    public int removeAndAddResources() {
+        first.removeResources(CITY_COST);
+        first.addResources(CITY_COST);
+        return first.getTotalResourceCards();
+    }
+
+    @Benchmark
+    public boolean hasEnoughResourcesVector() {
+        return first.hasEnoughResources(Game.CITY_COST);
+    }
+
+    @Benchmark
+    public int removeAndAddResourcesVector() {
+        first.removeResources(Game.CITY_COST);
+        first.addResources(Game.CITY_COST);
+        return first.getTotalResourceCards();
+    }
+
+    @Benchmark
+    public boolean playerToPlayerTrade() {
+        boolean there = trade.playerToPlayerTrade(first, OFFER, second, REQUEST);
+        boolean back = trade.playerToPlayerTrade(second, OFFER, first, REQUEST);
+        return there & back;
+    }
+}
@@ -0,0 +1,33 @@
+package catan.jmh;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the suites in this package and writes the results as JSON to
+ * {@code jmh-result.json} for release-to-release comparison.
+ *
+ * Arguments are standard JMH options and override the defaults, e.g.
+ * {@code -rf csv -rff results.csv}, {@code -f 1 -wi 2 -i 3}, or a
+ * benchmark regex such as {@code Roll}.
+ */
+public class JmhMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        // Settings made here win over the parent, so defaults are only set where the command line is silent
+        if (cmd.getIncludes().isEmpty()) options.include(JmhMain.class.getPackage().getName() + "\\..*");
+        if (!cmd.getForkCount().hasValue()) options.forks(2);
+        if (!cmd.getWarmupIterations().hasValue()) options.warmupIterations(5);
+        if (!cmd.getMeasurementIterations().hasValue()) options.measurementIterations(5);
+        if (!cmd.getResultFormat().hasValue()) options.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue()) options.result("jmh-result.json");
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,47 @@
+package catan.jmh;
+
+import catan.ai.PlayState;
+import catan.ai.RandomPolicy;
+import catan.main.Game;
+import catan.utils.GameRandom;
+
+/**
+ * Builds the realistic mid-game positions the suites measure: a four-player
+ * game on a seeded random layout, setup done, then a number of turns played
+ * by greedy-random players, so the board holds roads, settlements, cities
+ * and cards in hand. The same seed always gives the same position.
+ */
+final class MidGame {
+    static final long SEED = 2024;
+    static final int TURNS = 40;
+
+    private MidGame() {
+    }
+
+    /** A quiet four-player game at the start of a turn (the dice not yet rolled). */
+    static Game create() {
+        return create(4, TURNS, SEED);
+    }
+
+    static Game create(int players, int turns, long seed) {
+        GameRandom random = new GameRandom(seed);
+        Game game = new Game();
+        game.setQuiet(true);
+        game.initializeGame(players, random.nextLong());
+        game.reseedRandom(random.nextLong());
+
+        PlayState state = new PlayState(game);
+        RandomPolicy policy = new RandomPolicy(random.nextLong());
+        int played = 0;
+        while (!state.isOver() && (played < turns || state.getStep() != PlayState.Step.ROLL)) {
+            if (state.isChance()) {
+                state.roll(2 + random.nextInt(6) + random.nextInt(6));
+                played++;
+            } else {
+                state.apply(policy.chooseAction(state));
+            }
+        }
+        if (state.isOver()) throw new IllegalStateException("Seed " + seed + " finished the game before turn " + turns);
+        return game;
+    }
+}
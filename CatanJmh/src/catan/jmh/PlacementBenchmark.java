@@ -0,0 +1,72 @@
+package catan.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import catan.board.Board;
+import catan.main.Game;
+import catan.players.Player;
+import catan.utils.Validator;
+
+/**
+ * Legal placement queries in the mid-game position, for the player with the
+ * most legal settlement sites and roads:
+ * the list-returning Game methods and the Validator checks they replaced,
+ * swept over every intersection or edge of the board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PlacementBenchmark {
+    private Game game;
+    private Board board;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = MidGame.create();
+        board = game.getBoard();
+        int most = -1;
+        for (Player p : game.getPlayers()) {
+            int options = game.getLegalSettlements(p, false).size() + game.getLegalRoads(p, false).size();
+            if (options > most) {
+                most = options;
+                player = p;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Integer> getValidSettlementPlacements() {
+        return game.getValidSettlementPlacements(player, false);
+    }
+
+    @Benchmark
+    public List<Integer> getValidRoadPlacements() {
+        return game.getValidRoadPlacements(player, false);
+    }
+
+    @Benchmark
+    public void validatorSettlementSweep(Blackhole bh) {
+        for (int i = 0; i < board.getIntersectionCount(); i++) {
+            bh.consume(Validator.isValidSettlementPlacement(board, player, i, false));
+        }
+    }
+
+    @Benchmark
+    public void validatorRoadSweep(Blackhole bh) {
+        for (int e = 0; e < board.getEdgeCount(); e++) {
+            bh.consume(Validator.isValidRoadPlacement(board, player, e));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package catan.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import catan.main.Game;
+
+/**
+ * Resource distribution for a roll in the mid-game position. Each call is
+ * undone afterwards (undo recording is on), so every invocation pays out
+ * from the same bank and hands; the undo is part of the measured time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RollBenchmark {
+
+    @Param({"6", "8", "11"})
+    public int roll;
+
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = MidGame.create();
+        game.setUndoEnabled(true);
+    }
+
+    @Benchmark
+    public String distributeResourcesForRoll() {
+        String report = game.distributeResourcesForRoll(roll);
+        game.undo();
+        return report;
+    }
+
+    /** The same payout without the text report, as bots and simulations use it. */
+    @Benchmark
+    public int applyRollPayouts() {
+        int paid = game.applyRollPayouts(roll);
+        game.undo();
+        return paid;
+    }
+}
@@ -0,0 +1,48 @@
+package catan.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import catan.main.Game;
+import catan.players.Player;
+import catan.resources.Resource;
+
+/**
+ * A robber steal between two mid-game hands, undone after each call. Undo
+ * also restores the random generator, so the generator is advanced by hand
+ * to draw a different card each time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class StealBenchmark {
+    private Game game;
+    private Player thief;
+    private Player victim;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = MidGame.create();
+        game.setUndoEnabled(true);
+        thief = game.getCurrentPlayer();
+        victim = game.getPlayers().get((game.getPlayers().indexOf(thief) + 1) % game.getPlayers().size());
+        victim.getInventory().addResource(Resource.SHEEP, 2);
+    }
+
+    @Benchmark
+    public Resource stealRandomResource() {
+        game.reseedRandom(seed++);
+        Resource stolen = game.stealRandomResource(thief, victim);
+        game.undo();
+        return stolen;
+    }
+}